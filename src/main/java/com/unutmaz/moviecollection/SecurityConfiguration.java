@@ -1,9 +1,12 @@
 package com.unutmaz.moviecollection;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.sql.DataSource;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
@@ -18,7 +21,10 @@ import org.springframework.security.core.userdetails.UserDetailsService;
  * - Permite acesso público a recursos estáticos e páginas de login/registro.
  * - Restringe acesso à listagem de filmes para usuários autenticados com papel 'USER'.
  * - Restringe operações de edição, criação e exclusão de filmes para usuários com papel 'ADMIN'.
+ * - Restringe as operações de escrita da API REST (POST/PUT/PATCH/DELETE em /rest/**) ao papel 'ADMIN'.
  * - Configura formulário de login personalizado e logout.
+ * - Aceita HTTP Basic, para clientes automatizados da API REST (que não usam token CSRF).
+ *   Requisições autenticadas pelo cookie da sessão exigem o token CSRF também em /rest/**.
  * - Usa autenticação baseada em JDBC com dados do banco de dados configurado.
  */
 @Configuration
@@ -48,14 +54,38 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 	@Override
 	protected void configure(HttpSecurity http) throws Exception{
 		http.authorizeRequests()
-			.antMatchers("/**/favicon.ico", "/css/**", "/js/**", "/images/**", "/webjars/**", "/login", "/register").permitAll() // Recursos públicos
+			.antMatchers("/**/favicon.ico", "/css/**", "/js/**", "/images/**", "/posters/**", "/webjars/**", "/login", "/register").permitAll() // Recursos públicos
 			.antMatchers("/movies/list").access("hasRole('USER')") // Apenas usuários com papel USER
 			.antMatchers("/movies/edit/**", "/movies/cast", "/movies/new/**", "/movies/update/**", "/movies/delete/**").access("hasRole('ADMIN')") // Apenas ADMIN
+			.antMatchers("/rest/jobs/**").access("hasRole('ADMIN')") // Jobs de importação: apenas ADMIN
+			.antMatchers("/rest/movie/*/rating", "/rest/lists/**").authenticated() // Avaliações e listas do próprio usuário
+			.antMatchers(HttpMethod.POST, "/rest/**").access("hasRole('ADMIN')") // Escrita via API REST: apenas ADMIN
+			.antMatchers(HttpMethod.PUT, "/rest/**").access("hasRole('ADMIN')")
+			.antMatchers(HttpMethod.PATCH, "/rest/**").access("hasRole('ADMIN')")
+			.antMatchers(HttpMethod.DELETE, "/rest/**").access("hasRole('ADMIN')")
 			.anyRequest().authenticated() // Todas as outras requisições requerem autenticação
 			.and()
 			.formLogin().loginPage("/login") // Página de login personalizada
 			.and()
-			.logout().logoutUrl("/logout").logoutSuccessUrl("/login"); // Configuração de logout
+			.logout().logoutUrl("/logout").logoutSuccessUrl("/login") // Configuração de logout
+			.and()
+			.httpBasic() // Autenticação básica para clientes da API REST
+			.and()
+			.csrf().ignoringRequestMatchers(SecurityConfiguration::isBasicAuthenticated); // Clientes com Basic não dependem do cookie de sessão
+	}
+
+	/**
+	 * Indica se a requisição traz as credenciais no cabeçalho Authorization (Basic).
+	 * Só essas requisições dispensam o token CSRF: um site de terceiros não consegue
+	 * incluir esse cabeçalho num formulário, enquanto o cookie da sessão do login por
+	 * formulário é enviado pelo navegador em qualquer requisição, inclusive em /rest.
+	 *
+	 * @param request Requisição HTTP.
+	 * @return true se houver um cabeçalho Authorization do tipo Basic.
+	 */
+	private static boolean isBasicAuthenticated(HttpServletRequest request) {
+		String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+		return authorization != null && authorization.regionMatches(true, 0, "Basic ", 0, 6);
 	}
 
 	/**
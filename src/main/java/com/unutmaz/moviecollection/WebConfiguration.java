@@ -0,0 +1,102 @@
+package com.unutmaz.moviecollection;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Classe de configuração da camada web (Spring MVC).
+ *
+ * Registra conversores Jackson binários (Smile e CBOR) além do JSON padrão.
+ * O formato da resposta dos endpoints /rest é escolhido pelo cabeçalho Accept:
+ * - application/json (padrão)
+ * - application/x-jackson-smile
+ * - application/cbor
+ *
+ * Os conversores são criados a partir do Jackson2ObjectMapperBuilder do Spring Boot,
+ * de modo que as mesmas configurações do JSON (datas, módulos) valem para os formatos binários.
+ *
+ * Os arquivos estáticos de /js e /css passam pela cadeia de recursos do Spring com
+ * impressão digital do conteúdo: @{/js/movies.js} nos templates vira
+ * /js/movies-{md5}.js (ResourceUrlEncodingFilter), e a resposta é guardada pelo
+ * navegador por um ano sem revalidação (immutable). Uma alteração do arquivo muda a
+ * URL, de modo que as páginas novas nunca usam a versão antiga. A compressão das
+ * respostas (HTML, JSON, CSS e JS) é configurada em server.compression.
+ */
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+
+	/**
+	 * Cache-Control dos arquivos com impressão digital. O CacheControl do Spring 5.3 não
+	 * tem a diretiva immutable, acrescentada aqui ao valor do cabeçalho.
+	 */
+	private static final CacheControl IMMUTABLE = new CacheControl() {
+		private final String value = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().getHeaderValue() + ", immutable";
+
+		@Override
+		public String getHeaderValue() {
+			return value;
+		}
+	};
+
+	/**
+	 * Arquivos estáticos de /js e /css com impressão digital e cache de longo prazo.
+	 *
+	 * @param registry Registro dos handlers de recursos.
+	 */
+	@Override
+	public void addResourceHandlers(ResourceHandlerRegistry registry) {
+		for (String folder : new String[] { "js", "css" }) {
+			registry.addResourceHandler("/" + folder + "/**")
+					.addResourceLocations("classpath:/public/" + folder + "/")
+					.setCacheControl(IMMUTABLE)
+					.resourceChain(true)
+					.addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+		}
+	}
+
+	/**
+	 * Reescreve as URLs dos recursos geradas pelos templates (@{...}) com a impressão digital.
+	 *
+	 * @return Filtro de reescrita.
+	 */
+	@Bean
+	public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+		return new ResourceUrlEncodingFilter();
+	}
+
+	/**
+	 * Conversor Smile (JSON binário do Jackson).
+	 * Por ser um bean, o Spring Boot o usa no lugar do conversor Smile padrão.
+	 *
+	 * @param builder Builder do ObjectMapper configurado pelo Spring Boot.
+	 * @return Conversor para application/x-jackson-smile.
+	 */
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+	}
+
+	/**
+	 * Conversor CBOR (RFC 7049).
+	 *
+	 * @param builder Builder do ObjectMapper configurado pelo Spring Boot.
+	 * @return Conversor para application/cbor.
+	 */
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+	}
+}
@@ -1,10 +1,13 @@
 package com.unutmaz.moviecollection.controller;
 
+import java.security.Principal;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,7 +22,12 @@ import org.springframework.web.servlet.ModelAndView;
 import com.unutmaz.moviecollection.model.Actor;
 import com.unutmaz.moviecollection.model.Movie;
 import com.unutmaz.moviecollection.service.AppService;
+import com.unutmaz.moviecollection.service.MovieDetailAssembler;
+import com.unutmaz.moviecollection.service.SearchStats;
+import com.unutmaz.moviecollection.util.MovieDetails;
 import com.unutmaz.moviecollection.util.MovieFormWrapper;
+import com.unutmaz.moviecollection.util.MoviePage;
+import com.unutmaz.moviecollection.util.MovieQuery;
 import com.unutmaz.moviecollection.util.TextForm;
 
 /**
@@ -32,6 +40,7 @@ import com.unutmaz.moviecollection.util.TextForm;
  * - CRUD completo para filmes (criar, ler, atualizar, deletar).
  * - Gerenciamento do elenco de filmes (adicionar/remover atores).
  * - Busca e ordenação de filmes por nome, categoria, ator e avaliação.
+ * - Listas do usuário (favoritos e assistidos), usadas como filtros da listagem.
  * - Controle de atores (criação e listagem).
  *
  * Usa o AppService para interagir com a camada de serviço e o banco de dados.
@@ -46,6 +55,37 @@ public class AppController {
 	@Autowired
 	private AppService appService;
 
+	/**
+	 * Estatísticas das buscas feitas na listagem.
+	 */
+	@Autowired
+	private SearchStats searchStats;
+
+	/**
+	 * Montagem paralela da página de detalhes.
+	 */
+	@Autowired
+	private MovieDetailAssembler movieDetailAssembler;
+
+	/**
+	 * HTML renderizado das linhas das tabelas e dos blocos da página de detalhes.
+	 */
+	@Autowired
+	private FragmentCache fragmentCache;
+
+	/**
+	 * Tamanho dos blocos da listagem no modo chunked.
+	 */
+	@Value("${moviecollection.listing.chunk-size:200}")
+	private int chunkSize;
+
+	/**
+	 * Tamanho padrão da página da listagem; as páginas seguintes são buscadas pelo
+	 * movies.js em /rest/movies à medida que a tabela é rolada.
+	 */
+	@Value("${moviecollection.listing.page-size:50}")
+	private int pageSize;
+
 	/**
 	 * Redireciona a raiz da aplicação para a lista de filmes.
 	 *
@@ -166,8 +206,9 @@ public class AppController {
 	@GetMapping("/movies/cast")
 	public ModelAndView castControl() {
 		ModelAndView mav = new ModelAndView();
+		long version = fragmentCache.version();
 		List<Actor> actors = appService.findActors();
-		mav.addObject("actors", actors);
+		mav.addObject("actorRows", fragmentCache.actorRows(actors, version));
 		mav.addObject("actor", new Actor());
 		mav.addObject("textForm", new TextForm());
 		mav.setViewName("castEdit");
@@ -187,13 +228,35 @@ public class AppController {
 	}
 
 	/**
-	 * Lista filmes com opções de busca e ordenação.
-	 * Suporta filtros por nome, categoria, ator e ordenação por avaliação, nome ou data.
+	 * Lista filmes com opções de busca, ordenação e paginação.
+	 * Suporta filtros por nome, categoria e ator (exatos ou aproximados) e ordenação por avaliação, nome, data,
+	 * visualizações (popular) ou média das avaliações dos usuários (community).
+	 * A ordenação vem pronta do serviço (permutações pré-calculadas no modelo de leitura,
+	 * ou ORDER BY no banco), sem reordenar a lista a cada requisição. As buscas são
+	 * contadas pelo SearchStats (/actuator/searchstats). As linhas da tabela vêm do
+	 * FragmentCache, já renderizadas.
 	 *
-	 * @param orderBy Parâmetro de ordenação (rating, name, date).
+	 * Por padrão só a primeira página (page-size filmes) é renderizada; o movies.js
+	 * busca as páginas seguintes em /rest/movies durante a rolagem e refaz a tabela
+	 * pela mesma API quando a busca, a ordenação ou os filtros mudam.
+	 *
+	 * No modo chunked (listagens longas), a listagem inteira é exibida, sem paginação:
+	 * os filmes são carregados em blocos de chunk-size à medida que a página é escrita e
+	 * enviada (ver ChunkedRows), e o navegador recebe o cabeçalho e as primeiras linhas
+	 * antes do fim da renderização.
+	 *
+	 * @param orderBy Parâmetro de ordenação (rating, name, date, popular, community).
 	 * @param name Filtro por nome do filme.
 	 * @param category Filtro por categoria.
 	 * @param actor Filtro por nome do ator.
+	 * @param fuzzy Busca aproximada por nome e ator (tolera erros de digitação).
+	 * @param favorites Somente os favoritos do usuário.
+	 * @param hideWatched Sem os filmes assistidos pelo usuário.
+	 * @param page Número da página, a partir de 0.
+	 * @param size Tamanho da página (0 para todos os filmes; ausente, page-size).
+	 * @param chunked Listagem inteira, carregada e enviada em blocos (ignora page e size).
+	 * @param principal Usuário autenticado.
+	 * @param response Resposta, enviada a cada bloco no modo chunked.
 	 * @return ModelAndView com a lista de filmes filtrados e ordenados.
 	 */
 	@RequestMapping("/movies/list")
@@ -201,55 +264,89 @@ public class AppController {
 			@RequestParam(name="orderBy", required=false) String orderBy,
 			@RequestParam(name="name", required=false) String name,
 			@RequestParam(name="category", required=false) String category,
-			@RequestParam(name="actor", required=false) String actor) {
+			@RequestParam(name="actor", required=false) String actor,
+			@RequestParam(name="fuzzy", defaultValue="false") boolean fuzzy,
+			@RequestParam(name="favorites", defaultValue="false") boolean favorites,
+			@RequestParam(name="hideWatched", defaultValue="false") boolean hideWatched,
+			@RequestParam(name="page", defaultValue="0") int page,
+			@RequestParam(name="size", required=false) Integer size,
+			@RequestParam(name="chunked", defaultValue="false") boolean chunked,
+			Principal principal, HttpServletResponse response) {
 
 		ModelAndView mav = new ModelAndView();
-
-		List<Movie> moviesList = appService.findMovies();
-
-		if (name != null) {
-			moviesList = appService.findMoviesByName(name);
-		}
-		else if (category != null) {
-			moviesList = appService.findMoviesByCategory(category);
+		MovieQuery query = new MovieQuery(name, category, actor, fuzzy, favorites, hideWatched, orderBy, page,
+				size != null ? size : pageSize);
+		long version = fragmentCache.version();
+		if (chunked) {
+			String username = principal.getName();
+			MoviePage first = appService.findMovies(query.withPage(0, chunkSize), username);
+			searchStats.record(query, first.getTotal());
+			mav.addObject("total", first.getTotal());
+			mav.addObject("pageSize", 0);
+			mav.addObject("rows", new ChunkedRows(first, chunk -> appService.findMovies(query.withPage(chunk, chunkSize), username),
+					fragmentCache, version, response));
+		} else {
+			MoviePage moviePage = appService.findMovies(query, principal.getName());
+			searchStats.record(query, moviePage.getTotal());
+			mav.addObject("total", moviePage.getTotal());
+			mav.addObject("pageSize", query.getSize());
+			mav.addObject("page", query.getPage());
+			mav.addObject("rows", fragmentCache.movieRows(moviePage.getMovies(), version));
 		}
-		else if (actor != null) {
-			moviesList = appService.findMoviesByActor(actor);
-		}
-		else {
-			moviesList = appService.findMovies();
-		}
-
-		if (orderBy != null) {
-			if (orderBy.equals("rating")) {
-				moviesList.sort(Comparator.comparing(Movie::getRating).reversed());
-			}
-			else if (orderBy.equals("name")) {
-				moviesList.sort(Comparator.comparing(Movie::getName));
-			}
-			else if(orderBy.equals("date")) {
-				moviesList.sort(Comparator.comparing(Movie::getDate).reversed());
-			}
-		}
-		mav.addObject("movies", moviesList);
+		mav.addObject("listingPageSize", pageSize);
+		mav.addObject("fuzzy", fuzzy);
+		mav.addObject("favorites", favorites);
+		mav.addObject("hideWatched", hideWatched);
 		mav.setViewName("index");
 		return mav;
 	}
 
 	/**
-	 * Exibe informações detalhadas de um filme específico, incluindo seu elenco.
+	 * Número de filmes semelhantes exibidos na página de detalhes.
+	 */
+	private static final int SIMILAR_MOVIES = 5;
+
+	/**
+	 * Exibe informações detalhadas de um filme específico, incluindo seu elenco,
+	 * os filmes semelhantes, as listas do usuário e a média dos usuários. As partes
+	 * são carregadas em paralelo pelo MovieDetailAssembler; as que não ficam prontas
+	 * no prazo são omitidas. O resumo e o elenco vêm do FragmentCache, já renderizados.
 	 *
 	 * @param id ID do filme.
-	 * @return ModelAndView com os detalhes do filme e elenco.
+	 * @param principal Usuário autenticado.
+	 * @return ModelAndView com os detalhes do filme, elenco, filmes semelhantes,
+	 *         avaliações e se o filme está nas listas do usuário.
 	 */
 	@RequestMapping(method=RequestMethod.GET, value="/movies/{id}")
-	public ModelAndView getMovieInfo(@PathVariable("id") Long id) {
+	public ModelAndView getMovieInfo(@PathVariable("id") Long id, Principal principal) {
 		ModelAndView mav = new ModelAndView();
-		Movie movie = appService.findMovie(id);
-		List<Actor> actors = new ArrayList<Actor>(movie.getCast());
-		mav.addObject("movie", movie);
-		mav.addObject("cast", actors);
+		long version = fragmentCache.version();
+		MovieDetails details = movieDetailAssembler.assemble(id, principal.getName(), SIMILAR_MOVIES);
+		appService.recordView(id);
+		mav.addObject("movie", details.getMovie());
+		mav.addObject("summary", fragmentCache.summary(details.getMovie(), version));
+		mav.addObject("castInfo", fragmentCache.cast(details.getMovie(), details.getCast(), version));
+		mav.addObject("similar", details.getSimilar());
+		mav.addObject("favorite", details.isFavorite());
+		mav.addObject("watched", details.isWatched());
+		mav.addObject("rating", details.getRating());
 		mav.setViewName("info");
 		return mav;
 	}
+
+	/**
+	 * Inclui ou remove o filme de uma lista do usuário (favoritos ou assistidos).
+	 *
+	 * @param id ID do filme.
+	 * @param list Lista (favorites ou watched).
+	 * @param listed true para incluir, false para remover.
+	 * @param principal Usuário autenticado.
+	 * @return Redirecionamento para a página do filme.
+	 */
+	@PostMapping("/movies/{id}/lists/{list}")
+	public String setListed(@PathVariable("id") Long id, @PathVariable("list") String list,
+			@RequestParam(name="listed") boolean listed, Principal principal) {
+		appService.setListed(principal.getName(), list, id, listed);
+		return "redirect:/movies/" + id;
+	}
 }
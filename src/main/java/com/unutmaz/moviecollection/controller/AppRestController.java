@@ -1,22 +1,67 @@
 package com.unutmaz.moviecollection.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import com.unutmaz.moviecollection.exception.ActorNotFoundException;
 import com.unutmaz.moviecollection.exception.MovieNotFoundException;
+import com.unutmaz.moviecollection.model.Actor;
 import com.unutmaz.moviecollection.model.Movie;
+import com.unutmaz.moviecollection.readmodel.ActorGraph;
+import com.unutmaz.moviecollection.readmodel.SimilarMovies;
 import com.unutmaz.moviecollection.service.AppService;
+import com.unutmaz.moviecollection.service.CatalogueEventBroadcaster;
+import com.unutmaz.moviecollection.service.ImportJobs;
+import com.unutmaz.moviecollection.service.PosterStore;
+import com.unutmaz.moviecollection.service.SearchStats;
+import com.unutmaz.moviecollection.util.ActorPath;
+import com.unutmaz.moviecollection.util.BatchResult;
+import com.unutmaz.moviecollection.util.CatalogueStats;
+import com.unutmaz.moviecollection.util.ChangeSet;
+import com.unutmaz.moviecollection.util.CoStar;
+import com.unutmaz.moviecollection.util.CommunityRating;
+import com.unutmaz.moviecollection.util.ImportJob;
+import com.unutmaz.moviecollection.util.MoviePage;
+import com.unutmaz.moviecollection.util.MovieQuery;
+import com.unutmaz.moviecollection.util.MovieRow;
+import com.unutmaz.moviecollection.util.Poster;
+import com.unutmaz.moviecollection.util.UserMovieLists;
 
 /**
  * Controlador REST da aplicação Movie Collection.
@@ -24,9 +69,39 @@ import com.unutmaz.moviecollection.service.AppService;
  * Permite operações de leitura (GET) para filmes, retornando dados em formato JSON.
  *
  * Funcionalidades:
- * - Listar todos os filmes (/rest/movies).
+ * - Listar todos os filmes (/rest/movies), ou apenas alguns (?ids=1,2,3),
+ *   com seleção de propriedades (?fields=id,name,rating).
+ * - Listagem paginada em linhas leves (/rest/movies?size=50&page=0, com os filtros
+ *   e a ordenação de /movies/list), usada pela tabela do movies.js.
  * - Obter detalhes de um filme específico por ID (/rest/movie/{id}).
+ * - Filmes semelhantes a um filme (/rest/movie/{id}/similar?k=10).
+ * - Avaliação do filme pelo usuário autenticado (GET/PUT/DELETE em
+ *   /rest/movie/{id}/rating), com a média das avaliações dos usuários.
+ * - Listas do usuário autenticado (/rest/lists) e inclusão ou remoção de filmes
+ *   (PUT/DELETE em /rest/lists/{favorites|watched}/{id}).
+ * - Estatísticas do catálogo (/rest/stats?top=10).
+ * - Ligação entre dois atores (/rest/actors/{a}/path/{b}) e colegas de elenco
+ *   até N passos (/rest/actors/{id}/costars?depth=1).
+ *
+ * - Exportar todos os filmes em streaming (/rest/movies/export), em JSON, Smile ou CBOR.
+ *
+ * - Criar, substituir, alterar parcialmente e excluir filmes e atores em lote
+ *   (POST/PUT/PATCH/DELETE em /rest/movies e /rest/actors). Cada requisição recebe
+ *   um array e é executada numa única transação; a resposta traz o resultado de cada item.
+ *
+ * - Sincronização incremental (/rest/changes?since=N&limit=M): apenas os filmes e
+ *   atores alterados ou excluídos desde a versão N.
+ * - Feed de alterações em tempo real (/rest/events), via Server-Sent Events.
  *
+ * - Pôsteres locais: upload (POST /rest/posters), importação de um arquivo da pasta
+ *   de importação (POST /rest/posters/import?file=...) e uso como imagem de um filme
+ *   (PUT /rest/movie/{id}/poster?poster={ID}).
+ *
+ * - Importação em massa assíncrona (POST /rest/jobs, com um filme em JSON por linha):
+ *   progresso em /rest/jobs/{id}, cancelamento (POST /rest/jobs/{id}/cancel), retomada
+ *   (POST /rest/jobs/{id}/resume) e exclusão (DELETE /rest/jobs/{id}).
+ *
+ * O formato das respostas é negociado pelo cabeçalho Accept (ver WebConfiguration).
  * Trata exceções como MovieNotFoundException e retorna códigos de status HTTP apropriados.
  */
 @RestController
@@ -41,16 +116,200 @@ public class AppRestController {
 	private AppService appService;
 
 	/**
-	 * Retorna uma lista de todos os filmes disponíveis.
+	 * Distribuidor das alterações do catálogo aos assinantes de /rest/events.
+	 */
+	@Autowired
+	private CatalogueEventBroadcaster eventBroadcaster;
+
+	/**
+	 * Estatísticas das buscas feitas na listagem.
+	 */
+	@Autowired
+	private SearchStats searchStats;
+
+	/**
+	 * Armazenamento dos pôsteres locais.
+	 */
+	@Autowired
+	private PosterStore posterStore;
+
+	/**
+	 * Jobs de importação em massa.
+	 */
+	@Autowired
+	private ImportJobs importJobs;
+
+	/**
+	 * Conversores Jackson usados pela exportação em streaming, em ordem de preferência
+	 * quando o cliente aceita qualquer formato.
+	 */
+	private final List<AbstractJackson2HttpMessageConverter> exportConverters;
+
+	/**
+	 * Número de filmes carregados por consulta durante a exportação.
+	 */
+	private static final int EXPORT_PAGE_SIZE = 500;
+
+	/**
+	 * Cabeçalho com o total da listagem paginada de /rest/movies.
+	 */
+	static final String TOTAL_COUNT = "X-Total-Count";
+
+	/**
+	 * Número máximo de alterações devolvidas por chamada a /rest/changes.
+	 */
+	private static final int MAX_CHANGES = 1000;
+
+	/**
+	 * Construtor que recebe os conversores JSON, Smile e CBOR registrados.
+	 *
+	 * @param json Conversor JSON do Spring Boot.
+	 * @param smile Conversor Smile.
+	 * @param cbor Conversor CBOR.
+	 */
+	public AppRestController(MappingJackson2HttpMessageConverter json,
+			MappingJackson2SmileHttpMessageConverter smile,
+			MappingJackson2CborHttpMessageConverter cbor) {
+		this.exportConverters = Arrays.asList(json, smile, cbor);
+	}
+
+	/**
+	 * Retorna uma lista de filmes.
+	 * Com o parâmetro ids, retorna apenas os filmes pedidos (uma única consulta IN).
+	 * Com o parâmetro fields (ex: id,name,rating), apenas essas propriedades são
+	 * consultadas e serializadas.
+	 *
+	 * Com o parâmetro size, retorna uma página da listagem de /movies/list (mesmos
+	 * filtros, listas do usuário e ordenação) em linhas leves (MovieRow), com o total da
+	 * listagem no cabeçalho X-Total-Count. A primeira página de cada busca é contada
+	 * pelo SearchStats, as seguintes (rolagem) não.
 	 *
-	 * @return ResponseEntity contendo a lista de filmes e status HTTP 200 (OK).
+	 * @param ids IDs dos filmes desejados (opcional).
+	 * @param fields Propriedades desejadas de cada filme (opcional).
+	 * @param size Tamanho da página (opcional, limitado a MovieQuery.MAX_SIZE).
+	 * @param page Número da página, a partir de 0.
+	 * @param name Filtro por nome do filme.
+	 * @param category Filtro por categoria.
+	 * @param actor Filtro por nome do ator.
+	 * @param fuzzy Busca aproximada por nome e ator.
+	 * @param favorites Somente os favoritos do usuário.
+	 * @param hideWatched Sem os filmes assistidos pelo usuário.
+	 * @param orderBy Ordenação (rating, name, date, popular, community).
+	 * @param principal Usuário autenticado.
+	 * @return ResponseEntity contendo a lista de filmes e status HTTP 200 (OK),
+	 *         ou 400 (Bad Request) se algum campo for desconhecido.
 	 */
 	@RequestMapping(method=RequestMethod.GET, value="/movies")
-	public ResponseEntity<List<Movie>> getMovies(){
-		List<Movie> movies = appService.findMovies();
+	public ResponseEntity<List<?>> getMovies(
+			@RequestParam(name="ids", required=false) List<Long> ids,
+			@RequestParam(name="fields", required=false) List<String> fields,
+			@RequestParam(name="size", required=false) Integer size,
+			@RequestParam(name="page", defaultValue="0") int page,
+			@RequestParam(name="name", required=false) String name,
+			@RequestParam(name="category", required=false) String category,
+			@RequestParam(name="actor", required=false) String actor,
+			@RequestParam(name="fuzzy", defaultValue="false") boolean fuzzy,
+			@RequestParam(name="favorites", defaultValue="false") boolean favorites,
+			@RequestParam(name="hideWatched", defaultValue="false") boolean hideWatched,
+			@RequestParam(name="orderBy", required=false) String orderBy,
+			Principal principal){
+		if (size != null && size > 0) {
+			MovieQuery query = new MovieQuery(name, category, actor, fuzzy, favorites, hideWatched, orderBy, page, size);
+			MoviePage moviePage = appService.findMovies(query, principal.getName());
+			if (query.getPage() == 0) {
+				searchStats.record(query, moviePage.getTotal());
+			}
+			List<MovieRow> rows = moviePage.getMovies().stream().map(MovieRow::new).collect(Collectors.toList());
+			return ResponseEntity.ok().header(TOTAL_COUNT, Long.toString(moviePage.getTotal())).body(rows);
+		}
+		if (fields != null && !fields.isEmpty()) {
+			try {
+				return ResponseEntity.ok(appService.findMovieFields(ids, fields));
+			} catch (IllegalArgumentException ex) {
+				return ResponseEntity.badRequest().build();
+			}
+		}
+		List<Movie> movies = ids != null ? appService.findMovies(ids) : appService.findMovies();
 		return ResponseEntity.ok(movies);
 	}
 
+	/**
+	 * Busca filmes com filtros, ordenação e paginação, como a listagem /movies/list.
+	 * Com fuzzy=true, os filtros por nome e ator toleram erros de digitação
+	 * ("Morgon Freeman") e, sem orderBy, os filmes vêm do mais parecido ao menos.
+	 *
+	 * @param name Parte do nome do filme (opcional).
+	 * @param category Categoria (opcional).
+	 * @param actor Parte do nome de um ator (opcional).
+	 * @param fuzzy Busca aproximada por nome e ator.
+	 * @param orderBy Ordenação (opcional).
+	 * @param page Número da página, a partir de 0.
+	 * @param size Tamanho da página (0 para todos).
+	 * @return ResponseEntity com a página de filmes e status HTTP 200 (OK).
+	 */
+	@RequestMapping(method=RequestMethod.GET, value="/movies/search")
+	public ResponseEntity<MoviePage> searchMovies(
+			@RequestParam(name="name", required=false) String name,
+			@RequestParam(name="category", required=false) String category,
+			@RequestParam(name="actor", required=false) String actor,
+			@RequestParam(name="fuzzy", defaultValue="false") boolean fuzzy,
+			@RequestParam(name="orderBy", required=false) String orderBy,
+			@RequestParam(name="page", defaultValue="0") int page,
+			@RequestParam(name="size", defaultValue="20") int size){
+		return ResponseEntity.ok(appService.findMovies(
+				new MovieQuery(name, category, actor, fuzzy, false, false, orderBy, page, size)));
+	}
+
+	/**
+	 * Exporta todos os filmes em streaming, página a página, sem montar a lista
+	 * inteira em memória. O formato (JSON, Smile ou CBOR) segue o cabeçalho Accept.
+	 *
+	 * @param accept Cabeçalho Accept da requisição.
+	 * @return Corpo em streaming com o array de filmes, ou 406 (Not Acceptable).
+	 */
+	@RequestMapping(method=RequestMethod.GET, value="/movies/export")
+	public ResponseEntity<StreamingResponseBody> exportMovies(
+			@RequestHeader(name=HttpHeaders.ACCEPT, required=false) String accept){
+		List<MediaType> accepted = accept == null ? Arrays.asList(MediaType.ALL) : MediaType.parseMediaTypes(accept);
+		MediaType.sortBySpecificityAndQuality(accepted);
+		for (MediaType type : accepted) {
+			for (AbstractJackson2HttpMessageConverter converter : exportConverters) {
+				for (MediaType supported : converter.getSupportedMediaTypes()) {
+					if (type.isCompatibleWith(supported) && supported.isConcrete()) {
+						return ResponseEntity.ok().contentType(supported).body(streamMovies(converter.getObjectMapper()));
+					}
+				}
+			}
+		}
+		return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+	}
+
+	/**
+	 * Cria o corpo da exportação: um array com todos os filmes, lidos em páginas
+	 * de EXPORT_PAGE_SIZE e escritos diretamente no gerador do formato escolhido.
+	 *
+	 * @param mapper ObjectMapper do formato negociado.
+	 * @return Corpo em streaming.
+	 */
+	private StreamingResponseBody streamMovies(ObjectMapper mapper) {
+		ObjectWriter writer = mapper.writerFor(Movie.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		return out -> {
+			try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+				generator.writeStartArray();
+				Long afterId = null;
+				List<Movie> page;
+				do {
+					page = appService.findMoviesAfter(afterId, EXPORT_PAGE_SIZE);
+					for (Movie movie : page) {
+						writer.writeValue(generator, movie);
+						afterId = movie.getId();
+					}
+				} while (page.size() == EXPORT_PAGE_SIZE);
+				generator.writeEndArray();
+			}
+		};
+	}
+
 	/**
 	 * Retorna os detalhes de um filme específico identificado pelo ID.
 	 *
@@ -61,6 +320,7 @@ public class AppRestController {
 	public ResponseEntity<Movie> getMovie(@PathVariable("id") Long id){
 		try {
 			Movie movie = appService.findMovie(id);
+			appService.recordView(id);
 			return ResponseEntity.ok(movie);
 		} catch (MovieNotFoundException ex) {
 			return ResponseEntity.notFound().build();
@@ -69,4 +329,474 @@ public class AppRestController {
 		}
 	}
 
+	/**
+	 * Retorna os filmes mais semelhantes a um filme (atores em comum e categoria).
+	 *
+	 * @param id ID do filme.
+	 * @param k Número de filmes (1 a SimilarMovies.MAX_K).
+	 * @return ResponseEntity com os filmes semelhantes (200), 400 se k for inválido
+	 *         ou 404 se o filme não existir.
+	 */
+	@RequestMapping(method=RequestMethod.GET, value="/movie/{id}/similar")
+	public ResponseEntity<List<Movie>> getSimilarMovies(@PathVariable("id") Long id,
+			@RequestParam(name="k", defaultValue="10") int k){
+		if (k <= 0 || k > SimilarMovies.MAX_K) {
+			return ResponseEntity.badRequest().build();
+		}
+		try {
+			return ResponseEntity.ok(appService.findSimilarMovies(id, k));
+		} catch (MovieNotFoundException ex) {
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	/**
+	 * Retorna a média das avaliações dos usuários para um filme e a avaliação do
+	 * usuário autenticado.
+	 *
+	 * @param id ID do filme.
+	 * @param principal Usuário autenticado.
+	 * @return ResponseEntity com a avaliação (200) ou 404 se o filme não existir.
+	 */
+	@RequestMapping(method=RequestMethod.GET, value="/movie/{id}/rating")
+	public ResponseEntity<CommunityRating> getRating(@PathVariable("id") Long id, Principal principal){
+		try {
+			return ResponseEntity.ok(appService.findRating(principal.getName(), id));
+		} catch (MovieNotFoundException ex) {
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	/**
+	 * Grava a avaliação do usuário autenticado para um filme. Corpo: {"rating": 8.5}.
+	 *
+	 * @param id ID do filme.
+	 * @param body Objeto com a avaliação (de 0 a 10).
+	 * @param principal Usuário autenticado.
+	 * @return ResponseEntity com a nova média (200), 400 se a avaliação for inválida
+	 *         ou 404 se o filme não existir.
+	 */
+	@RequestMapping(method=RequestMethod.PUT, value="/movie/{id}/rating")
+	public ResponseEntity<CommunityRating> rateMovie(@PathVariable("id") Long id,
+			@RequestBody Map<String, Object> body, Principal principal){
+		Object rating = body.get("rating");
+		if (!(rating instanceof Number)) {
+			return ResponseEntity.badRequest().build();
+		}
+		try {
+			return ResponseEntity.ok(appService.rateMovie(principal.getName(), id, ((Number) rating).doubleValue()));
+		} catch (MovieNotFoundException ex) {
+			return ResponseEntity.notFound().build();
+		} catch (IllegalArgumentException ex) {
+			return ResponseEntity.badRequest().build();
+		}
+	}
+
+	/**
+	 * Remove a avaliação do usuário autenticado para um filme.
+	 *
+	 * @param id ID do filme.
+	 * @param principal Usuário autenticado.
+	 * @return ResponseEntity com a nova média (200) ou 404 se o filme não existir.
+	 */
+	@RequestMapping(method=RequestMethod.DELETE, value="/movie/{id}/rating")
+	public ResponseEntity<CommunityRating> deleteRating(@PathVariable("id") Long id, Principal principal){
+		try {
+			return ResponseEntity.ok(appService.deleteRating(principal.getName(), id));
+		} catch (MovieNotFoundException ex) {
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	/**
+	 * Guarda um pôster enviado por upload (multipart, campo file).
+	 *
+	 * @param file Imagem JPEG, PNG ou GIF.
+	 * @return 201 (Created) com o ID e as URLs do pôster, ou 400 (Bad Request) se o
+	 *         arquivo não for uma imagem aceita.
+	 */
+	@RequestMapping(method=RequestMethod.POST, value="/posters")
+	public ResponseEntity<Poster> uploadPoster(@RequestParam("file") MultipartFile file){
+		try (InputStream in = file.getInputStream()) {
+			return created(new Poster(posterStore.store(in)));
+		} catch (IllegalArgumentException ex) {
+			return ResponseEntity.badRequest().build();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Guarda um pôster a partir de um arquivo local da pasta de importação
+	 * (moviecollection.posters.import-dir).
+	 *
+	 * @param file Caminho do arquivo, relativo à pasta de importação.
+	 * @return 201 (Created) com o ID e as URLs do pôster, ou 400 (Bad Request) se o
+	 *         arquivo não existir na pasta ou não for uma imagem aceita.
+	 */
+	@RequestMapping(method=RequestMethod.POST, value="/posters/import")
+	public ResponseEntity<Poster> importPoster(@RequestParam("file") String file){
+		try {
+			return created(new Poster(posterStore.importFile(file)));
+		} catch (IllegalArgumentException ex) {
+			return ResponseEntity.badRequest().build();
+		}
+	}
+
+	private static ResponseEntity<Poster> created(Poster poster) {
+		return ResponseEntity.created(ServletUriComponentsBuilder.fromCurrentContextPath().path(poster.getUrl()).build().toUri())
+				.body(poster);
+	}
+
+	/**
+	 * Usa um pôster local como imagem de um filme (Movie.image passa a ser a URL local).
+	 *
+	 * @param id ID do filme.
+	 * @param poster ID do pôster.
+	 * @return Resultado da alteração, ou 404 (Not Found) se o pôster ou o filme não existir.
+	 */
+	@RequestMapping(method=RequestMethod.PUT, value="/movie/{id}/poster")
+	public ResponseEntity<BatchResult> setPoster(@PathVariable("id") Long id, @RequestParam("poster") String poster){
+		if (posterStore.original(poster) == null) {
+			return ResponseEntity.notFound().build();
+		}
+		BatchResult result = appService.patchMovies(List.of(Map.of("id", id, "image", PosterStore.url(poster)))).get(0);
+		if (BatchResult.NOT_FOUND.equals(result.getStatus())) {
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok(result);
+	}
+
+	/**
+	 * Recebe um arquivo de importação (um filme em JSON por linha) no corpo da
+	 * requisição, grava-o em disco e coloca o job na fila. A importação é feita em
+	 * segundo plano; a requisição termina assim que o arquivo é gravado.
+	 *
+	 * @param name Nome do job (opcional).
+	 * @param request Requisição, cujo corpo é o arquivo.
+	 * @return 202 (Accepted) com o estado do job e o cabeçalho Location, ou 400
+	 *         (Bad Request) se o arquivo for grande demais.
+	 * @throws IOException Se houver erro de leitura do corpo.
+	 */
+	@RequestMapping(method=RequestMethod.POST, value="/jobs")
+	public ResponseEntity<ImportJob> submitJob(@RequestParam(value="name", required=false) String name,
+			HttpServletRequest request) throws IOException {
+		try {
+			ImportJob job = importJobs.submit(request.getInputStream(), name);
+			return ResponseEntity.accepted()
+					.location(ServletUriComponentsBuilder.fromCurrentContextPath().path("/rest/jobs/{id}").buildAndExpand(job.getId()).toUri())
+					.body(job);
+		} catch (IllegalArgumentException ex) {
+			return ResponseEntity.badRequest().build();
+		}
+	}
+
+	/**
+	 * Lista os jobs de importação.
+	 *
+	 * @return Estado de cada job.
+	 */
+	@RequestMapping(method=RequestMethod.GET, value="/jobs")
+	public List<ImportJob> getJobs(){
+		return importJobs.findAll();
+	}
+
+	/**
+	 * Progresso de um job de importação: linhas, filmes criados, erros, linhas por
+	 * segundo e tempo restante estimado.
+	 *
+	 * @param id ID do job.
+	 * @return Estado do job, ou 404 (Not Found).
+	 */
+	@RequestMapping(method=RequestMethod.GET, value="/jobs/{id}")
+	public ResponseEntity<ImportJob> getJob(@PathVariable("id") String id){
+		ImportJob job = importJobs.find(id);
+		return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+	}
+
+	/**
+	 * Cancela um job de importação; um job em execução para depois do lote atual.
+	 *
+	 * @param id ID do job.
+	 * @return Estado do job, 404 (Not Found), ou 409 (Conflict) se o job já terminou.
+	 */
+	@RequestMapping(method=RequestMethod.POST, value="/jobs/{id}/cancel")
+	public ResponseEntity<ImportJob> cancelJob(@PathVariable("id") String id){
+		try {
+			ImportJob job = importJobs.cancel(id);
+			return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+		} catch (IllegalStateException ex) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		}
+	}
+
+	/**
+	 * Retoma um job de importação cancelado ou que falhou.
+	 *
+	 * @param id ID do job.
+	 * @return 202 (Accepted) com o estado do job, 404 (Not Found), ou 409 (Conflict) se
+	 *         o job não puder ser retomado.
+	 */
+	@RequestMapping(method=RequestMethod.POST, value="/jobs/{id}/resume")
+	public ResponseEntity<ImportJob> resumeJob(@PathVariable("id") String id){
+		try {
+			ImportJob job = importJobs.resume(id);
+			return job == null ? ResponseEntity.notFound().build() : ResponseEntity.accepted().body(job);
+		} catch (IllegalStateException ex) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		}
+	}
+
+	/**
+	 * Exclui um job de importação que não está em execução (os filmes importados ficam).
+	 *
+	 * @param id ID do job.
+	 * @return 204 (No Content), 404 (Not Found), ou 409 (Conflict) se o job estiver na
+	 *         fila ou em execução.
+	 */
+	@RequestMapping(method=RequestMethod.DELETE, value="/jobs/{id}")
+	public ResponseEntity<Void> deleteJob(@PathVariable("id") String id){
+		try {
+			return importJobs.delete(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+		} catch (IllegalStateException ex) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		}
+	}
+
+	/**
+	 * Retorna as listas de filmes (favoritos e assistidos) do usuário autenticado.
+	 *
+	 * @param principal Usuário autenticado.
+	 * @return ResponseEntity com os IDs dos filmes de cada lista.
+	 */
+	@RequestMapping(method=RequestMethod.GET, value="/lists")
+	public ResponseEntity<UserMovieLists> getLists(Principal principal){
+		return ResponseEntity.ok(appService.findLists(principal.getName()));
+	}
+
+	/**
+	 * Inclui um filme numa lista do usuário autenticado.
+	 *
+	 * @param list Lista (favorites ou watched).
+	 * @param id ID do filme.
+	 * @param principal Usuário autenticado.
+	 * @return ResponseEntity com as listas (200), 400 se a lista não existir ou 404 se o filme não existir.
+	 */
+	@RequestMapping(method=RequestMethod.PUT, value="/lists/{list}/{id}")
+	public ResponseEntity<UserMovieLists> addToList(@PathVariable("list") String list, @PathVariable("id") Long id,
+			Principal principal){
+		return setListed(list, id, true, principal);
+	}
+
+	/**
+	 * Remove um filme de uma lista do usuário autenticado.
+	 *
+	 * @param list Lista (favorites ou watched).
+	 * @param id ID do filme.
+	 * @param principal Usuário autenticado.
+	 * @return ResponseEntity com as listas (200), 400 se a lista não existir ou 404 se o filme não existir.
+	 */
+	@RequestMapping(method=RequestMethod.DELETE, value="/lists/{list}/{id}")
+	public ResponseEntity<UserMovieLists> removeFromList(@PathVariable("list") String list, @PathVariable("id") Long id,
+			Principal principal){
+		return setListed(list, id, false, principal);
+	}
+
+	private ResponseEntity<UserMovieLists> setListed(String list, Long id, boolean listed, Principal principal){
+		if (!UserMovieLists.NAMES.contains(list)) {
+			return ResponseEntity.badRequest().build();
+		}
+		try {
+			return ResponseEntity.ok(appService.setListed(principal.getName(), list, id, listed));
+		} catch (MovieNotFoundException ex) {
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	/**
+	 * Retorna as estatísticas do catálogo (calculadas uma vez por versão do catálogo).
+	 *
+	 * @param top Tamanho dos rankings de atores (1 a CatalogueStats.MAX_TOP).
+	 * @return ResponseEntity com as estatísticas (200) ou 400 se top for inválido.
+	 */
+	@RequestMapping(method=RequestMethod.GET, value="/stats")
+	public ResponseEntity<CatalogueStats> getStats(@RequestParam(name="top", defaultValue="10") int top){
+		if (top <= 0 || top > CatalogueStats.MAX_TOP) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(appService.findStats(top));
+	}
+
+	/**
+	 * Retorna a ligação mais curta entre dois atores, por filmes em comum.
+	 *
+	 * @param from ID do primeiro ator.
+	 * @param to ID do segundo ator.
+	 * @return ResponseEntity com o caminho (200, connected false se não houver ligação)
+	 *         ou 404 se um dos atores não existir.
+	 */
+	@RequestMapping(method=RequestMethod.GET, value="/actors/{from}/path/{to}")
+	public ResponseEntity<ActorPath> getActorPath(@PathVariable("from") Long from, @PathVariable("to") Long to){
+		try {
+			return ResponseEntity.ok(appService.findActorPath(from, to));
+		} catch (ActorNotFoundException ex) {
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	/**
+	 * Retorna os atores a até depth passos de um ator (1 = atuaram no mesmo filme).
+	 *
+	 * @param id ID do ator.
+	 * @param depth Profundidade (1 a ActorGraph.MAX_DEPTH).
+	 * @return ResponseEntity com os atores (200), 400 se depth for inválido
+	 *         ou 404 se o ator não existir.
+	 */
+	@RequestMapping(method=RequestMethod.GET, value="/actors/{id}/costars")
+	public ResponseEntity<List<CoStar>> getCoStars(@PathVariable("id") Long id,
+			@RequestParam(name="depth", defaultValue="1") int depth){
+		if (depth <= 0 || depth > ActorGraph.MAX_DEPTH) {
+			return ResponseEntity.badRequest().build();
+		}
+		try {
+			return ResponseEntity.ok(appService.findCoStars(id, depth));
+		} catch (ActorNotFoundException ex) {
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	/**
+	 * Cria vários filmes. O elenco é informado como [{"actor_id": 1}, ...].
+	 *
+	 * @param movies Filmes a serem criados.
+	 * @return Resultado de cada item.
+	 */
+	@RequestMapping(method=RequestMethod.POST, value="/movies")
+	public ResponseEntity<List<BatchResult>> createMovies(@RequestBody List<Movie> movies){
+		return ResponseEntity.ok(appService.createMovies(movies));
+	}
+
+	/**
+	 * Substitui por completo vários filmes.
+	 *
+	 * @param movies Filmes com ID e todos os dados.
+	 * @return Resultado de cada item.
+	 */
+	@RequestMapping(method=RequestMethod.PUT, value="/movies")
+	public ResponseEntity<List<BatchResult>> updateMovies(@RequestBody List<Movie> movies){
+		return ResponseEntity.ok(appService.updateMovies(movies));
+	}
+
+	/**
+	 * Altera apenas as propriedades informadas de vários filmes.
+	 *
+	 * @param patches Itens com "id" e as propriedades a alterar.
+	 * @return Resultado de cada item.
+	 */
+	@RequestMapping(method=RequestMethod.PATCH, value="/movies")
+	public ResponseEntity<List<BatchResult>> patchMovies(@RequestBody List<Map<String, Object>> patches){
+		return ResponseEntity.ok(appService.patchMovies(patches));
+	}
+
+	/**
+	 * Exclui vários filmes. Os IDs podem vir no corpo (array) ou no parâmetro ids.
+	 *
+	 * @param body IDs no corpo da requisição (opcional).
+	 * @param ids IDs no parâmetro da URL (opcional).
+	 * @return Resultado de cada ID.
+	 */
+	@RequestMapping(method=RequestMethod.DELETE, value="/movies")
+	public ResponseEntity<List<BatchResult>> deleteMovies(
+			@RequestBody(required=false) List<Long> body,
+			@RequestParam(name="ids", required=false) List<Long> ids){
+		Collection<Long> toDelete = body != null ? body : ids;
+		if (toDelete == null) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(appService.deleteMovies(toDelete));
+	}
+
+	/**
+	 * Cria vários atores.
+	 *
+	 * @param actors Atores a serem criados.
+	 * @return Resultado de cada item.
+	 */
+	@RequestMapping(method=RequestMethod.POST, value="/actors")
+	public ResponseEntity<List<BatchResult>> createActors(@RequestBody List<Actor> actors){
+		return ResponseEntity.ok(appService.createActors(actors));
+	}
+
+	/**
+	 * Substitui vários atores.
+	 *
+	 * @param actors Atores com ID e nome.
+	 * @return Resultado de cada item.
+	 */
+	@RequestMapping(method=RequestMethod.PUT, value="/actors")
+	public ResponseEntity<List<BatchResult>> updateActors(@RequestBody List<Actor> actors){
+		return ResponseEntity.ok(appService.updateActors(actors));
+	}
+
+	/**
+	 * Altera apenas as propriedades informadas de vários atores.
+	 *
+	 * @param patches Itens com "actor_id" e as propriedades a alterar.
+	 * @return Resultado de cada item.
+	 */
+	@RequestMapping(method=RequestMethod.PATCH, value="/actors")
+	public ResponseEntity<List<BatchResult>> patchActors(@RequestBody List<Map<String, Object>> patches){
+		return ResponseEntity.ok(appService.patchActors(patches));
+	}
+
+	/**
+	 * Exclui vários atores. Os IDs podem vir no corpo (array) ou no parâmetro ids.
+	 *
+	 * @param body IDs no corpo da requisição (opcional).
+	 * @param ids IDs no parâmetro da URL (opcional).
+	 * @return Resultado de cada ID.
+	 */
+	@RequestMapping(method=RequestMethod.DELETE, value="/actors")
+	public ResponseEntity<List<BatchResult>> deleteActors(
+			@RequestBody(required=false) List<Long> body,
+			@RequestParam(name="ids", required=false) List<Long> ids){
+		Collection<Long> toDelete = body != null ? body : ids;
+		if (toDelete == null) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(appService.deleteActors(toDelete));
+	}
+
+	/**
+	 * Retorna as alterações do catálogo desde a versão informada.
+	 * O consumidor começa com since=0 e, a cada chamada, usa o campo "next"
+	 * da resposta como o próximo since.
+	 *
+	 * @param since Última versão conhecida pelo consumidor.
+	 * @param limit Número máximo de alterações (até MAX_CHANGES).
+	 * @return ResponseEntity com o conjunto de alterações.
+	 */
+	@RequestMapping(method=RequestMethod.GET, value="/changes")
+	public ResponseEntity<ChangeSet> getChanges(
+			@RequestParam(name="since", defaultValue="0") long since,
+			@RequestParam(name="limit", defaultValue="100") int limit){
+		if (since < 0 || limit <= 0) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(appService.findChanges(since, Math.min(limit, MAX_CHANGES)));
+	}
+
+	/**
+	 * Abre um feed Server-Sent Events com as alterações do catálogo.
+	 * Cada evento "change" traz o tipo, os IDs alterados, se foram excluídos e a versão;
+	 * um evento "resync" indica que o cliente deve buscar /rest/changes?since=... .
+	 *
+	 * @param lastEventId Versão do último evento recebido, enviada pelo navegador ao reconectar.
+	 * @return Emitter SSE da assinatura.
+	 */
+	@RequestMapping(method=RequestMethod.GET, value="/events", produces=MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter getEvents(@RequestHeader(name="Last-Event-ID", required=false) Long lastEventId){
+		return eventBroadcaster.subscribe(lastEventId);
+	}
+
 }
@@ -0,0 +1,117 @@
+package com.unutmaz.moviecollection.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+import javax.servlet.http.HttpServletResponse;
+
+import com.unutmaz.moviecollection.util.MoviePage;
+
+/**
+ * Linhas da listagem de filmes no modo chunked (/movies/list?chunked=true), para
+ * listagens longas: em vez de uma List com todos os filmes no modelo, o index.html
+ * percorre este Iterable, que carrega os filmes em blocos (páginas de chunk-size) à
+ * medida que o Thymeleaf escreve as linhas.
+ *
+ * Com spring.thymeleaf.servlet.produce-partial-output-while-processing, o Thymeleaf
+ * escreve direto na resposta; antes de carregar cada bloco, a resposta é enviada
+ * (flushBuffer, em chunked transfer encoding), de modo que o navegador recebe o
+ * cabeçalho da página e as primeiras linhas logo, e o servidor só guarda um bloco por
+ * vez. As linhas vêm do FragmentCache.
+ *
+ * Os blocos são consultas independentes: uma alteração do catálogo durante a
+ * renderização pode repetir ou omitir filmes na fronteira entre dois blocos.
+ *
+ * O Iterable só pode ser percorrido uma vez.
+ */
+public class ChunkedRows implements Iterable<String> {
+
+	/**
+	 * Primeiro bloco, carregado pelo controlador (total da listagem).
+	 */
+	private final MoviePage first;
+
+	/**
+	 * Carga de um bloco pelo número.
+	 */
+	private final IntFunction<MoviePage> pages;
+
+	private final FragmentCache fragmentCache;
+
+	/**
+	 * Versão do FragmentCache lida antes da carga do primeiro bloco.
+	 */
+	private final long version;
+
+	private final HttpServletResponse response;
+
+	/**
+	 * Construtor com o primeiro bloco e a carga dos seguintes.
+	 *
+	 * @param first Primeiro bloco (página 0).
+	 * @param pages Carga do bloco de número dado.
+	 * @param fragmentCache Cache das linhas renderizadas.
+	 * @param version Versão do FragmentCache lida antes da carga do primeiro bloco.
+	 * @param response Resposta, enviada antes da carga de cada bloco.
+	 */
+	public ChunkedRows(MoviePage first, IntFunction<MoviePage> pages, FragmentCache fragmentCache, long version,
+			HttpServletResponse response) {
+		this.first = first;
+		this.pages = pages;
+		this.fragmentCache = fragmentCache;
+		this.version = version;
+		this.response = response;
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		flush();
+		return new Iterator<String>() {
+
+			private MoviePage page = first;
+
+			private Iterator<String> rows = fragmentCache.movieRows(first.getMovies(), version).iterator();
+
+			private long loaded = first.getMovies().size();
+
+			@Override
+			public boolean hasNext() {
+				while (!rows.hasNext()) {
+					if (!hasNextPage()) return false;
+					flush();
+					page = pages.apply(page.getPage() + 1);
+					loaded += page.getMovies().size();
+					rows = fragmentCache.movieRows(page.getMovies(), version).iterator();
+				}
+				return true;
+			}
+
+			@Override
+			public String next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				return rows.next();
+			}
+
+			/**
+			 * Há outro bloco se o atual veio cheio e ainda faltam filmes do total.
+			 */
+			private boolean hasNextPage() {
+				return page.getSize() > 0 && page.getMovies().size() == page.getSize() && loaded < page.getTotal();
+			}
+		};
+	}
+
+	/**
+	 * Envia o que já foi escrito. Se o cliente desconectou, a renderização é interrompida.
+	 */
+	private void flush() {
+		try {
+			response.flushBuffer();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+}
@@ -0,0 +1,309 @@
+package com.unutmaz.moviecollection.controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import com.unutmaz.moviecollection.event.CatalogueChangeEvent;
+import com.unutmaz.moviecollection.event.CatalogueSnapshotEvent;
+import com.unutmaz.moviecollection.model.Actor;
+import com.unutmaz.moviecollection.model.CatalogueChange;
+import com.unutmaz.moviecollection.model.Movie;
+import com.unutmaz.moviecollection.service.PosterStore;
+
+/**
+ * Cache do HTML renderizado das partes das páginas que só dependem do catálogo: as
+ * linhas da tabela de filmes (index.html), o resumo e o elenco da página de detalhes
+ * (info.html) e as linhas da tabela de atores (castEdit.html). Os fragmentos ficam em
+ * templates/fragments/movie.html e são renderizados uma vez por filme (ou ator) e
+ * versão; as páginas inserem o HTML pronto com th:utext, e só o esqueleto da página e
+ * as partes do usuário (listas, avaliações) são renderizados a cada requisição.
+ *
+ * A chave é o fragmento e o ID, e cada entrada guarda a versão em que foi renderizada.
+ * Um contador de versão é incrementado a cada alteração confirmada (CatalogueChangeEvent)
+ * e a cada troca da cópia do modelo de leitura (CatalogueSnapshotEvent), e a versão da
+ * alteração é anotada nos IDs afetados; uma entrada só vale se foi renderizada depois
+ * da última alteração do seu filme ou ator. O elenco também depende dos nomes dos
+ * atores e é invalidado por qualquer alteração de atores. Como no QueryResultCache, a
+ * versão (version()) é lida antes de carregar os dados, de modo que um fragmento
+ * renderizado com dados anteriores a uma alteração nunca é usado.
+ *
+ * O tamanho é limitado a max-entries fragmentos, removendo os usados há mais tempo.
+ * As versões das alterações também são limitadas a max-entries IDs: ao passar disso,
+ * os fragmentos ainda válidos passam a ter a versão atual, os outros são descartados,
+ * e as alterações anotadas são esquecidas (a versão atual vira o piso, reload).
+ */
+@Component
+public class FragmentCache {
+
+	/**
+	 * Template dos fragmentos.
+	 */
+	static final String TEMPLATE = "fragments/movie";
+
+	static final String ROW = "row";
+	static final String SUMMARY = "summary";
+	static final String CAST = "cast";
+	static final String ACTOR_ROW = "actorRow";
+
+	private final ITemplateEngine templateEngine;
+
+	/**
+	 * Entradas em ordem de uso (LRU).
+	 */
+	private final LinkedHashMap<Key, Fragment> entries;
+
+	/**
+	 * Número máximo de fragmentos e de IDs com alterações anotadas.
+	 */
+	private final int maxEntries;
+
+	/**
+	 * Versão da última alteração de cada filme e de cada ator.
+	 */
+	private final Map<Long, Long> movieChanges = new HashMap<>();
+	private final Map<Long, Long> actorChanges = new HashMap<>();
+
+	private long version;
+
+	/**
+	 * Versão da última alteração de qualquer ator (elencos).
+	 */
+	private long castChange;
+
+	/**
+	 * Versão da última recarga completa ou da última compactação das alterações: piso
+	 * da versão de alteração de todos os fragmentos.
+	 */
+	private long reload;
+
+	/**
+	 * Construtor com o motor de templates e o tamanho do cache.
+	 *
+	 * @param templateEngine Motor de templates do Thymeleaf.
+	 * @param maxEntries Número máximo de fragmentos guardados.
+	 */
+	public FragmentCache(ITemplateEngine templateEngine,
+			@Value("${moviecollection.fragment-cache.max-entries:20000}") int maxEntries) {
+		this.templateEngine = templateEngine;
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<Key, Fragment>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Fragment> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Versão atual. Deve ser lida antes de carregar os filmes ou atores cujos fragmentos
+	 * serão pedidos.
+	 *
+	 * @return Versão atual.
+	 */
+	public synchronized long version() {
+		return version;
+	}
+
+	/**
+	 * Linhas da tabela de filmes.
+	 *
+	 * @param movies Filmes, na ordem da tabela.
+	 * @param version Versão lida (version()) antes da carga dos filmes.
+	 * @return HTML de cada linha.
+	 */
+	public List<String> movieRows(List<Movie> movies, long version) {
+		List<String> rows = new ArrayList<>(movies.size());
+		for (Movie movie : movies) {
+			rows.add(fragment(ROW, movie.getId(), version, context -> context.setVariable("movie", movie)));
+		}
+		return rows;
+	}
+
+	/**
+	 * Resumo do filme na página de detalhes (imagem e descrição). Pôsteres locais são
+	 * exibidos pela miniatura.
+	 *
+	 * @param movie Filme.
+	 * @param version Versão lida antes da carga do filme.
+	 * @return HTML do resumo.
+	 */
+	public String summary(Movie movie, long version) {
+		return fragment(SUMMARY, movie.getId(), version, context -> {
+			context.setVariable("movie", movie);
+			context.setVariable("image", PosterStore.thumbnailUrl(movie.getImage()));
+		});
+	}
+
+	/**
+	 * Tabela do elenco na página de detalhes.
+	 *
+	 * @param movie Filme.
+	 * @param cast Elenco.
+	 * @param version Versão lida antes da carga do filme.
+	 * @return HTML da tabela.
+	 */
+	public String cast(Movie movie, List<Actor> cast, long version) {
+		return fragment(CAST, movie.getId(), version, context -> context.setVariable("cast", cast));
+	}
+
+	/**
+	 * Linhas da tabela de atores.
+	 *
+	 * @param actors Atores, na ordem da tabela.
+	 * @param version Versão lida antes da carga dos atores.
+	 * @return HTML de cada linha.
+	 */
+	public List<String> actorRows(List<Actor> actors, long version) {
+		List<String> rows = new ArrayList<>(actors.size());
+		for (Actor actor : actors) {
+			rows.add(fragment(ACTOR_ROW, actor.getActor_id(), version, context -> context.setVariable("actor", actor)));
+		}
+		return rows;
+	}
+
+	/**
+	 * Número de fragmentos guardados.
+	 *
+	 * @return Número de entradas.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Anota a alteração confirmada nos filmes ou atores afetados.
+	 *
+	 * @param event Alteração confirmada.
+	 */
+	@TransactionalEventListener
+	public void onCatalogueChange(CatalogueChangeEvent event) {
+		changed(event);
+	}
+
+	/**
+	 * Anota de novo a alteração após a troca da cópia do modelo de leitura: um fragmento
+	 * renderizado na cópia anterior depois de onCatalogueChange é descartado. Numa
+	 * recarga completa, todos os fragmentos são descartados.
+	 *
+	 * @param event Troca da cópia.
+	 */
+	@EventListener
+	public void onSnapshot(CatalogueSnapshotEvent event) {
+		if (event.isReload()) {
+			synchronized (this) {
+				reload = ++version;
+				movieChanges.clear();
+				actorChanges.clear();
+				entries.clear();
+			}
+		} else {
+			changed(event.getChange());
+		}
+	}
+
+	private synchronized void changed(CatalogueChangeEvent event) {
+		long changed = ++version;
+		boolean actors = CatalogueChange.ACTOR.equals(event.getType());
+		if (actors) castChange = changed;
+		for (long id : event.getIds()) {
+			(actors ? actorChanges : movieChanges).put(id, changed);
+		}
+		if (movieChanges.size() + actorChanges.size() > maxEntries) {
+			compact();
+		}
+	}
+
+	/**
+	 * Esquece as alterações anotadas: um fragmento válido não foi afetado por nenhuma
+	 * alteração desde que foi renderizado e continua válido com a versão atual.
+	 */
+	private void compact() {
+		entries.entrySet().removeIf(entry -> entry.getValue().version < changedAt(entry.getKey()));
+		entries.replaceAll((key, fragment) -> new Fragment(version, fragment.html));
+		movieChanges.clear();
+		actorChanges.clear();
+		reload = version;
+	}
+
+	/**
+	 * Busca um fragmento válido, ou o renderiza e guarda com a versão lida pelo chamador.
+	 */
+	private String fragment(String name, Long id, long version, Consumer<Context> variables) {
+		Key key = new Key(name, id);
+		synchronized (this) {
+			Fragment cached = entries.get(key);
+			if (cached != null && cached.version >= changedAt(key)) return cached.html;
+		}
+		Context context = new Context(Locale.getDefault());
+		variables.accept(context);
+		String html = templateEngine.process(TEMPLATE, Set.of(name), context);
+		synchronized (this) {
+			if (version >= changedAt(key)) entries.put(key, new Fragment(version, html));
+		}
+		return html;
+	}
+
+	/**
+	 * Versão da última alteração que afeta o fragmento.
+	 */
+	private long changedAt(Key key) {
+		long changed = reload;
+		if (ACTOR_ROW.equals(key.name)) {
+			return Math.max(changed, actorChanges.getOrDefault(key.id, 0L));
+		}
+		changed = Math.max(changed, movieChanges.getOrDefault(key.id, 0L));
+		return CAST.equals(key.name) ? Math.max(changed, castChange) : changed;
+	}
+
+	private static final class Key {
+
+		private final String name;
+
+		private final Long id;
+
+		private Key(String name, Long id) {
+			this.name = name;
+			this.id = id;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Key)) return false;
+			Key key = (Key) other;
+			return name.equals(key.name) && Objects.equals(id, key.id);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * name.hashCode() + Objects.hashCode(id);
+		}
+	}
+
+	private static final class Fragment {
+
+		private final long version;
+
+		private final String html;
+
+		private Fragment(long version, String html) {
+			this.version = version;
+			this.html = html;
+		}
+	}
+}
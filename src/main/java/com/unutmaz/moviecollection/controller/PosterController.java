@@ -0,0 +1,169 @@
+package com.unutmaz.moviecollection.controller;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import com.unutmaz.moviecollection.service.PosterStore;
+
+/**
+ * Entrega dos pôsteres locais (/posters/{id}) e das miniaturas (/posters/thumb/{id})
+ * guardados pelo PosterStore.
+ *
+ * Como o conteúdo de um ID nunca muda, a resposta leva um ETag forte (o hash do arquivo)
+ * e cache immutable de um ano; If-None-Match devolve 304. Pedidos com um único
+ * intervalo (Range, respeitando If-Range) recebem 206 com Content-Range; pedidos com
+ * vários intervalos recebem o arquivo inteiro.
+ *
+ * O corpo é enviado sem passar pela memória da aplicação: no Tomcat, pelo sendfile do
+ * conector (atributos org.apache.tomcat.sendfile.*, que usa FileChannel.transferTo);
+ * nos demais containers, por FileChannel.transferTo direto para a saída da resposta.
+ */
+@Controller
+public class PosterController {
+
+	/**
+	 * Cache-Control das respostas de conteúdo imutável.
+	 */
+	private static final String IMMUTABLE = "max-age=31536000, public, immutable";
+
+	private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+	@Autowired
+	private PosterStore posterStore;
+
+	/**
+	 * Entrega um pôster no tamanho original.
+	 *
+	 * @param id ID do pôster.
+	 * @param request Requisição (cabeçalhos condicionais e Range).
+	 * @param response Resposta.
+	 * @throws IOException Se houver erro de leitura ou escrita.
+	 */
+	@GetMapping("/posters/{id:.+}")
+	public void getPoster(@PathVariable("id") String id, HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
+		serve(posterStore.original(id), IMMUTABLE, request, response);
+	}
+
+	/**
+	 * Entrega a miniatura de um pôster. Enquanto a miniatura é gerada, entrega o
+	 * original sem cache de longo prazo.
+	 *
+	 * @param id ID do pôster.
+	 * @param request Requisição (cabeçalhos condicionais e Range).
+	 * @param response Resposta.
+	 * @throws IOException Se houver erro de leitura ou escrita.
+	 */
+	@GetMapping("/posters/thumb/{id:.+}")
+	public void getThumbnail(@PathVariable("id") String id, HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
+		boolean ready = posterStore.hasThumbnail(id);
+		serve(posterStore.thumbnail(id), ready ? IMMUTABLE : "no-cache", request, response);
+	}
+
+	private void serve(Path file, String cacheControl, HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
+		if (file == null) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		String name = file.getFileName().toString();
+		String etag = "\"" + name.substring(0, name.lastIndexOf('.')) + "\"";
+		response.setHeader(HttpHeaders.ETAG, etag);
+		response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+		response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+		if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+
+		long length = Files.size(file);
+		long start = 0;
+		long end = length - 1;
+		String range = request.getHeader(HttpHeaders.RANGE);
+		String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+		if (range != null && (ifRange == null || ifRange.equals(etag))) {
+			List<HttpRange> ranges;
+			try {
+				ranges = HttpRange.parseRanges(range);
+			} catch (IllegalArgumentException ex) {
+				// Range inválido é ignorado
+				ranges = List.of();
+			}
+			if (ranges.size() == 1) {
+				try {
+					start = ranges.get(0).getRangeStart(length);
+					end = ranges.get(0).getRangeEnd(length);
+				} catch (IllegalArgumentException ex) {
+					start = length;
+				}
+				if (start >= length || start > end) {
+					response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+					response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+					return;
+				}
+				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+				response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+			}
+		}
+		response.setContentType(contentType(name));
+		response.setContentLengthLong(end - start + 1);
+		if ("HEAD".equals(request.getMethod()) || length == 0) return;
+
+		if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+			request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+			request.setAttribute(SENDFILE_START, start);
+			request.setAttribute(SENDFILE_END, end + 1);
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+			long position = start;
+			long remaining = end - start + 1;
+			while (remaining > 0) {
+				long sent = channel.transferTo(position, remaining, out);
+				if (sent <= 0) break;
+				position += sent;
+				remaining -= sent;
+			}
+		}
+	}
+
+	/**
+	 * Compara If-None-Match (lista de ETags, fortes ou fracos, ou *) com o ETag do arquivo.
+	 */
+	private static boolean matches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) return false;
+		for (String candidate : ifNoneMatch.split(",")) {
+			String value = candidate.trim();
+			if (value.startsWith("W/")) value = value.substring(2);
+			if (value.equals("*") || value.equals(etag)) return true;
+		}
+		return false;
+	}
+
+	private static String contentType(String name) {
+		if (name.endsWith(".png")) return "image/png";
+		if (name.endsWith(".gif")) return "image/gif";
+		return "image/jpeg";
+	}
+}
@@ -0,0 +1,47 @@
+package com.unutmaz.moviecollection.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.unutmaz.moviecollection.service.SearchStats;
+import com.unutmaz.moviecollection.util.SearchWindowStats;
+
+/**
+ * Endpoint do Actuator com as estatísticas de busca (/actuator/searchstats?windows=1&top=10):
+ * por janela de tempo, o número de buscas, os termos mais buscados e os termos mais
+ * buscados entre as buscas sem resultados.
+ */
+@Component
+@Endpoint(id = "searchstats")
+public class SearchStatsEndpoint {
+
+	/**
+	 * Número padrão de janelas na resposta (a atual e a anterior).
+	 */
+	private static final int DEFAULT_WINDOWS = 2;
+
+	/**
+	 * Número padrão de termos por lista.
+	 */
+	private static final int DEFAULT_TOP = 10;
+
+	@Autowired
+	private SearchStats searchStats;
+
+	/**
+	 * Retorna as estatísticas das janelas mais recentes.
+	 *
+	 * @param windows Número de janelas, da atual para as anteriores.
+	 * @param top Número de termos por lista (até SearchStats.TOP_K).
+	 * @return Estatísticas por janela.
+	 */
+	@ReadOperation
+	public List<SearchWindowStats> searchStats(@Nullable Integer windows, @Nullable Integer top) {
+		return searchStats.windows(windows == null ? DEFAULT_WINDOWS : windows, top == null ? DEFAULT_TOP : top);
+	}
+}
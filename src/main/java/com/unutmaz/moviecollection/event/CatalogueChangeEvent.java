@@ -0,0 +1,65 @@
+package com.unutmaz.moviecollection.event;
+
+import java.util.Collection;
+
+/**
+ * Evento de aplicação publicado pelo AppServiceImpl a cada alteração registrada
+ * no catálogo. Os ouvintes usam @TransactionalEventListener, de modo que o evento
+ * só é tratado depois do commit da transação que fez a alteração.
+ *
+ * O evento é compacto: tipo da entidade, IDs alterados, se foram excluídos e a
+ * versão do catálogo após a alteração (a mesma de /rest/changes).
+ */
+public class CatalogueChangeEvent {
+
+	/**
+	 * Tipo das entidades alteradas (CatalogueChange.MOVIE ou ACTOR).
+	 */
+	private final String type;
+
+	/**
+	 * IDs das entidades alteradas.
+	 */
+	private final long[] ids;
+
+	/**
+	 * Indica se as entidades foram excluídas.
+	 */
+	private final boolean deleted;
+
+	/**
+	 * Versão do catálogo após a alteração.
+	 */
+	private final long version;
+
+	/**
+	 * Construtor com todos os dados da alteração.
+	 *
+	 * @param type Tipo das entidades.
+	 * @param ids IDs das entidades.
+	 * @param deleted true se foram excluídas.
+	 * @param version Versão do catálogo após a alteração.
+	 */
+	public CatalogueChangeEvent(String type, Collection<Long> ids, boolean deleted, long version) {
+		this.type = type;
+		this.ids = ids.stream().mapToLong(Long::longValue).toArray();
+		this.deleted = deleted;
+		this.version = version;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public long[] getIds() {
+		return ids;
+	}
+
+	public boolean isDeleted() {
+		return deleted;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+}
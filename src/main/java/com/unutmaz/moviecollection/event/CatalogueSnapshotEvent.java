@@ -0,0 +1,64 @@
+package com.unutmaz.moviecollection.event;
+
+import com.unutmaz.moviecollection.readmodel.CatalogueSnapshot;
+
+/**
+ * Evento publicado pelo CatalogueReadModel sempre que a cópia do catálogo em memória
+ * é substituída. Os componentes que mantêm estruturas derivadas da cópia (caches,
+ * grafos, estatísticas) o usam para invalidar apenas o que a alteração afetou.
+ *
+ * O evento é síncrono e publicado depois da troca da referência, de modo que
+ * CatalogueReadModel.current() já retorna a nova cópia.
+ */
+public class CatalogueSnapshotEvent {
+
+	/**
+	 * Cópia anterior, ou null na primeira carga.
+	 */
+	private final CatalogueSnapshot previous;
+
+	/**
+	 * Nova cópia.
+	 */
+	private final CatalogueSnapshot current;
+
+	/**
+	 * Alteração que gerou a nova cópia, ou null quando a cópia foi recarregada por inteiro.
+	 */
+	private final CatalogueChangeEvent change;
+
+	/**
+	 * Construtor com as duas cópias e a alteração aplicada.
+	 *
+	 * @param previous Cópia anterior, ou null.
+	 * @param current Nova cópia.
+	 * @param change Alteração aplicada, ou null numa recarga completa.
+	 */
+	public CatalogueSnapshotEvent(CatalogueSnapshot previous, CatalogueSnapshot current, CatalogueChangeEvent change) {
+		this.previous = previous;
+		this.current = current;
+		this.change = change;
+	}
+
+	public CatalogueSnapshot getPrevious() {
+		return previous;
+	}
+
+	public CatalogueSnapshot getCurrent() {
+		return current;
+	}
+
+	public CatalogueChangeEvent getChange() {
+		return change;
+	}
+
+	/**
+	 * Indica se a cópia foi recarregada por inteiro, caso em que tudo o que foi
+	 * derivado da cópia anterior deve ser descartado.
+	 *
+	 * @return true numa recarga completa.
+	 */
+	public boolean isReload() {
+		return change == null || previous == null;
+	}
+}
@@ -0,0 +1,22 @@
+package com.unutmaz.moviecollection.event;
+
+/**
+ * Evento de aplicação publicado pelo AppServiceImpl quando a avaliação de um usuário
+ * é gravada ou removida. Os ouvintes o recebem depois do commit
+ * (@TransactionalEventListener) e atualizam o que depende das médias dos usuários.
+ */
+public class MovieRatedEvent {
+
+	/**
+	 * ID do filme avaliado.
+	 */
+	private final long movieId;
+
+	public MovieRatedEvent(long movieId) {
+		this.movieId = movieId;
+	}
+
+	public long getMovieId() {
+		return movieId;
+	}
+}
@@ -0,0 +1,28 @@
+package com.unutmaz.moviecollection.event;
+
+import com.unutmaz.moviecollection.util.UserMovieLists;
+
+/**
+ * Evento de aplicação publicado pelo AppServiceImpl quando as listas de filmes de um
+ * usuário são alteradas. Os ouvintes o recebem depois do commit
+ * (@TransactionalEventListener), com as listas gravadas.
+ */
+public class UserListsChangedEvent {
+
+	private final String username;
+
+	private final UserMovieLists lists;
+
+	public UserListsChangedEvent(String username, UserMovieLists lists) {
+		this.username = username;
+		this.lists = lists;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public UserMovieLists getLists() {
+		return lists;
+	}
+}
@@ -0,0 +1,22 @@
+package com.unutmaz.moviecollection.exception;
+
+/**
+ * Exceção personalizada lançada quando um ator não é encontrado no sistema.
+ * Esta classe estende RuntimeException e é usada para indicar que uma operação
+ * tentou acessar um ator que não existe no banco de dados.
+ *
+ * É utilizada principalmente nos controladores REST e serviços para sinalizar
+ * que um ator com o ID especificado não foi localizado.
+ */
+public class ActorNotFoundException extends RuntimeException {
+
+	/**
+	 * Construtor que aceita uma mensagem descrevendo o erro.
+	 *
+	 * @param message Mensagem detalhando o motivo da exceção.
+	 */
+	public ActorNotFoundException(String message) {
+		super(message);
+	}
+
+}
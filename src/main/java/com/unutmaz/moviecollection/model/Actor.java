@@ -12,6 +12,8 @@ import javax.persistence.Id;
 import javax.persistence.ManyToMany;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 /**
@@ -25,8 +27,10 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
  *
  * A anotação @JsonIgnoreProperties ignora o campo "playedIn" na serialização JSON
  * para evitar recursão infinita ao serializar objetos Movie-Actor.
+ * Com @DynamicUpdate, os UPDATEs incluem apenas as colunas alteradas.
  */
 @Entity
+@DynamicUpdate
 @Table(name="t_actors")
 @JsonIgnoreProperties(value = { "playedIn" })
 public class Actor {
@@ -0,0 +1,108 @@
+package com.unutmaz.moviecollection.model;
+
+import java.sql.Timestamp;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Entidade JPA representando uma alteração no catálogo (filme ou ator).
+ * Esta classe mapeia a tabela "catalogue_changes", um registro das alterações
+ * feitas pelo AppServiceImpl, usado para sincronização incremental (/rest/changes).
+ *
+ * Cada alteração recebe um número de sequência crescente, atribuído na ordem
+ * de commit (ver ChangeRepoJPA). Exclusões são registradas como "tombstones"
+ * (deleted = true), para que os consumidores também removam o item.
+ */
+@Entity
+@Table(name="catalogue_changes")
+public class CatalogueChange {
+
+	/**
+	 * Tipo de entidade para alterações em filmes.
+	 */
+	public static final String MOVIE = "movie";
+
+	/**
+	 * Tipo de entidade para alterações em atores.
+	 */
+	public static final String ACTOR = "actor";
+
+	/**
+	 * Número de sequência da alteração (versão do catálogo após a alteração).
+	 */
+	@Id
+	@Column(name="seq")
+	private long seq;
+
+	/**
+	 * Tipo da entidade alterada (MOVIE ou ACTOR).
+	 */
+	@Column(name="entity_type")
+	private String entityType;
+
+	/**
+	 * ID do filme ou ator alterado.
+	 */
+	@Column(name="entity_id")
+	private long entityId;
+
+	/**
+	 * Indica se a entidade foi excluída.
+	 */
+	@Column(name="deleted")
+	private boolean deleted;
+
+	/**
+	 * Momento da alteração.
+	 */
+	@Column(name="changed_at")
+	private Timestamp changedAt;
+
+	/**
+	 * Obtém o número de sequência da alteração.
+	 *
+	 * @return Número de sequência.
+	 */
+	public long getSeq() {
+		return seq;
+	}
+
+	/**
+	 * Obtém o tipo da entidade alterada.
+	 *
+	 * @return MOVIE ou ACTOR.
+	 */
+	public String getEntityType() {
+		return entityType;
+	}
+
+	/**
+	 * Obtém o ID da entidade alterada.
+	 *
+	 * @return ID do filme ou ator.
+	 */
+	public long getEntityId() {
+		return entityId;
+	}
+
+	/**
+	 * Verifica se a alteração é uma exclusão.
+	 *
+	 * @return true se a entidade foi excluída.
+	 */
+	public boolean isDeleted() {
+		return deleted;
+	}
+
+	/**
+	 * Obtém o momento da alteração.
+	 *
+	 * @return Data e hora da alteração.
+	 */
+	public Timestamp getChangedAt() {
+		return changedAt;
+	}
+}
@@ -17,6 +17,9 @@ import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
+
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 /**
@@ -30,8 +33,12 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
  *
  * A anotação @JsonIgnoreProperties ignora o campo "castRef" na serialização JSON
  * (provavelmente um campo auxiliar não persistido).
+ *
+ * A anotação @DynamicUpdate faz o Hibernate gerar UPDATEs apenas com as colunas
+ * alteradas, o que torna as atualizações parciais (PATCH) mais baratas.
  */
 @Entity
+@DynamicUpdate
 @Table(name="t_movies")
 @JsonIgnoreProperties(value = { "castRef" })
 public class Movie {
@@ -83,9 +90,11 @@ public class Movie {
 	 * Conjunto de atores que participam do filme.
 	 * Relacionamento muitos-para-muitos com Actor.
 	 * Usa tabela de junção "movie_actors" para mapear o relacionamento.
-	 * FetchType.LAZY para carregamento preguiçoso.
+	 * FetchType.LAZY para carregamento preguiçoso; os elencos de até 100 filmes
+	 * são inicializados juntos (@BatchSize) ao serializar listas de filmes.
 	 */
 	@ManyToMany(fetch = FetchType.LAZY)
+	@BatchSize(size = 100)
 	@JoinTable(
 			name = "movie_actors",
 			joinColumns = @JoinColumn(name="movie_id"),
@@ -0,0 +1,117 @@
+package com.unutmaz.moviecollection.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Entidade JPA representando os contadores de um filme.
+ * Esta classe mapeia a tabela "movie_stats": as visualizações, atualizadas em lote
+ * pelo ViewCounter, e a soma e a contagem das avaliações dos usuários (user_ratings),
+ * atualizadas a cada avaliação. Filmes sem linha na tabela têm tudo zerado.
+ *
+ * É usada nas consultas JPQL (ordenações "popular" e "community" de MovieQuery); as
+ * atualizações são feitas com comandos nativos em MovieRepoJPA.addViews e RatingRepoJPA.addToTotals.
+ */
+@Entity
+@Table(name="movie_stats")
+public class MovieStats {
+
+	/**
+	 * ID do filme.
+	 */
+	@Id
+	@Column(name="movie_id")
+	private long movieId;
+
+	/**
+	 * Número de visualizações da página do filme (/movies/{id} e /rest/movie/{id}).
+	 */
+	@Column(name="views")
+	private long views;
+
+	/**
+	 * Soma das avaliações dos usuários.
+	 */
+	@Column(name="rating_sum")
+	private double ratingSum;
+
+	/**
+	 * Número de avaliações dos usuários.
+	 */
+	@Column(name="rating_count")
+	private long ratingCount;
+
+	/**
+	 * Obtém o ID do filme.
+	 *
+	 * @return ID do filme.
+	 */
+	public long getMovieId() {
+		return movieId;
+	}
+
+	/**
+	 * Define o ID do filme.
+	 *
+	 * @param movieId Novo ID do filme.
+	 */
+	public void setMovieId(long movieId) {
+		this.movieId = movieId;
+	}
+
+	/**
+	 * Obtém o número de visualizações do filme.
+	 *
+	 * @return Número de visualizações.
+	 */
+	public long getViews() {
+		return views;
+	}
+
+	/**
+	 * Define o número de visualizações do filme.
+	 *
+	 * @param views Novo número de visualizações.
+	 */
+	public void setViews(long views) {
+		this.views = views;
+	}
+
+	/**
+	 * Obtém a soma das avaliações dos usuários.
+	 *
+	 * @return Soma das avaliações.
+	 */
+	public double getRatingSum() {
+		return ratingSum;
+	}
+
+	/**
+	 * Define a soma das avaliações dos usuários.
+	 *
+	 * @param ratingSum Nova soma das avaliações.
+	 */
+	public void setRatingSum(double ratingSum) {
+		this.ratingSum = ratingSum;
+	}
+
+	/**
+	 * Obtém o número de avaliações dos usuários.
+	 *
+	 * @return Número de avaliações.
+	 */
+	public long getRatingCount() {
+		return ratingCount;
+	}
+
+	/**
+	 * Define o número de avaliações dos usuários.
+	 *
+	 * @param ratingCount Novo número de avaliações.
+	 */
+	public void setRatingCount(long ratingCount) {
+		this.ratingCount = ratingCount;
+	}
+}
@@ -0,0 +1,250 @@
+package com.unutmaz.moviecollection.readmodel;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Consultas de grafo entre atores ("graus de separação" e colegas de elenco até N
+ * passos) sobre as listas de adjacência da CatalogueSnapshot.
+ *
+ * O grafo é o bipartido ator-filme que a cópia já mantém em formato CSR (elenco de
+ * cada filme e filmes de cada ator), de modo que o motor é sempre consistente com a
+ * cópia atual e é atualizado junto com ela, sem uma estrutura à parte. Dois atores
+ * são vizinhos se atuaram no mesmo filme; um passo é sempre ator -> filme -> ator.
+ * Não é montado o grafo ator-ator: um filme com 100 atores geraria 9.900 arestas.
+ *
+ * As buscas usam BitSets de visitados (para atores e para filmes, de modo que o
+ * elenco de cada filme é percorrido uma só vez por lado) e arrays int reaproveitados
+ * por thread para as filas e os predecessores, sem objetos por vértice.
+ */
+@Component
+public class ActorGraph {
+
+	/**
+	 * Maior profundidade aceita em costars.
+	 */
+	public static final int MAX_DEPTH = 3;
+
+	/**
+	 * Área de trabalho de cada thread: uma por lado da busca bidirecional.
+	 */
+	private final ThreadLocal<Side[]> scratch = ThreadLocal.withInitial(() -> new Side[] { new Side(), new Side() });
+
+	/**
+	 * Busca um caminho mais curto entre dois atores, com busca em largura bidirecional:
+	 * a cada rodada é expandida por inteiro a fronteira do lado menor, até que os
+	 * dois lados se encontrem ou um deles se esgote.
+	 *
+	 * @param snapshot Cópia do catálogo.
+	 * @param from Posição do ator de origem.
+	 * @param to Posição do ator de destino.
+	 * @return Posições alternadas [ator, filme, ator, ..., ator], começando em from e
+	 *         terminando em to, ou null se não houver ligação.
+	 */
+	public int[] path(CatalogueSnapshot snapshot, int from, int to) {
+		if (from == to) return new int[] { from };
+		Side[] sides = scratch.get();
+		Side forward = sides[0].start(snapshot, from);
+		Side backward = sides[1].start(snapshot, to);
+		while (!forward.exhausted() && !backward.exhausted()) {
+			Side expand = forward.frontierSize() <= backward.frontierSize() ? forward : backward;
+			Side other = expand == forward ? backward : forward;
+			int meeting = expand.expand(snapshot, other);
+			if (meeting >= 0) {
+				int[] head = forward.pathTo(meeting);
+				int[] tail = backward.pathTo(meeting);
+				// tail vai de "to" até o encontro: inverte e junta sem repetir o ator do encontro
+				int[] path = Arrays.copyOf(head, head.length + tail.length - 1);
+				for (int i = 0; i < tail.length - 1; i++) {
+					path[head.length + i] = tail[tail.length - 2 - i];
+				}
+				return path;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Busca os atores a até depth passos de um ator.
+	 *
+	 * @param snapshot Cópia do catálogo.
+	 * @param actor Posição do ator.
+	 * @param depth Profundidade máxima (1 = quem atuou com ele).
+	 * @return Atores alcançados, por profundidade e depois por posição (o próprio ator não é incluído).
+	 */
+	public Reach costars(CatalogueSnapshot snapshot, int actor, int depth) {
+		Side side = scratch.get()[0].start(snapshot, actor);
+		int[] offsets = new int[depth + 1];
+		int[] actors = new int[0];
+		for (int level = 1; level <= depth && !side.exhausted(); level++) {
+			side.expand(snapshot, null);
+			int[] found = side.frontier();
+			Arrays.sort(found);
+			actors = Arrays.copyOf(actors, actors.length + found.length);
+			System.arraycopy(found, 0, actors, offsets[level - 1], found.length);
+			offsets[level] = actors.length;
+		}
+		for (int level = 1; level <= depth; level++) {
+			offsets[level] = Math.max(offsets[level], offsets[level - 1]);
+		}
+		return new Reach(actors, offsets);
+	}
+
+	/**
+	 * Resultado de costars: posições dos atores agrupadas por profundidade.
+	 */
+	public static final class Reach {
+
+		private final int[] actors;
+
+		/**
+		 * Os atores da profundidade d estão em actors[offsets[d - 1] .. offsets[d] - 1].
+		 */
+		private final int[] offsets;
+
+		private Reach(int[] actors, int[] offsets) {
+			this.actors = actors;
+			this.offsets = offsets;
+		}
+
+		public int size() {
+			return actors.length;
+		}
+
+		public int actor(int index) {
+			return actors[index];
+		}
+
+		/**
+		 * Profundidade do ator no índice informado.
+		 *
+		 * @param index Índice do ator no resultado.
+		 * @return Número de passos até o ator de origem.
+		 */
+		public int depth(int index) {
+			int depth = 1;
+			while (offsets[depth] <= index) depth++;
+			return depth;
+		}
+	}
+
+	/**
+	 * Estado de um lado da busca: visitados, predecessores e fronteira atual.
+	 * Os arrays crescem conforme o catálogo e são reaproveitados entre buscas;
+	 * só os BitSets são limpos, pois os predecessores só são lidos para visitados.
+	 */
+	private static final class Side {
+
+		private final BitSet visitedActors = new BitSet();
+
+		private final BitSet visitedFilms = new BitSet();
+
+		/**
+		 * Ator e filme pelos quais cada ator visitado foi alcançado.
+		 */
+		private int[] parentActor = new int[0];
+
+		private int[] parentFilm = new int[0];
+
+		/**
+		 * Fronteira atual em queue[0 .. frontierSize - 1]; a próxima é montada em next.
+		 */
+		private int[] queue = new int[0];
+
+		private int[] next = new int[0];
+
+		private int frontierSize;
+
+		Side start(CatalogueSnapshot snapshot, int actor) {
+			int actors = snapshot.actorCount();
+			if (parentActor.length < actors) {
+				parentActor = new int[actors];
+				parentFilm = new int[actors];
+				queue = new int[actors];
+				next = new int[actors];
+			}
+			visitedActors.clear();
+			visitedFilms.clear();
+			visitedActors.set(actor);
+			parentActor[actor] = -1;
+			queue[0] = actor;
+			frontierSize = 1;
+			return this;
+		}
+
+		boolean exhausted() {
+			return frontierSize == 0;
+		}
+
+		int frontierSize() {
+			return frontierSize;
+		}
+
+		int[] frontier() {
+			return Arrays.copyOf(queue, frontierSize);
+		}
+
+		/**
+		 * Expande a fronteira em um passo. Com o outro lado informado, retorna o ator
+		 * de encontro com menor distância total (ou -1), completando a rodada para
+		 * que o caminho seja mínimo.
+		 */
+		int expand(CatalogueSnapshot snapshot, Side other) {
+			int nextSize = 0;
+			int meeting = -1;
+			for (int q = 0; q < frontierSize; q++) {
+				int actor = queue[q];
+				for (int f = snapshot.filmStart(actor); f < snapshot.filmEnd(actor); f++) {
+					int film = snapshot.filmAt(f);
+					if (visitedFilms.get(film)) continue;
+					visitedFilms.set(film);
+					for (int c = snapshot.castStart(film); c < snapshot.castEnd(film); c++) {
+						int costar = snapshot.castAt(c);
+						if (visitedActors.get(costar)) continue;
+						visitedActors.set(costar);
+						parentActor[costar] = actor;
+						parentFilm[costar] = film;
+						next[nextSize++] = costar;
+						if (other != null && other.visitedActors.get(costar)
+								&& (meeting < 0 || other.depthOf(costar) < other.depthOf(meeting))) {
+							meeting = costar;
+						}
+					}
+				}
+			}
+			int[] swap = queue;
+			queue = next;
+			next = swap;
+			frontierSize = nextSize;
+			return meeting;
+		}
+
+		/**
+		 * Número de passos do ator até a origem deste lado.
+		 */
+		int depthOf(int actor) {
+			int depth = 0;
+			for (int a = actor; parentActor[a] >= 0; a = parentActor[a]) {
+				depth++;
+			}
+			return depth;
+		}
+
+		/**
+		 * Caminho da origem deste lado até o ator: [origem, filme, ator, ..., ator].
+		 */
+		int[] pathTo(int actor) {
+			int[] path = new int[2 * depthOf(actor) + 1];
+			int i = path.length - 1;
+			for (int a = actor; a >= 0; a = parentActor[a]) {
+				path[i--] = a;
+				if (parentActor[a] >= 0) {
+					path[i--] = parentFilm[a];
+				}
+			}
+			return path;
+		}
+	}
+}
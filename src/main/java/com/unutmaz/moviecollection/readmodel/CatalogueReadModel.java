@@ -0,0 +1,206 @@
+package com.unutmaz.moviecollection.readmodel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.unutmaz.moviecollection.event.CatalogueChangeEvent;
+import com.unutmaz.moviecollection.event.CatalogueSnapshotEvent;
+import com.unutmaz.moviecollection.model.CatalogueChange;
+import com.unutmaz.moviecollection.model.Movie;
+import com.unutmaz.moviecollection.repo.ActorRepo;
+import com.unutmaz.moviecollection.repo.ChangeRepo;
+import com.unutmaz.moviecollection.repo.MovieRepo;
+
+/**
+ * Modelo de leitura do catálogo em memória (opcional, moviecollection.read-model.enabled).
+ *
+ * Guarda a CatalogueSnapshot atual numa referência volatile: os leitores apenas leem a
+ * referência, sem locks e sem acesso ao banco. A cópia é carregada por inteiro quando a
+ * aplicação inicia e, a cada alteração confirmada (CatalogueChangeEvent após o commit),
+ * é gerada uma nova cópia com apenas as entidades alteradas relidas do banco. As
+ * atualizações são serializadas entre si; os leitores continuam usando a cópia anterior
+ * até a troca da referência.
+ *
+ * O evento é tratado na thread que fez o commit, antes de o método do serviço retornar,
+ * de modo que quem faz uma alteração já a vê na leitura seguinte.
+ *
+ * Cada troca de cópia é anunciada com um CatalogueSnapshotEvent, para os componentes
+ * que mantêm estruturas derivadas dela.
+ *
+ * Enquanto não há cópia (modelo desativado, aplicação iniciando ou falha ao recarregar),
+ * current() retorna null e o AppServiceImpl lê do banco.
+ */
+@Component
+public class CatalogueReadModel {
+
+	/**
+	 * Alterações com mais IDs que esta fração do catálogo recarregam a cópia inteira.
+	 */
+	private static final double RELOAD_FRACTION = 0.5;
+
+	@Autowired
+	private MovieRepo movieRepo;
+
+	@Autowired
+	private ActorRepo actorRepo;
+
+	@Autowired
+	private ChangeRepo changeRepo;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	/**
+	 * Indica se o modelo de leitura está ativo.
+	 */
+	private final boolean enabled;
+
+	/**
+	 * Transação de leitura própria, usada também durante o afterCommit de outra transação.
+	 */
+	private final TransactionTemplate readTransaction;
+
+	/**
+	 * Cópia atual, ou null.
+	 */
+	private volatile CatalogueSnapshot snapshot;
+
+	/**
+	 * Construtor com a configuração do modelo.
+	 *
+	 * @param enabled true para ativar o modelo de leitura.
+	 * @param transactionManager Gerenciador de transações do JPA.
+	 */
+	public CatalogueReadModel(@Value("${moviecollection.read-model.enabled:false}") boolean enabled,
+			PlatformTransactionManager transactionManager) {
+		this.enabled = enabled;
+		this.readTransaction = new TransactionTemplate(transactionManager);
+		readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		readTransaction.setReadOnly(true);
+	}
+
+	/**
+	 * Obtém a cópia atual do catálogo.
+	 *
+	 * @return Cópia atual, ou null se o modelo não estiver disponível.
+	 */
+	public CatalogueSnapshot current() {
+		return snapshot;
+	}
+
+	/**
+	 * Carrega a cópia inicial quando a aplicação termina de iniciar.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		if (enabled) {
+			reload();
+		}
+	}
+
+	/**
+	 * Recarrega a cópia inteira a partir do banco e publica o CatalogueSnapshotEvent.
+	 */
+	public synchronized void reload() {
+		CatalogueSnapshot previous = snapshot;
+		snapshot = loadSnapshot();
+		eventPublisher.publishEvent(new CatalogueSnapshotEvent(previous, snapshot, null));
+	}
+
+	/**
+	 * Carrega a cópia inteira do banco (três consultas: filmes, atores e elencos).
+	 *
+	 * @return Nova cópia.
+	 */
+	private CatalogueSnapshot loadSnapshot() {
+		return readTransaction.execute(status -> {
+			long version = changeRepo.currentVersion();
+			Map<Long, List<Long>> casts = new HashMap<>();
+			for (long[] pair : movieRepo.findCastIds()) {
+				casts.computeIfAbsent(pair[0], k -> new ArrayList<>()).add(pair[1]);
+			}
+			CatalogueSnapshot.Builder builder = new CatalogueSnapshot.Builder();
+			actorRepo.findActors().forEach(builder::putActor);
+			for (Movie movie : movieRepo.findAll()) {
+				List<Long> cast = casts.getOrDefault(movie.getId(), List.of());
+				builder.putMovie(movie, cast.stream().mapToLong(Long::longValue).toArray());
+			}
+			return builder.build(version);
+		});
+	}
+
+	/**
+	 * Aplica uma alteração confirmada, gerando uma nova cópia, e publica o
+	 * CatalogueSnapshotEvent. Em caso de falha, tenta recarregar tudo; se também
+	 * falhar, descarta a cópia e as leituras voltam ao banco até a próxima recarga.
+	 *
+	 * @param event Alteração confirmada.
+	 */
+	@TransactionalEventListener
+	public synchronized void onCatalogueChange(CatalogueChangeEvent event) {
+		CatalogueSnapshot current = snapshot;
+		if (current == null) return;
+		CatalogueChangeEvent applied = event;
+		try {
+			int size = CatalogueChange.MOVIE.equals(event.getType()) ? current.movieCount() : current.actorCount();
+			if (event.getIds().length > Math.max(1, size * RELOAD_FRACTION)) {
+				applied = null;
+				snapshot = loadSnapshot();
+			}
+			else {
+				snapshot = readTransaction.execute(status -> apply(current, event));
+			}
+		} catch (RuntimeException ex) {
+			applied = null;
+			snapshot = null;
+			try {
+				snapshot = loadSnapshot();
+			} catch (RuntimeException reloadFailure) {
+				return;
+			}
+		}
+		eventPublisher.publishEvent(new CatalogueSnapshotEvent(current, snapshot, applied));
+	}
+
+	/**
+	 * Gera a nova cópia relendo do banco as entidades do evento. Entidades não
+	 * encontradas (excluídas por uma transação posterior) são removidas.
+	 *
+	 * @param current Cópia atual.
+	 * @param event Alteração confirmada.
+	 * @return Nova cópia.
+	 */
+	private CatalogueSnapshot apply(CatalogueSnapshot current, CatalogueChangeEvent event) {
+		List<Long> ids = Arrays.stream(event.getIds()).boxed().collect(Collectors.toList());
+		CatalogueSnapshot.Builder builder = current.toBuilder();
+		boolean movies = CatalogueChange.MOVIE.equals(event.getType());
+		if (movies) {
+			ids.forEach(builder::removeMovie);
+			if (!event.isDeleted()) {
+				movieRepo.findByIds(ids).forEach(builder::putMovie);
+			}
+		}
+		else {
+			ids.forEach(builder::removeActor);
+			if (!event.isDeleted()) {
+				actorRepo.findByIds(ids).forEach(builder::putActor);
+			}
+		}
+		return builder.build(Math.max(current.getVersion(), event.getVersion()));
+	}
+}
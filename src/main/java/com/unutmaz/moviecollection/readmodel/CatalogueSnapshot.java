@@ -0,0 +1,863 @@
+package com.unutmaz.moviecollection.readmodel;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import com.unutmaz.moviecollection.model.Actor;
+import com.unutmaz.moviecollection.model.Movie;
+import com.unutmaz.moviecollection.util.MoviePage;
+import com.unutmaz.moviecollection.util.MovieQuery;
+import com.unutmaz.moviecollection.util.UserMovieLists;
+
+/**
+ * Cópia imutável de todo o catálogo (filmes, atores e elencos) em memória.
+ *
+ * Os dados ficam em arrays paralelos ordenados por ID: cada filme é uma posição
+ * (0..movieCount-1) e cada ator também. As categorias são guardadas uma única vez
+ * (o filme guarda o índice da categoria) e os elencos são listas de adjacência
+ * compactas em int[]: os atores do filme na posição p estão em
+ * castActors[castOffsets[p] .. castOffsets[p + 1]), e o inverso (filmes de cada ator)
+ * em filmMovies/filmOffsets.
+ *
+ * Como nada é alterado depois da construção, a instância pode ser lida por qualquer
+ * número de threads sem sincronização. Alterações geram uma nova instância
+ * (ver toBuilder), que substitui a anterior em CatalogueReadModel.
+ *
+ * As listagens ordenadas usam as permutações de SortedIndexes, calculadas na construção.
+ *
+ * Os métodos que devolvem Movie e Actor criam objetos novos a cada chamada, que
+ * podem ser alterados pelo chamador sem afetar a cópia.
+ */
+public final class CatalogueSnapshot {
+
+	/**
+	 * Valor de dates para filmes sem data.
+	 */
+	static final long NO_DATE = Long.MIN_VALUE;
+
+	/**
+	 * Versão do catálogo (ChangeRepo) refletida nesta cópia.
+	 */
+	private final long version;
+
+	private final long[] movieIds;
+
+	private final String[] names;
+
+	/**
+	 * Nomes em maiúsculas, para as buscas sem distinção de caixa.
+	 */
+	private final String[] upperNames;
+
+	/**
+	 * Datas em milissegundos, ou NO_DATE.
+	 */
+	private final long[] dates;
+
+	/**
+	 * Índice da categoria de cada filme em categoryNames, ou -1.
+	 */
+	private final int[] categories;
+
+	private final String[] categoryNames;
+
+	/**
+	 * Categorias em maiúsculas, que agrupam as permutações por categoria.
+	 */
+	private final String[] categoryKeys;
+
+	private final String[] descriptions;
+
+	private final String[] images;
+
+	private final float[] ratings;
+
+	private final int[] castOffsets;
+
+	private final int[] castActors;
+
+	private final long[] actorIds;
+
+	private final String[] actorNames;
+
+	private final String[] upperActorNames;
+
+	private final int[] filmOffsets;
+
+	private final int[] filmMovies;
+
+	/**
+	 * Permutações ordenadas das posições dos filmes.
+	 */
+	private final SortedIndexes indexes;
+
+	/**
+	 * Construtor usado pelo Builder. Se previous for informado, as permutações são
+	 * atualizadas a partir das dela em vez de recalculadas.
+	 */
+	private CatalogueSnapshot(long version, long[] movieIds, String[] names, long[] dates, int[] categories,
+			String[] categoryNames, String[] descriptions, String[] images, float[] ratings, int[] castOffsets,
+			int[] castActors, long[] actorIds, String[] actorNames, CatalogueSnapshot previous, int[] oldToNew, int[] changed) {
+		this.version = version;
+		this.movieIds = movieIds;
+		this.names = names;
+		this.upperNames = upper(names);
+		this.dates = dates;
+		this.categories = categories;
+		this.categoryNames = categoryNames;
+		this.categoryKeys = upper(categoryNames);
+		this.descriptions = descriptions;
+		this.images = images;
+		this.ratings = ratings;
+		this.castOffsets = castOffsets;
+		this.castActors = castActors;
+		this.actorIds = actorIds;
+		this.actorNames = actorNames;
+		this.upperActorNames = upper(actorNames);
+
+		// Lista inversa: filmes de cada ator, em ordem de posição do filme
+		filmOffsets = new int[actorIds.length + 1];
+		for (int actor : castActors) {
+			filmOffsets[actor + 1]++;
+		}
+		for (int a = 0; a < actorIds.length; a++) {
+			filmOffsets[a + 1] += filmOffsets[a];
+		}
+		filmMovies = new int[castActors.length];
+		int[] next = Arrays.copyOf(filmOffsets, actorIds.length);
+		for (int m = 0; m < movieIds.length; m++) {
+			for (int i = castOffsets[m]; i < castOffsets[m + 1]; i++) {
+				filmMovies[next[castActors[i]]++] = m;
+			}
+		}
+
+		indexes = previous == null ? SortedIndexes.build(this) : SortedIndexes.update(this, previous.indexes, oldToNew, changed);
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public int movieCount() {
+		return movieIds.length;
+	}
+
+	public int actorCount() {
+		return actorIds.length;
+	}
+
+	/**
+	 * Obtém a posição de um filme pelo ID (busca binária).
+	 *
+	 * @param id ID do filme.
+	 * @return Posição do filme, ou -1 se não existir.
+	 */
+	public int indexOfMovie(Long id) {
+		if (id == null) return -1;
+		int index = Arrays.binarySearch(movieIds, id);
+		return index < 0 ? -1 : index;
+	}
+
+	/**
+	 * Obtém a posição de um ator pelo ID (busca binária).
+	 *
+	 * @param id ID do ator.
+	 * @return Posição do ator, ou -1 se não existir.
+	 */
+	public int indexOfActor(Long id) {
+		if (id == null) return -1;
+		int index = Arrays.binarySearch(actorIds, id);
+		return index < 0 ? -1 : index;
+	}
+
+	public long movieId(int position) {
+		return movieIds[position];
+	}
+
+	public String name(int position) {
+		return names[position];
+	}
+
+	public float rating(int position) {
+		return ratings[position];
+	}
+
+	/**
+	 * Obtém a categoria de um filme.
+	 *
+	 * @param position Posição do filme.
+	 * @return Categoria, ou null.
+	 */
+	public String category(int position) {
+		return categories[position] < 0 ? null : categoryNames[categories[position]];
+	}
+
+	/**
+	 * Obtém a categoria de um filme em maiúsculas.
+	 *
+	 * @param position Posição do filme.
+	 * @return Categoria em maiúsculas, ou null.
+	 */
+	String categoryKey(int position) {
+		return categories[position] < 0 ? null : categoryKeys[categories[position]];
+	}
+
+	/**
+	 * Obtém a data de um filme em milissegundos.
+	 *
+	 * @param position Posição do filme.
+	 * @return Data em milissegundos, ou Long.MIN_VALUE se o filme não tiver data.
+	 */
+	public long dateMillis(int position) {
+		return dates[position];
+	}
+
+	/**
+	 * Obtém as posições dos atores do elenco de um filme.
+	 *
+	 * @param position Posição do filme.
+	 * @return Cópia das posições dos atores.
+	 */
+	public int[] castOf(int position) {
+		return Arrays.copyOfRange(castActors, castOffsets[position], castOffsets[position + 1]);
+	}
+
+	/**
+	 * Obtém as posições dos filmes de um ator.
+	 *
+	 * @param actorPosition Posição do ator.
+	 * @return Cópia das posições dos filmes, em ordem crescente.
+	 */
+	public int[] filmsOf(int actorPosition) {
+		return Arrays.copyOfRange(filmMovies, filmOffsets[actorPosition], filmOffsets[actorPosition + 1]);
+	}
+
+	/*
+	 * Acesso direto às listas de adjacência, sem cópia, para os algoritmos do pacote
+	 * (SimilarMovies, ActorGraph). O elenco do filme p está em castAt(castStart(p) .. castEnd(p) - 1)
+	 * e os filmes do ator a em filmAt(filmStart(a) .. filmEnd(a) - 1).
+	 */
+
+	int castStart(int position) {
+		return castOffsets[position];
+	}
+
+	int castEnd(int position) {
+		return castOffsets[position + 1];
+	}
+
+	int castAt(int index) {
+		return castActors[index];
+	}
+
+	int filmStart(int actorPosition) {
+		return filmOffsets[actorPosition];
+	}
+
+	int filmEnd(int actorPosition) {
+		return filmOffsets[actorPosition + 1];
+	}
+
+	int filmAt(int index) {
+		return filmMovies[index];
+	}
+
+	/*
+	 * Acesso às colunas de categoria e às permutações globais, para as agregações
+	 * do pacote (CatalogueStatistics). As categorias são numeradas de 0 a categoryCount() - 1.
+	 */
+
+	int categoryCount() {
+		return categoryNames.length;
+	}
+
+	int categoryIndex(int position) {
+		return categories[position];
+	}
+
+	String categoryName(int index) {
+		return categoryNames[index];
+	}
+
+	/**
+	 * Obtém a permutação de todo o catálogo sem cópia.
+	 *
+	 * @param order Índice da ordenação (MovieQuery.orderIndex).
+	 * @return Posições ordenadas (não deve ser alterado).
+	 */
+	int[] order(int order) {
+		return indexes.all(order);
+	}
+
+	/**
+	 * Obtém a permutação de uma categoria sem cópia.
+	 *
+	 * @param categoryKey Categoria em maiúsculas.
+	 * @param order Índice da ordenação (MovieQuery.orderIndex).
+	 * @return Posições ordenadas (não deve ser alterado).
+	 */
+	int[] categoryOrder(String categoryKey, int order) {
+		return indexes.category(categoryKey, order);
+	}
+
+	/**
+	 * Cria um Movie com os dados e o elenco do filme na posição informada.
+	 *
+	 * @param position Posição do filme.
+	 * @return Novo objeto Movie.
+	 */
+	public Movie movie(int position) {
+		Movie movie = new Movie();
+		movie.setId(movieIds[position]);
+		movie.setName(names[position]);
+		movie.setDate(dates[position] == NO_DATE ? null : new Date(dates[position]));
+		movie.setCategory(category(position));
+		movie.setDescription(descriptions[position]);
+		movie.setImage(images[position]);
+		movie.setRating(ratings[position]);
+		for (int i = castOffsets[position]; i < castOffsets[position + 1]; i++) {
+			movie.addActor(actor(castActors[i]));
+		}
+		return movie;
+	}
+
+	/**
+	 * Cria um Actor com os dados do ator na posição informada.
+	 *
+	 * @param position Posição do ator.
+	 * @return Novo objeto Actor.
+	 */
+	public Actor actor(int position) {
+		Actor actor = new Actor();
+		actor.setActor_id(actorIds[position]);
+		actor.setActor_name(actorNames[position]);
+		return actor;
+	}
+
+	/**
+	 * Cria os Movies das posições informadas, na mesma ordem.
+	 *
+	 * @param positions Posições dos filmes.
+	 * @return Lista de filmes.
+	 */
+	public List<Movie> movies(int[] positions) {
+		List<Movie> movies = new ArrayList<>(positions.length);
+		for (int position : positions) {
+			movies.add(movie(position));
+		}
+		return movies;
+	}
+
+	/**
+	 * Cria os Movies de todos os filmes, em ordem de ID.
+	 *
+	 * @return Lista de filmes.
+	 */
+	public List<Movie> allMovies() {
+		List<Movie> movies = new ArrayList<>(movieIds.length);
+		for (int position = 0; position < movieIds.length; position++) {
+			movies.add(movie(position));
+		}
+		return movies;
+	}
+
+	/**
+	 * Cria os Actors de todos os atores, em ordem de ID.
+	 *
+	 * @return Lista de atores.
+	 */
+	public List<Actor> allActors() {
+		List<Actor> actors = new ArrayList<>(actorIds.length);
+		for (int position = 0; position < actorIds.length; position++) {
+			actors.add(actor(position));
+		}
+		return actors;
+	}
+
+	/**
+	 * Obtém uma página por chave em ordem de ID (equivalente a MovieRepo.findPage).
+	 *
+	 * @param afterId Último ID da página anterior, ou null.
+	 * @param limit Tamanho da página.
+	 * @return Posições dos filmes da página.
+	 */
+	public int[] findPage(Long afterId, int limit) {
+		int from = 0;
+		if (afterId != null) {
+			int index = Arrays.binarySearch(movieIds, afterId);
+			from = index >= 0 ? index + 1 : -index - 1;
+		}
+		int to = (int) Math.min(movieIds.length, (long) from + limit);
+		return IntStream.range(from, to).toArray();
+	}
+
+	/**
+	 * Executa uma listagem. Sem filtros por nome ou ator, a página é uma cópia do
+	 * trecho da permutação da ordenação (global ou da categoria), em O(tamanho da página).
+	 * Com esses filtros, a permutação é percorrida descartando os filmes que não os atendem.
+	 *
+	 * @param query Critérios da listagem.
+	 * @return Página de filmes.
+	 */
+	public MoviePage find(MovieQuery query) {
+		return find(query, UserMovieLists.EMPTY);
+	}
+
+	/**
+	 * Executa uma listagem com os filtros pelas listas de um usuário, que são
+	 * combinados aos demais filtros como BitSets. Na ordem de ID, os filmes da página
+	 * saem direto do filtro, sem percorrer uma permutação: "meus favoritos de Crime"
+	 * custa O(favoritos + categoria), e não O(catálogo).
+	 *
+	 * @param query Critérios da listagem.
+	 * @param lists Listas do usuário.
+	 * @return Página de filmes.
+	 */
+	public MoviePage find(MovieQuery query, UserMovieLists lists) {
+		if (query.orderIndex() == 0 && (query.usesLists() || query.getName() != null || query.getActor() != null)) {
+			return page(query, filter(query, true, lists));
+		}
+		int[] order = query.getCategory() == null ? indexes.all(query.orderIndex())
+				: indexes.category(query.getCategory().toUpperCase(Locale.ROOT), query.orderIndex());
+		return page(query, order, filter(query, false, lists));
+	}
+
+	/**
+	 * Executa uma listagem numa ordem calculada fora da cópia (por exemplo, a de
+	 * visualizações do ViewCounter). Todos os filtros, inclusive o de categoria,
+	 * são aplicados ao percorrer a ordem.
+	 *
+	 * @param query Critérios da listagem (a ordenação pedida é ignorada).
+	 * @param order Todas as posições, na ordem desejada.
+	 * @return Página de filmes.
+	 */
+	public MoviePage find(MovieQuery query, int[] order) {
+		return find(query, order, UserMovieLists.EMPTY);
+	}
+
+	/**
+	 * Executa uma listagem numa ordem calculada fora da cópia, com os filtros pelas
+	 * listas de um usuário.
+	 *
+	 * @param query Critérios da listagem (a ordenação pedida é ignorada).
+	 * @param order Todas as posições, na ordem desejada.
+	 * @param lists Listas do usuário.
+	 * @return Página de filmes.
+	 */
+	public MoviePage find(MovieQuery query, int[] order, UserMovieLists lists) {
+		return page(query, order, filter(query, true, lists));
+	}
+
+	/**
+	 * Executa uma listagem de busca aproximada, restrita aos filmes encontrados pelo
+	 * FuzzyNameIndex. Sem ordenação, a página segue a ordem de relevância dos filmes
+	 * encontrados, percorrendo só eles; com ordenação, a permutação é percorrida
+	 * descartando os demais filmes.
+	 *
+	 * @param query Critérios da listagem (os filtros por nome e ator são ignorados).
+	 * @param matches IDs dos filmes encontrados, do mais relevante ao menos.
+	 * @param order Todas as posições numa ordem calculada fora da cópia, ou null para
+	 *        a ordenação da consulta.
+	 * @param lists Listas do usuário.
+	 * @return Página de filmes.
+	 */
+	public MoviePage findAmong(MovieQuery query, long[] matches, int[] order, UserMovieLists lists) {
+		int[] ranked = new int[matches.length];
+		int count = 0;
+		BitSet among = new BitSet(movieIds.length);
+		for (long id : matches) {
+			int position = Arrays.binarySearch(movieIds, id);
+			if (position >= 0 && !among.get(position)) {
+				among.set(position);
+				ranked[count++] = position;
+			}
+		}
+		BitSet filter = filter(query, true, lists);
+		if (filter != null) among.and(filter);
+		if (order == null) {
+			order = query.orderIndex() == 0 ? Arrays.copyOf(ranked, count) : indexes.all(query.orderIndex());
+		}
+		return page(query, order, among);
+	}
+
+	/**
+	 * Marca os filmes que atendem aos filtros por nome, ator (exceto na busca
+	 * aproximada), listas do usuário e, se pedido, categoria.
+	 *
+	 * @return Filmes que atendem aos filtros, ou null se não houver filtros.
+	 */
+	private BitSet filter(MovieQuery query, boolean withCategory, UserMovieLists lists) {
+		BitSet filter = null;
+		// Os favoritos costumam ser poucos: começa por eles, e os demais filtros só reduzem
+		if (query.isFavoritesOnly()) {
+			filter = positions(lists.bitmap(UserMovieLists.FAVORITES));
+		}
+		if (query.getName() != null && !query.isFuzzy()) {
+			BitSet nameFilter = nameMatches(query.getName());
+			if (filter == null) filter = nameFilter;
+			else filter.and(nameFilter);
+		}
+		if (query.getActor() != null && !query.isFuzzy()) {
+			BitSet actorFilter = actorMatches(query.getActor());
+			if (filter == null) filter = actorFilter;
+			else filter.and(actorFilter);
+		}
+		if (withCategory && query.getCategory() != null) {
+			BitSet categoryFilter = new BitSet(movieIds.length);
+			for (int position : indexes.category(query.getCategory().toUpperCase(Locale.ROOT), 0)) {
+				categoryFilter.set(position);
+			}
+			if (filter == null) filter = categoryFilter;
+			else filter.and(categoryFilter);
+		}
+		if (query.isHideWatched()) {
+			if (filter == null) {
+				filter = new BitSet(movieIds.length);
+				filter.set(0, movieIds.length);
+			}
+			filter.andNot(positions(lists.bitmap(UserMovieLists.WATCHED)));
+		}
+		return filter;
+	}
+
+	/**
+	 * Converte um bitmap de IDs de filmes em posições. Os dois estão em ordem
+	 * crescente de ID, então cada busca binária começa depois da anterior; IDs de
+	 * filmes que não estão na cópia são ignorados.
+	 */
+	private BitSet positions(RoaringBitmap ids) {
+		BitSet found = new BitSet(movieIds.length);
+		int from = 0;
+		IntIterator iterator = ids.getIntIterator();
+		while (iterator.hasNext() && from < movieIds.length) {
+			int index = Arrays.binarySearch(movieIds, from, movieIds.length, Integer.toUnsignedLong(iterator.next()));
+			if (index >= 0) {
+				found.set(index);
+				from = index + 1;
+			} else {
+				from = -index - 1;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Recorta a página da ordem de ID: as posições seguem a ordem de ID, então a
+	 * página são os bits marcados do filtro a partir do deslocamento.
+	 */
+	private MoviePage page(MovieQuery query, BitSet filter) {
+		long offset = query.offset();
+		long total = filter.cardinality();
+		int count = (int) Math.max(0, Math.min(query.getSize() == 0 ? total : query.getSize(), total - offset));
+		int[] page = new int[count];
+		int position = filter.nextSetBit(0);
+		for (long skipped = 0; skipped < offset && position >= 0; skipped++) {
+			position = filter.nextSetBit(position + 1);
+		}
+		for (int i = 0; i < count; i++) {
+			page[i] = position;
+			position = filter.nextSetBit(position + 1);
+		}
+		return new MoviePage(movies(page), query.getPage(), query.getSize(), total);
+	}
+
+	/**
+	 * Recorta a página de uma ordem, descartando os filmes fora do filtro.
+	 */
+	private MoviePage page(MovieQuery query, int[] order, BitSet filter) {
+		long offset = query.offset();
+		long end = query.getSize() == 0 ? Long.MAX_VALUE : offset + query.getSize();
+		int[] page;
+		long total;
+		if (filter == null) {
+			total = order.length;
+			page = Arrays.copyOfRange(order, (int) Math.min(offset, order.length), (int) Math.min(end, order.length));
+		}
+		else {
+			int[] matched = new int[(int) Math.min(end - offset, filter.cardinality())];
+			int count = 0;
+			total = 0;
+			for (int position : order) {
+				if (filter.get(position)) {
+					if (total >= offset && total < end) {
+						matched[count++] = position;
+					}
+					total++;
+				}
+			}
+			page = Arrays.copyOf(matched, count);
+		}
+		return new MoviePage(movies(page), query.getPage(), query.getSize(), total);
+	}
+
+	/**
+	 * Busca os filmes cujo nome contém o texto, sem distinção de caixa
+	 * (equivalente a MovieRepo.findByName).
+	 *
+	 * @param name Texto procurado.
+	 * @return Posições dos filmes, em ordem de ID.
+	 */
+	public int[] findByName(String name) {
+		return nameMatches(name).stream().toArray();
+	}
+
+	/**
+	 * Marca os filmes cujo nome contém o texto, sem distinção de caixa.
+	 */
+	private BitSet nameMatches(String name) {
+		String wanted = name.toUpperCase(Locale.ROOT);
+		BitSet found = new BitSet(movieIds.length);
+		for (int position = 0; position < movieIds.length; position++) {
+			if (upperNames[position] != null && upperNames[position].contains(wanted)) {
+				found.set(position);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Busca os filmes de uma categoria, sem distinção de caixa
+	 * (equivalente a MovieRepo.findByCategory).
+	 *
+	 * @param category Categoria.
+	 * @return Posições dos filmes, em ordem de ID.
+	 */
+	public int[] findByCategory(String category) {
+		return indexes.category(category.toUpperCase(Locale.ROOT), 0).clone();
+	}
+
+	/**
+	 * Busca os filmes com algum ator cujo nome contém o texto, sem distinção de caixa
+	 * (equivalente a MovieRepo.findByActor), percorrendo a lista de filmes de cada ator.
+	 *
+	 * @param actor Texto procurado no nome do ator.
+	 * @return Posições dos filmes, em ordem de ID.
+	 */
+	public int[] findByActor(String actor) {
+		return actorMatches(actor).stream().toArray();
+	}
+
+	/**
+	 * Marca os filmes com algum ator cujo nome contém o texto, sem distinção de caixa.
+	 */
+	private BitSet actorMatches(String actor) {
+		String wanted = actor.toUpperCase(Locale.ROOT);
+		BitSet found = new BitSet(movieIds.length);
+		for (int a = 0; a < actorIds.length; a++) {
+			if (upperActorNames[a] != null && upperActorNames[a].contains(wanted)) {
+				for (int i = filmOffsets[a]; i < filmOffsets[a + 1]; i++) {
+					found.set(filmMovies[i]);
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Cria um Builder com o conteúdo desta cópia, para gerar uma nova versão.
+	 *
+	 * @return Builder preenchido.
+	 */
+	public Builder toBuilder() {
+		Builder builder = new Builder();
+		builder.previous = this;
+		for (int a = 0; a < actorIds.length; a++) {
+			builder.actors.put(actorIds[a], actorNames[a]);
+		}
+		for (int m = 0; m < movieIds.length; m++) {
+			long[] cast = new long[castOffsets[m + 1] - castOffsets[m]];
+			for (int i = 0; i < cast.length; i++) {
+				cast[i] = actorIds[castActors[castOffsets[m] + i]];
+			}
+			builder.movies.put(movieIds[m], new MovieRecord(names[m], dates[m], category(m),
+					descriptions[m], images[m], ratings[m], cast));
+		}
+		return builder;
+	}
+
+	/**
+	 * Converte um array de textos para maiúsculas.
+	 */
+	private static String[] upper(String[] values) {
+		String[] upper = new String[values.length];
+		for (int i = 0; i < values.length; i++) {
+			upper[i] = values[i] == null ? null : values[i].toUpperCase(Locale.ROOT);
+		}
+		return upper;
+	}
+
+	/**
+	 * Dados de um filme enquanto a cópia está sendo montada.
+	 */
+	private static final class MovieRecord {
+
+		private final String name;
+
+		private final long date;
+
+		private final String category;
+
+		private final String description;
+
+		private final String image;
+
+		private final float rating;
+
+		private final long[] cast;
+
+		private MovieRecord(String name, long date, String category, String description, String image, float rating, long[] cast) {
+			this.name = name;
+			this.date = date;
+			this.category = category;
+			this.description = description;
+			this.image = image;
+			this.rating = rating;
+			this.cast = cast;
+		}
+	}
+
+	/**
+	 * Monta uma nova cópia a partir de entidades carregadas do banco ou de uma
+	 * cópia anterior (toBuilder). Não é thread-safe.
+	 */
+	public static final class Builder {
+
+		private final TreeMap<Long, MovieRecord> movies = new TreeMap<>();
+
+		private final TreeMap<Long, String> actors = new TreeMap<>();
+
+		/**
+		 * Cópia de origem (toBuilder), cujas permutações são reaproveitadas.
+		 */
+		private CatalogueSnapshot previous;
+
+		/**
+		 * IDs dos filmes incluídos, alterados ou removidos desde a cópia de origem.
+		 */
+		private final Set<Long> changedMovies = new TreeSet<>();
+
+		/**
+		 * Inclui ou substitui um filme. O elenco deve estar carregado.
+		 *
+		 * @param movie Filme.
+		 * @return Este builder.
+		 */
+		public Builder putMovie(Movie movie) {
+			long[] cast = movie.getCast().stream().map(Actor::getActor_id).filter(id -> id != null).mapToLong(Long::longValue).toArray();
+			return putMovie(movie, cast);
+		}
+
+		/**
+		 * Inclui ou substitui um filme com o elenco informado por IDs.
+		 *
+		 * @param movie Filme (o elenco da entidade é ignorado).
+		 * @param cast IDs dos atores do elenco.
+		 * @return Este builder.
+		 */
+		public Builder putMovie(Movie movie, long[] cast) {
+			Arrays.sort(cast);
+			changedMovies.add(movie.getId());
+			movies.put(movie.getId(), new MovieRecord(movie.getName(),
+					movie.getDate() == null ? NO_DATE : movie.getDate().getTime(), movie.getCategory(),
+					movie.getDescription(), movie.getImage(), movie.getRating(), cast));
+			return this;
+		}
+
+		public Builder removeMovie(Long id) {
+			changedMovies.add(id);
+			movies.remove(id);
+			return this;
+		}
+
+		public Builder putActor(Actor actor) {
+			actors.put(actor.getActor_id(), actor.getActor_name());
+			return this;
+		}
+
+		public Builder removeActor(Long id) {
+			actors.remove(id);
+			return this;
+		}
+
+		/**
+		 * Gera a cópia imutável. Atores do elenco que não existem mais são ignorados.
+		 *
+		 * @param version Versão do catálogo refletida na cópia.
+		 * @return Nova cópia.
+		 */
+		public CatalogueSnapshot build(long version) {
+			long[] actorIds = new long[actors.size()];
+			String[] actorNames = new String[actors.size()];
+			int a = 0;
+			for (Map.Entry<Long, String> actor : actors.entrySet()) {
+				actorIds[a] = actor.getKey();
+				actorNames[a++] = actor.getValue();
+			}
+
+			int n = movies.size();
+			long[] movieIds = new long[n];
+			String[] names = new String[n];
+			long[] dates = new long[n];
+			int[] categories = new int[n];
+			String[] descriptions = new String[n];
+			String[] images = new String[n];
+			float[] ratings = new float[n];
+			int[] castOffsets = new int[n + 1];
+			int[] castActors = new int[movies.values().stream().mapToInt(m -> m.cast.length).sum()];
+			Map<String, Integer> categoryIndex = new HashMap<>();
+			List<String> categoryNames = new ArrayList<>();
+			int m = 0;
+			int c = 0;
+			for (Map.Entry<Long, MovieRecord> entry : movies.entrySet()) {
+				MovieRecord movie = entry.getValue();
+				movieIds[m] = entry.getKey();
+				names[m] = movie.name;
+				dates[m] = movie.date;
+				categories[m] = movie.category == null ? -1 : categoryIndex.computeIfAbsent(movie.category, k -> {
+					categoryNames.add(k);
+					return categoryNames.size() - 1;
+				});
+				descriptions[m] = movie.description;
+				images[m] = movie.image;
+				ratings[m] = movie.rating;
+				for (long actorId : movie.cast) {
+					int position = Arrays.binarySearch(actorIds, actorId);
+					if (position >= 0) {
+						castActors[c++] = position;
+					}
+				}
+				castOffsets[++m] = c;
+			}
+			// Com poucas alterações, as permutações da cópia de origem são atualizadas em vez de recalculadas
+			CatalogueSnapshot base = previous != null && changedMovies.size() <= Math.max(16, n / 4) ? previous : null;
+			int[] oldToNew = null;
+			int[] changed = null;
+			if (base != null) {
+				oldToNew = new int[base.movieCount()];
+				int j = 0;
+				for (int i = 0; i < oldToNew.length; i++) {
+					long id = base.movieIds[i];
+					while (j < n && movieIds[j] < id) j++;
+					oldToNew[i] = j < n && movieIds[j] == id && !changedMovies.contains(id) ? j : -1;
+				}
+				changed = changedMovies.stream().mapToInt(id -> Arrays.binarySearch(movieIds, id)).filter(p -> p >= 0).toArray();
+			}
+			return new CatalogueSnapshot(version, movieIds, names, dates, categories, categoryNames.toArray(new String[0]),
+					descriptions, images, ratings, castOffsets, Arrays.copyOf(castActors, c), actorIds, actorNames,
+					base, oldToNew, changed);
+		}
+	}
+}
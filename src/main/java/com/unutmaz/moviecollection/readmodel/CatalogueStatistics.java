@@ -0,0 +1,261 @@
+package com.unutmaz.moviecollection.readmodel;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.unutmaz.moviecollection.util.ActorStats;
+import com.unutmaz.moviecollection.util.CatalogueStats;
+import com.unutmaz.moviecollection.util.CategoryStats;
+import com.unutmaz.moviecollection.util.MovieQuery;
+
+/**
+ * Agregações do catálogo (/rest/stats) calculadas sobre as colunas da CatalogueSnapshot,
+ * com cache por versão do catálogo.
+ *
+ * Os filmes são agregados numa redução sobre IntStream (fork-join), com acumuladores
+ * primitivos por categoria e por ano que são combinados ao final; a redução só é
+ * paralela a partir de parallel-threshold filmes, pois abaixo disso o custo de dividir
+ * o trabalho supera o ganho. As medianas saem de uma passada pela permutação por
+ * avaliação, sem ordenar nada, e os totais por ator vêm direto das listas de filmes
+ * de cada ator. Sem o modelo de leitura, o AppService calcula as mesmas agregações
+ * com GROUP BY no banco e usa apenas o cache desta classe.
+ */
+@Component
+public class CatalogueStatistics {
+
+	/**
+	 * Número de filmes a partir do qual a redução é paralela.
+	 */
+	private final int parallelThreshold;
+
+	/**
+	 * Últimas estatísticas calculadas (valem enquanto a versão do catálogo não mudar).
+	 */
+	private volatile CatalogueStats cached;
+
+	/**
+	 * Construtor com o limite da redução paralela.
+	 *
+	 * @param parallelThreshold Número de filmes a partir do qual a redução é paralela.
+	 */
+	public CatalogueStatistics(@Value("${moviecollection.stats.parallel-threshold:50000}") int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * Obtém as estatísticas de uma versão, calculando-as se não estiverem em cache.
+	 *
+	 * @param version Versão atual do catálogo.
+	 * @param compute Cálculo das estatísticas.
+	 * @return Estatísticas, com os rankings completos (CatalogueStats.MAX_TOP).
+	 */
+	public CatalogueStats get(long version, Supplier<CatalogueStats> compute) {
+		CatalogueStats stats = cached;
+		if (stats != null && stats.getVersion() == version) {
+			return stats;
+		}
+		stats = compute.get();
+		synchronized (this) {
+			if (cached == null || cached.getVersion() <= stats.getVersion()) {
+				cached = stats;
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * Calcula as estatísticas de uma cópia do catálogo.
+	 *
+	 * @param snapshot Cópia do catálogo.
+	 * @return Estatísticas, com os rankings completos.
+	 */
+	public CatalogueStats compute(CatalogueSnapshot snapshot) {
+		int n = snapshot.movieCount();
+		int categories = snapshot.categoryCount();
+		ZoneId zone = ZoneId.systemDefault();
+		IntStream positions = IntStream.range(0, n);
+		if (n >= parallelThreshold) {
+			positions = positions.parallel();
+		}
+		Totals totals = positions.collect(() -> new Totals(categories),
+				(partial, position) -> partial.add(snapshot, position, zone), Totals::merge);
+
+		double[] medians = medians(snapshot, totals.counts);
+		List<CategoryStats> categoryStats = new ArrayList<>();
+		long[] histogram = new long[CatalogueStats.RATING_BUCKETS];
+		for (int c = 0; c <= categories; c++) {
+			if (totals.counts[c] == 0) continue;
+			categoryStats.add(new CategoryStats(c == categories ? null : snapshot.categoryName(c), totals.counts[c],
+					totals.sums[c] / totals.counts[c], medians[c], totals.histograms[c]));
+			for (int b = 0; b < histogram.length; b++) {
+				histogram[b] += totals.histograms[c][b];
+			}
+		}
+		categoryStats.sort(CategoryStats.BY_CATEGORY);
+
+		return new CatalogueStats(snapshot.getVersion(), n, categoryStats, totals.years.toMap(), histogram,
+				topActors(snapshot, n >= parallelThreshold, false), topActors(snapshot, n >= parallelThreshold, true));
+	}
+
+	/**
+	 * Calcula a mediana de cada categoria percorrendo a permutação por avaliação
+	 * (decrescente) e guardando as avaliações dos postos do meio de cada categoria.
+	 */
+	private static double[] medians(CatalogueSnapshot snapshot, long[] counts) {
+		int nullCategory = counts.length - 1;
+		double[] medians = new double[counts.length];
+		long[] seen = new long[counts.length];
+		for (int position : snapshot.order(MovieQuery.ORDERINGS.indexOf(MovieQuery.ORDER_RATING) + 1)) {
+			int c = snapshot.categoryIndex(position);
+			if (c < 0) c = nullCategory;
+			long rank = seen[c]++;
+			// Com contagem par, a mediana é a média dos dois postos centrais
+			if (rank == (counts[c] - 1) / 2) medians[c] += snapshot.rating(position) / 2.0;
+			if (rank == counts[c] / 2) medians[c] += snapshot.rating(position) / 2.0;
+		}
+		return medians;
+	}
+
+	/**
+	 * Monta um ranking de atores. As somas das avaliações por ator são calculadas em
+	 * paralelo (cada ator escreve na sua posição) e os melhores são selecionados por
+	 * inserção numa lista de tamanho CatalogueStats.MAX_TOP.
+	 */
+	private static List<ActorStats> topActors(CatalogueSnapshot snapshot, boolean parallel, boolean byRating) {
+		int actors = snapshot.actorCount();
+		double[] averages = new double[actors];
+		IntStream range = IntStream.range(0, actors);
+		(parallel ? range.parallel() : range).forEach(actor -> {
+			double sum = 0;
+			for (int i = snapshot.filmStart(actor); i < snapshot.filmEnd(actor); i++) {
+				sum += snapshot.rating(snapshot.filmAt(i));
+			}
+			int films = snapshot.filmEnd(actor) - snapshot.filmStart(actor);
+			averages[actor] = films == 0 ? 0 : sum / films;
+		});
+		int minMovies = byRating ? CatalogueStats.MIN_RATED_MOVIES : 1;
+		int[] top = new int[CatalogueStats.MAX_TOP];
+		int size = 0;
+		for (int actor = 0; actor < actors; actor++) {
+			if (snapshot.filmEnd(actor) - snapshot.filmStart(actor) < minMovies) continue;
+			if (size == top.length && !better(snapshot, averages, byRating, actor, top[size - 1])) continue;
+			int i = size == top.length ? size - 1 : size++;
+			while (i > 0 && better(snapshot, averages, byRating, actor, top[i - 1])) {
+				top[i] = top[i - 1];
+				i--;
+			}
+			top[i] = actor;
+		}
+		List<ActorStats> ranking = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			int actor = top[i];
+			ranking.add(new ActorStats(snapshot.actor(actor), snapshot.filmEnd(actor) - snapshot.filmStart(actor), averages[actor]));
+		}
+		return ranking;
+	}
+
+	/**
+	 * Indica se o ator a vem antes do ator b no ranking. Como as posições seguem a
+	 * ordem de ID, o último critério é a posição.
+	 */
+	private static boolean better(CatalogueSnapshot snapshot, double[] averages, boolean byRating, int a, int b) {
+		int moviesA = snapshot.filmEnd(a) - snapshot.filmStart(a);
+		int moviesB = snapshot.filmEnd(b) - snapshot.filmStart(b);
+		int byMovies = Integer.compare(moviesB, moviesA);
+		int byAverage = Double.compare(averages[b], averages[a]);
+		int result = byRating ? (byAverage != 0 ? byAverage : byMovies) : (byMovies != 0 ? byMovies : byAverage);
+		return result != 0 ? result < 0 : a < b;
+	}
+
+	/**
+	 * Acumuladores de uma parte dos filmes. O índice categoryCount corresponde aos
+	 * filmes sem categoria.
+	 */
+	private static final class Totals {
+
+		private final long[] counts;
+
+		private final double[] sums;
+
+		private final long[][] histograms;
+
+		private final YearCounts years = new YearCounts();
+
+		Totals(int categories) {
+			counts = new long[categories + 1];
+			sums = new double[categories + 1];
+			histograms = new long[categories + 1][CatalogueStats.RATING_BUCKETS];
+		}
+
+		void add(CatalogueSnapshot snapshot, int position, ZoneId zone) {
+			int c = snapshot.categoryIndex(position);
+			if (c < 0) c = counts.length - 1;
+			float rating = snapshot.rating(position);
+			counts[c]++;
+			sums[c] += rating;
+			histograms[c][CatalogueStats.ratingBucket(rating)]++;
+			long date = snapshot.dateMillis(position);
+			if (date != CatalogueSnapshot.NO_DATE) {
+				years.add(Instant.ofEpochMilli(date).atZone(zone).getYear(), 1);
+			}
+		}
+
+		void merge(Totals other) {
+			for (int c = 0; c < counts.length; c++) {
+				counts[c] += other.counts[c];
+				sums[c] += other.sums[c];
+				for (int b = 0; b < CatalogueStats.RATING_BUCKETS; b++) {
+					histograms[c][b] += other.histograms[c][b];
+				}
+			}
+			for (int i = 0; i < other.years.counts.length; i++) {
+				if (other.years.counts[i] > 0) {
+					years.add(other.years.first + i, other.years.counts[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Contagem por ano num long[] que cresce para cobrir os anos encontrados.
+	 */
+	private static final class YearCounts {
+
+		private int first;
+
+		private long[] counts = new long[0];
+
+		void add(int year, long count) {
+			if (counts.length == 0) {
+				first = year;
+				counts = new long[1];
+			} else if (year < first) {
+				long[] grown = new long[counts.length + (first - year)];
+				System.arraycopy(counts, 0, grown, first - year, counts.length);
+				counts = grown;
+				first = year;
+			} else if (year >= first + counts.length) {
+				counts = Arrays.copyOf(counts, year - first + 1);
+			}
+			counts[year - first] += count;
+		}
+
+		Map<Integer, Long> toMap() {
+			Map<Integer, Long> map = new TreeMap<>();
+			for (int i = 0; i < counts.length; i++) {
+				if (counts[i] > 0) map.put(first + i, counts[i]);
+			}
+			return map;
+		}
+	}
+}
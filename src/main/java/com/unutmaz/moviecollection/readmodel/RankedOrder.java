@@ -0,0 +1,71 @@
+package com.unutmaz.moviecollection.readmodel;
+
+import java.util.BitSet;
+
+/**
+ * Ordem de todas as posições de uma CatalogueSnapshot segundo um ranking de IDs
+ * calculado fora da cópia (visualizações, média dos usuários): primeiro os filmes
+ * do ranking, na ordem dele, depois os demais em ordem de ID, como o ORDER BY
+ * equivalente no banco. Guarda a cópia e o ranking de origem, para ser reaproveitada
+ * enquanto nenhum dos dois mudar.
+ */
+public final class RankedOrder {
+
+	private final CatalogueSnapshot snapshot;
+
+	private final long[] ranking;
+
+	private final int[] order;
+
+	private RankedOrder(CatalogueSnapshot snapshot, long[] ranking, int[] order) {
+		this.snapshot = snapshot;
+		this.ranking = ranking;
+		this.order = order;
+	}
+
+	/**
+	 * Calcula a ordem, em O(n + r log n) para r IDs no ranking.
+	 *
+	 * @param snapshot Cópia do catálogo.
+	 * @param ranking IDs dos filmes, do primeiro ao último (IDs ausentes da cópia são ignorados).
+	 * @return Ordem calculada.
+	 */
+	public static RankedOrder of(CatalogueSnapshot snapshot, long[] ranking) {
+		int n = snapshot.movieCount();
+		int[] order = new int[n];
+		BitSet placed = new BitSet(n);
+		int count = 0;
+		for (long id : ranking) {
+			int position = snapshot.indexOfMovie(id);
+			if (position >= 0 && !placed.get(position)) {
+				placed.set(position);
+				order[count++] = position;
+			}
+		}
+		for (int position = placed.nextClearBit(0); position < n; position = placed.nextClearBit(position + 1)) {
+			order[count++] = position;
+		}
+		return new RankedOrder(snapshot, ranking, order);
+	}
+
+	/**
+	 * Indica se esta ordem foi calculada para a cópia e o ranking informados
+	 * (comparados por identidade).
+	 *
+	 * @param snapshot Cópia do catálogo.
+	 * @param ranking Ranking de IDs.
+	 * @return true se a ordem pode ser reaproveitada.
+	 */
+	public boolean isFor(CatalogueSnapshot snapshot, long[] ranking) {
+		return this.snapshot == snapshot && this.ranking == ranking;
+	}
+
+	/**
+	 * Obtém as posições ordenadas.
+	 *
+	 * @return Posições (não deve ser alterado).
+	 */
+	public int[] order() {
+		return order;
+	}
+}
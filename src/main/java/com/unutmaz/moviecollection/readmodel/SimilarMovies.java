@@ -0,0 +1,387 @@
+package com.unutmaz.moviecollection.readmodel;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.unutmaz.moviecollection.event.CatalogueSnapshotEvent;
+import com.unutmaz.moviecollection.model.CatalogueChange;
+import com.unutmaz.moviecollection.util.MovieQuery;
+
+/**
+ * Recomendação de filmes semelhantes, calculada sobre o grafo bipartido filme-ator
+ * da CatalogueSnapshot.
+ *
+ * Pontuação de um candidato c em relação ao filme m:
+ * - para cada ator em comum, 1 / log2(1 + número de filmes do ator), de modo que
+ *   atores que aparecem em muitos filmes pesam menos;
+ * - mais CATEGORY_WEIGHT se c for da mesma categoria de m;
+ * - empates são resolvidos pela avaliação (maior primeiro) e depois pelo ID.
+ * Se menos de k filmes compartilham elenco, a lista é completada com os filmes mais
+ * bem avaliados da mesma categoria (permutação por avaliação da categoria).
+ *
+ * O cálculo percorre apenas os filmes dos atores do elenco, acumulando as pontuações
+ * num float[] reaproveitado por thread (só as posições tocadas são zeradas depois),
+ * e mantém os k melhores num heap mínimo de tamanho fixo, sem objetos por candidato.
+ * Atores com mais de MAX_ACTOR_FILMS filmes são ignorados, o que limita o custo.
+ *
+ * Os resultados (os MAX_K melhores IDs) ficam num cache LRU por filme. A cada nova
+ * cópia são invalidados apenas os filmes afetados: os alterados, os que compartilham
+ * atores com o elenco antigo ou novo deles, os que os tinham na lista e, se a lista
+ * foi completada pela categoria, os da categoria antiga ou nova dos alterados.
+ */
+@Component
+public class SimilarMovies {
+
+	/**
+	 * Maior k aceito; o cache guarda sempre os MAX_K melhores.
+	 */
+	public static final int MAX_K = 50;
+
+	/**
+	 * Peso de pertencer à mesma categoria, equivalente a pouco menos de um ator em comum.
+	 */
+	static final float CATEGORY_WEIGHT = 0.5f;
+
+	/**
+	 * Atores com mais filmes que isso não contam para a semelhança.
+	 */
+	static final int MAX_ACTOR_FILMS = 10_000;
+
+	private final CatalogueReadModel readModel;
+
+	/**
+	 * Cache LRU: ID do filme -> resultado.
+	 */
+	private final Map<Long, Entry> cache;
+
+	/**
+	 * Área de trabalho de cada thread.
+	 */
+	private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+	/**
+	 * Construtor com o modelo de leitura e o tamanho do cache.
+	 *
+	 * @param readModel Modelo de leitura, para saber se uma cópia ainda é a atual.
+	 * @param cacheSize Número máximo de filmes com resultado em cache.
+	 */
+	public SimilarMovies(CatalogueReadModel readModel, @Value("${moviecollection.similar.cache-size:10000}") int cacheSize) {
+		this.readModel = readModel;
+		this.cache = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	/**
+	 * Busca os filmes mais semelhantes a um filme.
+	 *
+	 * @param snapshot Cópia do catálogo.
+	 * @param movieId ID do filme.
+	 * @param k Número de filmes (até MAX_K).
+	 * @return Posições dos filmes semelhantes na cópia, do mais semelhante ao menos,
+	 *         ou null se o filme não existir.
+	 */
+	public int[] find(CatalogueSnapshot snapshot, long movieId, int k) {
+		int position = snapshot.indexOfMovie(movieId);
+		if (position < 0) return null;
+		Entry entry;
+		synchronized (cache) {
+			entry = cache.get(movieId);
+		}
+		if (entry == null || entry.version != snapshot.getVersion()) {
+			entry = compute(snapshot, position);
+			synchronized (cache) {
+				// Só guarda se nenhuma cópia mais nova foi publicada durante o cálculo
+				if (snapshot == readModel.current()) {
+					cache.put(movieId, entry);
+				}
+			}
+		}
+		int count = Math.min(Math.max(k, 0), entry.ids.length);
+		int[] positions = new int[count];
+		int found = 0;
+		for (int i = 0; i < count; i++) {
+			int similar = snapshot.indexOfMovie(entry.ids[i]);
+			if (similar >= 0) positions[found++] = similar;
+		}
+		return Arrays.copyOf(positions, found);
+	}
+
+	/**
+	 * Calcula os MAX_K filmes mais semelhantes ao filme da posição informada.
+	 */
+	Entry compute(CatalogueSnapshot snapshot, int position) {
+		Scratch work = scratch.get();
+		work.ensureCapacity(snapshot.movieCount());
+		float[] scores = work.scores;
+		String category = snapshot.categoryKey(position);
+		try {
+			// Acumula a pontuação dos filmes que compartilham atores
+			for (int i = snapshot.castStart(position); i < snapshot.castEnd(position); i++) {
+				int actor = snapshot.castAt(i);
+				int films = snapshot.filmEnd(actor) - snapshot.filmStart(actor);
+				if (films > MAX_ACTOR_FILMS) continue;
+				float weight = (float) (1.0 / (Math.log(1 + films) / Math.log(2)));
+				for (int j = snapshot.filmStart(actor); j < snapshot.filmEnd(actor); j++) {
+					int film = snapshot.filmAt(j);
+					if (film == position) continue;
+					if (scores[film] == 0f) work.touch(film);
+					scores[film] += weight;
+				}
+			}
+
+			TopK top = new TopK(MAX_K, snapshot);
+			for (int t = 0; t < work.touchedCount; t++) {
+				int film = work.touched[t];
+				float score = scores[film];
+				if (category != null && category.equals(snapshot.categoryKey(film))) {
+					score += CATEGORY_WEIGHT;
+				}
+				top.offer(film, score);
+			}
+
+			// Completa com os mais bem avaliados da categoria que não compartilham elenco
+			boolean categoryFill = false;
+			if (top.size < MAX_K && category != null) {
+				int[] byRating = snapshot.categoryOrder(category, MovieQuery.ORDERINGS.indexOf(MovieQuery.ORDER_RATING) + 1);
+				for (int film : byRating) {
+					if (top.size >= MAX_K) break;
+					if (film == position || scores[film] != 0f) continue;
+					top.offer(film, CATEGORY_WEIGHT);
+					categoryFill = true;
+				}
+			}
+
+			int[] ranked = top.sorted();
+			long[] ids = new long[ranked.length];
+			for (int i = 0; i < ranked.length; i++) {
+				ids[i] = snapshot.movieId(ranked[i]);
+			}
+			return new Entry(ids, categoryFill, snapshot.getVersion());
+		} finally {
+			work.reset();
+		}
+	}
+
+	/**
+	 * Invalida os resultados afetados pela nova cópia do catálogo.
+	 *
+	 * @param event Troca de cópia.
+	 */
+	@EventListener
+	public void onSnapshot(CatalogueSnapshotEvent event) {
+		if (event.isReload()) {
+			synchronized (cache) {
+				cache.clear();
+			}
+			return;
+		}
+		Set<Long> changed = new HashSet<>();
+		Set<Long> affected = new HashSet<>();
+		Set<String> categories = new HashSet<>();
+		// Renomear atores não muda a semelhança; exclusões de atores geram eventos dos filmes afetados
+		if (CatalogueChange.MOVIE.equals(event.getChange().getType())) {
+			for (long id : event.getChange().getIds()) {
+				changed.add(id);
+				collectNeighbours(event.getPrevious(), id, affected, categories);
+				collectNeighbours(event.getCurrent(), id, affected, categories);
+			}
+		}
+		affected.addAll(changed);
+		CatalogueSnapshot current = event.getCurrent();
+		synchronized (cache) {
+			Iterator<Map.Entry<Long, Entry>> entries = cache.entrySet().iterator();
+			while (entries.hasNext()) {
+				Map.Entry<Long, Entry> cached = entries.next();
+				Entry entry = cached.getValue();
+				boolean stale = affected.contains(cached.getKey()) || entry.containsAny(changed);
+				if (!stale && entry.categoryFill) {
+					int position = current.indexOfMovie(cached.getKey());
+					stale = position < 0 || categories.contains(current.categoryKey(position));
+				}
+				if (stale) {
+					entries.remove();
+				}
+				else {
+					entry.version = current.getVersion();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Coleta os filmes que compartilham atores com o filme e a categoria dele numa cópia.
+	 */
+	private void collectNeighbours(CatalogueSnapshot snapshot, long movieId, Set<Long> affected, Set<String> categories) {
+		int position = snapshot.indexOfMovie(movieId);
+		if (position < 0) return;
+		if (snapshot.categoryKey(position) != null) {
+			categories.add(snapshot.categoryKey(position));
+		}
+		for (int i = snapshot.castStart(position); i < snapshot.castEnd(position); i++) {
+			int actor = snapshot.castAt(i);
+			if (snapshot.filmEnd(actor) - snapshot.filmStart(actor) > MAX_ACTOR_FILMS) continue;
+			for (int j = snapshot.filmStart(actor); j < snapshot.filmEnd(actor); j++) {
+				affected.add(snapshot.movieId(snapshot.filmAt(j)));
+			}
+		}
+	}
+
+	/**
+	 * Resultado em cache: IDs em ordem de semelhança e a versão da cópia em que é válido.
+	 */
+	static final class Entry {
+
+		private final long[] ids;
+
+		private final boolean categoryFill;
+
+		private volatile long version;
+
+		Entry(long[] ids, boolean categoryFill, long version) {
+			this.ids = ids;
+			this.categoryFill = categoryFill;
+			this.version = version;
+		}
+
+		private boolean containsAny(Set<Long> movieIds) {
+			for (long id : ids) {
+				if (movieIds.contains(id)) return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Heap mínimo de tamanho fixo com os k melhores candidatos. A raiz é o pior dos
+	 * mantidos, substituído quando chega um candidato melhor.
+	 */
+	private static final class TopK {
+
+		private final int[] positions;
+
+		private final float[] scores;
+
+		private final CatalogueSnapshot snapshot;
+
+		private int size;
+
+		private TopK(int k, CatalogueSnapshot snapshot) {
+			this.positions = new int[k];
+			this.scores = new float[k];
+			this.snapshot = snapshot;
+		}
+
+		private void offer(int position, float score) {
+			if (size < positions.length) {
+				positions[size] = position;
+				scores[size] = score;
+				siftUp(size++);
+			}
+			else if (better(position, score, positions[0], scores[0])) {
+				positions[0] = position;
+				scores[0] = score;
+				siftDown(0);
+			}
+		}
+
+		/**
+		 * Compara dois candidatos: pontuação, avaliação e, por fim, o menor ID.
+		 */
+		private boolean better(int a, float scoreA, int b, float scoreB) {
+			if (scoreA != scoreB) return scoreA > scoreB;
+			float ratingA = snapshot.rating(a);
+			float ratingB = snapshot.rating(b);
+			if (ratingA != ratingB) return ratingA > ratingB;
+			return a < b;
+		}
+
+		private void siftUp(int index) {
+			while (index > 0) {
+				int parent = (index - 1) / 2;
+				if (!better(positions[parent], scores[parent], positions[index], scores[index])) break;
+				swap(index, parent);
+				index = parent;
+			}
+		}
+
+		private void siftDown(int index) {
+			while (true) {
+				int worst = index;
+				for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+					if (better(positions[worst], scores[worst], positions[child], scores[child])) worst = child;
+				}
+				if (worst == index) return;
+				swap(index, worst);
+				index = worst;
+			}
+		}
+
+		private void swap(int i, int j) {
+			int position = positions[i];
+			positions[i] = positions[j];
+			positions[j] = position;
+			float score = scores[i];
+			scores[i] = scores[j];
+			scores[j] = score;
+		}
+
+		/**
+		 * Esvazia o heap, devolvendo as posições do melhor para o pior.
+		 */
+		private int[] sorted() {
+			int[] ranked = new int[size];
+			for (int i = ranked.length - 1; i >= 0; i--) {
+				ranked[i] = positions[0];
+				swap(0, --size);
+				siftDown(0);
+			}
+			return ranked;
+		}
+	}
+
+	/**
+	 * Pontuações acumuladas e posições tocadas, reaproveitadas entre chamadas da mesma thread.
+	 */
+	private static final class Scratch {
+
+		private float[] scores = new float[0];
+
+		private int[] touched = new int[256];
+
+		private int touchedCount;
+
+		private void ensureCapacity(int movies) {
+			if (scores.length < movies) {
+				scores = new float[movies];
+			}
+		}
+
+		private void touch(int position) {
+			if (touchedCount == touched.length) {
+				touched = Arrays.copyOf(touched, touched.length * 2);
+			}
+			touched[touchedCount++] = position;
+		}
+
+		private void reset() {
+			for (int i = 0; i < touchedCount; i++) {
+				scores[touched[i]] = 0f;
+			}
+			touchedCount = 0;
+		}
+	}
+}
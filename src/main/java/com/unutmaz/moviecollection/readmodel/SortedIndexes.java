@@ -0,0 +1,222 @@
+package com.unutmaz.moviecollection.readmodel;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntBinaryOperator;
+
+import com.unutmaz.moviecollection.util.MovieQuery;
+
+/**
+ * Permutações pré-calculadas das posições dos filmes de uma CatalogueSnapshot,
+ * uma por ordenação de MovieQuery (índice 0 = ordem de ID), para todo o catálogo
+ * e para cada categoria. Com elas, uma listagem ordenada e filtrada por categoria
+ * é apenas uma cópia do trecho da página.
+ *
+ * Numa nova cópia gerada a partir da anterior, as permutações não são reordenadas:
+ * as posições dos filmes não alterados são remapeadas (mantendo a ordem relativa),
+ * só os filmes alterados são ordenados e as duas sequências são intercaladas,
+ * em O(n + k log k) para k filmes alterados. As permutações por categoria são
+ * derivadas das globais numa única passada.
+ */
+final class SortedIndexes {
+
+	/**
+	 * Número de ordenações: ordem de ID mais MovieQuery.ORDERINGS.
+	 */
+	static final int ORDER_COUNT = MovieQuery.ORDERINGS.size() + 1;
+
+	/**
+	 * Permutações de todo o catálogo, por índice de ordenação.
+	 */
+	private final int[][] all;
+
+	/**
+	 * Permutações de cada categoria (chave em maiúsculas), por índice de ordenação.
+	 */
+	private final Map<String, int[][]> byCategory;
+
+	private SortedIndexes(int[][] all, Map<String, int[][]> byCategory) {
+		this.all = all;
+		this.byCategory = byCategory;
+	}
+
+	/**
+	 * Calcula as permutações ordenando todas as posições.
+	 *
+	 * @param snapshot Cópia cujas posições serão ordenadas.
+	 * @return Permutações.
+	 */
+	static SortedIndexes build(CatalogueSnapshot snapshot) {
+		int n = snapshot.movieCount();
+		int[][] all = new int[ORDER_COUNT][];
+		all[0] = identity(n);
+		for (int order = 1; order < ORDER_COUNT; order++) {
+			all[order] = all[0].clone();
+			sort(all[order], comparator(snapshot, order));
+		}
+		return new SortedIndexes(all, partition(snapshot, all));
+	}
+
+	/**
+	 * Calcula as permutações de uma nova cópia a partir das da cópia anterior.
+	 *
+	 * @param snapshot Nova cópia.
+	 * @param previous Permutações da cópia anterior.
+	 * @param oldToNew Nova posição de cada posição anterior, ou -1 se o filme foi alterado ou removido.
+	 * @param changed Posições, na nova cópia, dos filmes incluídos ou alterados.
+	 * @return Permutações da nova cópia.
+	 */
+	static SortedIndexes update(CatalogueSnapshot snapshot, SortedIndexes previous, int[] oldToNew, int[] changed) {
+		int[][] all = new int[ORDER_COUNT][];
+		all[0] = identity(snapshot.movieCount());
+		for (int order = 1; order < ORDER_COUNT; order++) {
+			IntBinaryOperator comparator = comparator(snapshot, order);
+			int[] kept = new int[snapshot.movieCount()];
+			int count = 0;
+			for (int position : previous.all[order]) {
+				if (oldToNew[position] >= 0) {
+					kept[count++] = oldToNew[position];
+				}
+			}
+			int[] added = changed.clone();
+			sort(added, comparator);
+			all[order] = merge(kept, count, added, comparator);
+		}
+		return new SortedIndexes(all, partition(snapshot, all));
+	}
+
+	/**
+	 * Obtém a permutação de todo o catálogo.
+	 *
+	 * @param order Índice da ordenação (MovieQuery.orderIndex).
+	 * @return Posições ordenadas (não deve ser alterado).
+	 */
+	int[] all(int order) {
+		return all[order];
+	}
+
+	/**
+	 * Obtém a permutação de uma categoria.
+	 *
+	 * @param categoryKey Categoria em maiúsculas.
+	 * @param order Índice da ordenação (MovieQuery.orderIndex).
+	 * @return Posições ordenadas (não deve ser alterado), vazio se a categoria não existir.
+	 */
+	int[] category(String categoryKey, int order) {
+		int[][] orders = byCategory.get(categoryKey);
+		return orders == null ? new int[0] : orders[order];
+	}
+
+	/**
+	 * Separa as permutações globais por categoria, mantendo a ordem.
+	 */
+	private static Map<String, int[][]> partition(CatalogueSnapshot snapshot, int[][] all) {
+		int n = snapshot.movieCount();
+		String[] keys = new String[n];
+		Map<String, Integer> sizes = new HashMap<>();
+		for (int position = 0; position < n; position++) {
+			keys[position] = snapshot.categoryKey(position);
+			if (keys[position] != null) {
+				sizes.merge(keys[position], 1, Integer::sum);
+			}
+		}
+		Map<String, int[][]> byCategory = new HashMap<>();
+		sizes.forEach((key, size) -> {
+			int[][] orders = new int[ORDER_COUNT][];
+			for (int order = 0; order < ORDER_COUNT; order++) {
+				orders[order] = new int[size];
+			}
+			byCategory.put(key, orders);
+		});
+		for (int order = 0; order < ORDER_COUNT; order++) {
+			Map<String, Integer> filled = new HashMap<>();
+			for (int position : all[order]) {
+				String key = keys[position];
+				if (key != null) {
+					int index = filled.merge(key, 1, Integer::sum) - 1;
+					byCategory.get(key)[order][index] = position;
+				}
+			}
+		}
+		return byCategory;
+	}
+
+	/**
+	 * Comparador de posições para uma ordenação. Empates são resolvidos pela posição
+	 * (ordem de ID), como a ordenação estável das listas em ordem de ID fazia antes.
+	 * Valores nulos ficam no fim.
+	 */
+	private static IntBinaryOperator comparator(CatalogueSnapshot snapshot, int order) {
+		String orderBy = order == 0 ? null : MovieQuery.ORDERINGS.get(order - 1);
+		if (MovieQuery.ORDER_RATING.equals(orderBy)) {
+			return (a, b) -> {
+				int result = Float.compare(snapshot.rating(b), snapshot.rating(a));
+				return result != 0 ? result : Integer.compare(a, b);
+			};
+		}
+		if (MovieQuery.ORDER_NAME.equals(orderBy)) {
+			return (a, b) -> {
+				String nameA = snapshot.name(a);
+				String nameB = snapshot.name(b);
+				int result = nameA == null ? (nameB == null ? 0 : 1) : (nameB == null ? -1 : nameA.compareTo(nameB));
+				return result != 0 ? result : Integer.compare(a, b);
+			};
+		}
+		if (MovieQuery.ORDER_DATE.equals(orderBy)) {
+			return (a, b) -> {
+				long dateA = snapshot.dateMillis(a);
+				long dateB = snapshot.dateMillis(b);
+				// Long.MIN_VALUE (sem data) já fica por último em ordem decrescente
+				int result = Long.compare(dateB, dateA);
+				return result != 0 ? result : Integer.compare(a, b);
+			};
+		}
+		return Integer::compare;
+	}
+
+	private static int[] identity(int n) {
+		int[] positions = new int[n];
+		for (int i = 0; i < n; i++) {
+			positions[i] = i;
+		}
+		return positions;
+	}
+
+	/**
+	 * Intercala duas sequências ordenadas.
+	 */
+	private static int[] merge(int[] left, int leftCount, int[] right, IntBinaryOperator comparator) {
+		int[] merged = new int[leftCount + right.length];
+		int i = 0;
+		int j = 0;
+		int k = 0;
+		while (i < leftCount && j < right.length) {
+			merged[k++] = comparator.applyAsInt(left[i], right[j]) <= 0 ? left[i++] : right[j++];
+		}
+		while (i < leftCount) merged[k++] = left[i++];
+		while (j < right.length) merged[k++] = right[j++];
+		return merged;
+	}
+
+	/**
+	 * Ordena um int[] com um comparador (merge sort, sem converter para Integer).
+	 */
+	private static void sort(int[] values, IntBinaryOperator comparator) {
+		int[] buffer = new int[values.length];
+		for (int width = 1; width < values.length; width *= 2) {
+			for (int from = 0; from < values.length - width; from += 2 * width) {
+				int middle = from + width;
+				int to = Math.min(from + 2 * width, values.length);
+				int i = from;
+				int j = middle;
+				int k = from;
+				while (i < middle && j < to) {
+					buffer[k++] = comparator.applyAsInt(values[i], values[j]) <= 0 ? values[i++] : values[j++];
+				}
+				while (i < middle) buffer[k++] = values[i++];
+				while (j < to) buffer[k++] = values[j++];
+				System.arraycopy(buffer, from, values, from, to - from);
+			}
+		}
+	}
+}
@@ -1,10 +1,12 @@
 package com.unutmaz.moviecollection.repo;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.unutmaz.moviecollection.model.Actor;
 import com.unutmaz.moviecollection.model.Movie;
 import com.unutmaz.moviecollection.model.User;
+import com.unutmaz.moviecollection.util.ActorStats;
 
 /**
  * Interface do repositório para operações relacionadas a Atores.
@@ -21,6 +23,24 @@ public interface ActorRepo {
 	 */
 	List<Actor> findActorsByMovie(Movie movie);
 
+	/**
+	 * Busca os IDs dos filmes em cujo elenco aparece algum dos atores informados.
+	 *
+	 * @param actorIds IDs dos atores.
+	 * @return IDs dos filmes (sem repetição).
+	 */
+	List<Long> findMovieIdsByActors(Collection<Long> actorIds);
+
+	/**
+	 * Busca o ranking de atores de /rest/stats com GROUP BY sobre movie_actors.
+	 *
+	 * @param byRating true para ordenar pela avaliação média (apenas atores com pelo
+	 *        menos CatalogueStats.MIN_RATED_MOVIES filmes), false pelo número de filmes.
+	 * @param limit Tamanho do ranking.
+	 * @return Atores com número de filmes e avaliação média.
+	 */
+	List<ActorStats> findTopActors(boolean byRating, int limit);
+
 	/**
 	 * Busca todos os atores cadastrados no sistema.
 	 *
@@ -36,6 +56,22 @@ public interface ActorRepo {
 	 */
 	Actor findActorById(Long id);
 
+	/**
+	 * Busca vários atores pelo ID com uma única consulta IN.
+	 *
+	 * @param ids IDs dos atores.
+	 * @return Atores encontrados (IDs inexistentes são ignorados).
+	 */
+	List<Actor> findByIds(Collection<Long> ids);
+
+	/**
+	 * Busca vários atores pelo nome exato, com consultas IN em lotes.
+	 *
+	 * @param names Nomes dos atores.
+	 * @return Atores encontrados (nomes repetidos trazem todos os atores).
+	 */
+	List<Actor> findByNames(Collection<String> names);
+
 	/**
 	 * Cria um novo ator no sistema.
 	 *
@@ -58,6 +94,23 @@ public interface ActorRepo {
 	 */
 	void delete(Long actor_id);
 
+	/**
+	 * Busca quais dos IDs informados correspondem a atores existentes.
+	 *
+	 * @param ids IDs a verificar.
+	 * @return IDs existentes.
+	 */
+	List<Long> findExistingIds(Collection<Long> ids);
+
+	/**
+	 * Exclui vários atores com comandos em massa: primeiro as participações
+	 * em movie_actors, depois os atores, sem carregar as entidades.
+	 *
+	 * @param ids IDs dos atores a serem excluídos.
+	 * @return Número de atores excluídos.
+	 */
+	int deleteAll(Collection<Long> ids);
+
 	/**
 	 * Registra um novo usuário no sistema.
 	 * Nota: Este método parece estar fora do escopo de um repositório de atores,
@@ -66,4 +119,10 @@ public interface ActorRepo {
 	 * @param user Usuário a ser registrado.
 	 */
 	void registerUser(User user);
+
+	/**
+	 * Envia ao banco as alterações pendentes e limpa o contexto de persistência.
+	 * Usado entre os lotes de operações em massa.
+	 */
+	void flushAndClear();
 }
@@ -1,7 +1,11 @@
 package com.unutmaz.moviecollection.repo;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
@@ -10,6 +14,9 @@ import org.springframework.stereotype.Repository;
 import com.unutmaz.moviecollection.model.Actor;
 import com.unutmaz.moviecollection.model.Movie;
 import com.unutmaz.moviecollection.model.User;
+import com.unutmaz.moviecollection.util.ActorStats;
+import com.unutmaz.moviecollection.util.Batches;
+import com.unutmaz.moviecollection.util.CatalogueStats;
 
 /**
  * Implementação JPA do repositório de atores.
@@ -28,6 +35,11 @@ public class ActorRepoJPA implements ActorRepo {
 	@PersistenceContext
 	private EntityManager entityManager;
 
+	/**
+	 * Número máximo de IDs por cláusula IN.
+	 */
+	private static final int IN_BATCH_SIZE = 1000;
+
 	/**
 	 * Cria um novo ator no banco de dados.
 	 *
@@ -50,13 +62,82 @@ public class ActorRepoJPA implements ActorRepo {
 	}
 
 	/**
-	 * Exclui um ator do banco de dados pelo seu ID.
+	 * Exclui um ator do banco de dados pelo seu ID, removendo também
+	 * suas participações nos elencos (tabela movie_actors).
 	 *
 	 * @param actor_id ID do ator a ser excluído.
 	 */
 	@Override
 	public void delete(Long actor_id) {
-		entityManager.remove(entityManager.getReference(Actor.class, actor_id));
+		deleteAll(Collections.singletonList(actor_id));
+	}
+
+	/**
+	 * Busca, em lotes de IN_BATCH_SIZE, quais IDs existem.
+	 *
+	 * @param ids IDs a verificar.
+	 * @return IDs existentes.
+	 */
+	@Override
+	public List<Long> findExistingIds(Collection<Long> ids) {
+		List<Long> existing = new ArrayList<>();
+		for (List<Long> batch : Batches.of(ids, IN_BATCH_SIZE)) {
+			existing.addAll(entityManager.createQuery("select a.actor_id from Actor a where a.actor_id in :ids", Long.class)
+					.setParameter("ids", batch).getResultList());
+		}
+		return existing;
+	}
+
+	/**
+	 * Exclui vários atores em lotes de IN_BATCH_SIZE com DELETEs em massa.
+	 * Como em MovieRepoJPA.deleteAll, o contexto de persistência é limpo e os
+	 * atores são removidos do cache de segundo nível ao final.
+	 *
+	 * @param ids IDs dos atores.
+	 * @return Número de atores excluídos.
+	 */
+	@Override
+	public int deleteAll(Collection<Long> ids) {
+		entityManager.flush();
+		int deleted = 0;
+		Cache cache = entityManager.getEntityManagerFactory().getCache();
+		for (List<Long> batch : Batches.of(ids, IN_BATCH_SIZE)) {
+			entityManager.createNativeQuery("DELETE FROM movie_actors WHERE actor_id IN (:ids)")
+					.setParameter("ids", batch).executeUpdate();
+			deleted += entityManager.createQuery("delete from Actor a where a.actor_id in :ids")
+					.setParameter("ids", batch).executeUpdate();
+			batch.forEach(id -> cache.evict(Actor.class, id));
+		}
+		entityManager.clear();
+		return deleted;
+	}
+
+	/**
+	 * Busca o ranking de atores numa única consulta agregada; os desempates seguem
+	 * os do cálculo em memória (CatalogueStatistics).
+	 *
+	 * @param byRating true para ordenar pela avaliação média.
+	 * @param limit Tamanho do ranking.
+	 * @return Atores com número de filmes e avaliação média.
+	 */
+	@Override
+	public List<ActorStats> findTopActors(boolean byRating, int limit) {
+		String q = "SELECT a.actor_id, a.actor_name, COUNT(*) AS movies, AVG(m.rating) AS average FROM t_actors a"
+				+ " JOIN movie_actors ma ON ma.actor_id = a.actor_id JOIN t_movies m ON m.id = ma.movie_id"
+				+ " GROUP BY a.actor_id, a.actor_name HAVING COUNT(*) >= :min"
+				+ (byRating ? " ORDER BY average DESC, movies DESC, a.actor_id" : " ORDER BY movies DESC, average DESC, a.actor_id");
+		List<?> rows = entityManager.createNativeQuery(q)
+				.setParameter("min", byRating ? CatalogueStats.MIN_RATED_MOVIES : 1)
+				.setMaxResults(limit).getResultList();
+		List<ActorStats> ranking = new ArrayList<>(rows.size());
+		for (Object row : rows) {
+			Object[] columns = (Object[]) row;
+			Actor actor = new Actor();
+			actor.setActor_id(((Number) columns[0]).longValue());
+			actor.setActor_name((String) columns[1]);
+			ranking.add(new ActorStats(actor, ((Number) columns[2]).longValue(), ((Number) columns[3]).doubleValue()));
+		}
+		return ranking;
 	}
 
 	/**
@@ -80,6 +161,38 @@ public class ActorRepoJPA implements ActorRepo {
 		return entityManager.find(Actor.class, id);
 	}
 
+	/**
+	 * Busca vários atores pelo ID, em lotes de IN_BATCH_SIZE.
+	 *
+	 * @param ids IDs dos atores.
+	 * @return Atores encontrados.
+	 */
+	@Override
+	public List<Actor> findByIds(Collection<Long> ids) {
+		List<Actor> actors = new ArrayList<>();
+		for (List<Long> batch : Batches.of(ids, IN_BATCH_SIZE)) {
+			actors.addAll(entityManager.createQuery("from Actor a where a.actor_id in :ids", Actor.class)
+					.setParameter("ids", batch).getResultList());
+		}
+		return actors;
+	}
+
+	/**
+	 * Busca atores pelo nome exato, em lotes de IN_BATCH_SIZE.
+	 *
+	 * @param names Nomes dos atores.
+	 * @return Atores encontrados, em ordem de ID dentro de cada lote.
+	 */
+	@Override
+	public List<Actor> findByNames(Collection<String> names) {
+		List<Actor> actors = new ArrayList<>();
+		for (List<String> batch : Batches.of(names, IN_BATCH_SIZE)) {
+			actors.addAll(entityManager.createQuery("from Actor a where a.actor_name in :names order by a.actor_id", Actor.class)
+					.setParameter("names", batch).getResultList());
+		}
+		return actors;
+	}
+
 	/**
 	 * Busca atores que participam de um filme específico.
 	 * Nota: Esta implementação parece ter um problema - está fazendo query na tabela
@@ -94,6 +207,23 @@ public class ActorRepoJPA implements ActorRepo {
 		return entityManager.createNativeQuery(q).getResultList();
 	}
 
+	/**
+	 * Busca, na tabela de junção, os filmes dos atores informados.
+	 *
+	 * @param actorIds IDs dos atores.
+	 * @return IDs dos filmes.
+	 */
+	@Override
+	public List<Long> findMovieIdsByActors(Collection<Long> actorIds) {
+		List<Long> movieIds = new ArrayList<>();
+		for (List<Long> batch : Batches.of(actorIds, IN_BATCH_SIZE)) {
+			List<?> rows = entityManager.createNativeQuery("SELECT DISTINCT movie_id FROM movie_actors WHERE actor_id IN (:ids)")
+					.setParameter("ids", batch).getResultList();
+			rows.forEach(id -> movieIds.add(((Number) id).longValue()));
+		}
+		return movieIds;
+	}
+
 	/**
 	 * Registra um novo usuário no sistema.
 	 * Este método foi implementado aqui por conveniência, embora não esteja
@@ -109,4 +239,13 @@ public class ActorRepoJPA implements ActorRepo {
 		entityManager.createNativeQuery(q).executeUpdate();
 		entityManager.createNativeQuery(q2).executeUpdate();
 	}
+
+	/**
+	 * Envia as alterações pendentes e limpa o contexto de persistência.
+	 */
+	@Override
+	public void flushAndClear() {
+		entityManager.flush();
+		entityManager.clear();
+	}
 }
@@ -0,0 +1,42 @@
+package com.unutmaz.moviecollection.repo;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.unutmaz.moviecollection.model.CatalogueChange;
+
+/**
+ * Interface do repositório do registro de alterações do catálogo.
+ * Define métodos para registrar alterações em filmes e atores e para
+ * consultá-las a partir de uma versão.
+ * Esta interface é implementada por ChangeRepoJPA.
+ */
+public interface ChangeRepo {
+
+	/**
+	 * Registra alterações de várias entidades do mesmo tipo, cada uma com um
+	 * novo número de sequência.
+	 *
+	 * @param entityType Tipo das entidades (CatalogueChange.MOVIE ou ACTOR).
+	 * @param ids IDs das entidades alteradas.
+	 * @param deleted true se as entidades foram excluídas.
+	 * @return Versão do catálogo após o registro.
+	 */
+	long record(String entityType, Collection<Long> ids, boolean deleted);
+
+	/**
+	 * Busca as alterações com sequência maior que since, em ordem de sequência.
+	 *
+	 * @param since Última versão já conhecida pelo consumidor.
+	 * @param limit Número máximo de alterações.
+	 * @return Alterações encontradas.
+	 */
+	List<CatalogueChange> findSince(long since, int limit);
+
+	/**
+	 * Obtém a versão atual do catálogo (sequência da última alteração).
+	 *
+	 * @return Versão atual.
+	 */
+	long currentVersion();
+}
@@ -0,0 +1,104 @@
+package com.unutmaz.moviecollection.repo;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+
+import com.unutmaz.moviecollection.model.CatalogueChange;
+
+/**
+ * Implementação JPA do repositório de alterações do catálogo.
+ *
+ * Os números de sequência vêm da linha única da tabela catalogue_version, e não de
+ * uma coluna AUTO_INCREMENT: o UPDATE que reserva os números bloqueia essa linha até
+ * o fim da transação, então as sequências ficam visíveis na mesma ordem em que são
+ * atribuídas. Assim, um consumidor que leu até a versão N nunca deixa de ver uma
+ * alteração com número menor confirmada depois.
+ */
+@Repository("changeRepository")
+public class ChangeRepoJPA implements ChangeRepo {
+
+	/**
+	 * EntityManager injetado pelo Spring para operações de persistência.
+	 */
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Número de INSERTs por lote JDBC.
+	 */
+	private static final int INSERT_BATCH_SIZE = 1000;
+
+	/**
+	 * Reserva ids.size() números de sequência e insere uma linha por entidade
+	 * com um único PreparedStatement em lotes.
+	 *
+	 * @param entityType Tipo das entidades.
+	 * @param ids IDs das entidades.
+	 * @param deleted true para exclusões.
+	 * @return Versão do catálogo após o registro.
+	 */
+	@Override
+	public long record(String entityType, Collection<Long> ids, boolean deleted) {
+		if (ids.isEmpty()) {
+			return currentVersion();
+		}
+		entityManager.createNativeQuery("UPDATE catalogue_version SET version = version + :count WHERE id = 1")
+				.setParameter("count", ids.size()).executeUpdate();
+		long version = currentVersion();
+		long first = version - ids.size() + 1;
+		Timestamp now = new Timestamp(System.currentTimeMillis());
+		entityManager.unwrap(Session.class).doWork(connection -> {
+			String q = "INSERT INTO catalogue_changes(seq, entity_type, entity_id, deleted, changed_at) VALUES (?, ?, ?, ?, ?)";
+			try (PreparedStatement statement = connection.prepareStatement(q)) {
+				long seq = first;
+				for (Long id : ids) {
+					statement.setLong(1, seq++);
+					statement.setString(2, entityType);
+					statement.setLong(3, id);
+					statement.setBoolean(4, deleted);
+					statement.setTimestamp(5, now);
+					statement.addBatch();
+					if ((seq - first) % INSERT_BATCH_SIZE == 0) {
+						statement.executeBatch();
+					}
+				}
+				statement.executeBatch();
+			}
+		});
+		return version;
+	}
+
+	/**
+	 * Busca as alterações posteriores a since.
+	 *
+	 * @param since Última versão conhecida.
+	 * @param limit Número máximo de alterações.
+	 * @return Alterações em ordem de sequência.
+	 */
+	@Override
+	public List<CatalogueChange> findSince(long since, int limit) {
+		return entityManager.createQuery("from CatalogueChange c where c.seq > :since order by c.seq", CatalogueChange.class)
+				.setParameter("since", since)
+				.setMaxResults(limit)
+				.getResultList();
+	}
+
+	/**
+	 * Obtém a versão atual do catálogo.
+	 *
+	 * @return Versão atual.
+	 */
+	@Override
+	public long currentVersion() {
+		return ((Number) entityManager.createNativeQuery("SELECT version FROM catalogue_version WHERE id = 1")
+				.getSingleResult()).longValue();
+	}
+}
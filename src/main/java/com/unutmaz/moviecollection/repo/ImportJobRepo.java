@@ -0,0 +1,36 @@
+package com.unutmaz.moviecollection.repo;
+
+import java.util.List;
+
+import com.unutmaz.moviecollection.util.ImportJob;
+
+/**
+ * Interface do repositório dos jobs de importação (tabela import_jobs).
+ * Guarda o estado e o ponto de retomada de cada job; o progresso é gravado na
+ * mesma transação que insere os filmes, de modo que a retomada nunca repete nem
+ * perde linhas.
+ * Esta interface é implementada por ImportJobRepoJPA.
+ */
+public interface ImportJobRepo {
+
+	/**
+	 * Grava o estado de um job, criando-o se não existir.
+	 *
+	 * @param job Estado do job (rowsPerSecond, etaSeconds e recentErrors não são gravados).
+	 */
+	void save(ImportJob job);
+
+	/**
+	 * Busca todos os jobs.
+	 *
+	 * @return Jobs, do mais antigo ao mais recente.
+	 */
+	List<ImportJob> findAll();
+
+	/**
+	 * Exclui um job.
+	 *
+	 * @param id ID do job.
+	 */
+	void delete(String id);
+}
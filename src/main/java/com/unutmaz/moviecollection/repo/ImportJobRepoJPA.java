@@ -0,0 +1,79 @@
+package com.unutmaz.moviecollection.repo;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.stereotype.Repository;
+
+import com.unutmaz.moviecollection.util.ImportJob;
+
+/**
+ * Implementação JPA do repositório dos jobs de importação, com consultas nativas
+ * sobre a tabela import_jobs.
+ */
+@Repository("importJobRepository")
+public class ImportJobRepoJPA implements ImportJobRepo {
+
+	/**
+	 * EntityManager injetado pelo Spring para operações de persistência.
+	 */
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Grava o job com um MERGE: created_at só é preenchido na criação.
+	 *
+	 * @param job Estado do job.
+	 */
+	@Override
+	public void save(ImportJob job) {
+		String q = "MERGE INTO import_jobs(id, name, state, bytes, bytes_done, lines_done, imported, errors, message, updated_at)"
+				+ " KEY(id) VALUES (:id, :name, :state, :bytes, :bytesDone, :lines, :imported, :errors, :message, :updatedAt)";
+		entityManager.createNativeQuery(q)
+				.setParameter("id", job.getId())
+				.setParameter("name", job.getName())
+				.setParameter("state", job.getState())
+				.setParameter("bytes", job.getBytes())
+				.setParameter("bytesDone", job.getBytesDone())
+				.setParameter("lines", job.getLines())
+				.setParameter("imported", job.getImported())
+				.setParameter("errors", job.getErrors())
+				.setParameter("message", job.getMessage())
+				.setParameter("updatedAt", new Timestamp(System.currentTimeMillis()))
+				.executeUpdate();
+	}
+
+	/**
+	 * Busca todos os jobs, na ordem de criação. Os erros recentes, a taxa e o tempo
+	 * estimado ficam só em memória e vêm vazios.
+	 *
+	 * @return Jobs, do mais antigo ao mais recente.
+	 */
+	@Override
+	public List<ImportJob> findAll() {
+		List<?> rows = entityManager.createNativeQuery("SELECT id, name, state, bytes, bytes_done, lines_done, imported, errors, message"
+				+ " FROM import_jobs ORDER BY created_at, id").getResultList();
+		List<ImportJob> jobs = new ArrayList<>(rows.size());
+		for (Object row : rows) {
+			Object[] columns = (Object[]) row;
+			jobs.add(new ImportJob((String) columns[0], (String) columns[1], (String) columns[2],
+					((Number) columns[3]).longValue(), ((Number) columns[4]).longValue(), ((Number) columns[5]).longValue(),
+					((Number) columns[6]).longValue(), ((Number) columns[7]).longValue(), 0, null, (String) columns[8], List.of()));
+		}
+		return jobs;
+	}
+
+	/**
+	 * Exclui a linha do job em import_jobs.
+	 *
+	 * @param id ID do job.
+	 */
+	@Override
+	public void delete(String id) {
+		entityManager.createNativeQuery("DELETE FROM import_jobs WHERE id = :id").setParameter("id", id).executeUpdate();
+	}
+}
@@ -1,8 +1,12 @@
 package com.unutmaz.moviecollection.repo;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.unutmaz.moviecollection.model.Movie;
+import com.unutmaz.moviecollection.util.CategoryStats;
+import com.unutmaz.moviecollection.util.MovieQuery;
 
 /**
  * Interface do repositório para operações relacionadas a Filmes.
@@ -26,6 +30,119 @@ public interface MovieRepo {
 	 */
 	Movie findById(Long id);
 
+	/**
+	 * Busca vários filmes de uma vez com uma única consulta IN,
+	 * já trazendo o elenco de cada filme.
+	 *
+	 * @param ids IDs dos filmes a serem buscados.
+	 * @return Lista dos filmes encontrados (IDs inexistentes são ignorados).
+	 */
+	List<Movie> findByIds(Collection<Long> ids);
+
+	/**
+	 * Busca uma página de filmes ordenada por ID (paginação por chave),
+	 * com o elenco já carregado.
+	 *
+	 * @param afterId Último ID da página anterior, ou null para começar do início.
+	 * @param limit Número máximo de filmes na página.
+	 * @return Filmes com ID maior que afterId, em ordem crescente de ID.
+	 */
+	List<Movie> findPage(Long afterId, int limit);
+
+	/**
+	 * Busca apenas as colunas pedidas dos filmes, sem carregar a entidade completa.
+	 * O campo "cast" é suportado e carregado em lote para todos os filmes.
+	 *
+	 * @param ids IDs dos filmes a serem buscados, ou null para todos os filmes.
+	 * @param fields Nomes das propriedades de Movie a serem retornadas.
+	 * @return Uma linha por filme, com as propriedades na ordem pedida.
+	 * @throws IllegalArgumentException Se algum campo não for uma propriedade conhecida.
+	 */
+	List<Map<String, Object>> findFields(Collection<Long> ids, List<String> fields);
+
+	/**
+	 * Busca uma página de filmes com filtros, ordenação e paginação aplicados no banco.
+	 *
+	 * @param query Critérios da listagem.
+	 * @return Filmes da página, na ordem pedida.
+	 */
+	List<Movie> findByQuery(MovieQuery query);
+
+	/**
+	 * Conta os filmes que atendem aos filtros de uma listagem.
+	 *
+	 * @param query Critérios da listagem (ordenação e paginação são ignoradas).
+	 * @return Total de filmes.
+	 */
+	long countByQuery(MovieQuery query);
+
+	/**
+	 * Busca os IDs de todos os filmes que atendem aos filtros de uma listagem, na
+	 * ordem pedida. Os filtros pelas listas do usuário não são aplicados.
+	 *
+	 * @param query Critérios da listagem (a paginação é ignorada).
+	 * @return IDs dos filmes, na ordem pedida.
+	 */
+	List<Long> findIdsByQuery(MovieQuery query);
+
+	/**
+	 * Busca os IDs dos filmes de uma busca aproximada que atendem aos demais filtros
+	 * da listagem, na ordem pedida. Os filtros por nome e ator e os filtros pelas
+	 * listas do usuário não são aplicados.
+	 *
+	 * @param query Critérios da listagem (a paginação é ignorada).
+	 * @param among IDs dos filmes encontrados pela busca aproximada.
+	 * @return IDs dos filmes, na ordem pedida (ordem de ID se não houver ordenação).
+	 */
+	List<Long> findIdsByQuery(MovieQuery query, Collection<Long> among);
+
+	/**
+	 * Busca os IDs dos filmes que mais compartilham atores com um filme (mais um
+	 * pequeno bônus para a mesma categoria), com a avaliação como desempate.
+	 *
+	 * @param id ID do filme.
+	 * @param k Número máximo de filmes.
+	 * @return IDs dos filmes, do mais semelhante ao menos.
+	 */
+	List<Long> findSimilarIds(Long id, int k);
+
+	/**
+	 * Soma visualizações aos contadores de movie_stats, criando as linhas que faltam.
+	 * IDs de filmes que não existem são ignorados.
+	 *
+	 * @param views Visualizações a somar, por ID do filme.
+	 */
+	void addViews(Map<Long, Long> views);
+
+	/**
+	 * Busca os IDs dos filmes visualizados, do mais visualizado ao menos (empate: menor ID).
+	 *
+	 * @return IDs dos filmes com pelo menos uma visualização.
+	 */
+	List<Long> findIdsByViews();
+
+	/**
+	 * Calcula as estatísticas por categoria de /rest/stats com GROUP BY.
+	 *
+	 * @return Estatísticas de cada categoria (filmes sem categoria com category null).
+	 */
+	List<CategoryStats> findCategoryStats();
+
+	/**
+	 * Conta os filmes por ano de lançamento com GROUP BY.
+	 *
+	 * @return Número de filmes por ano, em ordem de ano.
+	 */
+	Map<Integer, Long> countByYear();
+
+	/**
+	 * Busca todos os pares (filme, ator) da tabela de junção movie_actors,
+	 * sem carregar as entidades.
+	 *
+	 * @return Pares {movie_id, actor_id}.
+	 */
+	List<long[]> findCastIds();
+
 	/**
 	 * Busca filmes por nome (pode ser parcial).
 	 *
@@ -71,4 +188,28 @@ public interface MovieRepo {
 	 * @param id ID do filme a ser excluído.
 	 */
 	void delete(Long id);
+
+	/**
+	 * Busca quais dos IDs informados correspondem a filmes existentes.
+	 *
+	 * @param ids IDs a verificar.
+	 * @return IDs existentes.
+	 */
+	List<Long> findExistingIds(Collection<Long> ids);
+
+	/**
+	 * Exclui vários filmes com comandos em massa: primeiro as linhas de movie_actors,
+	 * depois os filmes, sem carregar as entidades.
+	 *
+	 * @param ids IDs dos filmes a serem excluídos.
+	 * @return Número de filmes excluídos.
+	 */
+	int deleteAll(Collection<Long> ids);
+
+	/**
+	 * Envia ao banco as alterações pendentes e limpa o contexto de persistência.
+	 * Usado entre os lotes de operações em massa para manter a memória limitada
+	 * e permitir que o Hibernate agrupe os comandos em lotes JDBC.
+	 */
+	void flushAndClear();
 }
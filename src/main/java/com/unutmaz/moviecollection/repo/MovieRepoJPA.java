@@ -1,15 +1,30 @@
 package com.unutmaz.moviecollection.repo;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
 
+import org.hibernate.jpa.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.unutmaz.moviecollection.model.Actor;
 import com.unutmaz.moviecollection.model.Movie;
+import com.unutmaz.moviecollection.util.Batches;
+import com.unutmaz.moviecollection.util.CatalogueStats;
+import com.unutmaz.moviecollection.util.CategoryStats;
+import com.unutmaz.moviecollection.util.MovieQuery;
 
 /**
  * Implementação JPA do repositório de filmes.
@@ -27,6 +42,38 @@ public class MovieRepoJPA implements MovieRepo {
 	@PersistenceContext
 	private EntityManager entityManager;
 
+	/**
+	 * Número máximo de IDs por cláusula IN.
+	 */
+	private static final int IN_BATCH_SIZE = 1000;
+
+	/**
+	 * Propriedades de Movie que podem ser pedidas em findFields, com o caminho JPQL
+	 * de cada uma. O elenco ("cast") é tratado à parte, com uma consulta em lote.
+	 */
+	private static final Map<String, String> FIELD_PATHS = new LinkedHashMap<>();
+
+	/**
+	 * Cláusula ORDER BY de cada ordenação de MovieQuery, com o ID para desempate,
+	 * como nas permutações do modelo de leitura.
+	 */
+	private static final Map<String, String> ORDER_CLAUSES = Map.of(
+			MovieQuery.ORDER_RATING, " order by m.rating desc, m.id",
+			MovieQuery.ORDER_NAME, " order by m.name asc nulls last, m.id",
+			MovieQuery.ORDER_DATE, " order by m.date desc nulls last, m.id",
+			MovieQuery.ORDER_POPULAR, " order by coalesce(s.views, 0) desc, m.id",
+			MovieQuery.ORDER_COMMUNITY, " order by s.ratingSum / nullif(s.ratingCount, 0) desc nulls last, m.id");
+
+	static {
+		FIELD_PATHS.put("id", "m.id");
+		FIELD_PATHS.put("name", "m.name");
+		FIELD_PATHS.put("date", "m.date");
+		FIELD_PATHS.put("category", "m.category");
+		FIELD_PATHS.put("description", "m.description");
+		FIELD_PATHS.put("image", "m.image");
+		FIELD_PATHS.put("rating", "m.rating");
+	}
+
 	/**
 	 * Busca todos os filmes cadastrados.
 	 *
@@ -48,6 +95,358 @@ public class MovieRepoJPA implements MovieRepo {
 		return entityManager.find(Movie.class, id);
 	}
 
+	/**
+	 * Busca vários filmes pelo ID em lotes de IN_BATCH_SIZE, com join fetch do elenco
+	 * para evitar uma consulta extra por filme.
+	 *
+	 * @param ids IDs dos filmes.
+	 * @return Filmes encontrados.
+	 */
+	@Override
+	public List<Movie> findByIds(Collection<Long> ids) {
+		List<Movie> movies = new ArrayList<>();
+		for (List<Long> batch : Batches.of(ids, IN_BATCH_SIZE)) {
+			movies.addAll(entityManager.createQuery("select distinct m from Movie m left join fetch m.cast where m.id in :ids", Movie.class)
+					.setParameter("ids", batch)
+					.setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+					.getResultList());
+		}
+		return movies;
+	}
+
+	/**
+	 * Busca uma página por chave: primeiro os IDs (com limite aplicado no banco),
+	 * depois os filmes com o elenco via findByIds, evitando paginação em memória
+	 * do Hibernate com join fetch.
+	 *
+	 * @param afterId Último ID da página anterior, ou null.
+	 * @param limit Tamanho da página.
+	 * @return Filmes da página em ordem de ID.
+	 */
+	@Override
+	public List<Movie> findPage(Long afterId, int limit) {
+		List<Long> ids = entityManager.createQuery("select m.id from Movie m where m.id > :afterId order by m.id", Long.class)
+				.setParameter("afterId", afterId == null ? Long.MIN_VALUE : afterId)
+				.setMaxResults(limit)
+				.getResultList();
+		List<Movie> movies = findByIds(ids);
+		movies.sort(Comparator.comparing(Movie::getId));
+		return movies;
+	}
+
+	/**
+	 * Busca somente as colunas pedidas. A consulta seleciona apenas os caminhos
+	 * correspondentes em FIELD_PATHS e o elenco, se pedido, é carregado com uma
+	 * única consulta sobre a tabela de junção por lote de IDs.
+	 *
+	 * @param ids IDs dos filmes, ou null para todos.
+	 * @param fields Propriedades a serem retornadas.
+	 * @return Uma linha por filme, na ordem dos IDs pedidos.
+	 */
+	@Override
+	public List<Map<String, Object>> findFields(Collection<Long> ids, List<String> fields) {
+		boolean withCast = false;
+		List<String> columns = new ArrayList<>();
+		columns.add("id");
+		for (String field : fields) {
+			if (field.equals("cast")) {
+				withCast = true;
+			}
+			else if (!FIELD_PATHS.containsKey(field)) {
+				throw new IllegalArgumentException("Unknown movie field: " + field);
+			}
+			else if (!columns.contains(field)) {
+				columns.add(field);
+			}
+		}
+
+		String select = columns.stream().map(FIELD_PATHS::get).collect(Collectors.joining(", "));
+		List<Object[]> rows = new ArrayList<>();
+		Map<Long, List<Actor>> casts = new HashMap<>();
+		if (ids == null) {
+			addRows(rows, entityManager.createQuery("select " + select + " from Movie m order by m.id").getResultList());
+			if (withCast) {
+				addCasts(casts, entityManager.createQuery("select m.id, a from Movie m join m.cast a", Object[].class));
+			}
+		}
+		else {
+			for (List<Long> batch : Batches.of(ids, IN_BATCH_SIZE)) {
+				addRows(rows, entityManager.createQuery("select " + select + " from Movie m where m.id in :ids")
+						.setParameter("ids", batch).getResultList());
+				if (withCast) {
+					addCasts(casts, entityManager.createQuery("select m.id, a from Movie m join m.cast a where m.id in :ids", Object[].class)
+							.setParameter("ids", batch));
+				}
+			}
+		}
+
+		if (ids != null) {
+			// Mantém a ordem em que os IDs foram pedidos
+			Map<Long, Object[]> byId = new HashMap<>();
+			rows.forEach(row -> byId.put((Long) row[0], row));
+			rows = ids.stream().distinct().map(byId::get).filter(row -> row != null).collect(Collectors.toList());
+		}
+
+		List<Map<String, Object>> result = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			Map<String, Object> values = new LinkedHashMap<>();
+			for (String field : fields) {
+				if (field.equals("cast")) {
+					values.put("cast", casts.getOrDefault((Long) row[0], new ArrayList<>()));
+				}
+				else {
+					values.put(field, row[columns.indexOf(field)]);
+				}
+			}
+			result.add(values);
+		}
+		return result;
+	}
+
+	/**
+	 * Adiciona as linhas de uma projeção, tratando o caso de uma única coluna
+	 * (em que o Hibernate não devolve um array).
+	 *
+	 * @param rows Lista a ser preenchida.
+	 * @param results Resultado bruto da consulta.
+	 */
+	private void addRows(List<Object[]> rows, List<?> results) {
+		for (Object result : results) {
+			rows.add(result instanceof Object[] ? (Object[]) result : new Object[] { result });
+		}
+	}
+
+	/**
+	 * Agrupa o resultado de uma consulta (id do filme, ator) por filme.
+	 *
+	 * @param casts Mapa a ser preenchido.
+	 * @param query Consulta que retorna pares (id do filme, ator).
+	 */
+	private void addCasts(Map<Long, List<Actor>> casts, TypedQuery<Object[]> query) {
+		for (Object[] pair : query.getResultList()) {
+			casts.computeIfAbsent((Long) pair[0], k -> new ArrayList<>()).add((Actor) pair[1]);
+		}
+	}
+
+	/**
+	 * Busca uma página de filmes. Os filtros viram cláusulas WHERE (o de ator, uma
+	 * subconsulta EXISTS no elenco) e a paginação usa setFirstResult/setMaxResults.
+	 *
+	 * @param query Critérios da listagem.
+	 * @return Filmes da página.
+	 */
+	@Override
+	public List<Movie> findByQuery(MovieQuery query) {
+		TypedQuery<Movie> typedQuery = entityManager.createQuery(select("m", query, false), Movie.class);
+		setFilters(typedQuery, query);
+		if (query.getSize() > 0) {
+			typedQuery.setFirstResult((int) Math.min(query.offset(), Integer.MAX_VALUE)).setMaxResults(query.getSize());
+		}
+		return typedQuery.getResultList();
+	}
+
+	/**
+	 * Busca só os IDs de uma listagem, sem paginação, para que os filtros pelas
+	 * listas do usuário sejam aplicados em memória (sem junção com as listas).
+	 *
+	 * @param query Critérios da listagem.
+	 * @return IDs dos filmes, na ordem pedida.
+	 */
+	@Override
+	public List<Long> findIdsByQuery(MovieQuery query) {
+		TypedQuery<Long> typedQuery = entityManager.createQuery(select("m.id", query, false), Long.class);
+		setFilters(typedQuery, query);
+		return typedQuery.getResultList();
+	}
+
+	/**
+	 * Busca os IDs de uma listagem restrita aos filmes de uma busca aproximada. Os
+	 * IDs são poucos (FuzzyNameIndex.MAX_MATCHES por nome, ou os filmes dos atores
+	 * encontrados), então vão numa única lista IN, que mantém a ordenação no banco.
+	 *
+	 * @param query Critérios da listagem.
+	 * @param among IDs dos filmes encontrados.
+	 * @return IDs dos filmes, na ordem pedida.
+	 */
+	@Override
+	public List<Long> findIdsByQuery(MovieQuery query, Collection<Long> among) {
+		if (among.isEmpty()) return new ArrayList<>();
+		TypedQuery<Long> typedQuery = entityManager.createQuery(select("m.id", query, true), Long.class)
+				.setParameter("among", among);
+		setFilters(typedQuery, query);
+		return typedQuery.getResultList();
+	}
+
+	/**
+	 * Monta a consulta de uma listagem, com a junção de movie_stats quando a
+	 * ordenação depende dela.
+	 */
+	private String select(String projection, MovieQuery query, boolean among) {
+		String order = query.getOrderBy() == null ? " order by m.id" : ORDER_CLAUSES.get(query.getOrderBy());
+		// Filmes sem linha em movie_stats não têm visualizações nem avaliações
+		String from = query.isStatsOrdering()
+				? " from Movie m left join MovieStats s on s.movieId = m.id" : " from Movie m";
+		return "select " + projection + from + where(query, among) + order;
+	}
+
+	/**
+	 * Conta os filmes que atendem aos filtros.
+	 *
+	 * @param query Critérios da listagem.
+	 * @return Total de filmes.
+	 */
+	@Override
+	public long countByQuery(MovieQuery query) {
+		TypedQuery<Long> typedQuery = entityManager.createQuery("select count(m) from Movie m" + where(query, false), Long.class);
+		setFilters(typedQuery, query);
+		return typedQuery.getSingleResult();
+	}
+
+	/**
+	 * Monta a cláusula WHERE de uma listagem, com a restrição aos IDs do parâmetro
+	 * "among" se pedida.
+	 */
+	private String where(MovieQuery query, boolean among) {
+		List<String> conditions = new ArrayList<>();
+		if (among) conditions.add("m.id in :among");
+		// Na busca aproximada, nome e ator já foram resolvidos pelo FuzzyNameIndex
+		if (query.getName() != null && !query.isFuzzy()) conditions.add("upper(m.name) like :name");
+		if (query.getCategory() != null) conditions.add("upper(m.category) = :category");
+		if (query.getActor() != null && !query.isFuzzy()) conditions.add("exists (select a from m.cast a where upper(a.actor_name) like :actor)");
+		return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+	}
+
+	/**
+	 * Define os parâmetros dos filtros de uma listagem.
+	 */
+	private void setFilters(TypedQuery<?> typedQuery, MovieQuery query) {
+		if (query.getName() != null && !query.isFuzzy()) typedQuery.setParameter("name", "%" + query.getName().toUpperCase() + "%");
+		if (query.getCategory() != null) typedQuery.setParameter("category", query.getCategory().toUpperCase());
+		if (query.getActor() != null && !query.isFuzzy()) typedQuery.setParameter("actor", "%" + query.getActor().toUpperCase() + "%");
+	}
+
+	/**
+	 * Busca os filmes semelhantes com uma única consulta: a autojunção de movie_actors
+	 * conta os atores em comum, sem os pesos do modelo de leitura (SimilarMovies).
+	 *
+	 * @param id ID do filme.
+	 * @param k Número máximo de filmes.
+	 * @return IDs dos filmes, do mais semelhante ao menos.
+	 */
+	@Override
+	public List<Long> findSimilarIds(Long id, int k) {
+		String q = "SELECT m.id FROM t_movies m"
+				+ " JOIN (SELECT other.movie_id, COUNT(*) AS shared FROM movie_actors own"
+				+ " JOIN movie_actors other ON other.actor_id = own.actor_id"
+				+ " WHERE own.movie_id = :id AND other.movie_id <> :id GROUP BY other.movie_id) s ON s.movie_id = m.id"
+				+ " ORDER BY s.shared + CASE WHEN UPPER(m.category) = (SELECT UPPER(category) FROM t_movies WHERE id = :id)"
+				+ " THEN 0.5 ELSE 0 END DESC, m.rating DESC, m.id";
+		List<?> rows = entityManager.createNativeQuery(q).setParameter("id", id).setMaxResults(k).getResultList();
+		return rows.stream().map(row -> ((Number) row).longValue()).collect(Collectors.toList());
+	}
+
+	/**
+	 * Soma visualizações em movie_stats com comandos em massa: primeiro são criadas,
+	 * com 0, as linhas que faltam (só para filmes que ainda existem); depois os filmes
+	 * são agrupados pelo número de visualizações a somar, e cada grupo é atualizado
+	 * com um UPDATE ... WHERE movie_id IN (...) em lotes de IN_BATCH_SIZE. Como a
+	 * maioria dos filmes recebe poucas visualizações entre duas gravações, há poucos grupos.
+	 *
+	 * @param views Visualizações a somar, por ID do filme.
+	 */
+	@Override
+	public void addViews(Map<Long, Long> views) {
+		for (List<Long> batch : Batches.of(views.keySet(), IN_BATCH_SIZE)) {
+			entityManager.createNativeQuery("INSERT INTO movie_stats (movie_id, views) SELECT m.id, 0 FROM t_movies m"
+					+ " WHERE m.id IN (:ids) AND NOT EXISTS (SELECT 1 FROM movie_stats s WHERE s.movie_id = m.id)")
+					.setParameter("ids", batch).executeUpdate();
+		}
+		Map<Long, List<Long>> byCount = views.entrySet().stream().collect(Collectors.groupingBy(Map.Entry::getValue,
+				Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+		byCount.forEach((count, ids) -> {
+			for (List<Long> batch : Batches.of(ids, IN_BATCH_SIZE)) {
+				entityManager.createNativeQuery("UPDATE movie_stats SET views = views + :count WHERE movie_id IN (:ids)")
+						.setParameter("count", count).setParameter("ids", batch).executeUpdate();
+			}
+		});
+	}
+
+	/**
+	 * Busca os IDs dos filmes visualizados, do mais visualizado ao menos, pelo
+	 * índice idx_movie_stats_views.
+	 *
+	 * @return IDs dos filmes com visualizações.
+	 */
+	@Override
+	public List<Long> findIdsByViews() {
+		List<?> rows = entityManager.createNativeQuery("SELECT movie_id FROM movie_stats WHERE views > 0"
+				+ " ORDER BY views DESC, movie_id").getResultList();
+		return rows.stream().map(row -> ((Number) row).longValue()).collect(Collectors.toList());
+	}
+
+	/**
+	 * Calcula contagem, média e mediana (MEDIAN do H2) por categoria e, numa segunda
+	 * consulta, o histograma de avaliações por categoria.
+	 *
+	 * @return Estatísticas de cada categoria.
+	 */
+	@Override
+	public List<CategoryStats> findCategoryStats() {
+		Map<String, long[]> histograms = new HashMap<>();
+		String bucket = "LEAST(GREATEST(FLOOR(rating), 0), " + (CatalogueStats.RATING_BUCKETS - 1) + ")";
+		List<?> buckets = entityManager.createNativeQuery("SELECT category, " + bucket + ", COUNT(*) FROM t_movies"
+				+ " GROUP BY category, " + bucket).getResultList();
+		for (Object row : buckets) {
+			Object[] columns = (Object[]) row;
+			histograms.computeIfAbsent((String) columns[0], k -> new long[CatalogueStats.RATING_BUCKETS])
+					[((Number) columns[1]).intValue()] = ((Number) columns[2]).longValue();
+		}
+		List<?> rows = entityManager.createNativeQuery("SELECT category, COUNT(*), AVG(rating), MEDIAN(rating)"
+				+ " FROM t_movies GROUP BY category").getResultList();
+		List<CategoryStats> categories = new ArrayList<>(rows.size());
+		for (Object row : rows) {
+			Object[] columns = (Object[]) row;
+			categories.add(new CategoryStats((String) columns[0], ((Number) columns[1]).longValue(),
+					((Number) columns[2]).doubleValue(), ((Number) columns[3]).doubleValue(), histograms.get(columns[0])));
+		}
+		categories.sort(CategoryStats.BY_CATEGORY);
+		return categories;
+	}
+
+	/**
+	 * Conta os filmes por ano de lançamento.
+	 *
+	 * @return Número de filmes por ano.
+	 */
+	@Override
+	public Map<Integer, Long> countByYear() {
+		List<?> rows = entityManager.createNativeQuery("SELECT YEAR(release_date), COUNT(*) FROM t_movies"
+				+ " WHERE release_date IS NOT NULL GROUP BY YEAR(release_date)").getResultList();
+		Map<Integer, Long> years = new TreeMap<>();
+		for (Object row : rows) {
+			Object[] columns = (Object[]) row;
+			years.put(((Number) columns[0]).intValue(), ((Number) columns[1]).longValue());
+		}
+		return years;
+	}
+
+	/**
+	 * Busca todos os pares (filme, ator) com uma única consulta nativa.
+	 *
+	 * @return Pares {movie_id, actor_id}.
+	 */
+	@Override
+	public List<long[]> findCastIds() {
+		List<?> rows = entityManager.createNativeQuery("SELECT movie_id, actor_id FROM movie_actors").getResultList();
+		List<long[]> pairs = new ArrayList<>(rows.size());
+		for (Object row : rows) {
+			Object[] columns = (Object[]) row;
+			if (columns[0] == null || columns[1] == null) continue;
+			pairs.add(new long[] { ((Number) columns[0]).longValue(), ((Number) columns[1]).longValue() });
+		}
+		return pairs;
+	}
+
 	/**
 	 * Busca filmes por nome usando busca case-insensitive com LIKE.
 	 *
@@ -84,13 +483,59 @@ public class MovieRepoJPA implements MovieRepo {
 	}
 
 	/**
-	 * Exclui um filme do banco de dados pelo seu ID.
+	 * Exclui um filme do banco de dados pelo seu ID, pelo mesmo caminho
+	 * em massa de deleteAll (sem carregar o filme e seu elenco).
 	 *
 	 * @param id ID do filme a ser excluído.
 	 */
 	@Override
 	public void delete(Long id) {
-		entityManager.remove(entityManager.getReference(Movie.class, id));
+		deleteAll(Collections.singletonList(id));
+	}
+
+	/**
+	 * Busca, em lotes de IN_BATCH_SIZE, quais IDs existem.
+	 *
+	 * @param ids IDs a verificar.
+	 * @return IDs existentes.
+	 */
+	@Override
+	public List<Long> findExistingIds(Collection<Long> ids) {
+		List<Long> existing = new ArrayList<>();
+		for (List<Long> batch : Batches.of(ids, IN_BATCH_SIZE)) {
+			existing.addAll(entityManager.createQuery("select m.id from Movie m where m.id in :ids", Long.class)
+					.setParameter("ids", batch).getResultList());
+		}
+		return existing;
+	}
+
+	/**
+	 * Exclui vários filmes em lotes de IN_BATCH_SIZE com DELETEs em massa.
+	 * As alterações pendentes são enviadas antes, e depois o contexto de persistência
+	 * é limpo e os filmes são removidos do cache de segundo nível, já que comandos
+	 * em massa não atualizam as entidades em memória.
+	 *
+	 * @param ids IDs dos filmes.
+	 * @return Número de filmes excluídos.
+	 */
+	@Override
+	public int deleteAll(Collection<Long> ids) {
+		entityManager.flush();
+		int deleted = 0;
+		Cache cache = entityManager.getEntityManagerFactory().getCache();
+		for (List<Long> batch : Batches.of(ids, IN_BATCH_SIZE)) {
+			entityManager.createNativeQuery("DELETE FROM movie_actors WHERE movie_id IN (:ids)")
+					.setParameter("ids", batch).executeUpdate();
+			entityManager.createNativeQuery("DELETE FROM movie_stats WHERE movie_id IN (:ids)")
+					.setParameter("ids", batch).executeUpdate();
+			entityManager.createNativeQuery("DELETE FROM user_ratings WHERE movie_id IN (:ids)")
+					.setParameter("ids", batch).executeUpdate();
+			deleted += entityManager.createQuery("delete from Movie m where m.id in :ids")
+					.setParameter("ids", batch).executeUpdate();
+			batch.forEach(id -> cache.evict(Movie.class, id));
+		}
+		entityManager.clear();
+		return deleted;
 	}
 
 	/**
@@ -119,4 +564,13 @@ public class MovieRepoJPA implements MovieRepo {
 		return movies.stream().filter(m -> m.getCast().stream().anyMatch(a -> a.getActor_name().toUpperCase().contains(actor.toUpperCase()))).collect(Collectors.toList());
 	}
 
+	/**
+	 * Envia as alterações pendentes e limpa o contexto de persistência.
+	 */
+	@Override
+	public void flushAndClear() {
+		entityManager.flush();
+		entityManager.clear();
+	}
+
 }
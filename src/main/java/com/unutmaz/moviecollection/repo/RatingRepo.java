@@ -0,0 +1,74 @@
+package com.unutmaz.moviecollection.repo;
+
+import java.util.List;
+
+/**
+ * Interface do repositório das avaliações dos usuários (tabela user_ratings) e
+ * dos totais por filme (colunas rating_sum e rating_count de movie_stats).
+ * Esta interface é implementada por RatingRepoJPA.
+ */
+public interface RatingRepo {
+
+	/**
+	 * Busca a avaliação de um usuário para um filme, bloqueando a linha do usuário em
+	 * users até o fim da transação, de modo que as gravações de um mesmo usuário são
+	 * serializadas mesmo quando a avaliação ainda não existe.
+	 *
+	 * @param username Nome do usuário.
+	 * @param movieId ID do filme.
+	 * @return Avaliação, ou null se o usuário ainda não avaliou o filme.
+	 */
+	Double findForUpdate(String username, Long movieId);
+
+	/**
+	 * Busca a avaliação de um usuário para um filme.
+	 *
+	 * @param username Nome do usuário.
+	 * @param movieId ID do filme.
+	 * @return Avaliação, ou null se o usuário não avaliou o filme.
+	 */
+	Double find(String username, Long movieId);
+
+	/**
+	 * Grava a avaliação de um usuário.
+	 *
+	 * @param username Nome do usuário.
+	 * @param movieId ID do filme.
+	 * @param rating Avaliação.
+	 * @param exists true se o usuário já tinha avaliado o filme (UPDATE), false para INSERT.
+	 */
+	void save(String username, Long movieId, double rating, boolean exists);
+
+	/**
+	 * Remove a avaliação de um usuário.
+	 *
+	 * @param username Nome do usuário.
+	 * @param movieId ID do filme.
+	 */
+	void delete(String username, Long movieId);
+
+	/**
+	 * Soma valores aos totais de avaliação de um filme num único comando, criando a
+	 * linha de movie_stats se necessário.
+	 *
+	 * @param movieId ID do filme.
+	 * @param sum Valor a somar em rating_sum.
+	 * @param count Valor a somar em rating_count.
+	 */
+	void addToTotals(Long movieId, double sum, long count);
+
+	/**
+	 * Busca os totais de avaliação de um filme.
+	 *
+	 * @param movieId ID do filme.
+	 * @return {soma, contagem}, zerados se o filme não tiver avaliações.
+	 */
+	double[] findTotals(Long movieId);
+
+	/**
+	 * Busca os IDs dos filmes avaliados, da maior média para a menor (empate: menor ID).
+	 *
+	 * @return IDs dos filmes com pelo menos uma avaliação.
+	 */
+	List<Long> findIdsByAverage();
+}
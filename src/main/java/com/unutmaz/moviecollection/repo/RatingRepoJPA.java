@@ -0,0 +1,142 @@
+package com.unutmaz.moviecollection.repo;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.stereotype.Repository;
+
+/**
+ * Implementação JPA do repositório de avaliações, com consultas nativas.
+ *
+ * Os totais de cada filme ficam em movie_stats e são atualizados por incremento
+ * (rating_sum + delta, rating_count + delta) num único MERGE, em vez de recalcular
+ * AVG sobre user_ratings. A linha de t_movies nunca é bloqueada, e a de movie_stats
+ * só do MERGE até o commit.
+ *
+ * As gravações de um mesmo usuário são serializadas pela linha dele em users, como
+ * no UserListRepoJPA: a linha de user_ratings ainda não existe na primeira avaliação,
+ * e o FOR UPDATE sobre ela não bloquearia nada.
+ */
+@Repository("ratingRepository")
+public class RatingRepoJPA implements RatingRepo {
+
+	/**
+	 * EntityManager injetado pelo Spring para operações de persistência.
+	 */
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Bloqueia a linha do usuário em users e busca a avaliação dele para o filme.
+	 *
+	 * @param username Nome do usuário.
+	 * @param movieId ID do filme.
+	 * @return Avaliação, ou null se o usuário ainda não avaliou o filme.
+	 */
+	@Override
+	public Double findForUpdate(String username, Long movieId) {
+		entityManager.createNativeQuery("SELECT username FROM users WHERE username = :username FOR UPDATE")
+				.setParameter("username", username).getResultList();
+		return single("SELECT rating FROM user_ratings WHERE username = :username AND movie_id = :movieId FOR UPDATE",
+				username, movieId);
+	}
+
+	/**
+	 * Busca a avaliação de um usuário para um filme, sem bloqueio.
+	 *
+	 * @param username Nome do usuário.
+	 * @param movieId ID do filme.
+	 * @return Avaliação, ou null se o usuário não avaliou o filme.
+	 */
+	@Override
+	public Double find(String username, Long movieId) {
+		return single("SELECT rating FROM user_ratings WHERE username = :username AND movie_id = :movieId",
+				username, movieId);
+	}
+
+	/**
+	 * Grava a avaliação com UPDATE, se já existir, ou INSERT.
+	 *
+	 * @param username Nome do usuário.
+	 * @param movieId ID do filme.
+	 * @param rating Avaliação.
+	 * @param exists true se o usuário já tinha avaliado o filme.
+	 */
+	@Override
+	public void save(String username, Long movieId, double rating, boolean exists) {
+		String q = exists
+				? "UPDATE user_ratings SET rating = :rating, rated_at = :now WHERE username = :username AND movie_id = :movieId"
+				: "INSERT INTO user_ratings (username, movie_id, rating, rated_at) VALUES (:username, :movieId, :rating, :now)";
+		entityManager.createNativeQuery(q).setParameter("username", username).setParameter("movieId", movieId)
+				.setParameter("rating", rating).setParameter("now", new Timestamp(System.currentTimeMillis())).executeUpdate();
+	}
+
+	/**
+	 * Remove a avaliação de um usuário para um filme.
+	 *
+	 * @param username Nome do usuário.
+	 * @param movieId ID do filme.
+	 */
+	@Override
+	public void delete(String username, Long movieId) {
+		entityManager.createNativeQuery("DELETE FROM user_ratings WHERE username = :username AND movie_id = :movieId")
+				.setParameter("username", username).setParameter("movieId", movieId).executeUpdate();
+	}
+
+	/**
+	 * Atualiza os totais com MERGE ... USING, que incrementa a linha existente ou
+	 * cria a linha num único comando.
+	 *
+	 * @param movieId ID do filme.
+	 * @param sum Valor a somar em rating_sum.
+	 * @param count Valor a somar em rating_count.
+	 */
+	@Override
+	public void addToTotals(Long movieId, double sum, long count) {
+		entityManager.createNativeQuery("MERGE INTO movie_stats t USING (SELECT CAST(:movieId AS BIGINT) AS movie_id) s"
+				+ " ON t.movie_id = s.movie_id"
+				+ " WHEN MATCHED THEN UPDATE SET rating_sum = t.rating_sum + :sum, rating_count = t.rating_count + :count"
+				+ " WHEN NOT MATCHED THEN INSERT (movie_id, views, rating_sum, rating_count) VALUES (s.movie_id, 0, :sum, :count)")
+				.setParameter("movieId", movieId).setParameter("sum", sum).setParameter("count", count).executeUpdate();
+	}
+
+	/**
+	 * Busca a soma e a contagem das avaliações de um filme em movie_stats.
+	 *
+	 * @param movieId ID do filme.
+	 * @return {soma, contagem}, zerados se o filme não tiver linha em movie_stats.
+	 */
+	@Override
+	public double[] findTotals(Long movieId) {
+		List<?> rows = entityManager.createNativeQuery("SELECT rating_sum, rating_count FROM movie_stats WHERE movie_id = :movieId")
+				.setParameter("movieId", movieId).getResultList();
+		if (rows.isEmpty()) return new double[2];
+		Object[] columns = (Object[]) rows.get(0);
+		return new double[] { ((Number) columns[0]).doubleValue(), ((Number) columns[1]).doubleValue() };
+	}
+
+	/**
+	 * Busca os IDs dos filmes avaliados, da maior média para a menor (empate: menor ID).
+	 *
+	 * @return IDs dos filmes com pelo menos uma avaliação.
+	 */
+	@Override
+	public List<Long> findIdsByAverage() {
+		List<?> rows = entityManager.createNativeQuery("SELECT movie_id FROM movie_stats WHERE rating_count > 0"
+				+ " ORDER BY rating_sum / rating_count DESC, movie_id").getResultList();
+		return rows.stream().map(row -> ((Number) row).longValue()).collect(Collectors.toList());
+	}
+
+	/**
+	 * Executa uma consulta de uma avaliação por usuário e filme.
+	 */
+	private Double single(String q, String username, Long movieId) {
+		List<?> rows = entityManager.createNativeQuery(q).setParameter("username", username)
+				.setParameter("movieId", movieId).getResultList();
+		return rows.isEmpty() ? null : ((Number) rows.get(0)).doubleValue();
+	}
+}
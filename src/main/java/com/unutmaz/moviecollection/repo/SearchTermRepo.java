@@ -0,0 +1,29 @@
+package com.unutmaz.moviecollection.repo;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interface do repositório dos termos de busca mais frequentes (tabela search_terms),
+ * gravados ao fim de cada janela das estatísticas de busca.
+ * Esta interface é implementada por SearchTermRepoJPA.
+ */
+public interface SearchTermRepo {
+
+	/**
+	 * Soma buscas aos termos, criando os que não existem, e remove os termos que não
+	 * foram buscados desde o limite de retenção.
+	 *
+	 * @param searches Número de buscas por termo.
+	 * @param retentionMillis Tempo, em milissegundos, que um termo não buscado é mantido.
+	 */
+	void addSearches(Map<String, Long> searches, long retentionMillis);
+
+	/**
+	 * Busca os termos mais buscados.
+	 *
+	 * @param limit Número máximo de termos.
+	 * @return Termos, do mais buscado ao menos.
+	 */
+	List<String> findTopTerms(int limit);
+}
@@ -0,0 +1,72 @@
+package com.unutmaz.moviecollection.repo;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Implementação JPA do repositório de termos de busca. Só os termos mais frequentes
+ * de cada janela chegam aqui (algumas dezenas de linhas por janela), nunca uma linha
+ * por busca.
+ */
+@Repository("searchTermRepository")
+public class SearchTermRepoJPA implements SearchTermRepo {
+
+	/**
+	 * EntityManager injetado pelo Spring para operações de persistência.
+	 */
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Soma as buscas com um MERGE em lote e depois remove os termos não buscados desde
+	 * o limite de retenção.
+	 *
+	 * @param searches Número de buscas por termo.
+	 * @param retentionMillis Tempo, em milissegundos, que um termo não buscado é mantido.
+	 */
+	@Override
+	public void addSearches(Map<String, Long> searches, long retentionMillis) {
+		long now = System.currentTimeMillis();
+		entityManager.unwrap(Session.class).doWork(connection -> {
+			String q = "MERGE INTO search_terms t USING (SELECT CAST(? AS VARCHAR(255)) AS term) s ON t.term = s.term"
+					+ " WHEN MATCHED THEN UPDATE SET searches = t.searches + ?, last_seen = ?"
+					+ " WHEN NOT MATCHED THEN INSERT (term, searches, last_seen) VALUES (s.term, ?, ?)";
+			try (PreparedStatement statement = connection.prepareStatement(q)) {
+				Timestamp lastSeen = new Timestamp(now);
+				for (Map.Entry<String, Long> entry : searches.entrySet()) {
+					statement.setString(1, entry.getKey());
+					statement.setLong(2, entry.getValue());
+					statement.setTimestamp(3, lastSeen);
+					statement.setLong(4, entry.getValue());
+					statement.setTimestamp(5, lastSeen);
+					statement.addBatch();
+				}
+				statement.executeBatch();
+			}
+		});
+		entityManager.createNativeQuery("DELETE FROM search_terms WHERE last_seen < :cutoff")
+				.setParameter("cutoff", new Timestamp(now - retentionMillis)).executeUpdate();
+	}
+
+	/**
+	 * Busca os termos mais buscados, desempatando pela ordem alfabética.
+	 *
+	 * @param limit Número máximo de termos.
+	 * @return Termos, do mais buscado ao menos.
+	 */
+	@Override
+	public List<String> findTopTerms(int limit) {
+		List<?> rows = entityManager.createNativeQuery("SELECT term FROM search_terms ORDER BY searches DESC, term")
+				.setMaxResults(limit).getResultList();
+		return rows.stream().map(Object::toString).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,36 @@
+package com.unutmaz.moviecollection.repo;
+
+import com.unutmaz.moviecollection.util.UserMovieLists;
+
+/**
+ * Interface do repositório das listas de filmes dos usuários (tabela user_lists,
+ * uma linha por usuário com cada lista serializada num BLOB).
+ * Esta interface é implementada por UserListRepoJPA.
+ */
+public interface UserListRepo {
+
+	/**
+	 * Busca as listas de um usuário.
+	 *
+	 * @param username Nome do usuário.
+	 * @return Listas do usuário (UserMovieLists.EMPTY se não houver linha).
+	 */
+	UserMovieLists find(String username);
+
+	/**
+	 * Bloqueia as alterações de listas de um usuário até o fim da transação e busca
+	 * as listas atuais.
+	 *
+	 * @param username Nome do usuário.
+	 * @return Listas do usuário (UserMovieLists.EMPTY se não houver linha).
+	 */
+	UserMovieLists findForUpdate(String username);
+
+	/**
+	 * Grava as listas de um usuário, criando a linha se necessário.
+	 *
+	 * @param username Nome do usuário.
+	 * @param lists Listas a gravar.
+	 */
+	void save(String username, UserMovieLists lists);
+}
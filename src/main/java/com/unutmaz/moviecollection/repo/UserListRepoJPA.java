@@ -0,0 +1,90 @@
+package com.unutmaz.moviecollection.repo;
+
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.stereotype.Repository;
+
+import com.unutmaz.moviecollection.util.UserMovieLists;
+
+/**
+ * Implementação JPA do repositório de listas de filmes, com consultas nativas.
+ *
+ * Cada usuário tem uma única linha, lida e gravada inteira: não há uma linha por
+ * filme marcado nem junções com t_movies nas listagens. As alterações de um mesmo
+ * usuário são serializadas pela linha dele em users (que existe antes da primeira
+ * alteração, ao contrário da linha de user_lists).
+ */
+@Repository("userListRepository")
+public class UserListRepoJPA implements UserListRepo {
+
+	/**
+	 * EntityManager injetado pelo Spring para operações de persistência.
+	 */
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Busca a linha do usuário em user_lists e desserializa as listas.
+	 *
+	 * @param username Nome do usuário.
+	 * @return Listas do usuário (UserMovieLists.EMPTY se não houver linha).
+	 */
+	@Override
+	public UserMovieLists find(String username) {
+		List<?> rows = entityManager.createNativeQuery("SELECT favorites, watched, version FROM user_lists WHERE username = :username")
+				.setParameter("username", username).getResultList();
+		if (rows.isEmpty()) return UserMovieLists.EMPTY;
+		Object[] columns = (Object[]) rows.get(0);
+		return UserMovieLists.deserialize(bytes(columns[0]), bytes(columns[1]), ((Number) columns[2]).longValue());
+	}
+
+	/**
+	 * Bloqueia a linha do usuário em users até o fim da transação e busca as listas.
+	 *
+	 * @param username Nome do usuário.
+	 * @return Listas do usuário (UserMovieLists.EMPTY se não houver linha).
+	 */
+	@Override
+	public UserMovieLists findForUpdate(String username) {
+		entityManager.createNativeQuery("SELECT username FROM users WHERE username = :username FOR UPDATE")
+				.setParameter("username", username).getResultList();
+		return find(username);
+	}
+
+	/**
+	 * Grava as listas serializadas com MERGE, criando ou substituindo a linha do usuário.
+	 *
+	 * @param username Nome do usuário.
+	 * @param lists Listas a gravar.
+	 */
+	@Override
+	public void save(String username, UserMovieLists lists) {
+		entityManager.createNativeQuery("MERGE INTO user_lists (username, favorites, watched, version) KEY (username)"
+				+ " VALUES (:username, :favorites, :watched, :version)")
+				.setParameter("username", username)
+				.setParameter("favorites", lists.serialize(UserMovieLists.FAVORITES))
+				.setParameter("watched", lists.serialize(UserMovieLists.WATCHED))
+				.setParameter("version", lists.getVersion()).executeUpdate();
+	}
+
+	/**
+	 * Lê uma coluna BLOB, que o driver pode devolver como java.sql.Blob ou byte[].
+	 *
+	 * @param column Valor da coluna.
+	 * @return Conteúdo da coluna.
+	 */
+	private static byte[] bytes(Object column) {
+		if (!(column instanceof Blob)) return (byte[]) column;
+		Blob blob = (Blob) column;
+		try {
+			return blob.getBytes(1, (int) blob.length());
+		} catch (SQLException ex) {
+			throw new IllegalStateException("Could not read movie list", ex);
+		}
+	}
+}
@@ -1,11 +1,23 @@
 package com.unutmaz.moviecollection.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import com.unutmaz.moviecollection.exception.ActorNotFoundException;
 import com.unutmaz.moviecollection.exception.MovieNotFoundException;
 import com.unutmaz.moviecollection.model.Actor;
 import com.unutmaz.moviecollection.model.Movie;
 import com.unutmaz.moviecollection.model.User;
+import com.unutmaz.moviecollection.util.ActorPath;
+import com.unutmaz.moviecollection.util.BatchResult;
+import com.unutmaz.moviecollection.util.CatalogueStats;
+import com.unutmaz.moviecollection.util.ChangeSet;
+import com.unutmaz.moviecollection.util.CoStar;
+import com.unutmaz.moviecollection.util.CommunityRating;
+import com.unutmaz.moviecollection.util.MoviePage;
+import com.unutmaz.moviecollection.util.MovieQuery;
+import com.unutmaz.moviecollection.util.UserMovieLists;
 
 /**
  * Interface do serviço da aplicação Movie Collection.
@@ -38,6 +50,51 @@ public interface AppService {
 	 */
 	List<Movie> findMovies();
 
+	/**
+	 * Busca vários filmes pelo ID com uma única consulta.
+	 *
+	 * @param ids IDs dos filmes.
+	 * @return Filmes encontrados, na ordem dos IDs pedidos.
+	 */
+	List<Movie> findMovies(Collection<Long> ids);
+
+	/**
+	 * Lista filmes com filtros, ordenação e paginação.
+	 *
+	 * @param query Critérios da listagem.
+	 * @return Filmes da página e total de filmes encontrados.
+	 */
+	MoviePage findMovies(MovieQuery query);
+
+	/**
+	 * Lista filmes com filtros, ordenação e paginação, incluindo os filtros pelas
+	 * listas do usuário (somente favoritos, sem assistidos).
+	 *
+	 * @param query Critérios da listagem.
+	 * @param username Nome do usuário dono das listas.
+	 * @return Filmes da página e total de filmes encontrados.
+	 */
+	MoviePage findMovies(MovieQuery query, String username);
+
+	/**
+	 * Busca uma página de filmes ordenada por ID, usada na exportação em streaming.
+	 *
+	 * @param afterId Último ID da página anterior, ou null para a primeira página.
+	 * @param limit Tamanho máximo da página.
+	 * @return Filmes da página, com o elenco carregado.
+	 */
+	List<Movie> findMoviesAfter(Long afterId, int limit);
+
+	/**
+	 * Busca apenas algumas propriedades dos filmes.
+	 *
+	 * @param ids IDs dos filmes, ou null para todos os filmes.
+	 * @param fields Propriedades a serem retornadas (ex: id, name, rating, cast).
+	 * @return Uma linha por filme contendo apenas as propriedades pedidas.
+	 * @throws IllegalArgumentException Se algum campo for desconhecido.
+	 */
+	List<Map<String, Object>> findMovieFields(Collection<Long> ids, List<String> fields);
+
 	/**
 	 * Busca filmes por nome.
 	 *
@@ -71,6 +128,87 @@ public interface AppService {
 	 */
 	Movie findMovie(Long id) throws MovieNotFoundException;
 
+	/**
+	 * Registra uma visualização da página de um filme, para a ordenação "popular".
+	 * Não acessa o banco: os contadores são gravados periodicamente.
+	 *
+	 * @param id ID do filme.
+	 */
+	void recordView(Long id);
+
+	/**
+	 * Busca os filmes mais semelhantes a um filme, pelos atores em comum e pela
+	 * categoria, com a avaliação como desempate.
+	 *
+	 * @param id ID do filme.
+	 * @param k Número de filmes (até SimilarMovies.MAX_K).
+	 * @return Filmes semelhantes, do mais semelhante ao menos.
+	 * @throws MovieNotFoundException Se o filme não for encontrado.
+	 */
+	List<Movie> findSimilarMovies(Long id, int k) throws MovieNotFoundException;
+
+	/**
+	 * Grava a avaliação de um usuário para um filme, substituindo a anterior, e
+	 * atualiza a média do filme.
+	 *
+	 * @param username Nome do usuário.
+	 * @param movieId ID do filme.
+	 * @param rating Avaliação (de 0 a 10).
+	 * @return Média do filme e avaliação do usuário após a gravação.
+	 * @throws MovieNotFoundException Se o filme não for encontrado.
+	 */
+	CommunityRating rateMovie(String username, Long movieId, double rating) throws MovieNotFoundException;
+
+	/**
+	 * Remove a avaliação de um usuário para um filme, se houver, e atualiza a média do filme.
+	 *
+	 * @param username Nome do usuário.
+	 * @param movieId ID do filme.
+	 * @return Média do filme após a remoção.
+	 * @throws MovieNotFoundException Se o filme não for encontrado.
+	 */
+	CommunityRating deleteRating(String username, Long movieId) throws MovieNotFoundException;
+
+	/**
+	 * Busca a média das avaliações de um filme e a avaliação do usuário.
+	 *
+	 * @param username Nome do usuário.
+	 * @param movieId ID do filme.
+	 * @return Média do filme e avaliação do usuário.
+	 * @throws MovieNotFoundException Se o filme não for encontrado.
+	 */
+	CommunityRating findRating(String username, Long movieId) throws MovieNotFoundException;
+
+	/**
+	 * Busca as listas de filmes (favoritos e assistidos) de um usuário.
+	 *
+	 * @param username Nome do usuário.
+	 * @return Listas do usuário.
+	 */
+	UserMovieLists findLists(String username);
+
+	/**
+	 * Inclui ou remove um filme de uma lista do usuário.
+	 *
+	 * @param username Nome do usuário.
+	 * @param list Lista (UserMovieLists.FAVORITES ou WATCHED).
+	 * @param movieId ID do filme.
+	 * @param listed true para incluir, false para remover.
+	 * @return Listas do usuário após a alteração.
+	 * @throws MovieNotFoundException Se o filme não for encontrado.
+	 */
+	UserMovieLists setListed(String username, String list, Long movieId, boolean listed) throws MovieNotFoundException;
+
+	/**
+	 * Calcula as estatísticas do catálogo: avaliação média e mediana por categoria,
+	 * filmes por ano, histogramas de avaliação e rankings de atores. O resultado
+	 * fica em cache até a próxima alteração do catálogo.
+	 *
+	 * @param top Tamanho dos rankings de atores (até CatalogueStats.MAX_TOP).
+	 * @return Estatísticas do catálogo.
+	 */
+	CatalogueStats findStats(int top);
+
 	/**
 	 * Busca um ator específico pelo ID.
 	 *
@@ -79,6 +217,27 @@ public interface AppService {
 	 */
 	Actor findActor(Long id);
 
+	/**
+	 * Busca a ligação mais curta entre dois atores, por filmes em comum
+	 * ("graus de separação").
+	 *
+	 * @param from ID do primeiro ator.
+	 * @param to ID do segundo ator.
+	 * @return Caminho entre os atores (connected false se não houver ligação).
+	 * @throws ActorNotFoundException Se um dos atores não for encontrado.
+	 */
+	ActorPath findActorPath(Long from, Long to) throws ActorNotFoundException;
+
+	/**
+	 * Busca os atores a até depth passos de um ator (1 = atuaram no mesmo filme).
+	 *
+	 * @param id ID do ator.
+	 * @param depth Profundidade (até ActorGraph.MAX_DEPTH).
+	 * @return Atores alcançados, do mais próximo ao mais distante.
+	 * @throws ActorNotFoundException Se o ator não for encontrado.
+	 */
+	List<CoStar> findCoStars(Long id, int depth) throws ActorNotFoundException;
+
 	/**
 	 * Cria um novo filme.
 	 *
@@ -121,6 +280,95 @@ public interface AppService {
 	 */
 	void deleteActor(Long actor_id);
 
+	/**
+	 * Cria vários filmes numa única transação, em lotes JDBC.
+	 * O elenco de cada filme é informado pelos IDs dos atores (actor_id).
+	 *
+	 * @param movies Filmes a serem criados (sem ID).
+	 * @return Resultado de cada item, na ordem da lista recebida.
+	 */
+	List<BatchResult> createMovies(List<Movie> movies);
+
+	/**
+	 * Cria vários filmes vindos de uma importação em massa. Ao contrário de createMovies,
+	 * o elenco é informado pelos nomes dos atores (actor_name): cada nome é associado ao
+	 * ator existente de menor ID com esse nome, ou a um ator novo, criado na mesma transação.
+	 *
+	 * @param movies Filmes a serem criados (sem ID).
+	 * @return Resultado de cada item, na ordem da lista recebida.
+	 */
+	List<BatchResult> importMovies(List<Movie> movies);
+
+	/**
+	 * Substitui por completo vários filmes existentes (inclusive o elenco).
+	 *
+	 * @param movies Filmes com ID e todos os dados.
+	 * @return Resultado de cada item, na ordem da lista recebida.
+	 */
+	List<BatchResult> updateMovies(List<Movie> movies);
+
+	/**
+	 * Atualiza parcialmente vários filmes. Cada item contém o "id" e apenas
+	 * as propriedades a serem alteradas (name, date, category, description,
+	 * image, rating, cast).
+	 *
+	 * @param patches Alterações parciais de cada filme.
+	 * @return Resultado de cada item, na ordem da lista recebida.
+	 */
+	List<BatchResult> patchMovies(List<Map<String, Object>> patches);
+
+	/**
+	 * Exclui vários filmes.
+	 *
+	 * @param ids IDs dos filmes a serem excluídos.
+	 * @return Resultado de cada ID, na ordem recebida.
+	 */
+	List<BatchResult> deleteMovies(Collection<Long> ids);
+
+	/**
+	 * Cria vários atores numa única transação.
+	 *
+	 * @param actors Atores a serem criados (sem ID).
+	 * @return Resultado de cada item, na ordem da lista recebida.
+	 */
+	List<BatchResult> createActors(List<Actor> actors);
+
+	/**
+	 * Substitui por completo vários atores existentes.
+	 *
+	 * @param actors Atores com ID e nome.
+	 * @return Resultado de cada item, na ordem da lista recebida.
+	 */
+	List<BatchResult> updateActors(List<Actor> actors);
+
+	/**
+	 * Atualiza parcialmente vários atores. Cada item contém o "actor_id"
+	 * e as propriedades a serem alteradas (actor_name).
+	 *
+	 * @param patches Alterações parciais de cada ator.
+	 * @return Resultado de cada item, na ordem da lista recebida.
+	 */
+	List<BatchResult> patchActors(List<Map<String, Object>> patches);
+
+	/**
+	 * Exclui vários atores.
+	 *
+	 * @param ids IDs dos atores a serem excluídos.
+	 * @return Resultado de cada ID, na ordem recebida.
+	 */
+	List<BatchResult> deleteActors(Collection<Long> ids);
+
+	/**
+	 * Busca as alterações do catálogo posteriores a uma versão.
+	 * Cada filme ou ator aparece uma única vez, no estado atual; exclusões
+	 * aparecem apenas como IDs.
+	 *
+	 * @param since Última versão conhecida pelo consumidor (0 para todas).
+	 * @param limit Número máximo de alterações a considerar.
+	 * @return Conjunto de alterações e a próxima versão a consultar.
+	 */
+	ChangeSet findChanges(long since, int limit);
+
 	/**
 	 * Registra um novo usuário no sistema.
 	 *
@@ -1,19 +1,62 @@
 package com.unutmaz.moviecollection.service;
 
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.unutmaz.moviecollection.event.CatalogueChangeEvent;
+import com.unutmaz.moviecollection.event.MovieRatedEvent;
+import com.unutmaz.moviecollection.event.UserListsChangedEvent;
+import com.unutmaz.moviecollection.exception.ActorNotFoundException;
 import com.unutmaz.moviecollection.exception.MovieNotFoundException;
 import com.unutmaz.moviecollection.model.Actor;
+import com.unutmaz.moviecollection.model.CatalogueChange;
 import com.unutmaz.moviecollection.model.Movie;
 import com.unutmaz.moviecollection.model.User;
+import com.unutmaz.moviecollection.readmodel.CatalogueReadModel;
+import com.unutmaz.moviecollection.readmodel.ActorGraph;
+import com.unutmaz.moviecollection.readmodel.CatalogueSnapshot;
+import com.unutmaz.moviecollection.readmodel.CatalogueStatistics;
+import com.unutmaz.moviecollection.readmodel.SimilarMovies;
 import com.unutmaz.moviecollection.repo.ActorRepo;
+import com.unutmaz.moviecollection.repo.ChangeRepo;
 import com.unutmaz.moviecollection.repo.MovieRepo;
+import com.unutmaz.moviecollection.repo.RatingRepo;
+import com.unutmaz.moviecollection.repo.UserListRepo;
+import com.unutmaz.moviecollection.util.ActorPath;
+import com.unutmaz.moviecollection.util.BatchResult;
+import com.unutmaz.moviecollection.util.CatalogueStats;
+import com.unutmaz.moviecollection.util.CategoryStats;
+import com.unutmaz.moviecollection.util.ChangeSet;
+import com.unutmaz.moviecollection.util.CoStar;
+import com.unutmaz.moviecollection.util.CommunityRating;
+import com.unutmaz.moviecollection.util.MoviePage;
+import com.unutmaz.moviecollection.util.MovieQuery;
+import com.unutmaz.moviecollection.util.UserMovieLists;
 
 /**
  * Implementação do serviço da aplicação Movie Collection.
@@ -22,6 +65,13 @@ import com.unutmaz.moviecollection.repo.MovieRepo;
  * validações e regras de negócio quando necessário.
  *
  * Todas as operações são transacionais para garantir consistência dos dados.
+ * Toda operação que altera filmes ou atores registra a alteração no ChangeRepo,
+ * na mesma transação, para a sincronização incremental (/rest/changes), e publica
+ * um CatalogueChangeEvent, tratado pelos ouvintes após o commit.
+ *
+ * As leituras de filmes e atores são servidas pelo CatalogueReadModel quando ele está
+ * ativo, sem transação e sem acesso ao banco (TxType.SUPPORTS); caso contrário, são
+ * executadas no banco numa transação, como as demais operações.
  */
 @Service
 @Transactional
@@ -37,6 +87,87 @@ public class AppServiceImpl implements AppService {
 	 */
 	private ActorRepo actorRepo;
 
+	/**
+	 * Repositório do registro de alterações do catálogo.
+	 */
+	private ChangeRepo changeRepo;
+
+	/**
+	 * Publicador dos eventos de alteração do catálogo.
+	 */
+	private ApplicationEventPublisher eventPublisher;
+
+	/**
+	 * Modelo de leitura em memória do catálogo.
+	 */
+	private CatalogueReadModel readModel;
+
+	/**
+	 * Recomendação de filmes semelhantes sobre o modelo de leitura.
+	 */
+	private SimilarMovies similarMovies;
+
+	/**
+	 * Contadores de visualizações e ranking "popular".
+	 */
+	private ViewCounter viewCounter;
+
+	/**
+	 * Repositório das avaliações dos usuários.
+	 */
+	private RatingRepo ratingRepo;
+
+	/**
+	 * Ranking pela média das avaliações dos usuários.
+	 */
+	private CommunityRatings communityRatings;
+
+	/**
+	 * Repositório das listas de filmes dos usuários.
+	 */
+	private UserListRepo userListRepo;
+
+	/**
+	 * Cache das listas de filmes dos usuários.
+	 */
+	private UserListCache userListCache;
+
+	/**
+	 * Estatísticas do catálogo, com cache por versão.
+	 */
+	private CatalogueStatistics catalogueStatistics;
+
+	/**
+	 * Consultas de grafo entre atores sobre o modelo de leitura.
+	 */
+	private ActorGraph actorGraph;
+
+	/**
+	 * Índice da busca aproximada por nomes de filmes e atores.
+	 */
+	private FuzzyNameIndex fuzzyNameIndex;
+
+	/**
+	 * Cache dos IDs resultantes das listagens e buscas.
+	 */
+	private QueryResultCache queryResultCache;
+
+	/**
+	 * Agrupamento de cargas concorrentes idênticas e cache de filmes inexistentes.
+	 */
+	private LoadCoalescer loadCoalescer;
+
+	/**
+	 * Transação usada pelas leituras quando o modelo de leitura não está disponível.
+	 */
+	private TransactionTemplate readTransaction;
+
+	/**
+	 * Número de itens por lote nas operações em massa. Deve acompanhar
+	 * hibernate.jdbc.batch_size em application.properties.
+	 */
+	private static final int BATCH_SIZE = 50;
+
 	/**
 	 * Injeção do repositório de filmes via setter.
 	 *
@@ -57,41 +188,425 @@ public class AppServiceImpl implements AppService {
 		this.actorRepo = actorRepo;
 	}
 
+	/**
+	 * Injeção do repositório de alterações via setter.
+	 *
+	 * @param changeRepo Instância do ChangeRepo.
+	 */
+	@Autowired
+	public void setChangeRepo(ChangeRepo changeRepo) {
+		this.changeRepo = changeRepo;
+	}
+
+	/**
+	 * Injeção do publicador de eventos via setter.
+	 *
+	 * @param eventPublisher Publicador de eventos do Spring.
+	 */
+	@Autowired
+	public void setEventPublisher(ApplicationEventPublisher eventPublisher) {
+		this.eventPublisher = eventPublisher;
+	}
+
+	/**
+	 * Injeção do modelo de leitura via setter.
+	 *
+	 * @param readModel Instância do CatalogueReadModel.
+	 */
+	@Autowired
+	public void setReadModel(CatalogueReadModel readModel) {
+		this.readModel = readModel;
+	}
+
+	/**
+	 * Injeção do SimilarMovies via setter.
+	 *
+	 * @param similarMovies Instância do SimilarMovies.
+	 */
+	@Autowired
+	public void setSimilarMovies(SimilarMovies similarMovies) {
+		this.similarMovies = similarMovies;
+	}
+
+	/**
+	 * Injeção do ViewCounter via setter.
+	 *
+	 * @param viewCounter Instância do ViewCounter.
+	 */
+	@Autowired
+	public void setViewCounter(ViewCounter viewCounter) {
+		this.viewCounter = viewCounter;
+	}
+
+	/**
+	 * Injeção do repositório de avaliações via setter.
+	 *
+	 * @param ratingRepo Instância do RatingRepo.
+	 */
+	@Autowired
+	public void setRatingRepo(RatingRepo ratingRepo) {
+		this.ratingRepo = ratingRepo;
+	}
+
+	/**
+	 * Injeção do CommunityRatings via setter.
+	 *
+	 * @param communityRatings Instância do CommunityRatings.
+	 */
+	@Autowired
+	public void setCommunityRatings(CommunityRatings communityRatings) {
+		this.communityRatings = communityRatings;
+	}
+
+	/**
+	 * Injeção do repositório de listas via setter.
+	 *
+	 * @param userListRepo Instância do UserListRepo.
+	 */
+	@Autowired
+	public void setUserListRepo(UserListRepo userListRepo) {
+		this.userListRepo = userListRepo;
+	}
+
+	/**
+	 * Injeção do UserListCache via setter.
+	 *
+	 * @param userListCache Instância do UserListCache.
+	 */
+	@Autowired
+	public void setUserListCache(UserListCache userListCache) {
+		this.userListCache = userListCache;
+	}
+
+	/**
+	 * Injeção do CatalogueStatistics via setter.
+	 *
+	 * @param catalogueStatistics Instância do CatalogueStatistics.
+	 */
+	@Autowired
+	public void setCatalogueStatistics(CatalogueStatistics catalogueStatistics) {
+		this.catalogueStatistics = catalogueStatistics;
+	}
+
+	/**
+	 * Injeção do ActorGraph via setter.
+	 *
+	 * @param actorGraph Instância do ActorGraph.
+	 */
+	@Autowired
+	public void setActorGraph(ActorGraph actorGraph) {
+		this.actorGraph = actorGraph;
+	}
+
+	/**
+	 * Injeção do FuzzyNameIndex via setter.
+	 *
+	 * @param fuzzyNameIndex Instância do FuzzyNameIndex.
+	 */
+	@Autowired
+	public void setFuzzyNameIndex(FuzzyNameIndex fuzzyNameIndex) {
+		this.fuzzyNameIndex = fuzzyNameIndex;
+	}
+
+	/**
+	 * Injeção do QueryResultCache via setter.
+	 *
+	 * @param queryResultCache Instância do QueryResultCache.
+	 */
+	@Autowired
+	public void setQueryResultCache(QueryResultCache queryResultCache) {
+		this.queryResultCache = queryResultCache;
+	}
+
+	/**
+	 * Injeção do LoadCoalescer via setter.
+	 *
+	 * @param loadCoalescer Instância do LoadCoalescer.
+	 */
+	@Autowired
+	public void setLoadCoalescer(LoadCoalescer loadCoalescer) {
+		this.loadCoalescer = loadCoalescer;
+	}
+
+	/**
+	 * Injeção do gerenciador de transações via setter, usado nas leituras feitas no banco.
+	 *
+	 * @param transactionManager Gerenciador de transações.
+	 */
+	@Autowired
+	public void setTransactionManager(PlatformTransactionManager transactionManager) {
+		this.readTransaction = new TransactionTemplate(transactionManager);
+	}
+
 	/**
 	 * Busca todos os filmes cadastrados.
 	 *
 	 * @return Lista de todos os filmes.
 	 */
 	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
 	public List<Movie> findMovies() {
-		return movieRepo.findAll();
+		return read(CatalogueSnapshot::allMovies, movieRepo::findAll);
+	}
+
+	/**
+	 * Busca vários filmes pelo ID e os devolve na ordem pedida.
+	 *
+	 * @param ids IDs dos filmes.
+	 * @return Filmes encontrados.
+	 */
+	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
+	public List<Movie> findMovies(Collection<Long> ids) {
+		return read(snapshot -> snapshot.movies(ids.stream().distinct().mapToInt(snapshot::indexOfMovie).filter(p -> p >= 0).toArray()),
+				() -> loadMovies(ids));
+	}
+
+	/**
+	 * Carrega vários filmes do banco, na ordem dos IDs pedidos.
+	 *
+	 * @param ids IDs dos filmes.
+	 * @return Filmes encontrados.
+	 */
+	private List<Movie> loadMovies(Collection<Long> ids) {
+		Map<Long, Movie> byId = movieRepo.findByIds(ids).stream()
+				.collect(Collectors.toMap(Movie::getId, Function.identity()));
+		return ids.stream().distinct().map(byId::get).filter(m -> m != null).collect(Collectors.toList());
+	}
+
+	/**
+	 * Lista filmes pelas permutações pré-calculadas do modelo de leitura (para
+	 * "popular", pela ordem de visualizações do ViewCounter, e para "community", pela
+	 * ordem de médias do CommunityRatings) ou, sem ele, com a
+	 * ordenação e a paginação feitas no banco.
+	 *
+	 * @param query Critérios da listagem.
+	 * @return Página de filmes.
+	 */
+	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
+	public MoviePage findMovies(MovieQuery query) {
+		return listMovies(query, UserMovieLists.EMPTY);
+	}
+
+	/**
+	 * Lista filmes com os filtros pelas listas do usuário, obtidas do UserListCache.
+	 * No modelo de leitura, as listas viram BitSets combinados aos demais filtros; no
+	 * banco, a consulta traz só os IDs na ordem pedida, que são filtrados pelos bitmaps
+	 * em memória antes de carregar os filmes da página.
+	 *
+	 * @param query Critérios da listagem.
+	 * @param username Nome do usuário.
+	 * @return Página de filmes.
+	 */
+	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
+	public MoviePage findMovies(MovieQuery query, String username) {
+		return listMovies(query, query.usesLists() ? userListCache.get(username) : UserMovieLists.EMPTY);
 	}
 
 	/**
-	 * Busca filmes por nome.
+	 * Busca uma página de filmes ordenada por ID.
+	 *
+	 * @param afterId Último ID da página anterior, ou null.
+	 * @param limit Tamanho máximo da página.
+	 * @return Filmes da página.
+	 */
+	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
+	public List<Movie> findMoviesAfter(Long afterId, int limit) {
+		return read(snapshot -> snapshot.movies(snapshot.findPage(afterId, limit)), () -> movieRepo.findPage(afterId, limit));
+	}
+
+	/**
+	 * Busca apenas algumas propriedades dos filmes.
+	 *
+	 * @param ids IDs dos filmes, ou null para todos.
+	 * @param fields Propriedades a serem retornadas.
+	 * @return Linhas com as propriedades pedidas.
+	 */
+	@Override
+	public List<Map<String, Object>> findMovieFields(Collection<Long> ids, List<String> fields) {
+		return movieRepo.findFields(ids, fields);
+	}
+
+	/**
+	 * Busca filmes por nome, como uma listagem sem paginação (passa pelo QueryResultCache).
 	 *
 	 * @param name Nome ou parte do nome do filme.
 	 * @return Lista de filmes que correspondem ao critério.
 	 */
 	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
 	public List<Movie> findMoviesByName(String name) {
-		return movieRepo.findByName(name);
+		return listMovies(MovieQuery.all(name, null, null, null), UserMovieLists.EMPTY).getMovies();
 	}
 
 	/**
-	 * Busca um filme específico pelo ID, lançando exceção se não encontrado.
+	 * Busca um filme específico pelo ID, lançando exceção se não encontrado. No banco,
+	 * buscas simultâneas pelo mesmo ID fazem uma só consulta (LoadCoalescer), e IDs
+	 * inexistentes ficam no cache negativo até a próxima alteração de filmes.
 	 *
 	 * @param id ID do filme.
 	 * @return Filme encontrado.
 	 * @throws MovieNotFoundException Se o filme não existir.
 	 */
 	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
 	public Movie findMovie(Long id) throws MovieNotFoundException {
-		Movie movie = movieRepo.findById(id);
-		if (movie == null) throw new MovieNotFoundException("Movie not found with id: " + id);
+		if (id == null || loadCoalescer.isMissing(id)) {
+			throw new MovieNotFoundException("Movie not found with id: " + id);
+		}
+		long version = loadCoalescer.version();
+		Movie movie = read(List.of("movie", id), snapshot -> {
+			int position = snapshot.indexOfMovie(id);
+			return position < 0 ? null : snapshot.movie(position);
+		}, () -> {
+			Movie found = movieRepo.findById(id);
+			// O filme pode ser entregue a outras requisições (LoadCoalescer): o elenco vem carregado
+			if (found != null) Hibernate.initialize(found.getCast());
+			return found;
+		});
+		if (movie == null) {
+			loadCoalescer.markMissing(id, version);
+			throw new MovieNotFoundException("Movie not found with id: " + id);
+		}
 		return movie;
 	}
 
+	/**
+	 * Registra uma visualização no ViewCounter (somente em memória).
+	 *
+	 * @param id ID do filme.
+	 */
+	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
+	public void recordView(Long id) {
+		viewCounter.record(id);
+	}
+
+	/**
+	 * Busca os filmes semelhantes pelo SimilarMovies (grafo em memória, com cache)
+	 * ou, sem o modelo de leitura, com uma consulta de contagem de atores em comum.
+	 *
+	 * @param id ID do filme.
+	 * @param k Número de filmes.
+	 * @return Filmes semelhantes.
+	 * @throws MovieNotFoundException Se o filme não existir.
+	 */
+	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
+	public List<Movie> findSimilarMovies(Long id, int k) throws MovieNotFoundException {
+		int limit = Math.max(0, Math.min(k, SimilarMovies.MAX_K));
+		List<Movie> similar = read(snapshot -> {
+			int[] positions = similarMovies.find(snapshot, id, limit);
+			return positions == null ? null : snapshot.movies(positions);
+		}, () -> movieRepo.findById(id) == null ? null : loadMovies(movieRepo.findSimilarIds(id, limit)));
+		if (similar == null) throw new MovieNotFoundException("Movie not found with id: " + id);
+		return similar;
+	}
+
+	/**
+	 * Grava a avaliação e ajusta os totais do filme pela diferença: uma avaliação nova
+	 * soma a nota e uma unidade à contagem; uma substituição soma só a diferença entre
+	 * a nota nova e a anterior. A avaliação anterior é lida depois de bloquear a linha
+	 * do usuário em users (RatingRepo.findForUpdate), de modo que duas gravações do
+	 * mesmo usuário, inclusive a primeira avaliação do filme, não calculem a diferença
+	 * sobre o mesmo valor nem tentem inserir a mesma linha; os
+	 * totais são atualizados num único MERGE, sem ler nem bloquear t_movies.
+	 *
+	 * @param username Nome do usuário.
+	 * @param movieId ID do filme.
+	 * @param rating Avaliação (de 0 a 10).
+	 * @return Média do filme e avaliação do usuário.
+	 * @throws MovieNotFoundException Se o filme não existir.
+	 */
+	@Override
+	public CommunityRating rateMovie(String username, Long movieId, double rating) throws MovieNotFoundException {
+		if (!(rating >= 0 && rating <= 10)) {
+			throw new IllegalArgumentException("Rating must be between 0 and 10");
+		}
+		requireMovie(movieId);
+		Double previous = ratingRepo.findForUpdate(username, movieId);
+		ratingRepo.save(username, movieId, rating, previous != null);
+		ratingRepo.addToTotals(movieId, previous == null ? rating : rating - previous, previous == null ? 1 : 0);
+		eventPublisher.publishEvent(new MovieRatedEvent(movieId));
+		return communityRating(movieId, rating);
+	}
+
+	/**
+	 * Remove a avaliação e subtrai a nota e uma unidade dos totais do filme.
+	 *
+	 * @param username Nome do usuário.
+	 * @param movieId ID do filme.
+	 * @return Média do filme.
+	 * @throws MovieNotFoundException Se o filme não existir.
+	 */
+	@Override
+	public CommunityRating deleteRating(String username, Long movieId) throws MovieNotFoundException {
+		requireMovie(movieId);
+		Double previous = ratingRepo.findForUpdate(username, movieId);
+		if (previous != null) {
+			ratingRepo.delete(username, movieId);
+			ratingRepo.addToTotals(movieId, -previous, -1);
+			eventPublisher.publishEvent(new MovieRatedEvent(movieId));
+		}
+		return communityRating(movieId, null);
+	}
+
+	/**
+	 * Busca a média a partir dos totais do filme, sem percorrer as avaliações.
+	 *
+	 * @param username Nome do usuário.
+	 * @param movieId ID do filme.
+	 * @return Média do filme e avaliação do usuário.
+	 * @throws MovieNotFoundException Se o filme não existir.
+	 */
+	@Override
+	public CommunityRating findRating(String username, Long movieId) throws MovieNotFoundException {
+		requireMovie(movieId);
+		return communityRating(movieId, ratingRepo.find(username, movieId));
+	}
+
+	/**
+	 * Busca as listas do usuário no UserListCache.
+	 *
+	 * @param username Nome do usuário.
+	 * @return Listas do usuário.
+	 */
+	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
+	public UserMovieLists findLists(String username) {
+		return userListCache.get(username);
+	}
+
+	/**
+	 * Altera uma lista do usuário: lê as listas com o bloqueio do usuário, cria uma
+	 * cópia alterada do bitmap e grava a linha inteira. O cache é atualizado após o
+	 * commit, pelo UserListsChangedEvent.
+	 *
+	 * @param username Nome do usuário.
+	 * @param list Lista (UserMovieLists.FAVORITES ou WATCHED).
+	 * @param movieId ID do filme.
+	 * @param listed true para incluir, false para remover.
+	 * @return Listas do usuário após a alteração.
+	 * @throws MovieNotFoundException Se o filme não existir.
+	 */
+	@Override
+	public UserMovieLists setListed(String username, String list, Long movieId, boolean listed) throws MovieNotFoundException {
+		if (!UserMovieLists.NAMES.contains(list)) {
+			throw new IllegalArgumentException("Unknown list: " + list);
+		}
+		requireMovie(movieId);
+		UserMovieLists lists = userListRepo.findForUpdate(username);
+		UserMovieLists updated = lists.with(list, movieId, listed);
+		if (updated != lists) {
+			userListRepo.save(username, updated);
+			eventPublisher.publishEvent(new UserListsChangedEvent(username, updated));
+		}
+		return updated;
+	}
+
 	/**
 	 * Cria um novo filme.
 	 *
@@ -100,6 +615,7 @@ public class AppServiceImpl implements AppService {
 	@Override
 	public void createMovie(Movie movie) {
 		movieRepo.create(movie);
+		recordChanges(CatalogueChange.MOVIE, Collections.singletonList(movie.getId()), false);
 	}
 
 	/**
@@ -110,6 +626,7 @@ public class AppServiceImpl implements AppService {
 	@Override
 	public void createActor(Actor actor) {
 		actorRepo.create(actor);
+		recordChanges(CatalogueChange.ACTOR, Collections.singletonList(actor.getActor_id()), false);
 	}
 
 	/**
@@ -119,7 +636,8 @@ public class AppServiceImpl implements AppService {
 	 */
 	@Override
 	public void update(Movie movie) {
-		movieRepo.update(movie);
+		Movie updated = movieRepo.update(movie);
+		recordChanges(CatalogueChange.MOVIE, Collections.singletonList(updated.getId()), false);
 	}
 
 	/**
@@ -129,7 +647,8 @@ public class AppServiceImpl implements AppService {
 	 */
 	@Override
 	public void update(Actor actor) {
-		actorRepo.update(actor);
+		Actor updated = actorRepo.update(actor);
+		recordChanges(CatalogueChange.ACTOR, Collections.singletonList(updated.getActor_id()), false);
 	}
 
 	/**
@@ -139,7 +658,7 @@ public class AppServiceImpl implements AppService {
 	 */
 	@Override
 	public void deleteMovie(Long id) {
-		movieRepo.delete(id);
+		deleteMovies(Collections.singletonList(id));
 	}
 
 	/**
@@ -149,29 +668,32 @@ public class AppServiceImpl implements AppService {
 	 */
 	@Override
 	public void deleteActor(Long actor_id) {
-		actorRepo.delete(actor_id);
+		deleteActors(Collections.singletonList(actor_id));
 	}
 
 	/**
-	 * Busca filmes por categoria.
+	 * Busca filmes por categoria, como uma listagem sem paginação (passa pelo QueryResultCache).
 	 *
 	 * @param category Categoria do filme.
 	 * @return Lista de filmes da categoria especificada.
 	 */
 	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
 	public List<Movie> findMoviesByCategory(String category) {
-		return movieRepo.findByCategory(category);
+		return listMovies(MovieQuery.all(null, category, null, null), UserMovieLists.EMPTY).getMovies();
 	}
 
 	/**
-	 * Busca filmes que contenham um ator específico.
+	 * Busca filmes que contenham um ator específico, como uma listagem sem paginação
+	 * (passa pelo QueryResultCache).
 	 *
 	 * @param actor Nome do ator.
 	 * @return Lista de filmes com o ator no elenco.
 	 */
 	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
 	public List<Movie> findMoviesByActor(String actor) {
-		return movieRepo.findByActor(actor);
+		return listMovies(MovieQuery.all(null, null, actor, null), UserMovieLists.EMPTY).getMovies();
 	}
 
 	/**
@@ -180,8 +702,9 @@ public class AppServiceImpl implements AppService {
 	 * @return Lista de todos os atores.
 	 */
 	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
 	public List<Actor> findActors() {
-		return actorRepo.findActors();
+		return read(CatalogueSnapshot::allActors, actorRepo::findActors);
 	}
 
 	/**
@@ -191,8 +714,312 @@ public class AppServiceImpl implements AppService {
 	 * @return Ator encontrado ou null se não existir.
 	 */
 	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
 	public Actor findActor(Long id) {
-		return actorRepo.findActorById(id);
+		return read(snapshot -> {
+			int position = snapshot.indexOfActor(id);
+			return position < 0 ? null : snapshot.actor(position);
+		}, () -> actorRepo.findActorById(id));
+	}
+
+	/**
+	 * Calcula as estatísticas pelo CatalogueStatistics, sobre o modelo de leitura
+	 * ou, sem ele, com GROUP BY no banco (uma só carga para as requisições simultâneas).
+	 * Nos dois casos o resultado fica em cache pela versão do catálogo.
+	 *
+	 * @param top Tamanho dos rankings de atores.
+	 * @return Estatísticas do catálogo.
+	 */
+	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
+	public CatalogueStats findStats(int top) {
+		CatalogueStats stats = read(List.of("stats"),
+				snapshot -> catalogueStatistics.get(snapshot.getVersion(), () -> catalogueStatistics.compute(snapshot)),
+				() -> {
+					long version = changeRepo.currentVersion();
+					return catalogueStatistics.get(version, () -> loadStats(version));
+				});
+		return stats.withTop(Math.max(1, Math.min(top, CatalogueStats.MAX_TOP)));
+	}
+
+	/**
+	 * Calcula as estatísticas com consultas agregadas no banco.
+	 *
+	 * @param version Versão atual do catálogo.
+	 * @return Estatísticas do catálogo.
+	 */
+	private CatalogueStats loadStats(long version) {
+		List<CategoryStats> categories = movieRepo.findCategoryStats();
+		long[] histogram = new long[CatalogueStats.RATING_BUCKETS];
+		long movies = 0;
+		for (CategoryStats category : categories) {
+			movies += category.getMovies();
+			for (int b = 0; b < histogram.length; b++) {
+				histogram[b] += category.getRatingHistogram()[b];
+			}
+		}
+		return new CatalogueStats(version, movies, categories, movieRepo.countByYear(), histogram,
+				actorRepo.findTopActors(false, CatalogueStats.MAX_TOP), actorRepo.findTopActors(true, CatalogueStats.MAX_TOP));
+	}
+
+	/**
+	 * Busca a ligação mais curta entre dois atores pelo ActorGraph, sobre o modelo
+	 * de leitura ou, sem ele, sobre o grafo de elenco carregado do banco.
+	 *
+	 * @param from ID do primeiro ator.
+	 * @param to ID do segundo ator.
+	 * @return Caminho entre os atores.
+	 * @throws ActorNotFoundException Se um dos atores não existir.
+	 */
+	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
+	public ActorPath findActorPath(Long from, Long to) throws ActorNotFoundException {
+		return read(snapshot -> actorPath(snapshot, from, to, snapshot::movies), () -> {
+			CatalogueSnapshot graph = loadCastGraph();
+			return actorPath(graph, from, to, films -> loadMovies(
+					Arrays.stream(films).mapToObj(graph::movieId).collect(Collectors.toList())));
+		});
+	}
+
+	/**
+	 * Busca os atores a até depth passos de um ator pelo ActorGraph.
+	 *
+	 * @param id ID do ator.
+	 * @param depth Profundidade (limitada a 1..ActorGraph.MAX_DEPTH).
+	 * @return Atores alcançados, por profundidade e ID.
+	 * @throws ActorNotFoundException Se o ator não existir.
+	 */
+	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
+	public List<CoStar> findCoStars(Long id, int depth) throws ActorNotFoundException {
+		int limit = Math.max(1, Math.min(depth, ActorGraph.MAX_DEPTH));
+		return read(snapshot -> coStars(snapshot, id, limit), () -> coStars(loadCastGraph(), id, limit));
+	}
+
+	/**
+	 * Monta o ActorPath a partir do caminho de posições do ActorGraph.
+	 *
+	 * @param graph Cópia com o grafo de elenco.
+	 * @param from ID do primeiro ator.
+	 * @param to ID do segundo ator.
+	 * @param movies Carrega os filmes das posições informadas, na mesma ordem.
+	 * @return Caminho entre os atores.
+	 */
+	private ActorPath actorPath(CatalogueSnapshot graph, Long from, Long to, Function<int[], List<Movie>> movies) {
+		int[] path = actorGraph.path(graph, actorPosition(graph, from), actorPosition(graph, to));
+		if (path == null) return ActorPath.notConnected();
+		List<Actor> actors = new ArrayList<>(path.length / 2 + 1);
+		int[] films = new int[path.length / 2];
+		for (int i = 0; i < path.length; i++) {
+			if (i % 2 == 0) {
+				actors.add(graph.actor(path[i]));
+			} else {
+				films[i / 2] = path[i];
+			}
+		}
+		return new ActorPath(actors, movies.apply(films));
+	}
+
+	/**
+	 * Converte o resultado de ActorGraph.costars em CoStars.
+	 *
+	 * @param graph Cópia com o grafo de elenco.
+	 * @param id ID do ator.
+	 * @param depth Profundidade.
+	 * @return Atores alcançados.
+	 */
+	private List<CoStar> coStars(CatalogueSnapshot graph, Long id, int depth) {
+		ActorGraph.Reach reach = actorGraph.costars(graph, actorPosition(graph, id), depth);
+		List<CoStar> coStars = new ArrayList<>(reach.size());
+		for (int i = 0; i < reach.size(); i++) {
+			coStars.add(new CoStar(graph.actor(reach.actor(i)), reach.depth(i)));
+		}
+		return coStars;
+	}
+
+	/**
+	 * Obtém a posição de um ator na cópia.
+	 *
+	 * @param graph Cópia com o grafo de elenco.
+	 * @param id ID do ator.
+	 * @return Posição do ator.
+	 * @throws ActorNotFoundException Se o ator não estiver na cópia.
+	 */
+	private int actorPosition(CatalogueSnapshot graph, Long id) throws ActorNotFoundException {
+		int position = graph.indexOfActor(id);
+		if (position < 0) throw new ActorNotFoundException("Actor not found with id: " + id);
+		return position;
+	}
+
+	/**
+	 * Executa uma listagem pelo QueryResultCache, que guarda os IDs da página por
+	 * consulta normalizada; nas falhas do cache, a listagem é calculada (uma vez para
+	 * todas as requisições simultâneas, pelo LoadCoalescer) no modelo de leitura ou,
+	 * sem ele, no banco.
+	 *
+	 * @param query Critérios da listagem.
+	 * @param lists Listas do usuário (usadas só se a consulta tiver filtros por elas).
+	 * @return Página de filmes.
+	 */
+	private MoviePage listMovies(MovieQuery query, UserMovieLists lists) {
+		if (!QueryResultCache.cacheable(query)) {
+			return executeListing(query, lists);
+		}
+		MovieQuery key = query.normalized();
+		QueryResultCache.Result cached = queryResultCache.get(key);
+		if (cached != null) {
+			return new MoviePage(findMovies(Arrays.stream(cached.getIds()).boxed().collect(Collectors.toList())),
+					query.getPage(), query.getSize(), cached.getTotal());
+		}
+		// Requisições simultâneas pela mesma listagem esperam por um único cálculo
+		return loadCoalescer.load(List.of("listing", key), () -> {
+			// A versão é lida antes do cálculo: se o catálogo mudar durante ele, o resultado é descartado
+			long version = queryResultCache.version();
+			MoviePage page = executeListing(query, lists);
+			queryResultCache.put(key, version, page.getMovies().stream().mapToLong(Movie::getId).toArray(), page.getTotal());
+			return page;
+		});
+	}
+
+	/**
+	 * Calcula uma listagem, sem o QueryResultCache.
+	 *
+	 * @param query Critérios da listagem.
+	 * @param lists Listas do usuário (usadas só se a consulta tiver filtros por elas).
+	 * @return Página de filmes.
+	 */
+	private MoviePage executeListing(MovieQuery query, UserMovieLists lists) {
+		if (query.isFuzzy()) {
+			return listFuzzyMatches(query, lists);
+		}
+		return read(snapshot -> query.isPopular() ? snapshot.find(query, viewCounter.popularOrder(snapshot), lists)
+				: query.isCommunity() ? snapshot.find(query, communityRatings.communityOrder(snapshot), lists)
+				: snapshot.find(query, lists), () -> {
+			if (!query.usesLists()) {
+				return new MoviePage(movieRepo.findByQuery(query), query.getPage(), query.getSize(),
+						movieRepo.countByQuery(query));
+			}
+			return pageOf(query, movieRepo.findIdsByQuery(query).stream().filter(id -> lists.accepts(query, id))
+					.collect(Collectors.toList()));
+		});
+	}
+
+	/**
+	 * Executa uma listagem de busca aproximada: o FuzzyNameIndex resolve os filtros por
+	 * nome e ator em IDs de filmes, e os demais filtros e a ordenação são aplicados só a
+	 * eles. Sem ordenação, os filmes seguem a ordem de relevância da busca por nome (ou a
+	 * ordem de ID, quando só há filtro por ator).
+	 *
+	 * @param query Critérios da listagem.
+	 * @param lists Listas do usuário.
+	 * @return Página de filmes.
+	 */
+	private MoviePage listFuzzyMatches(MovieQuery query, UserMovieLists lists) {
+		long[] actorIds = query.getActor() == null ? null : fuzzyNameIndex.findActors(query.getActor());
+		return read(snapshot -> {
+			long[] matches = fuzzyMatches(query, actorIds == null ? null : moviesOf(snapshot, actorIds));
+			return snapshot.findAmong(query, matches, query.isPopular() ? viewCounter.popularOrder(snapshot)
+					: query.isCommunity() ? communityRatings.communityOrder(snapshot) : null, lists);
+		}, () -> {
+			long[] matches = fuzzyMatches(query, actorIds == null ? null : new HashSet<>(actorIds.length == 0 ? List.of()
+					: actorRepo.findMovieIdsByActors(Arrays.stream(actorIds).boxed().collect(Collectors.toList()))));
+			List<Long> ids = movieRepo.findIdsByQuery(query, Arrays.stream(matches).boxed().collect(Collectors.toList()));
+			if (query.getOrderBy() == null) {
+				Set<Long> found = new HashSet<>(ids);
+				ids = Arrays.stream(matches).boxed().filter(found::contains).collect(Collectors.toList());
+			}
+			return pageOf(query, ids.stream().filter(id -> lists.accepts(query, id)).collect(Collectors.toList()));
+		});
+	}
+
+	/**
+	 * Combina as buscas aproximadas de uma listagem.
+	 *
+	 * @param query Critérios da listagem.
+	 * @param actorMovies Filmes dos atores encontrados, ou null sem filtro por ator.
+	 * @return IDs dos filmes encontrados: os da busca por nome, na ordem de relevância,
+	 *         que estão em actorMovies, ou os de actorMovies em ordem de ID.
+	 */
+	private long[] fuzzyMatches(MovieQuery query, Set<Long> actorMovies) {
+		if (query.getName() == null) {
+			return actorMovies.stream().mapToLong(Long::longValue).sorted().toArray();
+		}
+		long[] byName = fuzzyNameIndex.findMovies(query.getName());
+		return actorMovies == null ? byName : Arrays.stream(byName).filter(actorMovies::contains).toArray();
+	}
+
+	/**
+	 * Obtém os IDs dos filmes de alguns atores na cópia do catálogo.
+	 */
+	private static Set<Long> moviesOf(CatalogueSnapshot snapshot, long[] actorIds) {
+		Set<Long> movies = new HashSet<>();
+		for (long actorId : actorIds) {
+			int actor = snapshot.indexOfActor(actorId);
+			if (actor < 0) continue;
+			for (int position : snapshot.filmsOf(actor)) {
+				movies.add(snapshot.movieId(position));
+			}
+		}
+		return movies;
+	}
+
+	/**
+	 * Recorta uma página de uma lista de IDs já filtrada e ordenada e carrega os filmes.
+	 *
+	 * @param query Critérios da listagem.
+	 * @param ids IDs de todos os filmes da listagem.
+	 * @return Página de filmes.
+	 */
+	private MoviePage pageOf(MovieQuery query, List<Long> ids) {
+		int from = (int) Math.min(query.offset(), ids.size());
+		int to = query.getSize() == 0 ? ids.size() : (int) Math.min((long) from + query.getSize(), ids.size());
+		return new MoviePage(loadMovies(ids.subList(from, to)), query.getPage(), query.getSize(), ids.size());
+	}
+
+	/**
+	 * Verifica no banco, na transação atual, se um filme existe.
+	 *
+	 * @param movieId ID do filme.
+	 * @throws MovieNotFoundException Se o filme não existir.
+	 */
+	private void requireMovie(Long movieId) throws MovieNotFoundException {
+		if (movieId == null || movieRepo.findExistingIds(Collections.singletonList(movieId)).isEmpty()) {
+			throw new MovieNotFoundException("Movie not found with id: " + movieId);
+		}
+	}
+
+	/**
+	 * Monta a resposta de avaliação a partir dos totais do filme.
+	 *
+	 * @param movieId ID do filme.
+	 * @param userRating Avaliação do usuário, ou null.
+	 * @return Média do filme e avaliação do usuário.
+	 */
+	private CommunityRating communityRating(Long movieId, Double userRating) {
+		double[] totals = ratingRepo.findTotals(movieId);
+		return new CommunityRating(movieId, totals[0], (long) totals[1], userRating);
+	}
+
+	/**
+	 * Carrega do banco apenas o grafo de elenco (atores e pares filme-ator), usado
+	 * pelas consultas de grafo quando o modelo de leitura não está disponível. Os
+	 * filmes da cópia têm só o ID.
+	 *
+	 * @return Cópia com atores e elencos.
+	 */
+	private CatalogueSnapshot loadCastGraph() {
+		CatalogueSnapshot.Builder builder = new CatalogueSnapshot.Builder();
+		actorRepo.findActors().forEach(builder::putActor);
+		Map<Long, List<Long>> casts = new HashMap<>();
+		for (long[] pair : movieRepo.findCastIds()) {
+			casts.computeIfAbsent(pair[0], k -> new ArrayList<>()).add(pair[1]);
+		}
+		casts.forEach((movieId, cast) -> {
+			Movie movie = new Movie();
+			movie.setId(movieId);
+			builder.putMovie(movie, cast.stream().mapToLong(Long::longValue).toArray());
+		});
+		return builder.build(0);
 	}
 
 	/**
@@ -202,8 +1029,598 @@ public class AppServiceImpl implements AppService {
 	 * @return Lista de atores do filme.
 	 */
 	@Override
+	@Transactional(Transactional.TxType.SUPPORTS)
 	public List<Actor> findActorsByMovie(Movie movie) {
-		return actorRepo.findActorsByMovie(movie);
+		return read(snapshot -> {
+			int position = snapshot.indexOfMovie(movie.getId());
+			List<Actor> actors = new ArrayList<>();
+			if (position >= 0) {
+				Arrays.stream(snapshot.castOf(position)).mapToObj(snapshot::actor).forEach(actors::add);
+			}
+			return actors;
+		}, () -> actorRepo.findActorsByMovie(movie));
+	}
+
+	/**
+	 * Cria vários filmes. A cada BATCH_SIZE itens, o contexto de persistência é
+	 * descarregado e limpo, mantendo a memória constante em lotes grandes.
+	 *
+	 * @param movies Filmes a serem criados.
+	 * @return Resultado de cada item.
+	 */
+	@Override
+	public List<BatchResult> createMovies(List<Movie> movies) {
+		List<BatchResult> results = new ArrayList<>(movies.size());
+		for (int from = 0; from < movies.size(); from += BATCH_SIZE) {
+			List<Movie> batch = movies.subList(from, Math.min(from + BATCH_SIZE, movies.size()));
+			Map<Long, Actor> actors = findActorsById(batch.stream().filter(m -> m != null && m.getCast() != null)
+					.flatMap(m -> m.getCast().stream()).map(a -> a == null ? null : a.getActor_id()));
+			for (int i = 0; i < batch.size(); i++) {
+				int index = from + i;
+				Movie movie = batch.get(i);
+				if (movie == null) {
+					results.add(BatchResult.invalid(index, null, "Movie is required"));
+					continue;
+				}
+				if (movie.getId() != null) {
+					results.add(BatchResult.invalid(index, movie.getId(), "Id must not be set when creating"));
+					continue;
+				}
+				String error = validate(movie, actors);
+				if (error != null) {
+					results.add(BatchResult.invalid(index, null, error));
+					continue;
+				}
+				movie.setCast(resolveCast(movie.getCast(), actors));
+				movieRepo.create(movie);
+				results.add(BatchResult.of(index, movie.getId(), BatchResult.CREATED));
+			}
+			movieRepo.flushAndClear();
+		}
+		recordChanges(CatalogueChange.MOVIE, idsWithStatus(results, BatchResult.CREATED), false);
+		return results;
+	}
+
+	/**
+	 * Cria vários filmes de uma importação. Os atores de cada lote são buscados pelo
+	 * nome com uma única consulta; os nomes que não existem geram atores novos, criados
+	 * uma única vez por nome.
+	 *
+	 * @param movies Filmes a serem criados, com o elenco informado pelos nomes.
+	 * @return Resultado de cada item.
+	 */
+	@Override
+	public List<BatchResult> importMovies(List<Movie> movies) {
+		List<BatchResult> results = new ArrayList<>(movies.size());
+		Set<Long> createdActors = new LinkedHashSet<>();
+		for (int from = 0; from < movies.size(); from += BATCH_SIZE) {
+			List<Movie> batch = movies.subList(from, Math.min(from + BATCH_SIZE, movies.size()));
+			Map<String, Actor> actors = new HashMap<>();
+			Set<String> names = batch.stream().filter(m -> m != null && m.getCast() != null).flatMap(m -> m.getCast().stream())
+					.filter(a -> a != null && a.getActor_name() != null).map(Actor::getActor_name).collect(Collectors.toSet());
+			if (!names.isEmpty()) {
+				actorRepo.findByNames(names).forEach(actor -> actors.merge(actor.getActor_name(), actor,
+						(a, b) -> a.getActor_id() <= b.getActor_id() ? a : b));
+			}
+			for (int i = 0; i < batch.size(); i++) {
+				int index = from + i;
+				Movie movie = batch.get(i);
+				String error = movie == null ? "Movie is required"
+						: movie.getId() != null ? "Id must not be set when creating"
+						: movie.getName() == null || movie.getName().isBlank() ? "Movie name is required"
+						: movie.getCast() != null && movie.getCast().stream().anyMatch(a -> a == null || a.getActor_name() == null
+								|| a.getActor_name().isBlank()) ? "Actor name is required" : null;
+				if (error != null) {
+					results.add(BatchResult.invalid(index, null, error));
+					continue;
+				}
+				Set<Actor> cast = new HashSet<>();
+				for (Actor actor : movie.getCast() == null ? Set.<Actor>of() : movie.getCast()) {
+					cast.add(actors.computeIfAbsent(actor.getActor_name(), name -> {
+						Actor created = new Actor();
+						created.setActor_name(name);
+						actorRepo.create(created);
+						createdActors.add(created.getActor_id());
+						return created;
+					}));
+				}
+				movie.setCast(cast);
+				movieRepo.create(movie);
+				results.add(BatchResult.of(index, movie.getId(), BatchResult.CREATED));
+			}
+			movieRepo.flushAndClear();
+		}
+		recordChanges(CatalogueChange.ACTOR, createdActors, false);
+		recordChanges(CatalogueChange.MOVIE, idsWithStatus(results, BatchResult.CREATED), false);
+		return results;
+	}
+
+	/**
+	 * Substitui vários filmes. Os filmes de cada lote são carregados com uma única
+	 * consulta e alterados no próprio contexto de persistência, de modo que o
+	 * Hibernate gera apenas os UPDATEs necessários, agrupados em lotes JDBC.
+	 *
+	 * @param movies Filmes com os novos dados.
+	 * @return Resultado de cada item.
+	 */
+	@Override
+	public List<BatchResult> updateMovies(List<Movie> movies) {
+		List<BatchResult> results = new ArrayList<>(movies.size());
+		for (int from = 0; from < movies.size(); from += BATCH_SIZE) {
+			List<Movie> batch = movies.subList(from, Math.min(from + BATCH_SIZE, movies.size()));
+			Map<Long, Movie> existing = findMoviesById(batch.stream().map(m -> m == null ? null : m.getId()));
+			Map<Long, Actor> actors = findActorsById(batch.stream().filter(m -> m != null && m.getCast() != null)
+					.flatMap(m -> m.getCast().stream()).map(a -> a == null ? null : a.getActor_id()));
+			for (int i = 0; i < batch.size(); i++) {
+				int index = from + i;
+				Movie movie = batch.get(i);
+				if (movie == null || movie.getId() == null) {
+					results.add(BatchResult.invalid(index, null, "Id is required"));
+					continue;
+				}
+				Movie current = existing.get(movie.getId());
+				if (current == null) {
+					results.add(BatchResult.of(index, movie.getId(), BatchResult.NOT_FOUND));
+					continue;
+				}
+				String error = validate(movie, actors);
+				if (error != null) {
+					results.add(BatchResult.invalid(index, movie.getId(), error));
+					continue;
+				}
+				current.setName(movie.getName());
+				current.setDate(movie.getDate());
+				current.setCategory(movie.getCategory());
+				current.setDescription(movie.getDescription());
+				current.setImage(movie.getImage());
+				current.setRating(movie.getRating());
+				current.getCast().retainAll(resolveCast(movie.getCast(), actors));
+				current.getCast().addAll(resolveCast(movie.getCast(), actors));
+				results.add(BatchResult.of(index, movie.getId(), BatchResult.UPDATED));
+			}
+			movieRepo.flushAndClear();
+		}
+		recordChanges(CatalogueChange.MOVIE, idsWithStatus(results, BatchResult.UPDATED), false);
+		return results;
+	}
+
+	/**
+	 * Atualiza parcialmente vários filmes. Cada alteração é validada por completo
+	 * antes de ser aplicada; com @DynamicUpdate, o UPDATE inclui só as colunas alteradas.
+	 *
+	 * @param patches Alterações de cada filme.
+	 * @return Resultado de cada item.
+	 */
+	@Override
+	public List<BatchResult> patchMovies(List<Map<String, Object>> patches) {
+		List<BatchResult> results = new ArrayList<>(patches.size());
+		for (int from = 0; from < patches.size(); from += BATCH_SIZE) {
+			List<Map<String, Object>> batch = patches.subList(from, Math.min(from + BATCH_SIZE, patches.size()));
+			Map<Long, Movie> existing = findMoviesById(batch.stream().map(p -> toId(p, "id")));
+			Map<Long, Actor> actors = findActorsById(batch.stream().filter(p -> p != null && p.get("cast") instanceof List)
+					.flatMap(p -> ((List<?>) p.get("cast")).stream()).map(this::toActorId));
+			for (int i = 0; i < batch.size(); i++) {
+				int index = from + i;
+				Long id = toId(batch.get(i), "id");
+				if (id == null) {
+					results.add(BatchResult.invalid(index, null, "Id is required"));
+					continue;
+				}
+				Movie current = existing.get(id);
+				if (current == null) {
+					results.add(BatchResult.of(index, id, BatchResult.NOT_FOUND));
+					continue;
+				}
+				List<Consumer<Movie>> changes = new ArrayList<>();
+				String error = null;
+				for (Map.Entry<String, Object> field : batch.get(i).entrySet()) {
+					try {
+						error = moviePatch(field.getKey(), field.getValue(), actors, changes);
+					} catch (RuntimeException ex) {
+						error = "Invalid value for " + field.getKey();
+					}
+					if (error != null) break;
+				}
+				if (error != null) {
+					results.add(BatchResult.invalid(index, id, error));
+					continue;
+				}
+				changes.forEach(change -> change.accept(current));
+				results.add(BatchResult.of(index, id, BatchResult.UPDATED));
+			}
+			movieRepo.flushAndClear();
+		}
+		recordChanges(CatalogueChange.MOVIE, idsWithStatus(results, BatchResult.UPDATED), false);
+		return results;
+	}
+
+	/**
+	 * Exclui vários filmes com DELETEs em massa (ver MovieRepo.deleteAll),
+	 * informando not_found para os IDs inexistentes ou repetidos.
+	 *
+	 * @param ids IDs dos filmes.
+	 * @return Resultado de cada ID.
+	 */
+	@Override
+	public List<BatchResult> deleteMovies(Collection<Long> ids) {
+		Set<Long> existing = new HashSet<>(movieRepo.findExistingIds(ids.stream().filter(id -> id != null).distinct().collect(Collectors.toList())));
+		movieRepo.deleteAll(existing);
+		recordChanges(CatalogueChange.MOVIE, existing, true);
+		return deletionResults(ids, existing);
+	}
+
+	/**
+	 * Cria vários atores, descarregando o contexto a cada BATCH_SIZE itens.
+	 *
+	 * @param actors Atores a serem criados.
+	 * @return Resultado de cada item.
+	 */
+	@Override
+	public List<BatchResult> createActors(List<Actor> actors) {
+		List<BatchResult> results = new ArrayList<>(actors.size());
+		for (int index = 0; index < actors.size(); index++) {
+			Actor actor = actors.get(index);
+			if (actor == null || actor.getActor_id() != null) {
+				results.add(BatchResult.invalid(index, actor == null ? null : actor.getActor_id(), "Actor without id is required"));
+			}
+			else if (actor.getActor_name() == null || actor.getActor_name().isBlank()) {
+				results.add(BatchResult.invalid(index, null, "Actor name is required"));
+			}
+			else {
+				actorRepo.create(actor);
+				results.add(BatchResult.of(index, actor.getActor_id(), BatchResult.CREATED));
+			}
+			if ((index + 1) % BATCH_SIZE == 0) {
+				actorRepo.flushAndClear();
+			}
+		}
+		recordChanges(CatalogueChange.ACTOR, idsWithStatus(results, BatchResult.CREATED), false);
+		return results;
+	}
+
+	/**
+	 * Substitui vários atores existentes.
+	 *
+	 * @param actors Atores com os novos dados.
+	 * @return Resultado de cada item.
+	 */
+	@Override
+	public List<BatchResult> updateActors(List<Actor> actors) {
+		List<Map<String, Object>> patches = new ArrayList<>(actors.size());
+		for (Actor actor : actors) {
+			Map<String, Object> patch = new HashMap<>();
+			if (actor != null) {
+				patch.put("actor_id", actor.getActor_id());
+				patch.put("actor_name", actor.getActor_name());
+			}
+			patches.add(patch);
+		}
+		return patchActors(patches);
+	}
+
+	/**
+	 * Atualiza parcialmente vários atores, carregando cada lote com uma única consulta.
+	 *
+	 * @param patches Alterações de cada ator.
+	 * @return Resultado de cada item.
+	 */
+	@Override
+	public List<BatchResult> patchActors(List<Map<String, Object>> patches) {
+		List<BatchResult> results = new ArrayList<>(patches.size());
+		for (int from = 0; from < patches.size(); from += BATCH_SIZE) {
+			List<Map<String, Object>> batch = patches.subList(from, Math.min(from + BATCH_SIZE, patches.size()));
+			Map<Long, Actor> existing = findActorsById(batch.stream().map(p -> toId(p, "actor_id")));
+			for (int i = 0; i < batch.size(); i++) {
+				int index = from + i;
+				Long id = toId(batch.get(i), "actor_id");
+				if (id == null) {
+					results.add(BatchResult.invalid(index, null, "Id is required"));
+					continue;
+				}
+				Actor current = existing.get(id);
+				if (current == null) {
+					results.add(BatchResult.of(index, id, BatchResult.NOT_FOUND));
+					continue;
+				}
+				Set<String> unknown = new HashSet<>(batch.get(i).keySet());
+				unknown.removeAll(List.of("actor_id", "actor_name"));
+				Object name = batch.get(i).get("actor_name");
+				if (!unknown.isEmpty()) {
+					results.add(BatchResult.invalid(index, id, "Unknown field: " + unknown.iterator().next()));
+				}
+				else if (batch.get(i).containsKey("actor_name") && !(name instanceof String && !((String) name).isBlank())) {
+					results.add(BatchResult.invalid(index, id, "Actor name is required"));
+				}
+				else {
+					if (name != null) {
+						current.setActor_name((String) name);
+					}
+					results.add(BatchResult.of(index, id, BatchResult.UPDATED));
+				}
+			}
+			actorRepo.flushAndClear();
+		}
+		recordChanges(CatalogueChange.ACTOR, idsWithStatus(results, BatchResult.UPDATED), false);
+		return results;
+	}
+
+	/**
+	 * Exclui vários atores com DELETEs em massa (ver ActorRepo.deleteAll),
+	 * removendo também suas participações nos elencos.
+	 *
+	 * @param ids IDs dos atores.
+	 * @return Resultado de cada ID.
+	 */
+	@Override
+	public List<BatchResult> deleteActors(Collection<Long> ids) {
+		Set<Long> existing = new HashSet<>(actorRepo.findExistingIds(ids.stream().filter(id -> id != null).distinct().collect(Collectors.toList())));
+		List<Long> affectedMovies = actorRepo.findMovieIdsByActors(existing);
+		actorRepo.deleteAll(existing);
+		recordChanges(CatalogueChange.ACTOR, existing, true);
+		recordChanges(CatalogueChange.MOVIE, affectedMovies, false);
+		return deletionResults(ids, existing);
+	}
+
+	/**
+	 * Monta o conjunto de alterações posteriores a since. Alterações repetidas da
+	 * mesma entidade na janela são reduzidas à última; as entidades não excluídas
+	 * são carregadas com uma consulta IN por tipo.
+	 *
+	 * @param since Última versão conhecida.
+	 * @param limit Número máximo de alterações.
+	 * @return Conjunto de alterações.
+	 */
+	@Override
+	public ChangeSet findChanges(long since, int limit) {
+		List<CatalogueChange> changes = changeRepo.findSince(since, limit);
+		long next = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+		ChangeSet changeSet = new ChangeSet(since, next, changes.size() == limit);
+
+		Map<String, CatalogueChange> latest = new LinkedHashMap<>();
+		for (CatalogueChange change : changes) {
+			String key = change.getEntityType() + ":" + change.getEntityId();
+			latest.remove(key);
+			latest.put(key, change);
+		}
+		List<Long> movieIds = new ArrayList<>();
+		List<Long> actorIds = new ArrayList<>();
+		for (CatalogueChange change : latest.values()) {
+			boolean movie = CatalogueChange.MOVIE.equals(change.getEntityType());
+			if (change.isDeleted()) {
+				(movie ? changeSet.getDeletedMovies() : changeSet.getDeletedActors()).add(change.getEntityId());
+			}
+			else {
+				(movie ? movieIds : actorIds).add(change.getEntityId());
+			}
+		}
+		// Entidades excluídas depois desta janela não são encontradas e aparecem como tombstone numa janela seguinte
+		changeSet.getMovies().addAll(loadMovies(movieIds));
+		Map<Long, Actor> actors = findActorsById(actorIds.stream());
+		actorIds.stream().map(actors::get).filter(a -> a != null).forEach(changeSet.getActors()::add);
+		return changeSet;
+	}
+
+	/**
+	 * Executa uma leitura na cópia atual do modelo de leitura ou, se não houver
+	 * cópia, no banco dentro de uma transação.
+	 *
+	 * @param fromSnapshot Leitura na cópia em memória.
+	 * @param fromDatabase Leitura equivalente no banco.
+	 * @return Resultado da leitura.
+	 */
+	private <T> T read(Function<CatalogueSnapshot, T> fromSnapshot, Supplier<T> fromDatabase) {
+		CatalogueSnapshot snapshot = readModel.current();
+		if (snapshot != null) {
+			return fromSnapshot.apply(snapshot);
+		}
+		return readTransaction.execute(status -> fromDatabase.get());
+	}
+
+	/**
+	 * Executa uma leitura como read, mas com a leitura no banco agrupada pelo
+	 * LoadCoalescer: requisições simultâneas com a mesma chave esperam, fora de
+	 * transação, pela leitura já em andamento.
+	 *
+	 * @param key Chave da leitura.
+	 * @param fromSnapshot Leitura na cópia em memória.
+	 * @param fromDatabase Leitura equivalente no banco.
+	 * @return Resultado da leitura.
+	 */
+	private <T> T read(Object key, Function<CatalogueSnapshot, T> fromSnapshot, Supplier<T> fromDatabase) {
+		CatalogueSnapshot snapshot = readModel.current();
+		if (snapshot != null) {
+			return fromSnapshot.apply(snapshot);
+		}
+		return loadCoalescer.load(key, () -> readTransaction.execute(status -> fromDatabase.get()));
+	}
+
+	/**
+	 * Registra no ChangeRepo a alteração das entidades informadas e publica o
+	 * evento correspondente, entregue aos ouvintes após o commit.
+	 *
+	 * @param entityType Tipo das entidades (CatalogueChange.MOVIE ou ACTOR).
+	 * @param ids IDs das entidades.
+	 * @param deleted true se foram excluídas.
+	 */
+	private void recordChanges(String entityType, Collection<Long> ids, boolean deleted) {
+		if (ids.isEmpty()) return;
+		long version = changeRepo.record(entityType, ids, deleted);
+		eventPublisher.publishEvent(new CatalogueChangeEvent(entityType, ids, deleted, version));
+	}
+
+	/**
+	 * Obtém os IDs dos itens de um lote que terminaram com o status informado.
+	 *
+	 * @param results Resultados do lote.
+	 * @param status Status desejado.
+	 * @return IDs dos itens, sem repetição.
+	 */
+	private Set<Long> idsWithStatus(List<BatchResult> results, String status) {
+		return results.stream().filter(r -> status.equals(r.getStatus())).map(BatchResult::getId)
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+
+	/**
+	 * Monta o resultado de uma exclusão em massa: deleted para a primeira
+	 * ocorrência de cada ID existente, not_found para os demais.
+	 *
+	 * @param ids IDs recebidos, na ordem da requisição.
+	 * @param existing IDs que existiam e foram excluídos.
+	 * @return Resultado de cada ID.
+	 */
+	private List<BatchResult> deletionResults(Collection<Long> ids, Set<Long> existing) {
+		List<BatchResult> results = new ArrayList<>(ids.size());
+		Set<Long> reported = new HashSet<>();
+		int index = 0;
+		for (Long id : ids) {
+			boolean deleted = existing.contains(id) && reported.add(id);
+			results.add(BatchResult.of(index++, id, deleted ? BatchResult.DELETED : BatchResult.NOT_FOUND));
+		}
+		return results;
+	}
+
+	/**
+	 * Valida os dados de um filme recebido pela API.
+	 *
+	 * @param movie Filme recebido.
+	 * @param actors Atores existentes, por ID.
+	 * @return Mensagem de erro, ou null se o filme for válido.
+	 */
+	private String validate(Movie movie, Map<Long, Actor> actors) {
+		if (movie.getName() == null || movie.getName().isBlank()) {
+			return "Movie name is required";
+		}
+		if (movie.getCast() != null) {
+			for (Actor actor : movie.getCast()) {
+				if (actor == null || !actors.containsKey(actor.getActor_id())) {
+					return "Unknown actor: " + (actor == null ? null : actor.getActor_id());
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Prepara a alteração de uma propriedade de filme recebida num PATCH.
+	 * A alteração só é aplicada depois que todas as propriedades do item forem validadas.
+	 *
+	 * @param field Nome da propriedade.
+	 * @param value Novo valor.
+	 * @param actors Atores existentes, por ID.
+	 * @param changes Lista onde a alteração é acumulada.
+	 * @return Mensagem de erro, ou null se a alteração for válida.
+	 */
+	private String moviePatch(String field, Object value, Map<Long, Actor> actors, List<Consumer<Movie>> changes) {
+		switch (field) {
+		case "id":
+			return null;
+		case "name":
+			if (!(value instanceof String) || ((String) value).isBlank()) return "Movie name is required";
+			changes.add(m -> m.setName((String) value));
+			return null;
+		case "date":
+			Date date = value == null ? null : Date.valueOf((String) value);
+			changes.add(m -> m.setDate(date));
+			return null;
+		case "category":
+			if (value != null && !(value instanceof String)) return "Category must be a string";
+			String category = (String) value;
+			changes.add(m -> m.setCategory(category));
+			return null;
+		case "description":
+			if (value != null && !(value instanceof String)) return "Description must be a string";
+			String description = (String) value;
+			changes.add(m -> m.setDescription(description));
+			return null;
+		case "image":
+			if (value != null && !(value instanceof String)) return "Image must be a string";
+			String image = (String) value;
+			changes.add(m -> m.setImage(image));
+			return null;
+		case "rating":
+			float rating = ((Number) value).floatValue();
+			changes.add(m -> m.setRating(rating));
+			return null;
+		case "cast":
+			Set<Actor> cast = new HashSet<>();
+			for (Object element : (List<?>) value) {
+				Actor actor = actors.get(toActorId(element));
+				if (actor == null) return "Unknown actor: " + toActorId(element);
+				cast.add(actor);
+			}
+			changes.add(m -> {
+				m.getCast().retainAll(cast);
+				m.getCast().addAll(cast);
+			});
+			return null;
+		default:
+			return "Unknown field: " + field;
+		}
+	}
+
+	/**
+	 * Troca os atores recebidos (que podem conter apenas o ID) pelos atores gerenciados.
+	 *
+	 * @param cast Elenco recebido.
+	 * @param actors Atores existentes, por ID.
+	 * @return Elenco com as entidades gerenciadas.
+	 */
+	private Set<Actor> resolveCast(Set<Actor> cast, Map<Long, Actor> actors) {
+		Set<Actor> resolved = new HashSet<>();
+		if (cast != null) {
+			cast.forEach(actor -> resolved.add(actors.get(actor.getActor_id())));
+		}
+		return resolved;
+	}
+
+	/**
+	 * Carrega com uma única consulta os filmes cujos IDs aparecem no lote.
+	 *
+	 * @param ids IDs (podem conter null e repetições).
+	 * @return Filmes existentes, por ID.
+	 */
+	private Map<Long, Movie> findMoviesById(Stream<Long> ids) {
+		Set<Long> wanted = ids.filter(id -> id != null).collect(Collectors.toSet());
+		if (wanted.isEmpty()) return new HashMap<>();
+		return movieRepo.findByIds(wanted).stream().collect(Collectors.toMap(Movie::getId, Function.identity()));
+	}
+
+	/**
+	 * Carrega com uma única consulta os atores cujos IDs aparecem no lote.
+	 *
+	 * @param ids IDs (podem conter null e repetições).
+	 * @return Atores existentes, por ID.
+	 */
+	private Map<Long, Actor> findActorsById(Stream<Long> ids) {
+		Set<Long> wanted = ids.filter(id -> id != null).collect(Collectors.toSet());
+		if (wanted.isEmpty()) return new HashMap<>();
+		return actorRepo.findByIds(wanted).stream().collect(Collectors.toMap(Actor::getActor_id, Function.identity()));
+	}
+
+	/**
+	 * Lê um ID numérico de um item de PATCH.
+	 *
+	 * @param patch Item recebido.
+	 * @param key Nome da propriedade do ID.
+	 * @return ID, ou null se ausente ou inválido.
+	 */
+	private Long toId(Map<String, Object> patch, String key) {
+		Object value = patch == null ? null : patch.get(key);
+		return value instanceof Number ? ((Number) value).longValue() : null;
+	}
+
+	/**
+	 * Lê o ID de um ator de um elenco recebido num PATCH, que pode ser
+	 * o próprio ID ou um objeto com "actor_id".
+	 *
+	 * @param element Elemento do elenco.
+	 * @return ID do ator, ou null se inválido.
+	 */
+	private Long toActorId(Object element) {
+		if (element instanceof Map) {
+			element = ((Map<?, ?>) element).get("actor_id");
+		}
+		return element instanceof Number ? ((Number) element).longValue() : null;
 	}
 
 	/**
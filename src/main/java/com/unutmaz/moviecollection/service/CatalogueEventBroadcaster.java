@@ -0,0 +1,322 @@
+package com.unutmaz.moviecollection.service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.unutmaz.moviecollection.event.CatalogueChangeEvent;
+import com.unutmaz.moviecollection.repo.ChangeRepo;
+
+/**
+ * Serviço que distribui as alterações do catálogo aos assinantes de /rest/events
+ * (Server-Sent Events).
+ *
+ * Cada assinante tem um buffer limitado de eventos pendentes. Os eventos são enviados
+ * por um pequeno pool de threads compartilhado; enquanto um assinante está ocioso,
+ * nenhuma thread fica presa a ele (a conexão é assíncrona no servlet container),
+ * o que permite milhares de assinantes com poucas threads.
+ *
+ * Política para consumidores lentos: se o buffer de um assinante enche, os eventos
+ * pendentes são descartados e ele recebe um único evento "resync" com a última versão
+ * que recebeu, para buscar o que perdeu em /rest/changes?since=versão. O mesmo acontece
+ * quando um cliente reconecta com Last-Event-ID anterior à versão atual.
+ *
+ * Ordem: os ouvintes pós-commit de transações concorrentes podem rodar em qualquer
+ * ordem, então a versão N+1 pode chegar antes da N. Como cada evento cobre as versões
+ * (version - ids + 1) a version, um evento que não continua a última versão enviada
+ * fica retido até a lacuna ser preenchida e os eventos seguem em ordem de versão. Se a
+ * lacuna não for preenchida em REORDER_WAIT_MS (ou se houver eventos retidos demais),
+ * o assinante recebe "resync", como um consumidor lento.
+ */
+@Service
+public class CatalogueEventBroadcaster {
+
+	/**
+	 * Nome do evento SSE com uma alteração do catálogo.
+	 */
+	public static final String CHANGE_EVENT = "change";
+
+	/**
+	 * Nome do evento SSE que pede ao cliente para sincronizar via /rest/changes.
+	 */
+	public static final String RESYNC_EVENT = "resync";
+
+	/**
+	 * Alterações com mais IDs que isso são enviadas como "resync", para manter os eventos compactos.
+	 */
+	private static final int MAX_IDS_PER_EVENT = 500;
+
+	/**
+	 * Tempo máximo que um evento fora de ordem espera pelos anteriores antes do "resync".
+	 */
+	private static final long REORDER_WAIT_MS = 1000;
+
+	/**
+	 * Repositório de alterações, usado para obter a versão atual na inicialização.
+	 */
+	@Autowired
+	private ChangeRepo changeRepo;
+
+	/**
+	 * Assinantes conectados.
+	 */
+	private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+
+	/**
+	 * Threads que enviam os eventos e os heartbeats.
+	 */
+	private final ScheduledExecutorService executor;
+
+	/**
+	 * Versão do catálogo do último evento publicado.
+	 */
+	private final AtomicLong latestVersion = new AtomicLong();
+
+	/**
+	 * Capacidade do buffer de cada assinante.
+	 */
+	private final int bufferSize;
+
+	/**
+	 * Tempo máximo de uma conexão SSE; depois disso o cliente reconecta com Last-Event-ID.
+	 */
+	private final long timeoutMillis;
+
+	/**
+	 * Construtor que cria o pool de envio e agenda o heartbeat.
+	 *
+	 * @param threads Número de threads de envio.
+	 * @param bufferSize Capacidade do buffer de cada assinante.
+	 * @param timeoutMillis Duração máxima de cada conexão, em milissegundos.
+	 * @param heartbeatSeconds Intervalo entre heartbeats, em segundos.
+	 */
+	public CatalogueEventBroadcaster(
+			@Value("${moviecollection.events.threads:2}") int threads,
+			@Value("${moviecollection.events.buffer-size:64}") int bufferSize,
+			@Value("${moviecollection.events.timeout-ms:1800000}") long timeoutMillis,
+			@Value("${moviecollection.events.heartbeat-seconds:25}") long heartbeatSeconds) {
+		this.bufferSize = bufferSize;
+		this.timeoutMillis = timeoutMillis;
+		AtomicInteger count = new AtomicInteger();
+		this.executor = Executors.newScheduledThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "catalogue-events-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Carrega a versão atual do catálogo quando a aplicação termina de iniciar, para que
+	 * clientes que reconectam após um reinício recebam "resync" se perderam alterações.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadLatestVersion() {
+		latestVersion.accumulateAndGet(changeRepo.currentVersion(), Math::max);
+	}
+
+	/**
+	 * Cria uma nova assinatura.
+	 *
+	 * @param lastEventId Versão do último evento recebido pelo cliente (Last-Event-ID), ou null.
+	 * @return Emitter SSE da assinatura.
+	 */
+	public SseEmitter subscribe(Long lastEventId) {
+		SseEmitter emitter = new SseEmitter(timeoutMillis);
+		Subscriber subscriber = new Subscriber(emitter, lastEventId == null ? latestVersion.get() : lastEventId);
+		emitter.onCompletion(() -> subscribers.remove(emitter));
+		emitter.onTimeout(() -> subscribers.remove(emitter));
+		emitter.onError(error -> subscribers.remove(emitter));
+		subscribers.put(emitter, subscriber);
+		if (lastEventId != null && lastEventId < latestVersion.get()) {
+			subscriber.overflowed = true;
+			schedule(subscriber);
+		}
+		return emitter;
+	}
+
+	/**
+	 * Recebe as alterações do catálogo depois do commit e as coloca no buffer de cada assinante.
+	 *
+	 * @param event Alteração confirmada.
+	 */
+	@TransactionalEventListener
+	public void onCatalogueChange(CatalogueChangeEvent event) {
+		latestVersion.accumulateAndGet(event.getVersion(), Math::max);
+		for (Subscriber subscriber : subscribers.values()) {
+			if (event.getIds().length > MAX_IDS_PER_EVENT || !subscriber.pending.offer(event)) {
+				subscriber.overflowed = true;
+			}
+			schedule(subscriber);
+		}
+	}
+
+	/**
+	 * Número de assinantes conectados.
+	 *
+	 * @return Número de assinantes.
+	 */
+	public int getSubscriberCount() {
+		return subscribers.size();
+	}
+
+	/**
+	 * Agenda o envio dos eventos pendentes de um assinante, se ainda não houver um agendado.
+	 *
+	 * @param subscriber Assinante.
+	 */
+	private void schedule(Subscriber subscriber) {
+		if (subscriber.scheduled.compareAndSet(false, true)) {
+			executor.execute(() -> drain(subscriber));
+		}
+	}
+
+	/**
+	 * Envia os eventos pendentes de um assinante, em ordem de versão. Apenas uma execução
+	 * por assinante roda de cada vez; só ela acessa os eventos retidos (held).
+	 *
+	 * Eventos com versão até a última enviada já foram cobertos (por um evento ou por um
+	 * "resync", que manda o cliente ler /rest/changes) e são ignorados.
+	 *
+	 * @param subscriber Assinante.
+	 */
+	private void drain(Subscriber subscriber) {
+		try {
+			if (subscriber.overflowed) {
+				resync(subscriber);
+			}
+			CatalogueChangeEvent event;
+			while ((event = subscriber.pending.poll()) != null) {
+				if (event.getVersion() > subscriber.lastVersion) {
+					subscriber.held.put(event.getVersion() - event.getIds().length + 1, event);
+				}
+			}
+			while (!subscriber.held.isEmpty() && subscriber.held.firstKey() <= subscriber.lastVersion + 1) {
+				event = subscriber.held.pollFirstEntry().getValue();
+				if (event.getVersion() <= subscriber.lastVersion) continue;
+				subscriber.emitter.send(SseEmitter.event().name(CHANGE_EVENT).id(Long.toString(event.getVersion())).data(event));
+				subscriber.lastVersion = event.getVersion();
+			}
+			if (subscriber.held.isEmpty()) {
+				subscriber.gapSince = 0;
+			}
+			else if (subscriber.held.size() > bufferSize
+					|| (subscriber.gapSince != 0 && System.nanoTime() - subscriber.gapSince >= TimeUnit.MILLISECONDS.toNanos(REORDER_WAIT_MS))) {
+				resync(subscriber);
+			}
+			else if (subscriber.gapSince == 0) {
+				// Verifica a lacuna de novo quando o prazo acabar
+				subscriber.gapSince = System.nanoTime();
+				executor.schedule(() -> schedule(subscriber), REORDER_WAIT_MS, TimeUnit.MILLISECONDS);
+			}
+		} catch (IOException | IllegalStateException ex) {
+			// Conexão encerrada pelo cliente
+			subscribers.remove(subscriber.emitter);
+			subscriber.emitter.completeWithError(ex);
+			return;
+		} finally {
+			subscriber.scheduled.set(false);
+		}
+		// Eventos que chegaram enquanto este envio terminava
+		if (subscriber.overflowed || !subscriber.pending.isEmpty()) {
+			schedule(subscriber);
+		}
+	}
+
+	/**
+	 * Descarta os eventos pendentes e retidos e envia o evento "resync" com a última
+	 * versão enviada e a versão atual.
+	 *
+	 * @param subscriber Assinante.
+	 * @throws IOException Se a conexão tiver sido encerrada.
+	 */
+	private void resync(Subscriber subscriber) throws IOException {
+		subscriber.overflowed = false;
+		subscriber.pending.clear();
+		long version = latestVersion.get();
+		if (!subscriber.held.isEmpty()) {
+			version = Math.max(version, subscriber.held.lastEntry().getValue().getVersion());
+			subscriber.held.clear();
+		}
+		subscriber.gapSince = 0;
+		subscriber.emitter.send(SseEmitter.event().name(RESYNC_EVENT).id(Long.toString(version))
+				.data(Map.of("since", subscriber.lastVersion, "version", version)));
+		subscriber.lastVersion = version;
+	}
+
+	/**
+	 * Envia um comentário a todos os assinantes, mantendo as conexões abertas em
+	 * proxies e detectando clientes que já desconectaram.
+	 */
+	private void heartbeat() {
+		for (Subscriber subscriber : subscribers.values()) {
+			try {
+				subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+			} catch (IOException | IllegalStateException ex) {
+				subscribers.remove(subscriber.emitter);
+			}
+		}
+	}
+
+	/**
+	 * Encerra as conexões abertas e o pool de envio.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		subscribers.keySet().forEach(SseEmitter::complete);
+		subscribers.clear();
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Estado de um assinante: o emitter, o buffer limitado de eventos pendentes, os
+	 * eventos retidos à espera de versões anteriores e a versão do último evento enviado.
+	 */
+	private class Subscriber {
+
+		private final SseEmitter emitter;
+
+		private final Queue<CatalogueChangeEvent> pending = new ArrayBlockingQueue<>(bufferSize);
+
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		/**
+		 * Eventos fora de ordem, pela primeira versão que cobrem (acessados só pelo drain).
+		 */
+		private final NavigableMap<Long, CatalogueChangeEvent> held = new TreeMap<>();
+
+		/**
+		 * Instante (System.nanoTime) em que a lacuna atual foi vista, ou 0.
+		 */
+		private long gapSince;
+
+		private volatile boolean overflowed;
+
+		private volatile long lastVersion;
+
+		private Subscriber(SseEmitter emitter, long lastVersion) {
+			this.emitter = emitter;
+			this.lastVersion = lastVersion;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.unutmaz.moviecollection.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.unutmaz.moviecollection.event.CatalogueChangeEvent;
+import com.unutmaz.moviecollection.event.MovieRatedEvent;
+import com.unutmaz.moviecollection.model.CatalogueChange;
+import com.unutmaz.moviecollection.readmodel.CatalogueSnapshot;
+import com.unutmaz.moviecollection.readmodel.RankedOrder;
+import com.unutmaz.moviecollection.repo.RatingRepo;
+
+/**
+ * Serviço que mantém o ranking pela média das avaliações dos usuários
+ * (MovieQuery.ORDER_COMMUNITY) para o modelo de leitura.
+ *
+ * O ranking não é recalculado a cada avaliação: um MovieRatedEvent confirmado só o
+ * marca como desatualizado, e a próxima listagem "community" o recarrega uma vez,
+ * com uma consulta sobre os totais de movie_stats (sem AVG sobre user_ratings).
+ * Avaliações em rajada custam assim uma única recarga.
+ */
+@Service
+public class CommunityRatings {
+
+	@Autowired
+	private RatingRepo ratingRepo;
+
+	/**
+	 * Transação somente leitura das recargas, independente do chamador.
+	 */
+	private final TransactionTemplate transaction;
+
+	/**
+	 * IDs dos filmes avaliados, da maior média para a menor, ou null se desatualizado.
+	 */
+	private volatile long[] ranking;
+
+	/**
+	 * Última ordem calculada para o modelo de leitura.
+	 */
+	private volatile RankedOrder communityOrder;
+
+	/**
+	 * Incrementado a cada invalidação, para descartar recargas que a precederam.
+	 */
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * Construtor.
+	 *
+	 * @param transactionManager Gerenciador de transações.
+	 */
+	public CommunityRatings(PlatformTransactionManager transactionManager) {
+		this.transaction = new TransactionTemplate(transactionManager);
+		this.transaction.setReadOnly(true);
+		this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	/**
+	 * Obtém todas as posições de uma cópia do catálogo em ordem de média (decrescente),
+	 * com os filmes sem avaliações no fim, em ordem de ID, como a ordenação
+	 * "community" do banco.
+	 *
+	 * @param snapshot Cópia do catálogo.
+	 * @return Posições ordenadas (não deve ser alterado).
+	 */
+	public int[] communityOrder(CatalogueSnapshot snapshot) {
+		long[] current = ranking;
+		if (current == null) {
+			current = reload();
+		}
+		RankedOrder cached = communityOrder;
+		if (cached == null || !cached.isFor(snapshot, current)) {
+			cached = RankedOrder.of(snapshot, current);
+			communityOrder = cached;
+		}
+		return cached.order();
+	}
+
+	/**
+	 * Marca o ranking como desatualizado após uma avaliação confirmada.
+	 *
+	 * @param event Avaliação confirmada.
+	 */
+	@TransactionalEventListener
+	public void onMovieRated(MovieRatedEvent event) {
+		invalidate();
+	}
+
+	/**
+	 * Marca o ranking como desatualizado após a exclusão de filmes (as avaliações
+	 * são excluídas junto).
+	 *
+	 * @param event Alteração confirmada.
+	 */
+	@TransactionalEventListener
+	public void onCatalogueChange(CatalogueChangeEvent event) {
+		if (event.isDeleted() && CatalogueChange.MOVIE.equals(event.getType())) {
+			invalidate();
+		}
+	}
+
+	private void invalidate() {
+		generation.incrementAndGet();
+		ranking = null;
+	}
+
+	/**
+	 * Recarrega o ranking. Se uma avaliação for confirmada durante a recarga, o
+	 * resultado é usado nesta listagem mas não é guardado.
+	 */
+	private synchronized long[] reload() {
+		long[] current = ranking;
+		if (current != null) return current;
+		long before = generation.get();
+		long[] loaded = transaction.execute(status -> ratingRepo.findIdsByAverage().stream().mapToLong(Long::longValue).toArray());
+		if (generation.get() == before) {
+			ranking = loaded;
+		}
+		return loaded;
+	}
+}
@@ -0,0 +1,489 @@
+package com.unutmaz.moviecollection.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.unutmaz.moviecollection.event.CatalogueChangeEvent;
+import com.unutmaz.moviecollection.model.Actor;
+import com.unutmaz.moviecollection.model.CatalogueChange;
+import com.unutmaz.moviecollection.repo.ActorRepo;
+import com.unutmaz.moviecollection.repo.MovieRepo;
+
+/**
+ * Índice em memória para a busca aproximada (MovieQuery.isFuzzy) por nomes de filmes
+ * e de atores, que tolera erros de digitação: "Morgon Freeman" encontra "Morgan Freeman".
+ *
+ * Os nomes são normalizados (minúsculas, sem acentos e pontuação) e indexados por
+ * trigramas de cada palavra. Uma busca conta, pelas listas de cada trigrama do texto,
+ * quantos trigramas cada nome tem em comum com ele; os nomes com trigramas suficientes
+ * são verificados pela distância de edição (Levenshtein com transposições), do que
+ * tem mais trigramas em comum ao que tem menos, até o limite de tempo (budget-ms). A distância é calculada contra
+ * cada sequência de palavras do nome com o mesmo número de palavras do texto, de modo
+ * que "freman" também encontra "Morgan Freeman".
+ *
+ * O índice não depende do modelo de leitura: é carregado do banco quando a aplicação
+ * inicia e atualizado a cada alteração confirmada (CatalogueChangeEvent), relendo só os
+ * nomes alterados. Nomes excluídos ou renomeados deixam a posição vazia nas listas de
+ * trigramas, e o índice é reconstruído quando as posições vazias passam da metade.
+ */
+@Service
+public class FuzzyNameIndex {
+
+	/**
+	 * Número máximo de nomes retornados por uma busca.
+	 */
+	public static final int MAX_MATCHES = 100;
+
+	/**
+	 * Tamanho mínimo do texto normalizado: textos menores não são buscados.
+	 */
+	public static final int MIN_LENGTH = 3;
+
+	@Autowired
+	private MovieRepo movieRepo;
+
+	@Autowired
+	private ActorRepo actorRepo;
+
+	/**
+	 * Tempo máximo de uma busca, em nanossegundos.
+	 */
+	private final long budgetNanos;
+
+	/**
+	 * Transação de leitura própria, usada também durante o afterCommit de outra transação.
+	 */
+	private final TransactionTemplate readTransaction;
+
+	private final NameIndex movies = new NameIndex();
+
+	private final NameIndex actors = new NameIndex();
+
+	/**
+	 * Construtor com o limite de tempo das buscas.
+	 *
+	 * @param budgetMillis Tempo máximo de uma busca, em milissegundos.
+	 * @param transactionManager Gerenciador de transações.
+	 */
+	public FuzzyNameIndex(@Value("${moviecollection.fuzzy.budget-ms:50}") long budgetMillis,
+			PlatformTransactionManager transactionManager) {
+		this.budgetNanos = budgetMillis * 1_000_000L;
+		this.readTransaction = new TransactionTemplate(transactionManager);
+		readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		readTransaction.setReadOnly(true);
+	}
+
+	/**
+	 * Carrega todos os nomes quando a aplicação termina de iniciar.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		readTransaction.executeWithoutResult(status -> {
+			movies.replaceAll(movieNames(null));
+			actors.replaceAll(actorRepo.findActors().stream()
+					.collect(Collectors.toMap(Actor::getActor_id, Actor::getActor_name, (a, b) -> a)));
+		});
+	}
+
+	/**
+	 * Atualiza os nomes das entidades de uma alteração confirmada. IDs que não são
+	 * encontrados (excluídos por uma transação posterior) são removidos.
+	 *
+	 * @param event Alteração confirmada.
+	 */
+	@TransactionalEventListener
+	public void onCatalogueChange(CatalogueChangeEvent event) {
+		boolean isMovie = CatalogueChange.MOVIE.equals(event.getType());
+		NameIndex index = isMovie ? movies : actors;
+		List<Long> ids = Arrays.stream(event.getIds()).boxed().collect(Collectors.toList());
+		Map<Long, String> names = new HashMap<>();
+		if (!event.isDeleted()) {
+			readTransaction.executeWithoutResult(status -> {
+				if (isMovie) {
+					names.putAll(movieNames(ids));
+				}
+				else {
+					actorRepo.findByIds(ids).forEach(actor -> names.put(actor.getActor_id(), actor.getActor_name()));
+				}
+			});
+		}
+		index.update(ids, names);
+	}
+
+	/**
+	 * Busca filmes por nome aproximado.
+	 *
+	 * @param text Texto digitado.
+	 * @return IDs dos filmes (no máximo MAX_MATCHES), do mais parecido ao menos.
+	 */
+	public long[] findMovies(String text) {
+		return movies.find(text, MAX_MATCHES, System.nanoTime() + budgetNanos);
+	}
+
+	/**
+	 * Busca atores por nome aproximado.
+	 *
+	 * @param text Texto digitado.
+	 * @return IDs dos atores (no máximo MAX_MATCHES), do mais parecido ao menos.
+	 */
+	public long[] findActors(String text) {
+		return actors.find(text, MAX_MATCHES, System.nanoTime() + budgetNanos);
+	}
+
+	private Map<Long, String> movieNames(List<Long> ids) {
+		Map<Long, String> names = new HashMap<>();
+		for (Map<String, Object> row : movieRepo.findFields(ids, List.of("id", "name"))) {
+			names.put((Long) row.get("id"), (String) row.get("name"));
+		}
+		return names;
+	}
+
+	/**
+	 * Normaliza um nome para a busca: minúsculas, sem acentos, e palavras separadas
+	 * por um único espaço (pontuação conta como separador).
+	 *
+	 * @param name Nome.
+	 * @return Nome normalizado (vazio para null).
+	 */
+	static String normalize(String name) {
+		if (name == null) return "";
+		String plain = Normalizer.normalize(name, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+		return plain.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+	}
+
+	/**
+	 * Número de erros aceitos para um texto: 1 até 9 caracteres, 2 até 14, e no máximo 3.
+	 *
+	 * @param length Tamanho do texto normalizado.
+	 * @return Distância máxima.
+	 */
+	static int maxEdits(int length) {
+		return Math.max(1, Math.min(3, length / 5));
+	}
+
+	/**
+	 * Distância de Levenshtein entre dois textos, contando a troca de dois caracteres
+	 * vizinhos ("matrxi") como um só erro, calculada só até max: a cada linha da
+	 * tabela, se nenhuma célula está dentro do limite, o cálculo para.
+	 *
+	 * @param a Primeiro texto.
+	 * @param b Segundo texto.
+	 * @param max Distância máxima de interesse.
+	 * @return Distância, ou max + 1 se for maior que max.
+	 */
+	static int distance(String a, String b, int max) {
+		if (Math.abs(a.length() - b.length()) > max) return max + 1;
+		int[] beforePrevious = new int[b.length() + 1];
+		int[] previous = new int[b.length() + 1];
+		int[] current = new int[b.length() + 1];
+		for (int j = 0; j <= b.length(); j++) {
+			previous[j] = j;
+		}
+		for (int i = 1; i <= a.length(); i++) {
+			current[0] = i;
+			int rowMin = current[0];
+			for (int j = 1; j <= b.length(); j++) {
+				int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+				current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+				if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+					current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+				}
+				rowMin = Math.min(rowMin, current[j]);
+			}
+			if (rowMin > max) return max + 1;
+			int[] swap = beforePrevious;
+			beforePrevious = previous;
+			previous = current;
+			current = swap;
+		}
+		return Math.min(previous[b.length()], max + 1);
+	}
+
+	/**
+	 * Trigramas de um texto normalizado: cada palavra é completada com dois espaços
+	 * no início e um no fim, de modo que o começo da palavra pesa mais. Cada trigrama
+	 * é codificado num long (16 bits por caractere).
+	 *
+	 * @param text Texto normalizado.
+	 * @return Trigramas distintos.
+	 */
+	static long[] trigrams(String text) {
+		List<Long> grams = new ArrayList<>();
+		for (String word : text.split(" ")) {
+			if (word.isEmpty()) continue;
+			String padded = "  " + word + " ";
+			for (int i = 0; i + 3 <= padded.length(); i++) {
+				grams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+			}
+		}
+		return grams.stream().mapToLong(Long::longValue).distinct().toArray();
+	}
+
+	/**
+	 * Índice de trigramas de um tipo de entidade. Cada nome ocupa uma posição (slot);
+	 * as listas de trigramas guardam posições. As buscas usam o lock de leitura, e as
+	 * atualizações, que são poucas e rápidas, o de escrita.
+	 */
+	static final class NameIndex {
+
+		private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+		/**
+		 * Posição atual de cada ID.
+		 */
+		private final Map<Long, Integer> slots = new HashMap<>();
+
+		/**
+		 * Posições de cada trigrama, em ordem crescente.
+		 */
+		private final Map<Long, Postings> postings = new HashMap<>();
+
+		private long[] ids = new long[0];
+
+		/**
+		 * Palavras do nome normalizado de cada posição, ou null para posições vazias.
+		 */
+		private String[][] words = new String[0][];
+
+		private int size;
+
+		private int removed;
+
+		/**
+		 * Contadores de trigramas em comum de cada thread, zerados após cada busca.
+		 */
+		private final ThreadLocal<int[]> scratch = ThreadLocal.withInitial(() -> new int[0]);
+
+		/**
+		 * Substitui todo o conteúdo do índice.
+		 *
+		 * @param names Nome de cada ID.
+		 */
+		void replaceAll(Map<Long, String> names) {
+			lock.writeLock().lock();
+			try {
+				clear();
+				names.forEach(this::put);
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+
+		/**
+		 * Remove os IDs informados e inclui os que têm nome.
+		 *
+		 * @param changed IDs alterados.
+		 * @param names Nome atual dos IDs que ainda existem.
+		 */
+		void update(List<Long> changed, Map<Long, String> names) {
+			lock.writeLock().lock();
+			try {
+				for (Long id : changed) {
+					remove(id);
+					if (names.containsKey(id)) put(id, names.get(id));
+				}
+				if (removed > 1024 && removed > size / 2) compact();
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+
+		/**
+		 * Busca os nomes mais parecidos com um texto.
+		 *
+		 * @param text Texto digitado.
+		 * @param limit Número máximo de resultados.
+		 * @param deadline Instante (System.nanoTime) a partir do qual a busca para e
+		 *        retorna o que já foi verificado.
+		 * @return IDs encontrados, do mais parecido ao menos.
+		 */
+		long[] find(String text, int limit, long deadline) {
+			String normalized = normalize(text);
+			if (normalized.length() < MIN_LENGTH) return new long[0];
+			String[] query = normalized.split(" ");
+			long[] grams = trigrams(normalized);
+			int maxEdits = maxEdits(normalized.length());
+			// Cada erro destrói no máximo três trigramas; a metade evita verificar quase tudo em textos curtos
+			int minCommon = Math.max(grams.length - 3 * maxEdits, (grams.length + 1) / 2);
+
+			lock.readLock().lock();
+			try {
+				int[] counts = scratch.get();
+				if (counts.length < size) {
+					counts = new int[size];
+					scratch.set(counts);
+				}
+				int[] touched = new int[16];
+				int touchedCount = 0;
+				try {
+					for (long gram : grams) {
+						Postings list = postings.get(gram);
+						if (list == null) continue;
+						for (int i = 0; i < list.size; i++) {
+							int slot = list.slots[i];
+							if (counts[slot]++ == 0) {
+								if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+								touched[touchedCount++] = slot;
+							}
+						}
+					}
+					// Candidatos do que tem mais trigramas em comum ao que tem menos (empate: posição)
+					long[] candidates = new long[touchedCount];
+					int candidateCount = 0;
+					for (int t = 0; t < touchedCount; t++) {
+						int slot = touched[t];
+						if (counts[slot] >= minCommon && words[slot] != null) {
+							candidates[candidateCount++] = ((long) (grams.length - counts[slot]) << 32) | slot;
+						}
+					}
+					Arrays.sort(candidates, 0, candidateCount);
+
+					List<Match> matches = new ArrayList<>();
+					for (int c = 0; c < candidateCount && System.nanoTime() < deadline; c++) {
+						int slot = (int) candidates[c];
+						int distance = bestDistance(query, words[slot], maxEdits);
+						if (distance <= maxEdits) {
+							matches.add(new Match(ids[slot], distance, counts[slot],
+									Math.abs(String.join(" ", words[slot]).length() - normalized.length())));
+						}
+					}
+					matches.sort(null);
+					return matches.stream().limit(limit).mapToLong(match -> match.id).toArray();
+				} finally {
+					for (int t = 0; t < touchedCount; t++) {
+						counts[touched[t]] = 0;
+					}
+				}
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+
+		/**
+		 * Menor distância entre o texto e as sequências de palavras do nome com o
+		 * mesmo número de palavras (ou o nome inteiro, se ele tiver menos palavras).
+		 */
+		private static int bestDistance(String[] query, String[] name, int maxEdits) {
+			String text = String.join(" ", query);
+			if (name.length <= query.length) {
+				return distance(text, String.join(" ", name), maxEdits);
+			}
+			int best = maxEdits + 1;
+			for (int start = 0; start + query.length <= name.length && best > 0; start++) {
+				String window = String.join(" ", Arrays.asList(name).subList(start, start + query.length));
+				best = Math.min(best, distance(text, window, maxEdits));
+			}
+			return best;
+		}
+
+		private void put(Long id, String name) {
+			String normalized = normalize(name);
+			if (normalized.isEmpty()) return;
+			if (size == ids.length) {
+				int capacity = Math.max(16, size * 2);
+				ids = Arrays.copyOf(ids, capacity);
+				words = Arrays.copyOf(words, capacity);
+			}
+			int slot = size++;
+			ids[slot] = id;
+			words[slot] = normalized.split(" ");
+			slots.put(id, slot);
+			for (long gram : trigrams(normalized)) {
+				postings.computeIfAbsent(gram, k -> new Postings()).add(slot);
+			}
+		}
+
+		/**
+		 * Esvazia a posição do ID; ela continua nas listas de trigramas até a próxima
+		 * reconstrução, mas é ignorada pelas buscas.
+		 */
+		private void remove(Long id) {
+			Integer slot = slots.remove(id);
+			if (slot == null) return;
+			words[slot] = null;
+			removed++;
+		}
+
+		/**
+		 * Reconstrói o índice só com as posições ocupadas.
+		 */
+		private void compact() {
+			Map<Long, String> names = new HashMap<>();
+			slots.forEach((id, slot) -> names.put(id, String.join(" ", words[slot])));
+			clear();
+			names.forEach(this::put);
+		}
+
+		private void clear() {
+			slots.clear();
+			postings.clear();
+			ids = new long[0];
+			words = new String[0][];
+			size = 0;
+			removed = 0;
+		}
+	}
+
+	/**
+	 * Lista de posições de um trigrama, num int[] que cresce conforme necessário.
+	 */
+	private static final class Postings {
+
+		private int[] slots = new int[4];
+
+		private int size;
+
+		void add(int slot) {
+			if (size == slots.length) slots = Arrays.copyOf(slots, size * 2);
+			slots[size++] = slot;
+		}
+	}
+
+	/**
+	 * Nome verificado, ordenado por distância, trigramas em comum (decrescente),
+	 * diferença de tamanho em relação ao texto e ID.
+	 */
+	private static final class Match implements Comparable<Match> {
+
+		private final long id;
+
+		private final int distance;
+
+		private final int common;
+
+		private final int lengthDifference;
+
+		Match(long id, int distance, int common, int lengthDifference) {
+			this.id = id;
+			this.distance = distance;
+			this.common = common;
+			this.lengthDifference = lengthDifference;
+		}
+
+		@Override
+		public int compareTo(Match other) {
+			if (distance != other.distance) return Integer.compare(distance, other.distance);
+			if (common != other.common) return Integer.compare(other.common, common);
+			if (lengthDifference != other.lengthDifference) return Integer.compare(lengthDifference, other.lengthDifference);
+			return Long.compare(id, other.id);
+		}
+	}
+}
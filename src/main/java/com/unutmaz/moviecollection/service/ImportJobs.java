@@ -0,0 +1,706 @@
+package com.unutmaz.moviecollection.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.unutmaz.moviecollection.model.Actor;
+import com.unutmaz.moviecollection.model.Movie;
+import com.unutmaz.moviecollection.repo.ImportJobRepo;
+import com.unutmaz.moviecollection.util.BatchResult;
+import com.unutmaz.moviecollection.util.ImportJob;
+
+/**
+ * Jobs de importação em massa de filmes, executados fora das threads HTTP.
+ *
+ * O arquivo enviado é gravado em disco (moviecollection.imports.dir) e processado
+ * depois, em JSON Lines: um filme por linha, com name, date (yyyy-mm-dd), category,
+ * description, image, rating e cast (array com os nomes dos atores). Linhas em branco
+ * são ignoradas.
+ *
+ * Cada job é um pipeline produtor/consumidor com duas threads: a de leitura interpreta
+ * e valida as linhas e as agrupa em lotes de commit-size linhas numa fila limitada
+ * (queue-chunks lotes); a de gravação resolve os atores pelo nome e insere os filmes
+ * (AppService.importMovies), um lote por transação. Quando a gravação fica para trás,
+ * a leitura bloqueia na fila cheia, e a memória usada fica limitada a alguns lotes.
+ *
+ * Textos maiores que as colunas (MAX_LENGTH) são erros da linha, e não do lote. Se
+ * ainda assim um lote falhar no banco, ele é gravado de novo filme a filme, e só as
+ * linhas que falharem contam como erros: o job segue em frente em vez de falhar no
+ * mesmo lote a cada retomada.
+ *
+ * O progresso (linhas, filmes criados e erros) é gravado em import_jobs na mesma
+ * transação de cada lote. Um job cancelado (ou interrompido por um reinício) termina
+ * o lote atual e pode ser retomado a partir da primeira linha não confirmada.
+ *
+ * Para não disputar recursos com as leituras do site, os jobs rodam em poucas threads
+ * (moviecollection.imports.threads, um job por thread; os demais esperam na fila) de
+ * prioridade mínima (quando o sistema operacional respeita as prioridades da JVM), e
+ * os lotes grandes reduzem o número de trocas da cópia do
+ * CatalogueReadModel, de onde as leituras são servidas. Opcionalmente, a vazão de cada
+ * job é limitada a max-rows-per-second linhas por segundo.
+ */
+@Service
+public class ImportJobs {
+
+	/**
+	 * Número de erros de linha mantidos em memória por job.
+	 */
+	private static final int RECENT_ERRORS = 20;
+
+	/**
+	 * Tamanho das colunas de texto de t_movies e t_actors (VARCHAR(255)).
+	 */
+	static final int MAX_LENGTH = 255;
+
+	/**
+	 * Tamanho da coluna import_jobs.message (VARCHAR(1000)).
+	 */
+	private static final int MAX_MESSAGE_LENGTH = 1000;
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	@Autowired
+	private AppService appService;
+
+	@Autowired
+	private ImportJobRepo importJobRepo;
+
+	private final Path dir;
+
+	private final long maxBytes;
+
+	private final int commitSize;
+
+	private final int queueChunks;
+
+	private final int maxRowsPerSecond;
+
+	/**
+	 * Transação de cada lote (filmes e progresso do job).
+	 */
+	private final TransactionTemplate transaction;
+
+	/**
+	 * Threads de gravação, uma por job em execução.
+	 */
+	private final ExecutorService workers;
+
+	/**
+	 * Threads de leitura dos arquivos.
+	 */
+	private final ExecutorService readers;
+
+	/**
+	 * Jobs conhecidos, em ordem de criação.
+	 */
+	private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+	/**
+	 * Construtor com a pasta e os limites dos jobs.
+	 *
+	 * @param dir Pasta dos arquivos enviados.
+	 * @param maxBytes Tamanho máximo de um arquivo.
+	 * @param commitSize Linhas por lote (e por transação).
+	 * @param queueChunks Lotes lidos que podem esperar pela gravação.
+	 * @param maxRowsPerSecond Limite de linhas por segundo de cada job (0 para sem limite).
+	 * @param threads Jobs executados ao mesmo tempo.
+	 * @param transactionManager Gerenciador de transações.
+	 */
+	public ImportJobs(@Value("${moviecollection.imports.dir:imports}") String dir,
+			@Value("${moviecollection.imports.max-bytes:1073741824}") long maxBytes,
+			@Value("${moviecollection.imports.commit-size:1000}") int commitSize,
+			@Value("${moviecollection.imports.queue-chunks:4}") int queueChunks,
+			@Value("${moviecollection.imports.max-rows-per-second:0}") int maxRowsPerSecond,
+			@Value("${moviecollection.imports.threads:1}") int threads,
+			PlatformTransactionManager transactionManager) {
+		this.dir = Paths.get(dir).toAbsolutePath().normalize();
+		this.maxBytes = maxBytes;
+		this.commitSize = Math.max(1, commitSize);
+		this.queueChunks = Math.max(1, queueChunks);
+		this.maxRowsPerSecond = maxRowsPerSecond;
+		this.transaction = new TransactionTemplate(transactionManager);
+		this.workers = Executors.newFixedThreadPool(Math.max(1, threads), threadFactory("import-job-"));
+		this.readers = Executors.newCachedThreadPool(threadFactory("import-reader-"));
+	}
+
+	private static ThreadFactory threadFactory(String prefix) {
+		AtomicInteger count = new AtomicInteger();
+		return r -> {
+			Thread thread = new Thread(r, prefix + count.incrementAndGet());
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		};
+	}
+
+	/**
+	 * Carrega os jobs gravados. Jobs que estavam na fila ou em execução quando a
+	 * aplicação parou ficam cancelados, prontos para serem retomados.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		List<ImportJob> saved = transaction.execute(status -> importJobRepo.findAll());
+		for (ImportJob record : saved) {
+			Job job = new Job(record.getId(), record.getName(), file(record.getId()), record.getBytes());
+			job.state = record.getState();
+			job.message = record.getMessage();
+			job.bytesDone = record.getBytesDone();
+			job.lines = record.getLines();
+			job.imported = record.getImported();
+			job.errors = record.getErrors();
+			if (ImportJob.QUEUED.equals(job.state) || ImportJob.RUNNING.equals(job.state)) {
+				job.state = ImportJob.CANCELLED;
+				job.message = "Interrupted by a restart";
+				save(job);
+			}
+			jobs.putIfAbsent(job.id, job);
+		}
+	}
+
+	/**
+	 * Grava um arquivo enviado e coloca o job na fila.
+	 *
+	 * @param in Conteúdo do arquivo (não é fechado).
+	 * @param name Nome do job (opcional).
+	 * @return Estado do job.
+	 * @throws IllegalArgumentException Se o arquivo passar de max-bytes.
+	 * @throws UncheckedIOException Se houver erro de leitura ou escrita.
+	 */
+	public ImportJob submit(InputStream in, String name) {
+		String id = UUID.randomUUID().toString();
+		Path file = file(id);
+		long bytes;
+		try {
+			Files.createDirectories(dir);
+			try (OutputStream out = Files.newOutputStream(file)) {
+				bytes = 0;
+				byte[] buffer = new byte[64 * 1024];
+				for (int read; (read = in.read(buffer)) != -1;) {
+					bytes += read;
+					if (bytes > maxBytes) {
+						throw new IllegalArgumentException("File is larger than " + maxBytes + " bytes");
+					}
+					out.write(buffer, 0, read);
+				}
+			}
+		} catch (IOException | RuntimeException ex) {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException ignored) {
+				// O arquivo incompleto fica na pasta; não é listado como job
+			}
+			if (ex instanceof IOException) throw new UncheckedIOException((IOException) ex);
+			throw (RuntimeException) ex;
+		}
+		Job job = new Job(id, name, file, bytes);
+		job.state = ImportJob.QUEUED;
+		save(job);
+		jobs.put(id, job);
+		schedule(job);
+		return job.snapshot();
+	}
+
+	/**
+	 * Lista os jobs.
+	 *
+	 * @return Estado de todos os jobs.
+	 */
+	public List<ImportJob> findAll() {
+		return jobs.values().stream().sorted((a, b) -> Long.compare(a.created, b.created))
+				.map(Job::snapshot).collect(Collectors.toList());
+	}
+
+	/**
+	 * Busca um job.
+	 *
+	 * @param id ID do job.
+	 * @return Estado do job, ou null se não existir.
+	 */
+	public ImportJob find(String id) {
+		Job job = jobs.get(id);
+		return job == null ? null : job.snapshot();
+	}
+
+	/**
+	 * Cancela um job. Um job na fila é cancelado imediatamente; um job em execução
+	 * termina o lote atual antes de parar.
+	 *
+	 * @param id ID do job.
+	 * @return Estado do job, ou null se não existir.
+	 * @throws IllegalStateException Se o job não estiver na fila nem em execução.
+	 */
+	public ImportJob cancel(String id) {
+		Job job = jobs.get(id);
+		if (job == null) return null;
+		synchronized (job) {
+			if (ImportJob.QUEUED.equals(job.state)) {
+				if (job.future != null) job.future.cancel(false);
+				job.state = ImportJob.CANCELLED;
+				job.message = "Cancelled";
+				save(job);
+			}
+			else if (ImportJob.RUNNING.equals(job.state)) {
+				job.cancelRequested = true;
+			}
+			else {
+				throw new IllegalStateException("Job is " + job.state);
+			}
+		}
+		return job.snapshot();
+	}
+
+	/**
+	 * Retoma um job cancelado ou que falhou, a partir da primeira linha não confirmada.
+	 *
+	 * @param id ID do job.
+	 * @return Estado do job, ou null se não existir.
+	 * @throws IllegalStateException Se o job não puder ser retomado.
+	 */
+	public ImportJob resume(String id) {
+		Job job = jobs.get(id);
+		if (job == null) return null;
+		synchronized (job) {
+			if (!ImportJob.CANCELLED.equals(job.state) && !ImportJob.FAILED.equals(job.state)) {
+				throw new IllegalStateException("Job is " + job.state);
+			}
+			if (!Files.isRegularFile(job.file)) {
+				throw new IllegalStateException("Job file is missing");
+			}
+			job.state = ImportJob.QUEUED;
+			job.message = null;
+			job.cancelRequested = false;
+			save(job);
+			schedule(job);
+		}
+		return job.snapshot();
+	}
+
+	/**
+	 * Exclui um job que não está na fila nem em execução, com o seu arquivo.
+	 * Os filmes já importados são mantidos.
+	 *
+	 * @param id ID do job.
+	 * @return false se o job não existir.
+	 * @throws IllegalStateException Se o job estiver na fila ou em execução.
+	 */
+	public boolean delete(String id) {
+		Job job = jobs.get(id);
+		if (job == null) return false;
+		synchronized (job) {
+			if (ImportJob.QUEUED.equals(job.state) || ImportJob.RUNNING.equals(job.state)) {
+				throw new IllegalStateException("Job is " + job.state);
+			}
+			transaction.executeWithoutResult(status -> importJobRepo.delete(id));
+			jobs.remove(id);
+		}
+		try {
+			Files.deleteIfExists(job.file);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return true;
+	}
+
+	/**
+	 * Para as threads dos jobs. Os jobs em execução ficam como estão em import_jobs
+	 * e são marcados como cancelados na próxima inicialização.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		workers.shutdownNow();
+		readers.shutdownNow();
+	}
+
+	private Path file(String id) {
+		return dir.resolve(id + ".jsonl");
+	}
+
+	private void schedule(Job job) {
+		job.future = workers.submit(() -> run(job));
+	}
+
+	/**
+	 * Executa um job: inicia a leitura e grava os lotes até o fim do arquivo, um
+	 * cancelamento ou um erro.
+	 */
+	private void run(Job job) {
+		synchronized (job) {
+			if (!ImportJob.QUEUED.equals(job.state)) return;
+			job.state = ImportJob.RUNNING;
+			job.runStarted = System.nanoTime();
+			job.runLines = job.lines;
+			job.runBytes = job.bytesDone;
+			save(job);
+		}
+		BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(queueChunks);
+		long skip = job.lines;
+		Future<?> reader = readers.submit(() -> {
+			read(job, skip, queue);
+			return null;
+		});
+		try {
+			while (true) {
+				if (job.cancelRequested) {
+					finish(job, ImportJob.CANCELLED, "Cancelled");
+					return;
+				}
+				Chunk chunk = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (chunk == null) {
+					if (reader.isDone()) reader.get();
+					continue;
+				}
+				commit(job, chunk);
+				if (chunk.last) break;
+				throttle(job);
+			}
+			finish(job, ImportJob.COMPLETED, null);
+			Files.deleteIfExists(job.file);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException ex) {
+			finish(job, ImportJob.FAILED, String.valueOf(ex.getCause().getMessage()));
+		} catch (IOException | RuntimeException ex) {
+			finish(job, ImportJob.FAILED, String.valueOf(ex.getMessage()));
+		} finally {
+			reader.cancel(true);
+		}
+	}
+
+	/**
+	 * Lê o arquivo a partir da linha skip + 1 e coloca os lotes na fila, bloqueando
+	 * enquanto ela estiver cheia. O último lote tem last = true.
+	 */
+	private void read(Job job, long skip, BlockingQueue<Chunk> queue) throws IOException, InterruptedException {
+		try (FileChannel channel = FileChannel.open(job.file, StandardOpenOption.READ);
+				BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8))) {
+			Chunk chunk = new Chunk();
+			long line = 0;
+			for (String text; (text = reader.readLine()) != null;) {
+				line++;
+				if (line <= skip) continue;
+				if (!text.isBlank()) {
+					try {
+						chunk.movies.add(parse(text));
+						chunk.movieLines.add(line);
+						chunk.movieTexts.add(text);
+					} catch (IllegalArgumentException ex) {
+						chunk.errors.add("line " + line + ": " + ex.getMessage());
+					}
+				}
+				chunk.lastLine = line;
+				if (chunk.movies.size() + chunk.errors.size() >= commitSize) {
+					// A posição do canal inclui o que o BufferedReader leu adiante
+					chunk.bytesDone = Math.min(channel.position(), job.bytes);
+					queue.put(chunk);
+					chunk = new Chunk();
+					chunk.lastLine = line;
+				}
+			}
+			chunk.lastLine = line;
+			chunk.bytesDone = job.bytes;
+			chunk.last = true;
+			queue.put(chunk);
+		}
+	}
+
+	/**
+	 * Interpreta uma linha do arquivo.
+	 *
+	 * @throws IllegalArgumentException Se a linha não for um filme em JSON válido ou
+	 *         tiver textos maiores que MAX_LENGTH.
+	 */
+	private static Movie parse(String text) {
+		JsonNode node;
+		try {
+			node = MAPPER.readTree(text);
+		} catch (JsonProcessingException ex) {
+			throw new IllegalArgumentException("Invalid JSON");
+		}
+		if (!node.isObject()) {
+			throw new IllegalArgumentException("Expected a JSON object");
+		}
+		Movie movie = new Movie();
+		movie.setName(text(node, "name"));
+		String date = text(node, "date");
+		if (date != null) {
+			try {
+				movie.setDate(Date.valueOf(date));
+			} catch (IllegalArgumentException ex) {
+				throw new IllegalArgumentException("Invalid date: " + date);
+			}
+		}
+		movie.setCategory(text(node, "category"));
+		movie.setDescription(text(node, "description"));
+		movie.setImage(text(node, "image"));
+		JsonNode rating = node.get("rating");
+		if (rating != null && !rating.isNull()) {
+			if (!rating.isNumber()) throw new IllegalArgumentException("Invalid rating");
+			movie.setRating(rating.floatValue());
+		}
+		JsonNode cast = node.get("cast");
+		if (cast != null && !cast.isNull()) {
+			if (!cast.isArray()) throw new IllegalArgumentException("Cast must be an array of actor names");
+			for (JsonNode name : cast) {
+				if (!name.isTextual()) throw new IllegalArgumentException("Cast must be an array of actor names");
+				Actor actor = new Actor();
+				actor.setActor_name(checkLength("actor name", name.asText().trim()));
+				movie.addActor(actor);
+			}
+		}
+		return movie;
+	}
+
+	private static String text(JsonNode node, String field) {
+		JsonNode value = node.get(field);
+		if (value == null || value.isNull()) return null;
+		if (!value.isValueNode()) throw new IllegalArgumentException("Invalid " + field);
+		return checkLength(field, value.asText());
+	}
+
+	private static String checkLength(String field, String value) {
+		if (value.length() > MAX_LENGTH) {
+			throw new IllegalArgumentException("Field " + field + " is longer than " + MAX_LENGTH + " characters");
+		}
+		return value;
+	}
+
+	/**
+	 * Grava um lote e o progresso do job numa única transação; os contadores do job
+	 * só mudam depois do commit. Se a transação do lote falhar, o lote é gravado filme
+	 * a filme (commitRows).
+	 */
+	private void commit(Job job, Chunk chunk) {
+		List<String> errors = new ArrayList<>(chunk.errors);
+		long[] imported = new long[1];
+		try {
+			transaction.executeWithoutResult(status -> {
+				List<BatchResult> results = chunk.movies.isEmpty() ? List.of() : appService.importMovies(chunk.movies);
+				for (BatchResult result : results) {
+					if (BatchResult.CREATED.equals(result.getStatus())) {
+						imported[0]++;
+					}
+					else {
+						errors.add("line " + chunk.movieLines.get(result.getIndex()) + ": " + result.getMessage());
+					}
+				}
+				importJobRepo.save(job.snapshot(ImportJob.RUNNING, null, chunk.bytesDone, chunk.lastLine,
+						job.imported + imported[0], job.errors + errors.size()));
+			});
+		} catch (RuntimeException ex) {
+			errors.clear();
+			errors.addAll(chunk.errors);
+			imported[0] = commitRows(job, chunk, errors);
+		}
+		update(job, chunk, imported[0], errors);
+	}
+
+	/**
+	 * Grava um lote que falhou filme a filme, cada um numa transação com o progresso
+	 * até a sua linha, e conta como erros os filmes que falharem. Os filmes do lote
+	 * podem ter sido alterados pela tentativa anterior e são lidos de novo das linhas.
+	 *
+	 * @return Número de filmes criados.
+	 */
+	private long commitRows(Job job, Chunk chunk, List<String> errors) {
+		long imported = 0;
+		for (int i = 0; i < chunk.movieTexts.size(); i++) {
+			long line = chunk.movieLines.get(i);
+			Movie movie = parse(chunk.movieTexts.get(i));
+			long done = imported;
+			String error;
+			try {
+				error = transaction.execute(status -> {
+					BatchResult result = appService.importMovies(List.of(movie)).get(0);
+					boolean created = BatchResult.CREATED.equals(result.getStatus());
+					importJobRepo.save(job.snapshot(ImportJob.RUNNING, null, job.bytesDone, line,
+							job.imported + done + (created ? 1 : 0), job.errors + errors.size() + (created ? 0 : 1)));
+					return created ? null : result.getMessage();
+				});
+			} catch (RuntimeException ex) {
+				error = "Could not be saved (" + rootMessage(ex) + ")";
+			}
+			if (error == null) {
+				imported++;
+			} else {
+				errors.add("line " + line + ": " + error);
+			}
+		}
+		long done = imported;
+		transaction.executeWithoutResult(status -> importJobRepo.save(job.snapshot(ImportJob.RUNNING, null,
+				chunk.bytesDone, chunk.lastLine, job.imported + done, job.errors + errors.size())));
+		return imported;
+	}
+
+	private static String rootMessage(Throwable ex) {
+		while (ex.getCause() != null && ex.getCause() != ex) {
+			ex = ex.getCause();
+		}
+		return String.valueOf(ex.getMessage());
+	}
+
+	/**
+	 * Atualiza os contadores do job depois da gravação de um lote.
+	 */
+	private void update(Job job, Chunk chunk, long imported, List<String> errors) {
+		synchronized (job) {
+			job.bytesDone = chunk.bytesDone;
+			job.lines = chunk.lastLine;
+			job.imported += imported;
+			job.errors += errors.size();
+			for (String error : errors) {
+				if (job.recentErrors.size() == RECENT_ERRORS) job.recentErrors.removeFirst();
+				job.recentErrors.addLast(error);
+			}
+		}
+	}
+
+	/**
+	 * Espera o necessário para manter a execução em até max-rows-per-second linhas por segundo.
+	 */
+	private void throttle(Job job) throws InterruptedException {
+		if (maxRowsPerSecond <= 0) return;
+		long due = job.runStarted + (job.lines - job.runLines) * 1_000_000_000L / maxRowsPerSecond;
+		long wait = due - System.nanoTime();
+		if (wait > 0) {
+			LockSupport.parkNanos(wait);
+			if (Thread.interrupted()) throw new InterruptedException();
+		}
+	}
+
+	private void finish(Job job, String state, String message) {
+		synchronized (job) {
+			job.state = state;
+			job.message = message == null || message.length() <= MAX_MESSAGE_LENGTH ? message
+					: message.substring(0, MAX_MESSAGE_LENGTH);
+			job.cancelRequested = false;
+			save(job);
+		}
+	}
+
+	private void save(Job job) {
+		ImportJob snapshot = job.snapshot();
+		transaction.executeWithoutResult(status -> importJobRepo.save(snapshot));
+	}
+
+	/**
+	 * Estado mutável de um job. Os contadores são alterados apenas pela thread de
+	 * gravação, depois de cada commit.
+	 */
+	private static final class Job {
+
+		final String id;
+		final String name;
+		final Path file;
+		final long bytes;
+		final long created = System.nanoTime();
+
+		volatile String state;
+		volatile String message;
+		volatile boolean cancelRequested;
+		volatile Future<?> future;
+
+		volatile long bytesDone;
+		volatile long lines;
+		volatile long imported;
+		volatile long errors;
+
+		/**
+		 * Início da execução atual, e linhas e bytes confirmados nesse momento.
+		 */
+		volatile long runStarted;
+		volatile long runLines;
+		volatile long runBytes;
+
+		final Deque<String> recentErrors = new ArrayDeque<>(RECENT_ERRORS);
+
+		Job(String id, String name, Path file, long bytes) {
+			this.id = id;
+			this.name = name;
+			this.file = file;
+			this.bytes = bytes;
+		}
+
+		ImportJob snapshot(String state, String message, long bytesDone, long lines, long imported, long errors) {
+			return new ImportJob(id, name, state, bytes, bytesDone, lines, imported, errors, 0, null, message, List.of());
+		}
+
+		/**
+		 * Estado atual, com a vazão e o tempo restante estimado pelos bytes confirmados
+		 * desde o início da execução.
+		 */
+		synchronized ImportJob snapshot() {
+			double rowsPerSecond = 0;
+			Long eta = null;
+			if (ImportJob.RUNNING.equals(state)) {
+				double seconds = (System.nanoTime() - runStarted) / 1e9;
+				if (seconds > 0) rowsPerSecond = (lines - runLines) / seconds;
+				long done = bytesDone - runBytes;
+				if (done > 0) eta = (long) Math.ceil(seconds * (bytes - bytesDone) / done);
+			}
+			else if (ImportJob.COMPLETED.equals(state)) {
+				eta = 0L;
+			}
+			return new ImportJob(id, name, state, bytes, bytesDone, lines, imported, errors, rowsPerSecond, eta, message,
+					new ArrayList<>(recentErrors));
+		}
+	}
+
+	/**
+	 * Lote de linhas lidas: filmes válidos (com o número da linha de cada um) e erros
+	 * de leitura. lastLine é a última linha coberta pelo lote.
+	 */
+	private static final class Chunk {
+
+		final List<Movie> movies = new ArrayList<>();
+		final List<Long> movieLines = new ArrayList<>();
+		final List<String> movieTexts = new ArrayList<>();
+		final List<String> errors = new ArrayList<>();
+		long lastLine;
+		long bytesDone;
+		boolean last;
+	}
+}
@@ -0,0 +1,138 @@
+package com.unutmaz.moviecollection.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.unutmaz.moviecollection.event.CatalogueChangeEvent;
+import com.unutmaz.moviecollection.model.CatalogueChange;
+import com.unutmaz.moviecollection.util.SingleFlight;
+
+/**
+ * Proteção do banco contra rajadas de cargas idênticas: logo após um deploy, ou
+ * quando uma entrada do QueryResultCache é invalidada, centenas de requisições pelo
+ * mesmo filme ou pela mesma listagem chegariam juntas ao banco e esgotariam o pool de
+ * conexões.
+ *
+ * As cargas do AppServiceImpl (filmes, listagens e estatísticas) passam por um
+ * SingleFlight: requisições concorrentes com a mesma chave compartilham uma única
+ * carga em andamento. A espera acontece fora de qualquer transação, sem ocupar conexão.
+ * A chave inclui a versão do catálogo, incrementada a cada alteração confirmada: uma
+ * requisição que chega depois de um commit não se junta a uma carga iniciada antes dele,
+ * que pode não ver a alteração, e faz uma carga nova.
+ *
+ * IDs de filmes inexistentes ficam num cache negativo (LRU, missing-size entradas),
+ * para que um ID inválido repetido não vá ao banco a cada requisição. O cache negativo
+ * é esvaziado a cada alteração confirmada de filmes; como no QueryResultCache, quem
+ * consulta lê a versão antes e markMissing descarta marcações de versões anteriores.
+ */
+@Service
+public class LoadCoalescer {
+
+	/**
+	 * Cargas em andamento, por chave.
+	 */
+	private final SingleFlight<Object, Object> flights = new SingleFlight<>();
+
+	/**
+	 * Versão do catálogo (filmes e atores), incrementada a cada alteração confirmada.
+	 */
+	private final AtomicLong catalogueVersion = new AtomicLong();
+
+	/**
+	 * Versão dos filmes, incrementada a cada alteração confirmada.
+	 */
+	private final AtomicLong version = new AtomicLong();
+
+	/**
+	 * Cache negativo LRU: IDs de filmes que não existem.
+	 */
+	private final Map<Long, Boolean> missing;
+
+	/**
+	 * Construtor com o tamanho do cache negativo.
+	 *
+	 * @param missingSize Número máximo de IDs inexistentes guardados.
+	 */
+	public LoadCoalescer(@Value("${moviecollection.coalescing.missing-size:10000}") int missingSize) {
+		this.missing = new LinkedHashMap<Long, Boolean>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+				return size() > missingSize;
+			}
+		};
+	}
+
+	/**
+	 * Executa uma carga, ou espera pela carga idêntica em andamento, iniciada na versão
+	 * atual do catálogo.
+	 *
+	 * @param key Chave da carga (com equals/hashCode), por exemplo List.of("movie", id).
+	 * @param load Carga.
+	 * @return Resultado da carga (compartilhado entre as requisições agrupadas).
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> V load(Object key, Supplier<V> load) {
+		return (V) flights.execute(List.of(key, catalogueVersion.get()), (Supplier<Object>) load);
+	}
+
+	/**
+	 * Versão atual dos filmes. Deve ser lida antes da consulta cujo resultado será
+	 * passado a markMissing.
+	 *
+	 * @return Versão atual.
+	 */
+	public long version() {
+		return version.get();
+	}
+
+	/**
+	 * Indica se um filme já foi procurado e não existe.
+	 *
+	 * @param id ID do filme.
+	 * @return true se o ID estiver no cache negativo.
+	 */
+	public boolean isMissing(Long id) {
+		synchronized (missing) {
+			return missing.containsKey(id);
+		}
+	}
+
+	/**
+	 * Guarda um ID de filme inexistente, se os filmes não mudaram desde a consulta.
+	 *
+	 * @param id ID do filme.
+	 * @param version Versão lida (version()) antes da consulta.
+	 */
+	public void markMissing(Long id, long version) {
+		synchronized (missing) {
+			if (version == this.version.get()) {
+				missing.put(id, Boolean.TRUE);
+			}
+		}
+	}
+
+	/**
+	 * Muda a versão das cargas e, após uma alteração confirmada de filmes, esvazia o
+	 * cache negativo.
+	 *
+	 * @param event Alteração confirmada.
+	 */
+	@TransactionalEventListener
+	public void onCatalogueChange(CatalogueChangeEvent event) {
+		catalogueVersion.incrementAndGet();
+		if (!CatalogueChange.MOVIE.equals(event.getType())) return;
+		synchronized (missing) {
+			version.incrementAndGet();
+			missing.clear();
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package com.unutmaz.moviecollection.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.unutmaz.moviecollection.exception.MovieNotFoundException;
+import com.unutmaz.moviecollection.model.Actor;
+import com.unutmaz.moviecollection.model.Movie;
+import com.unutmaz.moviecollection.util.CommunityRating;
+import com.unutmaz.moviecollection.util.MovieDetails;
+import com.unutmaz.moviecollection.util.UserMovieLists;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Montagem da página de detalhes de um filme (/movies/{id}) com as cargas
+ * independentes em paralelo: enquanto a thread da requisição carrega o filme e o
+ * elenco, os filmes semelhantes, as listas do usuário e as avaliações são carregados
+ * num pool próprio.
+ *
+ * O pool tem threads fixas e fila limitada; com a fila cheia, a carga roda na thread
+ * da requisição. Por padrão, o pool usa metade das conexões do Hikari
+ * (spring.datasource.hikari.maximum-pool-size), de modo que as páginas de detalhes
+ * nunca ocupam o pool de conexões inteiro.
+ *
+ * Cada parte opcional tem o prazo branch-timeout-ms, contado do início da montagem;
+ * uma parte atrasada ou com erro fica de fora (MovieDetails.getIncomplete) e a página
+ * é exibida sem ela. O filme é obrigatório: se não existir, MovieNotFoundException.
+ *
+ * A duração de cada parte é publicada no timer moviecollection.detail.branch (tags
+ * branch e outcome), e a da montagem inteira em moviecollection.detail.
+ */
+@Service
+public class MovieDetailAssembler {
+
+	/**
+	 * Partes obrigatórias, na thread da requisição: o filme e o seu elenco.
+	 */
+	public static final String MOVIE = "movie";
+	public static final String CAST = "cast";
+
+	private final AppService appService;
+
+	private final MeterRegistry meterRegistry;
+
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * Prazo das partes opcionais, em milissegundos.
+	 */
+	private final long branchTimeoutMillis;
+
+	private final Timer total;
+
+	/**
+	 * Construtor que cria o pool.
+	 *
+	 * @param appService Serviço da aplicação (proxy transacional).
+	 * @param meterRegistry Registro das métricas.
+	 * @param threads Threads do pool, ou 0 para metade das conexões do Hikari.
+	 * @param connections Tamanho do pool de conexões do Hikari.
+	 * @param branchTimeoutMillis Prazo das partes opcionais, em milissegundos.
+	 */
+	public MovieDetailAssembler(AppService appService, MeterRegistry meterRegistry,
+			@Value("${moviecollection.detail.threads:0}") int threads,
+			@Value("${spring.datasource.hikari.maximum-pool-size:10}") int connections,
+			@Value("${moviecollection.detail.branch-timeout-ms:300}") long branchTimeoutMillis) {
+		this.appService = appService;
+		this.meterRegistry = meterRegistry;
+		this.branchTimeoutMillis = branchTimeoutMillis;
+		this.total = Timer.builder("moviecollection.detail").description("Montagem da página de detalhes")
+				.register(meterRegistry);
+		int size = threads > 0 ? threads : Math.max(2, connections / 2);
+		AtomicInteger count = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(size * 16), r -> {
+			Thread thread = new Thread(r, "movie-detail-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}, new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	/**
+	 * Monta os dados da página de detalhes.
+	 *
+	 * @param id ID do filme.
+	 * @param username Nome do usuário autenticado.
+	 * @param similarCount Número de filmes semelhantes.
+	 * @return Dados da página, possivelmente sem algumas partes opcionais.
+	 * @throws MovieNotFoundException Se o filme não existir.
+	 */
+	public MovieDetails assemble(Long id, String username, int similarCount) throws MovieNotFoundException {
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(branchTimeoutMillis);
+		try {
+			CompletableFuture<List<Movie>> similar = submit(MovieDetails.SIMILAR, () -> appService.findSimilarMovies(id, similarCount));
+			CompletableFuture<UserMovieLists> lists = submit(MovieDetails.LISTS, () -> appService.findLists(username));
+			CompletableFuture<CommunityRating> rating = submit(MovieDetails.RATING, () -> appService.findRating(username, id));
+
+			// O elenco é carregado junto com o filme, na thread da requisição (coleção lazy)
+			Movie movie = timed(MOVIE, () -> appService.findMovie(id));
+			List<Actor> cast = timed(CAST, () -> new ArrayList<>(movie.getCast()));
+
+			List<String> incomplete = new ArrayList<>();
+			return new MovieDetails(movie, cast,
+					await(MovieDetails.SIMILAR, similar, deadline, Collections.emptyList(), incomplete),
+					await(MovieDetails.LISTS, lists, deadline, null, incomplete),
+					await(MovieDetails.RATING, rating, deadline, null, incomplete), incomplete);
+		} finally {
+			total.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Para o pool.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private <T> CompletableFuture<T> submit(String branch, Supplier<T> load) {
+		return CompletableFuture.supplyAsync(() -> timed(branch, load), executor);
+	}
+
+	/**
+	 * Executa uma carga registrando a duração no timer da parte.
+	 */
+	private <T> T timed(String branch, Supplier<T> load) {
+		long start = System.nanoTime();
+		String outcome = "error";
+		try {
+			T value = load.get();
+			outcome = "success";
+			return value;
+		} finally {
+			Timer.builder("moviecollection.detail.branch").tag("branch", branch).tag("outcome", outcome)
+					.register(meterRegistry).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Espera uma parte opcional até o prazo. Com atraso ou erro, a parte é anotada em
+	 * incomplete e o valor padrão é usado; a carga atrasada termina no pool e é descartada.
+	 */
+	private <T> T await(String branch, CompletableFuture<T> future, long deadline, T fallback, List<String> incomplete) {
+		try {
+			return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException | ExecutionException ex) {
+			incomplete.add(branch);
+			return fallback;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			incomplete.add(branch);
+			return fallback;
+		}
+	}
+}
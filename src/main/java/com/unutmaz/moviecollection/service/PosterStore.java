@@ -0,0 +1,422 @@
+package com.unutmaz.moviecollection.service;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Armazenamento local dos pôsteres dos filmes, endereçado pelo conteúdo: o ID de um
+ * pôster é o SHA-256 dos bytes seguido da extensão do formato (ex: 9f86...0a08.jpg), e o
+ * arquivo fica em {dir}/{2 primeiros caracteres}/{ID}. O mesmo arquivo enviado duas
+ * vezes vira um só pôster, e o conteúdo de um ID nunca muda (ETag forte e cache
+ * immutable no PosterController).
+ *
+ * Os pôsteres chegam por upload (/rest/posters) ou por arquivos locais da pasta
+ * import-dir (/rest/posters/import). Só são aceitos JPEG, PNG e GIF, reconhecidos pelo
+ * ImageIO, com até max-bytes e até max-pixels pixels. As dimensões são lidas do
+ * cabeçalho antes de qualquer decodificação, pois um arquivo pequeno pode declarar uma
+ * imagem enorme, que ocuparia gigabytes de memória ao ser decodificada. Movie.image
+ * passa a guardar a URL local (/posters/{ID}); URLs externas antigas continuam
+ * funcionando.
+ *
+ * As miniaturas (largura thumbnail-width, mantendo a proporção) são geradas com
+ * java.awt/ImageIO num pool próprio de threads fixas e fila limitada; enquanto a
+ * miniatura não existe, a URL da miniatura serve o original. Uma geração que falha
+ * (pôster ilegível, ou guardado com um limite de max-pixels maior) é registrada no
+ * log e não é tentada de novo até o reinício: o original continua sendo servido.
+ */
+@Service
+public class PosterStore {
+
+	/**
+	 * Prefixo das URLs dos pôsteres locais.
+	 */
+	public static final String URL_PREFIX = "/posters/";
+
+	/**
+	 * Prefixo das URLs das miniaturas.
+	 */
+	public static final String THUMBNAIL_PREFIX = URL_PREFIX + "thumb/";
+
+	private static final Pattern ID = Pattern.compile("[0-9a-f]{64}\\.(jpg|png|gif)");
+
+	/**
+	 * Número máximo de IDs com falha na geração da miniatura lembrados.
+	 */
+	private static final int MAX_FAILED = 10000;
+
+	private static final Logger log = LoggerFactory.getLogger(PosterStore.class);
+
+	private final Path dir;
+
+	private final Path importDir;
+
+	private final long maxBytes;
+
+	private final long maxPixels;
+
+	private final int thumbnailWidth;
+
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * IDs com miniatura em geração.
+	 */
+	private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * IDs cuja miniatura não pôde ser gerada.
+	 */
+	private final Set<String> failed = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Construtor com as pastas e limites.
+	 *
+	 * @param dir Pasta dos pôsteres.
+	 * @param importDir Pasta dos arquivos locais que podem ser importados.
+	 * @param maxBytes Tamanho máximo de um pôster.
+	 * @param maxPixels Número máximo de pixels (largura x altura) de um pôster.
+	 * @param thumbnailWidth Largura das miniaturas, em pixels.
+	 * @param threads Threads do pool de miniaturas.
+	 */
+	public PosterStore(@Value("${moviecollection.posters.dir:posters}") String dir,
+			@Value("${moviecollection.posters.import-dir:posters-import}") String importDir,
+			@Value("${moviecollection.posters.max-bytes:10485760}") long maxBytes,
+			@Value("${moviecollection.posters.max-pixels:25000000}") long maxPixels,
+			@Value("${moviecollection.posters.thumbnail-width:600}") int thumbnailWidth,
+			@Value("${moviecollection.posters.threads:2}") int threads) {
+		this.dir = Paths.get(dir).toAbsolutePath().normalize();
+		this.importDir = Paths.get(importDir).toAbsolutePath().normalize();
+		this.maxBytes = maxBytes;
+		this.maxPixels = maxPixels;
+		this.thumbnailWidth = thumbnailWidth;
+		AtomicInteger count = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1000), r -> {
+			Thread thread = new Thread(r, "poster-thumbnail-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	/**
+	 * Indica se um ID tem o formato de um pôster local.
+	 *
+	 * @param id ID do pôster.
+	 * @return true para {sha-256}.{jpg|png|gif}.
+	 */
+	public static boolean isId(String id) {
+		return id != null && ID.matcher(id).matches();
+	}
+
+	/**
+	 * URL de um pôster local.
+	 *
+	 * @param id ID do pôster.
+	 * @return URL servida pelo PosterController.
+	 */
+	public static String url(String id) {
+		return URL_PREFIX + id;
+	}
+
+	/**
+	 * URL da miniatura de uma imagem de filme (Movie.image).
+	 *
+	 * @param image URL da imagem.
+	 * @return URL da miniatura, para pôsteres locais, ou a própria URL, para externas.
+	 */
+	public static String thumbnailUrl(String image) {
+		if (image == null || !image.startsWith(URL_PREFIX) || !isId(image.substring(URL_PREFIX.length()))) return image;
+		return THUMBNAIL_PREFIX + image.substring(URL_PREFIX.length());
+	}
+
+	/**
+	 * Guarda um pôster e agenda a geração da miniatura.
+	 *
+	 * @param in Conteúdo da imagem (não é fechado).
+	 * @return ID do pôster.
+	 * @throws IllegalArgumentException Se o conteúdo não for uma imagem aceita ou passar de max-bytes ou max-pixels.
+	 * @throws UncheckedIOException Se houver erro de leitura ou escrita.
+	 */
+	public String store(InputStream in) {
+		try {
+			Files.createDirectories(dir);
+			Path temp = Files.createTempFile(dir, "upload", ".tmp");
+			try {
+				MessageDigest digest = MessageDigest.getInstance("SHA-256");
+				long size = copy(new DigestInputStream(in, digest), temp);
+				if (size > maxBytes) throw new IllegalArgumentException("Poster larger than " + maxBytes + " bytes");
+				String id = hex(digest.digest()) + "." + format(temp);
+				Path target = path(id);
+				Files.createDirectories(target.getParent());
+				if (!Files.exists(target)) {
+					// Se o mesmo conteúdo for guardado ao mesmo tempo, um arquivo idêntico substitui o outro
+					Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+				}
+				thumbnail(id);
+				return id;
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Guarda um pôster a partir de um arquivo da pasta import-dir.
+	 *
+	 * @param name Caminho do arquivo, relativo a import-dir.
+	 * @return ID do pôster.
+	 * @throws IllegalArgumentException Se o arquivo estiver fora de import-dir, não existir ou não for uma imagem aceita.
+	 */
+	public String importFile(String name) {
+		Path file = importDir.resolve(name).normalize();
+		if (!file.startsWith(importDir) || !Files.isRegularFile(file)) {
+			throw new IllegalArgumentException("No such file in the import folder: " + name);
+		}
+		try (InputStream in = Files.newInputStream(file)) {
+			return store(in);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Arquivo de um pôster.
+	 *
+	 * @param id ID do pôster.
+	 * @return Arquivo, ou null se o ID for inválido ou o pôster não existir.
+	 */
+	public Path original(String id) {
+		if (!isId(id)) return null;
+		Path file = path(id);
+		return Files.isRegularFile(file) ? file : null;
+	}
+
+	/**
+	 * Arquivo da miniatura de um pôster. Se a miniatura ainda não existe, sua geração é
+	 * agendada (a não ser que já tenha falhado) e o original é retornado.
+	 *
+	 * @param id ID do pôster.
+	 * @return Miniatura, original, ou null se o pôster não existir.
+	 */
+	public Path thumbnail(String id) {
+		Path original = original(id);
+		if (original == null) return null;
+		Path thumbnail = thumbnailPath(id);
+		if (Files.isRegularFile(thumbnail)) return thumbnail;
+		if (!failed.contains(id) && pending.add(id)) {
+			try {
+				CompletableFuture.runAsync(() -> generate(original, thumbnail), executor)
+						.whenComplete((done, ex) -> {
+							if (ex != null) {
+								log.warn("Could not generate the thumbnail of poster {}", id, ex);
+								if (failed.size() < MAX_FAILED) failed.add(id);
+							}
+							pending.remove(id);
+						});
+			} catch (RejectedExecutionException ex) {
+				// Fila cheia: a miniatura é gerada num próximo pedido
+				pending.remove(id);
+			}
+		}
+		return original;
+	}
+
+	/**
+	 * Indica se a miniatura de um pôster já foi gerada.
+	 *
+	 * @param id ID do pôster.
+	 * @return true se a miniatura existir.
+	 */
+	public boolean hasThumbnail(String id) {
+		return isId(id) && Files.isRegularFile(thumbnailPath(id));
+	}
+
+	/**
+	 * Para o pool de miniaturas.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private Path path(String id) {
+		return dir.resolve(id.substring(0, 2)).resolve(id);
+	}
+
+	/**
+	 * Miniatura: JPEG para pôsteres JPEG, PNG para os demais. A largura faz parte do
+	 * nome, de modo que outra thumbnail-width gera outras miniaturas (e outro ETag).
+	 */
+	private Path thumbnailPath(String id) {
+		String format = id.endsWith(".jpg") ? "jpg" : "png";
+		return dir.resolve(id.substring(0, 2)).resolve("thumb" + thumbnailWidth + "-" + id.substring(0, id.indexOf('.')) + "." + format);
+	}
+
+	/**
+	 * Gera a miniatura: reduz a imagem pela metade enquanto for maior que o dobro da
+	 * largura final (qualidade próxima da interpolação de área) e termina com bilinear.
+	 * Imagens até a largura final no mesmo formato são copiadas como estão.
+	 */
+	private void generate(Path original, Path thumbnail) {
+		try {
+			BufferedImage image = decode(original);
+			String name = thumbnail.getFileName().toString();
+			String format = name.substring(name.lastIndexOf('.') + 1);
+			Path temp = Files.createTempFile(thumbnail.getParent(), "thumb", ".tmp");
+			try {
+				if (image.getWidth() <= thumbnailWidth && original.getFileName().toString().endsWith(format)) {
+					Files.copy(original, temp, StandardCopyOption.REPLACE_EXISTING);
+				} else {
+					int type = "jpg".equals(format) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+					int width = Math.min(thumbnailWidth, image.getWidth());
+					BufferedImage scaled = image;
+					while (scaled.getWidth() / 2 >= width * 2) {
+						scaled = scale(scaled, scaled.getWidth() / 2, Math.max(1, scaled.getHeight() / 2), type);
+					}
+					scaled = scale(scaled, width, Math.max(1, (int) ((long) image.getHeight() * width / image.getWidth())), type);
+					ImageIO.write(scaled, format, temp.toFile());
+				}
+				Files.move(temp, thumbnail, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static BufferedImage scale(BufferedImage image, int width, int height, int type) {
+		BufferedImage scaled = new BufferedImage(width, height, type);
+		Graphics2D graphics = scaled.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			graphics.drawImage(image, 0, 0, width, height, null);
+		} finally {
+			graphics.dispose();
+		}
+		return scaled;
+	}
+
+	/**
+	 * Copia até max-bytes + 1 bytes (o excesso é detectado por quem chama).
+	 */
+	private long copy(InputStream in, Path target) throws IOException {
+		byte[] buffer = new byte[8192];
+		long size = 0;
+		try (OutputStream out = Files.newOutputStream(target)) {
+			int read;
+			while (size <= maxBytes && (read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+				size += read;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Formato da imagem (extensão), pelo leitor do ImageIO que a reconhece. Só o
+	 * cabeçalho é lido.
+	 */
+	private String format(Path file) throws IOException {
+		try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+			ImageReader reader = reader(in);
+			if (reader != null) {
+				try {
+					checkPixels(reader);
+					String format = reader.getFormatName().toLowerCase();
+					return format.equals("jpeg") ? "jpg" : format;
+				} finally {
+					reader.dispose();
+				}
+			}
+		}
+		throw new IllegalArgumentException("Posters must be JPEG, PNG or GIF images");
+	}
+
+	/**
+	 * Decodifica a imagem, depois de conferir as dimensões no cabeçalho.
+	 */
+	private BufferedImage decode(Path file) throws IOException {
+		try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+			ImageReader reader = reader(in);
+			if (reader == null) throw new IOException("Unreadable poster " + file);
+			try {
+				checkPixels(reader);
+				return reader.read(0);
+			} finally {
+				reader.dispose();
+			}
+		}
+	}
+
+	/**
+	 * Leitor JPEG, PNG ou GIF do conteúdo, ou null se não houver.
+	 */
+	private static ImageReader reader(ImageInputStream in) {
+		if (in == null) return null;
+		Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+		while (readers.hasNext()) {
+			ImageReader reader = readers.next();
+			try {
+				String format = reader.getFormatName().toLowerCase();
+				if (format.equals("jpeg") || format.equals("jpg") || format.equals("png") || format.equals("gif")) {
+					reader.setInput(in, true, true);
+					return reader;
+				}
+			} catch (IOException ex) {
+				// formato não reconhecido por este leitor
+			}
+			reader.dispose();
+		}
+		return null;
+	}
+
+	private void checkPixels(ImageReader reader) throws IOException {
+		long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+		if (pixels > maxPixels) throw new IllegalArgumentException("Poster larger than " + maxPixels + " pixels");
+	}
+
+	private static String hex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		}
+		return hex.toString();
+	}
+}
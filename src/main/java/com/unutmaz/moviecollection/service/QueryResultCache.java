@@ -0,0 +1,204 @@
+package com.unutmaz.moviecollection.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.unutmaz.moviecollection.event.CatalogueChangeEvent;
+import com.unutmaz.moviecollection.event.CatalogueSnapshotEvent;
+import com.unutmaz.moviecollection.util.MovieQuery;
+
+/**
+ * Cache dos resultados das listagens e das buscas por nome, categoria e ator, para
+ * que listagens repetidas (/movies/list?category=Crime&orderBy=rating) não voltem a
+ * filtrar e ordenar o catálogo.
+ *
+ * A chave é a MovieQuery normalizada (MovieQuery.normalized: filtros sem espaços nas
+ * pontas e em minúsculas, com ordenação e página), e o valor guarda só os IDs dos
+ * filmes da página e o total, num long[]; os filmes são carregados pelos IDs a cada uso.
+ * O tamanho é limitado pela memória estimada das entradas (max-bytes), removendo as
+ * usadas há mais tempo.
+ *
+ * Não há invalidação por entrada: um contador de versão é incrementado a cada
+ * alteração confirmada do catálogo (CatalogueChangeEvent) e a cada troca da cópia do
+ * modelo de leitura (CatalogueSnapshotEvent), e o cache é esvaziado. Quem calcula um
+ * resultado lê a versão antes de ler o catálogo, e put descarta resultados de versões
+ * anteriores, de modo que um cálculo concorrente com uma alteração nunca fica no cache.
+ * Listagens que dependem das listas do usuário ou dos contadores de movie_stats mudam
+ * sem alteração do catálogo e não são guardadas, nem as buscas aproximadas, cujos
+ * termos com erros de digitação raramente se repetem (ver cacheable).
+ */
+@Service
+public class QueryResultCache {
+
+	/**
+	 * Custo fixo estimado de uma entrada (objetos, referências e nó do mapa), em bytes.
+	 */
+	private static final long ENTRY_OVERHEAD = 160;
+
+	/**
+	 * Memória máxima estimada das entradas, em bytes.
+	 */
+	private final long maxBytes;
+
+	/**
+	 * Versão do catálogo, incrementada a cada alteração.
+	 */
+	private final AtomicLong version = new AtomicLong();
+
+	/**
+	 * Entradas em ordem de uso (LRU).
+	 */
+	private final LinkedHashMap<MovieQuery, Result> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Memória estimada das entradas atuais.
+	 */
+	private long bytes;
+
+	/**
+	 * Construtor com o limite de memória.
+	 *
+	 * @param maxBytes Memória máxima estimada das entradas, em bytes.
+	 */
+	public QueryResultCache(@Value("${moviecollection.query-cache.max-bytes:8388608}") long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Indica se o resultado de uma listagem pode ser guardado.
+	 *
+	 * @param query Critérios da listagem.
+	 * @return false para listagens com filtros pelas listas do usuário, ordenadas
+	 *         pelos contadores de movie_stats ou com busca aproximada.
+	 */
+	public static boolean cacheable(MovieQuery query) {
+		return !query.usesLists() && !query.isStatsOrdering() && !query.isFuzzy();
+	}
+
+	/**
+	 * Versão atual do catálogo. Deve ser lida antes de calcular o resultado que será
+	 * passado a put.
+	 *
+	 * @return Versão atual.
+	 */
+	public long version() {
+		return version.get();
+	}
+
+	/**
+	 * Busca o resultado de uma listagem.
+	 *
+	 * @param query Critérios normalizados (MovieQuery.normalized).
+	 * @return Resultado da versão atual, ou null.
+	 */
+	public Result get(MovieQuery query) {
+		synchronized (entries) {
+			Result result = entries.get(query);
+			return result != null && result.version == version.get() ? result : null;
+		}
+	}
+
+	/**
+	 * Guarda o resultado de uma listagem, se a versão ainda for a atual.
+	 *
+	 * @param query Critérios normalizados (MovieQuery.normalized).
+	 * @param version Versão lida (version()) antes do cálculo.
+	 * @param ids IDs dos filmes da página, em ordem.
+	 * @param total Total de filmes da listagem.
+	 */
+	public void put(MovieQuery query, long version, long[] ids, long total) {
+		Result result = new Result(version, ids, total);
+		long weight = weight(query, result);
+		if (weight > maxBytes) return;
+		synchronized (entries) {
+			if (version != this.version.get()) return;
+			Result replaced = entries.put(query, result);
+			bytes += weight - (replaced == null ? 0 : weight(query, replaced));
+			Iterator<Map.Entry<MovieQuery, Result>> eldest = entries.entrySet().iterator();
+			while (bytes > maxBytes && eldest.hasNext()) {
+				Map.Entry<MovieQuery, Result> entry = eldest.next();
+				bytes -= weight(entry.getKey(), entry.getValue());
+				eldest.remove();
+			}
+		}
+	}
+
+	/**
+	 * Invalida o cache após uma alteração confirmada.
+	 *
+	 * @param event Alteração confirmada.
+	 */
+	@TransactionalEventListener
+	public void onCatalogueChange(CatalogueChangeEvent event) {
+		invalidate();
+	}
+
+	/**
+	 * Invalida o cache após a troca da cópia do modelo de leitura: um resultado
+	 * calculado na cópia anterior depois do incremento de onCatalogueChange é descartado.
+	 *
+	 * @param event Troca da cópia.
+	 */
+	@EventListener
+	public void onSnapshot(CatalogueSnapshotEvent event) {
+		invalidate();
+	}
+
+	private void invalidate() {
+		synchronized (entries) {
+			version.incrementAndGet();
+			entries.clear();
+			bytes = 0;
+		}
+	}
+
+	/**
+	 * Memória estimada de uma entrada: custo fixo, textos da chave e IDs.
+	 */
+	private static long weight(MovieQuery query, Result result) {
+		return ENTRY_OVERHEAD + 8L * result.ids.length + length(query.getName()) + length(query.getCategory())
+				+ length(query.getActor()) + length(query.getOrderBy());
+	}
+
+	private static long length(String value) {
+		return value == null ? 0 : 40 + 2L * value.length();
+	}
+
+	/**
+	 * Resultado guardado: IDs da página e total da listagem.
+	 */
+	public static final class Result {
+
+		private final long version;
+
+		private final long[] ids;
+
+		private final long total;
+
+		private Result(long version, long[] ids, long total) {
+			this.version = version;
+			this.ids = ids;
+			this.total = total;
+		}
+
+		/**
+		 * IDs dos filmes da página, em ordem (não deve ser alterado).
+		 *
+		 * @return IDs dos filmes.
+		 */
+		public long[] getIds() {
+			return ids;
+		}
+
+		public long getTotal() {
+			return total;
+		}
+	}
+}
@@ -0,0 +1,388 @@
+package com.unutmaz.moviecollection.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.unutmaz.moviecollection.repo.SearchTermRepo;
+import com.unutmaz.moviecollection.util.MovieQuery;
+import com.unutmaz.moviecollection.util.SearchTermCount;
+import com.unutmaz.moviecollection.util.SearchWindowStats;
+
+/**
+ * Estatísticas das buscas da listagem de filmes (/movies/list?name=|category=|actor=),
+ * expostas em /actuator/searchstats.
+ *
+ * Cada janela de tempo tem um count-min sketch (DEPTH linhas de WIDTH contadores num
+ * AtomicLongArray) que estima quantas vezes cada termo foi buscado, e uma lista dos
+ * TOP_K termos mais buscados, mantida com as estimativas do sketch: um termo novo só
+ * entra na lista se a estimativa superar a menor da lista, que então sai. Há um
+ * segundo par sketch/lista só para as buscas sem resultados. Registrar uma busca
+ * custa alguns incrementos atômicos, sem bloqueio e sem acesso ao banco; só um termo
+ * que entra na lista cheia passa por um bloqueio curto. A memória é fixa por janela,
+ * independente do número de termos distintos.
+ *
+ * Ao fim de cada janela, uma thread própria grava os termos mais buscados na tabela
+ * search_terms (dezenas de linhas, não uma por busca). Na inicialização, os termos
+ * mais buscados são executados uma vez, aquecendo os caminhos de leitura antes das
+ * primeiras requisições.
+ */
+@Service
+public class SearchStats {
+
+	/**
+	 * Número de termos acompanhados por janela.
+	 */
+	public static final int TOP_K = 50;
+
+	/**
+	 * Tamanho máximo de um termo normalizado.
+	 */
+	public static final int MAX_TERM_LENGTH = 200;
+
+	/**
+	 * Linhas e contadores por linha do count-min sketch: com 4 x 2048, o erro fica em
+	 * cerca de 0,1% das buscas da janela com probabilidade de 98%.
+	 */
+	private static final int DEPTH = 4;
+	private static final int WIDTH = 1 << 11;
+
+	/**
+	 * Filtros que compõem o termo, na ordem em que aparecem nele.
+	 */
+	private static final List<String> FIELDS = List.of("name", "category", "actor");
+
+	@Autowired
+	private SearchTermRepo searchTermRepo;
+
+	@Autowired
+	private AppService appService;
+
+	private final long windowMillis;
+
+	private final int windowCount;
+
+	private final int warmupQueries;
+
+	/**
+	 * Tamanho da primeira página da listagem, o mesmo do AppController.
+	 */
+	private final int pageSize;
+
+	private final long retentionMillis;
+
+	/**
+	 * Transação das gravações e da leitura dos termos na inicialização.
+	 */
+	private final TransactionTemplate transaction;
+
+	/**
+	 * Thread que fecha as janelas.
+	 */
+	private final ScheduledExecutorService executor;
+
+	/**
+	 * Janela atual.
+	 */
+	private volatile Window current;
+
+	/**
+	 * Janelas fechadas, da mais recente para a mais antiga.
+	 */
+	private final Deque<Window> closed = new ConcurrentLinkedDeque<>();
+
+	/**
+	 * Construtor que agenda o fechamento das janelas.
+	 *
+	 * @param windowMillis Duração de uma janela, em milissegundos.
+	 * @param windowCount Número de janelas mantidas em memória (incluindo a atual).
+	 * @param warmupQueries Número de termos executados na inicialização.
+	 * @param retentionMillis Tempo que um termo não buscado é mantido em search_terms.
+	 * @param pageSize Tamanho da primeira página da listagem (moviecollection.listing.page-size).
+	 * @param transactionManager Gerenciador de transações.
+	 */
+	public SearchStats(@Value("${moviecollection.search-stats.window-ms:3600000}") long windowMillis,
+			@Value("${moviecollection.search-stats.windows:24}") int windowCount,
+			@Value("${moviecollection.search-stats.warmup-queries:20}") int warmupQueries,
+			@Value("${moviecollection.search-stats.retention-ms:2592000000}") long retentionMillis,
+			@Value("${moviecollection.listing.page-size:50}") int pageSize,
+			PlatformTransactionManager transactionManager) {
+		this.windowMillis = windowMillis;
+		this.windowCount = Math.max(1, windowCount);
+		this.warmupQueries = warmupQueries;
+		this.retentionMillis = retentionMillis;
+		this.pageSize = pageSize;
+		this.transaction = new TransactionTemplate(transactionManager);
+		long now = System.currentTimeMillis();
+		this.current = new Window(now - now % windowMillis, windowMillis);
+		this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "search-stats");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleAtFixedRate(this::rotate, current.end - now, windowMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Registra uma busca da listagem. Listagens sem filtro por nome, categoria ou ator
+	 * não são buscas e são ignoradas.
+	 *
+	 * @param query Critérios da listagem.
+	 * @param total Número de filmes encontrados.
+	 */
+	public void record(MovieQuery query, long total) {
+		String term = term(query);
+		if (term != null) {
+			current.record(term, total == 0);
+		}
+	}
+
+	/**
+	 * Obtém as estatísticas das janelas mais recentes.
+	 *
+	 * @param windows Número de janelas (a atual e as anteriores).
+	 * @param top Número de termos por lista (até TOP_K).
+	 * @return Estatísticas, da janela atual para a mais antiga.
+	 */
+	public List<SearchWindowStats> windows(int windows, int top) {
+		List<SearchWindowStats> stats = new ArrayList<>();
+		int limit = Math.max(0, Math.min(top, TOP_K));
+		stats.add(current.stats(limit));
+		Iterator<Window> older = closed.iterator();
+		while (stats.size() < windows && older.hasNext()) {
+			stats.add(older.next().stats(limit));
+		}
+		return stats.subList(0, Math.min(stats.size(), Math.max(windows, 0)));
+	}
+
+	/**
+	 * Fecha a janela atual, abre a seguinte e grava os termos da janela fechada.
+	 */
+	public synchronized void rotate() {
+		Window closing = current;
+		current = new Window(closing.end, windowMillis);
+		closed.addFirst(closing);
+		while (closed.size() > windowCount - 1) {
+			closed.pollLast();
+		}
+		saveQuietly(closing);
+	}
+
+	/**
+	 * Executa os termos mais buscados quando a aplicação termina de iniciar, com a
+	 * mesma chave da primeira página de /movies/list (ver query).
+	 * Falhas são ignoradas: o aquecimento não pode impedir a inicialização.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void warmUp() {
+		try {
+			List<String> terms = transaction.execute(status -> searchTermRepo.findTopTerms(warmupQueries));
+			for (String term : terms) {
+				appService.findMovies(query(term, pageSize));
+			}
+		} catch (RuntimeException ex) {
+			// sem aquecimento
+		}
+	}
+
+	/**
+	 * Para o fechamento das janelas e grava os termos da janela atual.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+		saveQuietly(current);
+	}
+
+	/**
+	 * Monta o termo normalizado de uma listagem: os filtros preenchidos, em minúsculas,
+	 * com espaços compactados, como "name:matrix" ou "category:drama&actor:keanu".
+	 *
+	 * @param query Critérios da listagem.
+	 * @return Termo, ou null se a listagem não tiver filtros de busca.
+	 */
+	public static String term(MovieQuery query) {
+		String[] values = { query.getName(), query.getCategory(), query.getActor() };
+		StringBuilder term = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] == null) continue;
+			if (term.length() > 0) term.append('&');
+			term.append(FIELDS.get(i)).append(':')
+					.append(values[i].toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").replace("&", " "));
+		}
+		if (term.length() == 0) return null;
+		return term.length() > MAX_TERM_LENGTH ? term.substring(0, MAX_TERM_LENGTH) : term.toString();
+	}
+
+	/**
+	 * Reconstrói a listagem padrão (/movies/list) de um termo: primeira página, com o
+	 * tamanho de página da listagem e a ordenação padrão, que é a consulta feita ao
+	 * abrir a listagem com o filtro. O termo não guarda a ordenação escolhida depois.
+	 *
+	 * @param term Termo normalizado.
+	 * @param size Tamanho da página da listagem.
+	 * @return Critérios da listagem.
+	 */
+	static MovieQuery query(String term, int size) {
+		String[] values = new String[FIELDS.size()];
+		for (String part : term.split("&")) {
+			int colon = part.indexOf(':');
+			int field = colon < 0 ? -1 : FIELDS.indexOf(part.substring(0, colon));
+			if (field >= 0) values[field] = part.substring(colon + 1);
+		}
+		return new MovieQuery(values[0], values[1], values[2], null, 0, size);
+	}
+
+	private void saveQuietly(Window window) {
+		Map<String, Long> top = window.top.counts;
+		if (top.isEmpty()) return;
+		try {
+			transaction.executeWithoutResult(status -> searchTermRepo.addSearches(Map.copyOf(top), retentionMillis));
+		} catch (RuntimeException ex) {
+			// os termos desta janela não entram no aquecimento
+		}
+	}
+
+	/**
+	 * Contadores de uma janela de tempo.
+	 */
+	private static final class Window {
+
+		private final long start;
+
+		private final long end;
+
+		private final CountMinSketch searches = new CountMinSketch();
+
+		private final CountMinSketch zeroResultSearches = new CountMinSketch();
+
+		private final HeavyHitters top = new HeavyHitters();
+
+		private final HeavyHitters zeroResults = new HeavyHitters();
+
+		private final LongAdder total = new LongAdder();
+
+		private final LongAdder zeroTotal = new LongAdder();
+
+		Window(long start, long length) {
+			this.start = start;
+			this.end = start + length;
+		}
+
+		void record(String term, boolean zeroResult) {
+			total.increment();
+			top.offer(term, searches.add(term));
+			if (zeroResult) {
+				zeroTotal.increment();
+				zeroResults.offer(term, zeroResultSearches.add(term));
+			}
+		}
+
+		SearchWindowStats stats(int limit) {
+			return new SearchWindowStats(Instant.ofEpochMilli(start), Instant.ofEpochMilli(end), total.sum(),
+					zeroTotal.sum(), top.top(limit), zeroResults.top(limit));
+		}
+	}
+
+	/**
+	 * Count-min sketch: cada termo incrementa um contador em cada linha, escolhido por
+	 * hash; a estimativa é o menor deles, que nunca é menor que a contagem real.
+	 */
+	private static final class CountMinSketch {
+
+		private final AtomicLongArray counters = new AtomicLongArray(DEPTH * WIDTH);
+
+		/**
+		 * Conta uma ocorrência do termo.
+		 *
+		 * @return Estimativa do número de ocorrências, já com esta.
+		 */
+		long add(String term) {
+			// Duplo hash: a linha i usa h1 + i * h2 (Kirsch-Mitzenmacher)
+			int h1 = mix(term.hashCode());
+			int h2 = mix(h1) | 1;
+			long estimate = Long.MAX_VALUE;
+			for (int row = 0; row < DEPTH; row++) {
+				int index = row * WIDTH + ((h1 + row * h2) & (WIDTH - 1));
+				estimate = Math.min(estimate, counters.incrementAndGet(index));
+			}
+			return estimate;
+		}
+
+		private static int mix(int h) {
+			h ^= h >>> 16;
+			h *= 0x85EBCA6B;
+			h ^= h >>> 13;
+			h *= 0xC2B2AE35;
+			return h ^ (h >>> 16);
+		}
+	}
+
+	/**
+	 * Os TOP_K termos com as maiores estimativas. A menor estimativa da lista cheia
+	 * fica em floor, de modo que a maioria das buscas de termos raros é descartada
+	 * com uma leitura, sem bloqueio.
+	 */
+	private static final class HeavyHitters {
+
+		private final Map<String, Long> counts = new ConcurrentHashMap<>();
+
+		private volatile long floor;
+
+		void offer(String term, long estimate) {
+			if (counts.computeIfPresent(term, (key, old) -> Math.max(old, estimate)) != null) return;
+			if (estimate <= floor) return;
+			synchronized (this) {
+				if (counts.containsKey(term)) {
+					counts.merge(term, estimate, Math::max);
+					return;
+				}
+				if (counts.size() >= TOP_K) {
+					Map.Entry<String, Long> lowest = lowest();
+					if (lowest.getValue() >= estimate) {
+						floor = lowest.getValue();
+						return;
+					}
+					counts.remove(lowest.getKey());
+				}
+				counts.put(term, estimate);
+				if (counts.size() >= TOP_K) {
+					floor = lowest().getValue();
+				}
+			}
+		}
+
+		List<SearchTermCount> top(int limit) {
+			return counts.entrySet().stream()
+					.sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+					.limit(limit).map(e -> new SearchTermCount(e.getKey(), e.getValue())).collect(Collectors.toList());
+		}
+
+		private Map.Entry<String, Long> lowest() {
+			return counts.entrySet().stream().min(Comparator.comparing(Map.Entry::getValue)).get();
+		}
+	}
+}
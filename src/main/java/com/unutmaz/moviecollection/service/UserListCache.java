@@ -0,0 +1,104 @@
+package com.unutmaz.moviecollection.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.unutmaz.moviecollection.event.UserListsChangedEvent;
+import com.unutmaz.moviecollection.repo.UserListRepo;
+import com.unutmaz.moviecollection.util.UserMovieLists;
+
+/**
+ * Cache LRU das listas de filmes dos usuários (favoritos e assistidos), para que os
+ * filtros da listagem não leiam o banco a cada requisição.
+ *
+ * As listas são imutáveis; uma alteração confirmada (UserListsChangedEvent) troca a
+ * entrada do usuário pelas listas gravadas. Cada entrada guarda a versão gravada, e
+ * uma entrada só é substituída por uma versão mais nova, de modo que uma leitura do
+ * banco concorrente com uma alteração não volta ao estado anterior.
+ */
+@Service
+public class UserListCache {
+
+	private final UserListRepo userListRepo;
+
+	/**
+	 * Cache LRU: nome do usuário -> listas.
+	 */
+	private final Map<String, UserMovieLists> cache;
+
+	/**
+	 * Transação somente leitura das cargas, independente do chamador.
+	 */
+	private final TransactionTemplate transaction;
+
+	/**
+	 * Construtor com o tamanho do cache.
+	 *
+	 * @param userListRepo Repositório das listas.
+	 * @param transactionManager Gerenciador de transações.
+	 * @param cacheSize Número máximo de usuários em cache.
+	 */
+	public UserListCache(UserListRepo userListRepo, PlatformTransactionManager transactionManager,
+			@Value("${moviecollection.lists.cache-size:10000}") int cacheSize) {
+		this.userListRepo = userListRepo;
+		this.transaction = new TransactionTemplate(transactionManager);
+		this.transaction.setReadOnly(true);
+		this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.cache = new LinkedHashMap<String, UserMovieLists>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, UserMovieLists> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	/**
+	 * Obtém as listas de um usuário, carregando-as do banco se não estiverem em cache.
+	 *
+	 * @param username Nome do usuário.
+	 * @return Listas do usuário.
+	 */
+	public UserMovieLists get(String username) {
+		UserMovieLists lists;
+		synchronized (cache) {
+			lists = cache.get(username);
+		}
+		if (lists == null) {
+			lists = put(username, transaction.execute(status -> userListRepo.find(username)));
+		}
+		return lists;
+	}
+
+	/**
+	 * Guarda as listas gravadas por uma alteração confirmada.
+	 *
+	 * @param event Alteração confirmada.
+	 */
+	@TransactionalEventListener
+	public void onListsChanged(UserListsChangedEvent event) {
+		put(event.getUsername(), event.getLists());
+	}
+
+	/**
+	 * Guarda as listas, a menos que o cache já tenha uma versão mais nova.
+	 *
+	 * @return Listas em cache após a operação.
+	 */
+	private UserMovieLists put(String username, UserMovieLists lists) {
+		synchronized (cache) {
+			UserMovieLists cached = cache.get(username);
+			if (cached != null && cached.getVersion() > lists.getVersion()) return cached;
+			cache.put(username, lists);
+			return lists;
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package com.unutmaz.moviecollection.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.unutmaz.moviecollection.event.CatalogueChangeEvent;
+import com.unutmaz.moviecollection.model.CatalogueChange;
+import com.unutmaz.moviecollection.readmodel.CatalogueSnapshot;
+import com.unutmaz.moviecollection.readmodel.RankedOrder;
+import com.unutmaz.moviecollection.repo.MovieRepo;
+
+/**
+ * Serviço que conta as visualizações das páginas de filmes e mantém o ranking
+ * "mais visualizados" (MovieQuery.ORDER_POPULAR).
+ *
+ * Uma visualização só incrementa um LongAdder em memória (um por filme, num
+ * ConcurrentHashMap), sem acesso ao banco e sem disputa entre requisições do mesmo
+ * filme. Uma thread própria grava os contadores acumulados na tabela movie_stats a
+ * cada flush-ms, com poucos comandos em massa (MovieRepo.addViews), e recarrega o
+ * ranking. Numa falha, os valores voltam aos contadores para a próxima gravação.
+ * Visualizações ainda não gravadas não aparecem no ranking.
+ */
+@Service
+public class ViewCounter {
+
+	@Autowired
+	private MovieRepo movieRepo;
+
+	/**
+	 * Visualizações ainda não gravadas, por ID do filme.
+	 */
+	private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+	/**
+	 * Transação das gravações, independente de qualquer transação do chamador.
+	 */
+	private final TransactionTemplate transaction;
+
+	/**
+	 * Thread que grava os contadores periodicamente.
+	 */
+	private final ScheduledExecutorService executor;
+
+	/**
+	 * IDs dos filmes visualizados, do mais visualizado ao menos, conforme movie_stats.
+	 */
+	private volatile long[] ranking = new long[0];
+
+	/**
+	 * Última ordem calculada para o modelo de leitura.
+	 */
+	private volatile RankedOrder popularOrder;
+
+	/**
+	 * Construtor que agenda a gravação periódica.
+	 *
+	 * @param flushMillis Intervalo entre gravações, em milissegundos.
+	 * @param transactionManager Gerenciador de transações.
+	 */
+	public ViewCounter(@Value("${moviecollection.views.flush-ms:5000}") long flushMillis,
+			PlatformTransactionManager transactionManager) {
+		this.transaction = new TransactionTemplate(transactionManager);
+		this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "view-counter");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Carrega o ranking gravado quando a aplicação termina de iniciar.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadRanking() {
+		ranking = transaction.execute(status -> toArray(movieRepo.findIdsByViews()));
+	}
+
+	/**
+	 * Registra uma visualização. Não acessa o banco.
+	 *
+	 * @param movieId ID do filme.
+	 */
+	public void record(long movieId) {
+		LongAdder adder = pending.get(movieId);
+		if (adder == null) {
+			adder = pending.computeIfAbsent(movieId, id -> new LongAdder());
+		}
+		adder.increment();
+	}
+
+	/**
+	 * Grava em movie_stats as visualizações acumuladas e recarrega o ranking.
+	 * Contadores sem novas visualizações são removidos, para que o mapa só tenha os
+	 * filmes visualizados recentemente.
+	 */
+	public synchronized void flush() {
+		Map<Long, Long> views = new HashMap<>();
+		pending.forEach((id, adder) -> {
+			long count = adder.sumThenReset();
+			if (count > 0) {
+				views.put(id, count);
+			}
+			else if (pending.remove(id, adder)) {
+				// Recolhe o que foi somado entre a leitura e a remoção
+				long late = adder.sumThenReset();
+				if (late > 0) views.put(id, late);
+			}
+		});
+		if (views.isEmpty()) return;
+		try {
+			ranking = transaction.execute(status -> {
+				movieRepo.addViews(views);
+				return toArray(movieRepo.findIdsByViews());
+			});
+		} catch (RuntimeException ex) {
+			views.forEach((id, count) -> pending.computeIfAbsent(id, k -> new LongAdder()).add(count));
+			throw ex;
+		}
+	}
+
+	/**
+	 * Obtém todas as posições de uma cópia do catálogo em ordem de visualizações
+	 * (decrescente), com os filmes sem visualizações no fim, em ordem de ID, como a
+	 * ordenação "popular" do banco. A ordem é recalculada só quando a cópia ou o
+	 * ranking mudam.
+	 *
+	 * @param snapshot Cópia do catálogo.
+	 * @return Posições ordenadas (não deve ser alterado).
+	 */
+	public int[] popularOrder(CatalogueSnapshot snapshot) {
+		RankedOrder cached = popularOrder;
+		long[] current = ranking;
+		if (cached == null || !cached.isFor(snapshot, current)) {
+			cached = RankedOrder.of(snapshot, current);
+			popularOrder = cached;
+		}
+		return cached.order();
+	}
+
+	/**
+	 * Descarta as visualizações pendentes de filmes excluídos.
+	 *
+	 * @param event Alteração confirmada.
+	 */
+	@TransactionalEventListener
+	public void onCatalogueChange(CatalogueChangeEvent event) {
+		if (event.isDeleted() && CatalogueChange.MOVIE.equals(event.getType())) {
+			for (long id : event.getIds()) {
+				pending.remove(id);
+			}
+		}
+	}
+
+	/**
+	 * Para a gravação periódica e grava o que estiver pendente.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+		flushQuietly();
+	}
+
+	/**
+	 * Gravação agendada: uma falha não pode cancelar o agendamento, e os valores
+	 * já voltaram aos contadores.
+	 */
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (RuntimeException ex) {
+			// nova tentativa na próxima gravação
+		}
+	}
+
+	private static long[] toArray(List<Long> ids) {
+		return ids.stream().mapToLong(Long::longValue).toArray();
+	}
+}
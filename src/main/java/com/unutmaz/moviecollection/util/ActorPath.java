@@ -0,0 +1,65 @@
+package com.unutmaz.moviecollection.util;
+
+import java.util.List;
+
+import com.unutmaz.moviecollection.model.Actor;
+import com.unutmaz.moviecollection.model.Movie;
+
+/**
+ * Resposta de /rest/actors/{a}/path/{b}: a ligação mais curta entre dois atores.
+ * O filme movies[i] tem no elenco os atores actors[i] e actors[i + 1]. Sem ligação,
+ * connected é false e as listas ficam vazias.
+ */
+public class ActorPath {
+
+	/**
+	 * Atores do caminho, do primeiro ao último.
+	 */
+	private final List<Actor> actors;
+
+	/**
+	 * Filmes que ligam cada par de atores consecutivos.
+	 */
+	private final List<Movie> movies;
+
+	/**
+	 * Construtor com o caminho encontrado.
+	 *
+	 * @param actors Atores do caminho.
+	 * @param movies Filmes entre os atores.
+	 */
+	public ActorPath(List<Actor> actors, List<Movie> movies) {
+		this.actors = actors;
+		this.movies = movies;
+	}
+
+	/**
+	 * Cria o resultado para atores sem ligação.
+	 *
+	 * @return Caminho vazio.
+	 */
+	public static ActorPath notConnected() {
+		return new ActorPath(List.of(), List.of());
+	}
+
+	public List<Actor> getActors() {
+		return actors;
+	}
+
+	public List<Movie> getMovies() {
+		return movies;
+	}
+
+	public boolean isConnected() {
+		return !actors.isEmpty();
+	}
+
+	/**
+	 * Graus de separação (número de filmes no caminho), ou -1 sem ligação.
+	 *
+	 * @return Graus de separação.
+	 */
+	public int getDegrees() {
+		return actors.isEmpty() ? -1 : movies.size();
+	}
+}
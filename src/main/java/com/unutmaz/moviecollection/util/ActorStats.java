@@ -0,0 +1,40 @@
+package com.unutmaz.moviecollection.util;
+
+import com.unutmaz.moviecollection.model.Actor;
+
+/**
+ * Item dos rankings de atores em /rest/stats: número de filmes e avaliação média deles.
+ */
+public class ActorStats {
+
+	private final Actor actor;
+
+	private final long movies;
+
+	private final double averageRating;
+
+	/**
+	 * Construtor com todos os campos. A média é arredondada para duas casas.
+	 *
+	 * @param actor Ator.
+	 * @param movies Número de filmes do ator.
+	 * @param averageRating Avaliação média dos filmes do ator.
+	 */
+	public ActorStats(Actor actor, long movies, double averageRating) {
+		this.actor = actor;
+		this.movies = movies;
+		this.averageRating = CatalogueStats.round(averageRating);
+	}
+
+	public Actor getActor() {
+		return actor;
+	}
+
+	public long getMovies() {
+		return movies;
+	}
+
+	public double getAverageRating() {
+		return averageRating;
+	}
+}
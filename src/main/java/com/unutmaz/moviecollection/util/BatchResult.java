@@ -0,0 +1,97 @@
+package com.unutmaz.moviecollection.util;
+
+/**
+ * Resultado de um item de uma operação em lote da API REST.
+ * Cada item enviado no array da requisição gera um BatchResult na mesma posição,
+ * indicando o que aconteceu com ele.
+ *
+ * Status possíveis:
+ * - created: item criado (id contém o ID gerado).
+ * - updated: item atualizado.
+ * - deleted: item excluído.
+ * - not_found: não existe item com o ID informado.
+ * - invalid: item rejeitado (ver message).
+ */
+public class BatchResult {
+
+	public static final String CREATED = "created";
+	public static final String UPDATED = "updated";
+	public static final String DELETED = "deleted";
+	public static final String NOT_FOUND = "not_found";
+	public static final String INVALID = "invalid";
+
+	/**
+	 * Posição do item no array da requisição.
+	 */
+	private final int index;
+
+	/**
+	 * ID do filme ou ator afetado, quando conhecido.
+	 */
+	private final Long id;
+
+	/**
+	 * Status do item.
+	 */
+	private final String status;
+
+	/**
+	 * Motivo da rejeição, quando status é invalid.
+	 */
+	private final String message;
+
+	/**
+	 * Construtor com todos os campos.
+	 *
+	 * @param index Posição do item na requisição.
+	 * @param id ID do item.
+	 * @param status Status do item.
+	 * @param message Mensagem de erro, ou null.
+	 */
+	public BatchResult(int index, Long id, String status, String message) {
+		this.index = index;
+		this.id = id;
+		this.status = status;
+		this.message = message;
+	}
+
+	/**
+	 * Cria um resultado de sucesso ou not_found, sem mensagem.
+	 *
+	 * @param index Posição do item na requisição.
+	 * @param id ID do item.
+	 * @param status Status do item.
+	 * @return Resultado do item.
+	 */
+	public static BatchResult of(int index, Long id, String status) {
+		return new BatchResult(index, id, status, null);
+	}
+
+	/**
+	 * Cria um resultado de item rejeitado.
+	 *
+	 * @param index Posição do item na requisição.
+	 * @param id ID do item, se informado.
+	 * @param message Motivo da rejeição.
+	 * @return Resultado do item.
+	 */
+	public static BatchResult invalid(int index, Long id, String message) {
+		return new BatchResult(index, id, INVALID, message);
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+}
@@ -0,0 +1,39 @@
+package com.unutmaz.moviecollection.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Utilitário para dividir coleções em lotes de tamanho fixo.
+ * Usado para limitar o tamanho das cláusulas IN e dos lotes JDBC
+ * nas operações que recebem muitos IDs ou entidades de uma vez.
+ */
+public final class Batches {
+
+	private Batches() {
+	}
+
+	/**
+	 * Divide a coleção em listas consecutivas de no máximo size elementos.
+	 *
+	 * @param items Coleção a ser dividida.
+	 * @param size Tamanho máximo de cada lote.
+	 * @return Lista de lotes, vazia se a coleção estiver vazia.
+	 */
+	public static <T> List<List<T>> of(Collection<T> items, int size) {
+		List<List<T>> batches = new ArrayList<>();
+		List<T> current = new ArrayList<>(Math.min(size, items.size()));
+		for (T item : items) {
+			current.add(item);
+			if (current.size() == size) {
+				batches.add(current);
+				current = new ArrayList<>(size);
+			}
+		}
+		if (!current.isEmpty()) {
+			batches.add(current);
+		}
+		return batches;
+	}
+}
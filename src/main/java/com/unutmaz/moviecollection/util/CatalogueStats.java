@@ -0,0 +1,133 @@
+package com.unutmaz.moviecollection.util;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resposta de /rest/stats: agregações do catálogo numa versão.
+ *
+ * As avaliações são agrupadas em RATING_BUCKETS faixas de um ponto: a faixa i
+ * contém as avaliações em [i, i + 1), e a última também inclui a nota 10.
+ * Os rankings de atores trazem até MAX_TOP itens; o de avaliação média considera
+ * apenas atores com pelo menos MIN_RATED_MOVIES filmes.
+ */
+public class CatalogueStats {
+
+	public static final int RATING_BUCKETS = 10;
+
+	public static final int MAX_TOP = 100;
+
+	public static final int MIN_RATED_MOVIES = 2;
+
+	/**
+	 * Versão do catálogo em que as estatísticas foram calculadas.
+	 */
+	private final long version;
+
+	private final long movies;
+
+	/**
+	 * Estatísticas por categoria, em ordem de nome (sem categoria por último).
+	 */
+	private final List<CategoryStats> categories;
+
+	/**
+	 * Filmes por ano de lançamento, em ordem de ano (filmes sem data não entram).
+	 */
+	private final Map<Integer, Long> moviesPerYear;
+
+	private final long[] ratingHistogram;
+
+	/**
+	 * Atores com mais filmes (empate: maior média, depois menor ID).
+	 */
+	private final List<ActorStats> topActorsByMovies;
+
+	/**
+	 * Atores com maior avaliação média (empate: mais filmes, depois menor ID).
+	 */
+	private final List<ActorStats> topActorsByRating;
+
+	/**
+	 * Construtor com todos os campos.
+	 *
+	 * @param version Versão do catálogo.
+	 * @param movies Número de filmes.
+	 * @param categories Estatísticas por categoria.
+	 * @param moviesPerYear Filmes por ano.
+	 * @param ratingHistogram Filmes por faixa de avaliação.
+	 * @param topActorsByMovies Ranking de atores por número de filmes.
+	 * @param topActorsByRating Ranking de atores por avaliação média.
+	 */
+	public CatalogueStats(long version, long movies, List<CategoryStats> categories, Map<Integer, Long> moviesPerYear,
+			long[] ratingHistogram, List<ActorStats> topActorsByMovies, List<ActorStats> topActorsByRating) {
+		this.version = version;
+		this.movies = movies;
+		this.categories = categories;
+		this.moviesPerYear = moviesPerYear;
+		this.ratingHistogram = ratingHistogram;
+		this.topActorsByMovies = topActorsByMovies;
+		this.topActorsByRating = topActorsByRating;
+	}
+
+	/**
+	 * Faixa do histograma de uma avaliação.
+	 *
+	 * @param rating Avaliação.
+	 * @return Índice da faixa, de 0 a RATING_BUCKETS - 1.
+	 */
+	public static int ratingBucket(double rating) {
+		return (int) Math.max(0, Math.min(RATING_BUCKETS - 1, Math.floor(rating)));
+	}
+
+	/**
+	 * Arredonda uma média para duas casas decimais, para que o resultado não dependa
+	 * de a avaliação ter sido lida como float (memória) ou double (banco).
+	 *
+	 * @param value Valor.
+	 * @return Valor arredondado.
+	 */
+	static double round(double value) {
+		return Math.round(value * 100) / 100.0;
+	}
+
+	/**
+	 * Cria uma cópia com os rankings de atores limitados a top itens.
+	 *
+	 * @param top Número de atores em cada ranking.
+	 * @return Estatísticas com os rankings cortados.
+	 */
+	public CatalogueStats withTop(int top) {
+		return new CatalogueStats(version, movies, categories, moviesPerYear, ratingHistogram,
+				topActorsByMovies.subList(0, Math.min(top, topActorsByMovies.size())),
+				topActorsByRating.subList(0, Math.min(top, topActorsByRating.size())));
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public long getMovies() {
+		return movies;
+	}
+
+	public List<CategoryStats> getCategories() {
+		return categories;
+	}
+
+	public Map<Integer, Long> getMoviesPerYear() {
+		return moviesPerYear;
+	}
+
+	public long[] getRatingHistogram() {
+		return ratingHistogram;
+	}
+
+	public List<ActorStats> getTopActorsByMovies() {
+		return topActorsByMovies;
+	}
+
+	public List<ActorStats> getTopActorsByRating() {
+		return topActorsByRating;
+	}
+}
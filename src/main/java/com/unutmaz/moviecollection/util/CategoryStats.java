@@ -0,0 +1,68 @@
+package com.unutmaz.moviecollection.util;
+
+import java.util.Comparator;
+
+/**
+ * Estatísticas de uma categoria em /rest/stats.
+ */
+public class CategoryStats {
+
+	/**
+	 * Ordem das categorias na resposta: por nome, sem categoria por último.
+	 */
+	public static final Comparator<CategoryStats> BY_CATEGORY =
+			Comparator.comparing(CategoryStats::getCategory, Comparator.nullsLast(Comparator.naturalOrder()));
+
+	/**
+	 * Categoria, ou null para os filmes sem categoria.
+	 */
+	private final String category;
+
+	private final long movies;
+
+	private final double averageRating;
+
+	private final double medianRating;
+
+	/**
+	 * Número de filmes por faixa de avaliação (ver CatalogueStats.ratingBucket).
+	 */
+	private final long[] ratingHistogram;
+
+	/**
+	 * Construtor com todos os campos. As médias são arredondadas para duas casas.
+	 *
+	 * @param category Categoria.
+	 * @param movies Número de filmes.
+	 * @param averageRating Avaliação média.
+	 * @param medianRating Avaliação mediana.
+	 * @param ratingHistogram Filmes por faixa de avaliação.
+	 */
+	public CategoryStats(String category, long movies, double averageRating, double medianRating, long[] ratingHistogram) {
+		this.category = category;
+		this.movies = movies;
+		this.averageRating = CatalogueStats.round(averageRating);
+		this.medianRating = CatalogueStats.round(medianRating);
+		this.ratingHistogram = ratingHistogram;
+	}
+
+	public String getCategory() {
+		return category;
+	}
+
+	public long getMovies() {
+		return movies;
+	}
+
+	public double getAverageRating() {
+		return averageRating;
+	}
+
+	public double getMedianRating() {
+		return medianRating;
+	}
+
+	public long[] getRatingHistogram() {
+		return ratingHistogram;
+	}
+}
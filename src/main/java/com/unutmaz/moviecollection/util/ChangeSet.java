@@ -0,0 +1,92 @@
+package com.unutmaz.moviecollection.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.unutmaz.moviecollection.model.Actor;
+import com.unutmaz.moviecollection.model.Movie;
+
+/**
+ * Resposta do endpoint de sincronização incremental (/rest/changes).
+ * Contém o estado atual dos filmes e atores alterados desde a versão "since"
+ * e os IDs dos que foram excluídos. O consumidor guarda "next" e o usa como
+ * "since" na próxima chamada; enquanto "hasMore" for true, há mais alterações.
+ */
+public class ChangeSet {
+
+	/**
+	 * Versão informada pelo consumidor.
+	 */
+	private final long since;
+
+	/**
+	 * Versão a ser usada na próxima chamada.
+	 */
+	private final long next;
+
+	/**
+	 * Indica se ainda há alterações depois de next.
+	 */
+	private final boolean hasMore;
+
+	/**
+	 * Filmes criados ou alterados, no estado atual.
+	 */
+	private final List<Movie> movies = new ArrayList<>();
+
+	/**
+	 * Atores criados ou alterados, no estado atual.
+	 */
+	private final List<Actor> actors = new ArrayList<>();
+
+	/**
+	 * IDs dos filmes excluídos.
+	 */
+	private final List<Long> deletedMovies = new ArrayList<>();
+
+	/**
+	 * IDs dos atores excluídos.
+	 */
+	private final List<Long> deletedActors = new ArrayList<>();
+
+	/**
+	 * Construtor com a janela de versões coberta.
+	 *
+	 * @param since Versão informada pelo consumidor.
+	 * @param next Versão a ser usada na próxima chamada.
+	 * @param hasMore true se há mais alterações.
+	 */
+	public ChangeSet(long since, long next, boolean hasMore) {
+		this.since = since;
+		this.next = next;
+		this.hasMore = hasMore;
+	}
+
+	public long getSince() {
+		return since;
+	}
+
+	public long getNext() {
+		return next;
+	}
+
+	public boolean isHasMore() {
+		return hasMore;
+	}
+
+	public List<Movie> getMovies() {
+		return movies;
+	}
+
+	public List<Actor> getActors() {
+		return actors;
+	}
+
+	public List<Long> getDeletedMovies() {
+		return deletedMovies;
+	}
+
+	public List<Long> getDeletedActors() {
+		return deletedActors;
+	}
+}
@@ -0,0 +1,30 @@
+package com.unutmaz.moviecollection.util;
+
+import com.unutmaz.moviecollection.model.Actor;
+
+/**
+ * Item da resposta de /rest/actors/{id}/costars: um ator e a quantos passos
+ * (filmes em sequência) ele está do ator consultado.
+ */
+public class CoStar {
+
+	private final Actor actor;
+
+	/**
+	 * Número de passos: 1 para quem atuou no mesmo filme.
+	 */
+	private final int depth;
+
+	public CoStar(Actor actor, int depth) {
+		this.actor = actor;
+		this.depth = depth;
+	}
+
+	public Actor getActor() {
+		return actor;
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+}
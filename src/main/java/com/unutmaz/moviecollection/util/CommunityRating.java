@@ -0,0 +1,53 @@
+package com.unutmaz.moviecollection.util;
+
+/**
+ * Resposta de /rest/movie/{id}/rating: a média das avaliações dos usuários de um
+ * filme e a avaliação do usuário autenticado.
+ */
+public class CommunityRating {
+
+	private final long movieId;
+
+	/**
+	 * Média das avaliações, ou null se o filme não tiver avaliações.
+	 */
+	private final Double averageRating;
+
+	private final long ratings;
+
+	/**
+	 * Avaliação do usuário autenticado, ou null.
+	 */
+	private final Double userRating;
+
+	/**
+	 * Construtor a partir dos totais do filme. A média é arredondada para duas casas.
+	 *
+	 * @param movieId ID do filme.
+	 * @param ratingSum Soma das avaliações.
+	 * @param ratings Número de avaliações.
+	 * @param userRating Avaliação do usuário, ou null.
+	 */
+	public CommunityRating(long movieId, double ratingSum, long ratings, Double userRating) {
+		this.movieId = movieId;
+		this.averageRating = ratings == 0 ? null : CatalogueStats.round(ratingSum / ratings);
+		this.ratings = ratings;
+		this.userRating = userRating;
+	}
+
+	public long getMovieId() {
+		return movieId;
+	}
+
+	public Double getAverageRating() {
+		return averageRating;
+	}
+
+	public long getRatings() {
+		return ratings;
+	}
+
+	public Double getUserRating() {
+		return userRating;
+	}
+}
@@ -0,0 +1,144 @@
+package com.unutmaz.moviecollection.util;
+
+import java.util.List;
+
+/**
+ * Situação de um job de importação em massa (/rest/jobs/{id}).
+ *
+ * Estados possíveis:
+ * - queued: aguardando um worker livre.
+ * - running: em execução.
+ * - cancelled: interrompido a pedido (ou por reinício da aplicação); pode ser retomado
+ *   a partir da última linha confirmada.
+ * - completed: todas as linhas foram processadas.
+ * - failed: interrompido por um erro (ver message); pode ser retomado.
+ */
+public class ImportJob {
+
+	public static final String QUEUED = "queued";
+	public static final String RUNNING = "running";
+	public static final String CANCELLED = "cancelled";
+	public static final String COMPLETED = "completed";
+	public static final String FAILED = "failed";
+
+	private final String id;
+
+	/**
+	 * Nome informado no envio do arquivo.
+	 */
+	private final String name;
+
+	private final String state;
+
+	/**
+	 * Tamanho do arquivo, em bytes.
+	 */
+	private final long bytes;
+
+	/**
+	 * Bytes do arquivo já confirmados no banco (aproximado até o fim do job).
+	 */
+	private final long bytesDone;
+
+	/**
+	 * Linhas do arquivo já confirmadas no banco (inclusive as rejeitadas).
+	 */
+	private final long lines;
+
+	/**
+	 * Filmes criados.
+	 */
+	private final long imported;
+
+	/**
+	 * Linhas rejeitadas (JSON inválido ou filme inválido).
+	 */
+	private final long errors;
+
+	/**
+	 * Linhas por segundo na execução atual (0 fora de execução).
+	 */
+	private final double rowsPerSecond;
+
+	/**
+	 * Tempo restante estimado, em segundos, ou null se ainda não há como estimar.
+	 */
+	private final Long etaSeconds;
+
+	/**
+	 * Motivo da falha ou do cancelamento, quando houver.
+	 */
+	private final String message;
+
+	/**
+	 * Últimos erros de linha (ex: "line 12: Movie name is required").
+	 */
+	private final List<String> recentErrors;
+
+	/**
+	 * Construtor com todos os campos.
+	 */
+	public ImportJob(String id, String name, String state, long bytes, long bytesDone, long lines, long imported,
+			long errors, double rowsPerSecond, Long etaSeconds, String message, List<String> recentErrors) {
+		this.id = id;
+		this.name = name;
+		this.state = state;
+		this.bytes = bytes;
+		this.bytesDone = bytesDone;
+		this.lines = lines;
+		this.imported = imported;
+		this.errors = errors;
+		this.rowsPerSecond = rowsPerSecond;
+		this.etaSeconds = etaSeconds;
+		this.message = message;
+		this.recentErrors = recentErrors;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getState() {
+		return state;
+	}
+
+	public long getBytes() {
+		return bytes;
+	}
+
+	public long getBytesDone() {
+		return bytesDone;
+	}
+
+	public long getLines() {
+		return lines;
+	}
+
+	public long getImported() {
+		return imported;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public double getRowsPerSecond() {
+		return rowsPerSecond;
+	}
+
+	public Long getEtaSeconds() {
+		return etaSeconds;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public List<String> getRecentErrors() {
+		return recentErrors;
+	}
+}
@@ -0,0 +1,87 @@
+package com.unutmaz.moviecollection.util;
+
+import java.util.List;
+
+import com.unutmaz.moviecollection.model.Actor;
+import com.unutmaz.moviecollection.model.Movie;
+
+/**
+ * Dados da página de detalhes de um filme, montados pelo MovieDetailAssembler.
+ * As partes opcionais que não ficaram prontas no prazo vêm com o valor padrão
+ * (lista vazia, false ou null) e são listadas em incomplete.
+ */
+public class MovieDetails {
+
+	public static final String SIMILAR = "similar";
+	public static final String LISTS = "lists";
+	public static final String RATING = "rating";
+
+	private final Movie movie;
+
+	private final List<Actor> cast;
+
+	private final List<Movie> similar;
+
+	/**
+	 * Listas do usuário, ou null se não ficaram prontas.
+	 */
+	private final UserMovieLists lists;
+
+	/**
+	 * Média dos usuários e avaliação do usuário, ou null se não ficaram prontas.
+	 */
+	private final CommunityRating rating;
+
+	/**
+	 * Partes (SIMILAR, LISTS, RATING) que não ficaram prontas no prazo ou falharam.
+	 */
+	private final List<String> incomplete;
+
+	/**
+	 * Construtor com todos os campos.
+	 *
+	 * @param movie Filme.
+	 * @param cast Elenco.
+	 * @param similar Filmes semelhantes.
+	 * @param lists Listas do usuário, ou null.
+	 * @param rating Avaliações, ou null.
+	 * @param incomplete Partes que faltaram.
+	 */
+	public MovieDetails(Movie movie, List<Actor> cast, List<Movie> similar, UserMovieLists lists,
+			CommunityRating rating, List<String> incomplete) {
+		this.movie = movie;
+		this.cast = cast;
+		this.similar = similar;
+		this.lists = lists;
+		this.rating = rating;
+		this.incomplete = incomplete;
+	}
+
+	public Movie getMovie() {
+		return movie;
+	}
+
+	public List<Actor> getCast() {
+		return cast;
+	}
+
+	public List<Movie> getSimilar() {
+		return similar;
+	}
+
+	public CommunityRating getRating() {
+		return rating;
+	}
+
+	public List<String> getIncomplete() {
+		return incomplete;
+	}
+
+	public boolean isFavorite() {
+		return lists != null && lists.contains(UserMovieLists.FAVORITES, movie.getId());
+	}
+
+	public boolean isWatched() {
+		return lists != null && lists.contains(UserMovieLists.WATCHED, movie.getId());
+	}
+}
@@ -0,0 +1,62 @@
+package com.unutmaz.moviecollection.util;
+
+import java.util.List;
+
+import com.unutmaz.moviecollection.model.Movie;
+
+/**
+ * Resultado de uma listagem paginada de filmes (ver MovieQuery).
+ */
+public class MoviePage {
+
+	/**
+	 * Filmes da página, na ordem pedida.
+	 */
+	private final List<Movie> movies;
+
+	/**
+	 * Número da página, a partir de 0.
+	 */
+	private final int page;
+
+	/**
+	 * Tamanho da página (0 quando não há paginação).
+	 */
+	private final int size;
+
+	/**
+	 * Total de filmes que atendem aos filtros, em todas as páginas.
+	 */
+	private final long total;
+
+	/**
+	 * Construtor com todos os campos.
+	 *
+	 * @param movies Filmes da página.
+	 * @param page Número da página.
+	 * @param size Tamanho da página.
+	 * @param total Total de filmes encontrados.
+	 */
+	public MoviePage(List<Movie> movies, int page, int size, long total) {
+		this.movies = movies;
+		this.page = page;
+		this.size = size;
+		this.total = total;
+	}
+
+	public List<Movie> getMovies() {
+		return movies;
+	}
+
+	public int getPage() {
+		return page;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+}
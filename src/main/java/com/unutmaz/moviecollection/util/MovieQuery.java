@@ -0,0 +1,318 @@
+package com.unutmaz.moviecollection.util;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Critérios de uma listagem de filmes: filtros por nome, categoria e ator e pelas
+ * listas do usuário (combinados com E), ordenação e paginação. Com fuzzy, os filtros
+ * por nome e ator aceitam erros de digitação (FuzzyNameIndex) em vez de exigir o
+ * texto exato, e a ordem de ID dá lugar à ordem de relevância.
+ *
+ * Os valores são normalizados no construtor: filtros vazios viram null, ordenações
+ * desconhecidas são ignoradas (ordem de ID), page nunca é negativa e size 0 significa
+ * "todos os filmes". Duas consultas equivalentes são iguais (equals/hashCode).
+ *
+ * As ordenações de STATS_ORDERINGS (mais visualizados e média dos usuários) não estão
+ * em ORDERINGS: elas dependem da tabela movie_stats, e não dos dados dos filmes, por
+ * isso não têm permutação própria no modelo de leitura.
+ */
+public class MovieQuery {
+
+	public static final String ORDER_RATING = "rating";
+	public static final String ORDER_NAME = "name";
+	public static final String ORDER_DATE = "date";
+	public static final String ORDER_POPULAR = "popular";
+	public static final String ORDER_COMMUNITY = "community";
+
+	/**
+	 * Ordenações aceitas. A posição na lista identifica a ordenação (ver orderIndex).
+	 */
+	public static final List<String> ORDERINGS = List.of(ORDER_RATING, ORDER_NAME, ORDER_DATE);
+
+	/**
+	 * Ordenações pelos contadores de movie_stats.
+	 */
+	public static final List<String> STATS_ORDERINGS = List.of(ORDER_POPULAR, ORDER_COMMUNITY);
+
+	/**
+	 * Tamanho máximo de uma página.
+	 */
+	public static final int MAX_SIZE = 1000;
+
+	/**
+	 * Parte do nome do filme, ou null.
+	 */
+	private final String name;
+
+	/**
+	 * Categoria exata (sem distinção de caixa), ou null.
+	 */
+	private final String category;
+
+	/**
+	 * Parte do nome de um ator do elenco, ou null.
+	 */
+	private final String actor;
+
+	/**
+	 * Busca aproximada nos filtros por nome e ator (só quando há um deles).
+	 */
+	private final boolean fuzzy;
+
+	/**
+	 * Somente os favoritos do usuário (UserMovieLists.FAVORITES).
+	 */
+	private final boolean favoritesOnly;
+
+	/**
+	 * Sem os filmes já assistidos pelo usuário (UserMovieLists.WATCHED).
+	 */
+	private final boolean hideWatched;
+
+	/**
+	 * Ordenação (um de ORDERINGS ou STATS_ORDERINGS), ou null para ordem de ID.
+	 */
+	private final String orderBy;
+
+	/**
+	 * Número da página, a partir de 0.
+	 */
+	private final int page;
+
+	/**
+	 * Tamanho da página, ou 0 para todos os filmes.
+	 */
+	private final int size;
+
+	/**
+	 * Construtor sem filtros pelas listas do usuário.
+	 *
+	 * @param name Parte do nome do filme.
+	 * @param category Categoria.
+	 * @param actor Parte do nome de um ator.
+	 * @param orderBy Ordenação (rating, name, date, popular ou community).
+	 * @param page Número da página, a partir de 0.
+	 * @param size Tamanho da página (0 para todos, limitado a MAX_SIZE).
+	 */
+	public MovieQuery(String name, String category, String actor, String orderBy, int page, int size) {
+		this(name, category, actor, false, false, orderBy, page, size);
+	}
+
+	/**
+	 * Construtor sem busca aproximada.
+	 *
+	 * @param name Parte do nome do filme.
+	 * @param category Categoria.
+	 * @param actor Parte do nome de um ator.
+	 * @param favoritesOnly Somente os favoritos do usuário.
+	 * @param hideWatched Sem os filmes assistidos pelo usuário.
+	 * @param orderBy Ordenação (rating, name, date, popular ou community).
+	 * @param page Número da página, a partir de 0.
+	 * @param size Tamanho da página (0 para todos, limitado a MAX_SIZE).
+	 */
+	public MovieQuery(String name, String category, String actor, boolean favoritesOnly, boolean hideWatched,
+			String orderBy, int page, int size) {
+		this(name, category, actor, false, favoritesOnly, hideWatched, orderBy, page, size);
+	}
+
+	/**
+	 * Construtor com todos os critérios.
+	 *
+	 * @param name Parte do nome do filme.
+	 * @param category Categoria.
+	 * @param actor Parte do nome de um ator.
+	 * @param fuzzy Busca aproximada por nome e ator.
+	 * @param favoritesOnly Somente os favoritos do usuário.
+	 * @param hideWatched Sem os filmes assistidos pelo usuário.
+	 * @param orderBy Ordenação (rating, name, date, popular ou community).
+	 * @param page Número da página, a partir de 0.
+	 * @param size Tamanho da página (0 para todos, limitado a MAX_SIZE).
+	 */
+	public MovieQuery(String name, String category, String actor, boolean fuzzy, boolean favoritesOnly,
+			boolean hideWatched, String orderBy, int page, int size) {
+		this.name = blankToNull(name);
+		this.category = blankToNull(category);
+		this.actor = blankToNull(actor);
+		this.fuzzy = fuzzy && (this.name != null || this.actor != null);
+		this.favoritesOnly = favoritesOnly;
+		this.hideWatched = hideWatched;
+		this.orderBy = ordering(orderBy);
+		this.size = Math.max(0, Math.min(size, MAX_SIZE));
+		this.page = this.size == 0 ? 0 : Math.max(0, page);
+	}
+
+	/**
+	 * Cria uma consulta sem paginação.
+	 *
+	 * @param name Parte do nome do filme.
+	 * @param category Categoria.
+	 * @param actor Parte do nome de um ator.
+	 * @param orderBy Ordenação.
+	 * @return Consulta que retorna todos os filmes encontrados.
+	 */
+	public static MovieQuery all(String name, String category, String actor, String orderBy) {
+		return new MovieQuery(name, category, actor, orderBy, 0, 0);
+	}
+
+	/**
+	 * Cria a forma normalizada da consulta, com os filtros em minúsculas: como os
+	 * filtros não distinguem caixa, consultas que só diferem na caixa têm o mesmo
+	 * resultado e a mesma forma normalizada (chave do QueryResultCache).
+	 *
+	 * @return Consulta equivalente com os filtros em minúsculas.
+	 */
+	public MovieQuery normalized() {
+		return new MovieQuery(lowerCase(name), lowerCase(category), lowerCase(actor), fuzzy, favoritesOnly,
+				hideWatched, orderBy, page, size);
+	}
+
+	/**
+	 * Cria a mesma consulta com outra página.
+	 *
+	 * @param page Número da página, a partir de 0.
+	 * @param size Tamanho da página (0 para todos, limitado a MAX_SIZE).
+	 * @return Consulta com os mesmos filtros e ordenação.
+	 */
+	public MovieQuery withPage(int page, int size) {
+		return new MovieQuery(name, category, actor, fuzzy, favoritesOnly, hideWatched, orderBy, page, size);
+	}
+
+	private static String lowerCase(String value) {
+		return value == null ? null : value.toLowerCase(Locale.ROOT);
+	}
+
+	private static String blankToNull(String value) {
+		return value == null || value.isBlank() ? null : value.trim();
+	}
+
+	/**
+	 * Ordenação aceita, ou null. As listas de List.of não aceitam contains(null), por
+	 * isso a ausência de ordenação (/movies/list sem orderBy) é tratada antes.
+	 */
+	private static String ordering(String orderBy) {
+		if (orderBy == null) return null;
+		return ORDERINGS.contains(orderBy) || STATS_ORDERINGS.contains(orderBy) ? orderBy : null;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getCategory() {
+		return category;
+	}
+
+	public String getActor() {
+		return actor;
+	}
+
+	/**
+	 * Indica se os filtros por nome e ator são aproximados. Só é verdadeiro quando
+	 * há pelo menos um desses filtros.
+	 *
+	 * @return true para busca aproximada.
+	 */
+	public boolean isFuzzy() {
+		return fuzzy;
+	}
+
+	public boolean isFavoritesOnly() {
+		return favoritesOnly;
+	}
+
+	public boolean isHideWatched() {
+		return hideWatched;
+	}
+
+	/**
+	 * Indica se a listagem depende das listas do usuário.
+	 *
+	 * @return true se houver filtro por favoritos ou assistidos.
+	 */
+	public boolean usesLists() {
+		return favoritesOnly || hideWatched;
+	}
+
+	public String getOrderBy() {
+		return orderBy;
+	}
+
+	public int getPage() {
+		return page;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Índice da ordenação: 0 para ordem de ID (e para STATS_ORDERINGS, que não têm
+	 * permutação própria), 1 + posição em ORDERINGS para as demais.
+	 *
+	 * @return Índice da ordenação.
+	 */
+	public int orderIndex() {
+		return orderBy == null ? 0 : ORDERINGS.indexOf(orderBy) + 1;
+	}
+
+	/**
+	 * Indica se a ordenação depende dos contadores de movie_stats.
+	 *
+	 * @return true para as ordenações de STATS_ORDERINGS.
+	 */
+	public boolean isStatsOrdering() {
+		return orderBy != null && STATS_ORDERINGS.contains(orderBy);
+	}
+
+	/**
+	 * Indica se a listagem é pelos filmes mais visualizados.
+	 *
+	 * @return true para ORDER_POPULAR.
+	 */
+	public boolean isPopular() {
+		return ORDER_POPULAR.equals(orderBy);
+	}
+
+	/**
+	 * Indica se a listagem é pela média das avaliações dos usuários.
+	 *
+	 * @return true para ORDER_COMMUNITY.
+	 */
+	public boolean isCommunity() {
+		return ORDER_COMMUNITY.equals(orderBy);
+	}
+
+	/**
+	 * Posição do primeiro filme da página na lista completa.
+	 *
+	 * @return Deslocamento da página.
+	 */
+	public long offset() {
+		return (long) page * size;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) return true;
+		if (!(other instanceof MovieQuery)) return false;
+		MovieQuery query = (MovieQuery) other;
+		return page == query.page && size == query.size && fuzzy == query.fuzzy && favoritesOnly == query.favoritesOnly
+				&& hideWatched == query.hideWatched && Objects.equals(name, query.name)
+				&& Objects.equals(category, query.category) && Objects.equals(actor, query.actor)
+				&& Objects.equals(orderBy, query.orderBy);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(name, category, actor, fuzzy, favoritesOnly, hideWatched, orderBy, page, size);
+	}
+
+	@Override
+	public String toString() {
+		return "MovieQuery [name=" + name + ", category=" + category + ", actor=" + actor + ", fuzzy=" + fuzzy
+				+ ", favoritesOnly=" + favoritesOnly + ", hideWatched=" + hideWatched + ", orderBy=" + orderBy + ", page=" + page
+				+ ", size=" + size + "]";
+	}
+}
@@ -0,0 +1,91 @@
+package com.unutmaz.moviecollection.util;
+
+import com.unutmaz.moviecollection.model.Movie;
+
+/**
+ * Linha da tabela de filmes em JSON (/rest/movies?size=N), com apenas as colunas
+ * exibidas pelo movies.js: sem elenco e sem imagem. A data vem no mesmo formato da
+ * tabela renderizada no servidor (yyyy-mm-dd).
+ */
+public class MovieRow {
+
+	private final Long id;
+
+	private final String name;
+
+	private final String date;
+
+	private final String category;
+
+	private final String description;
+
+	private final float rating;
+
+	/**
+	 * Construtor que copia as colunas exibidas de um filme.
+	 *
+	 * @param movie Filme.
+	 */
+	public MovieRow(Movie movie) {
+		this.id = movie.getId();
+		this.name = movie.getName();
+		this.date = movie.getDate() == null ? null : movie.getDate().toString();
+		this.category = movie.getCategory();
+		this.description = movie.getDescription();
+		this.rating = movie.getRating();
+	}
+
+	/**
+	 * Obtém o ID do filme.
+	 *
+	 * @return ID do filme.
+	 */
+	public Long getId() {
+		return id;
+	}
+
+	/**
+	 * Obtém o nome do filme.
+	 *
+	 * @return Nome do filme.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Obtém a data de lançamento (yyyy-mm-dd).
+	 *
+	 * @return Data de lançamento, ou null.
+	 */
+	public String getDate() {
+		return date;
+	}
+
+	/**
+	 * Obtém a categoria do filme.
+	 *
+	 * @return Categoria do filme.
+	 */
+	public String getCategory() {
+		return category;
+	}
+
+	/**
+	 * Obtém a descrição do filme.
+	 *
+	 * @return Descrição do filme.
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * Obtém a avaliação do filme.
+	 *
+	 * @return Avaliação do filme.
+	 */
+	public float getRating() {
+		return rating;
+	}
+}
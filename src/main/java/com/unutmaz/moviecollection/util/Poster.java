@@ -0,0 +1,48 @@
+package com.unutmaz.moviecollection.util;
+
+import com.unutmaz.moviecollection.service.PosterStore;
+
+/**
+ * Resposta de /rest/posters: ID do pôster guardado e as URLs do original e da
+ * miniatura. A URL do original é o valor de Movie.image para usar o pôster.
+ */
+public class Poster {
+
+	private final String id;
+
+	/**
+	 * Construtor com o ID do pôster.
+	 *
+	 * @param id ID do pôster (PosterStore.store).
+	 */
+	public Poster(String id) {
+		this.id = id;
+	}
+
+	/**
+	 * Obtém o ID do pôster.
+	 *
+	 * @return ID do pôster.
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Obtém a URL do original, servida pelo PosterController.
+	 *
+	 * @return URL do pôster.
+	 */
+	public String getUrl() {
+		return PosterStore.url(id);
+	}
+
+	/**
+	 * Obtém a URL da miniatura.
+	 *
+	 * @return URL da miniatura.
+	 */
+	public String getThumbnailUrl() {
+		return PosterStore.thumbnailUrl(getUrl());
+	}
+}
@@ -0,0 +1,30 @@
+package com.unutmaz.moviecollection.util;
+
+/**
+ * Um termo de busca e o número estimado de buscas, em /actuator/searchstats.
+ */
+public class SearchTermCount {
+
+	/**
+	 * Termo normalizado, por exemplo "name:matrix" ou "category:drama&actor:keanu".
+	 */
+	private final String term;
+
+	/**
+	 * Número estimado de buscas (o count-min sketch nunca subestima).
+	 */
+	private final long count;
+
+	public SearchTermCount(String term, long count) {
+		this.term = term;
+		this.count = count;
+	}
+
+	public String getTerm() {
+		return term;
+	}
+
+	public long getCount() {
+		return count;
+	}
+}
@@ -0,0 +1,68 @@
+package com.unutmaz.moviecollection.util;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Estatísticas de busca de uma janela de tempo, em /actuator/searchstats.
+ */
+public class SearchWindowStats {
+
+	private final Instant start;
+
+	private final Instant end;
+
+	/**
+	 * Número de buscas na janela.
+	 */
+	private final long searches;
+
+	/**
+	 * Número de buscas sem resultados na janela.
+	 */
+	private final long zeroResultSearches;
+
+	/**
+	 * Termos mais buscados, do mais frequente ao menos.
+	 */
+	private final List<SearchTermCount> top;
+
+	/**
+	 * Termos mais buscados entre as buscas sem resultados.
+	 */
+	private final List<SearchTermCount> zeroResults;
+
+	public SearchWindowStats(Instant start, Instant end, long searches, long zeroResultSearches,
+			List<SearchTermCount> top, List<SearchTermCount> zeroResults) {
+		this.start = start;
+		this.end = end;
+		this.searches = searches;
+		this.zeroResultSearches = zeroResultSearches;
+		this.top = top;
+		this.zeroResults = zeroResults;
+	}
+
+	public Instant getStart() {
+		return start;
+	}
+
+	public Instant getEnd() {
+		return end;
+	}
+
+	public long getSearches() {
+		return searches;
+	}
+
+	public long getZeroResultSearches() {
+		return zeroResultSearches;
+	}
+
+	public List<SearchTermCount> getTop() {
+		return top;
+	}
+
+	public List<SearchTermCount> getZeroResults() {
+		return zeroResults;
+	}
+}
@@ -0,0 +1,71 @@
+package com.unutmaz.moviecollection.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupamento de cargas concorrentes idênticas ("single flight"): enquanto a carga de
+ * uma chave está em andamento, as demais chamadas com a mesma chave esperam pelo
+ * mesmo CompletableFuture em vez de repetir a carga. A carga roda na thread da primeira
+ * chamada; o futuro sai do mapa assim que termina, de modo que nada fica guardado
+ * depois (o cache, se houver, é responsabilidade de quem chama).
+ *
+ * Quem espera recebe o mesmo objeto que a primeira chamada, ou a mesma exceção.
+ *
+ * @param <K> Tipo da chave (com equals/hashCode).
+ * @param <V> Tipo do resultado.
+ */
+public final class SingleFlight<K, V> {
+
+	private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+	/**
+	 * Executa a carga da chave, ou espera pela que já está em andamento.
+	 *
+	 * @param key Chave da carga.
+	 * @param load Carga.
+	 * @return Resultado da carga.
+	 */
+	public V execute(K key, Supplier<V> load) {
+		CompletableFuture<V> created = new CompletableFuture<>();
+		CompletableFuture<V> running = inFlight.putIfAbsent(key, created);
+		if (running != null) {
+			return join(running);
+		}
+		try {
+			V value = load.get();
+			created.complete(value);
+			return value;
+		} catch (RuntimeException | Error ex) {
+			created.completeExceptionally(ex);
+			throw ex;
+		} finally {
+			inFlight.remove(key, created);
+		}
+	}
+
+	/**
+	 * Número de chaves com carga em andamento.
+	 *
+	 * @return Número de cargas em andamento.
+	 */
+	public int inFlight() {
+		return inFlight.size();
+	}
+
+	/**
+	 * Espera o resultado de outra chamada, repassando a exceção original.
+	 */
+	private static <V> V join(CompletableFuture<V> running) {
+		try {
+			return running.join();
+		} catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException) throw (RuntimeException) ex.getCause();
+			if (ex.getCause() instanceof Error) throw (Error) ex.getCause();
+			throw ex;
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package com.unutmaz.moviecollection.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Listas de filmes de um usuário (favoritos e assistidos), cada uma guardada como
+ * um RoaringBitmap de IDs de filmes: blocos de 65.536 IDs guardados como array
+ * ordenado, mapa de bits ou sequências, conforme a densidade. Um usuário com
+ * milhares de filmes ocupa poucos KB, e testar um ID custa uma busca num bloco.
+ *
+ * As instâncias não são alteradas depois de criadas (with devolve uma cópia), de
+ * modo que podem ser compartilhadas entre requisições sem sincronização. Filmes
+ * excluídos podem continuar nas listas: eles simplesmente não aparecem nas listagens.
+ */
+public final class UserMovieLists {
+
+	public static final String FAVORITES = "favorites";
+	public static final String WATCHED = "watched";
+
+	/**
+	 * Listas aceitas.
+	 */
+	public static final List<String> NAMES = List.of(FAVORITES, WATCHED);
+
+	/**
+	 * Listas vazias, de um usuário que ainda não marcou nenhum filme.
+	 */
+	public static final UserMovieLists EMPTY = new UserMovieLists(new RoaringBitmap(), new RoaringBitmap(), 0);
+
+	private final RoaringBitmap favorites;
+
+	private final RoaringBitmap watched;
+
+	/**
+	 * Versão gravada no banco, incrementada a cada alteração.
+	 */
+	private final long version;
+
+	private UserMovieLists(RoaringBitmap favorites, RoaringBitmap watched, long version) {
+		this.favorites = favorites;
+		this.watched = watched;
+		this.version = version;
+	}
+
+	/**
+	 * Reconstrói as listas a partir das colunas de user_lists.
+	 *
+	 * @param favorites Favoritos serializados.
+	 * @param watched Assistidos serializados.
+	 * @param version Versão gravada.
+	 * @return Listas do usuário.
+	 */
+	public static UserMovieLists deserialize(byte[] favorites, byte[] watched, long version) {
+		return new UserMovieLists(bitmap(favorites), bitmap(watched), version);
+	}
+
+	/**
+	 * Serializa uma das listas no formato portável do Roaring, para a coluna BLOB.
+	 *
+	 * @param list FAVORITES ou WATCHED.
+	 * @return Bytes da lista.
+	 */
+	public byte[] serialize(String list) {
+		RoaringBitmap bitmap = bitmap(list);
+		ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedSizeInBytes());
+		bitmap.serialize(buffer);
+		return buffer.array();
+	}
+
+	/**
+	 * Cria uma cópia com um filme incluído ou removido de uma lista, e a versão seguinte.
+	 *
+	 * @param list FAVORITES ou WATCHED.
+	 * @param movieId ID do filme.
+	 * @param listed true para incluir, false para remover.
+	 * @return Nova instância, ou esta mesma se a lista já estiver no estado pedido.
+	 */
+	public UserMovieLists with(String list, long movieId, boolean listed) {
+		int key = key(movieId);
+		RoaringBitmap current = bitmap(list);
+		if (current.contains(key) == listed) return this;
+		RoaringBitmap changed = current.clone();
+		if (listed) changed.add(key);
+		else changed.remove(key);
+		// Converte blocos longos em sequências antes de gravar e compartilhar
+		changed.runOptimize();
+		return FAVORITES.equals(list) ? new UserMovieLists(changed, watched, version + 1)
+				: new UserMovieLists(favorites, changed, version + 1);
+	}
+
+	/**
+	 * Indica se um filme está numa lista.
+	 *
+	 * @param list FAVORITES ou WATCHED.
+	 * @param movieId ID do filme.
+	 * @return true se o filme estiver na lista.
+	 */
+	public boolean contains(String list, long movieId) {
+		return movieId >= 0 && movieId <= 0xFFFFFFFFL && bitmap(list).contains((int) movieId);
+	}
+
+	/**
+	 * Indica se um filme atende aos filtros de listas de uma consulta.
+	 *
+	 * @param query Critérios da listagem.
+	 * @param movieId ID do filme.
+	 * @return false se a consulta pede só favoritos e o filme não é favorito, ou se
+	 *         pede para esconder assistidos e o filme foi assistido.
+	 */
+	public boolean accepts(MovieQuery query, long movieId) {
+		return (!query.isFavoritesOnly() || contains(FAVORITES, movieId))
+				&& (!query.isHideWatched() || !contains(WATCHED, movieId));
+	}
+
+	/**
+	 * Obtém o bitmap de uma lista (não deve ser alterado). Os valores são IDs de
+	 * filmes sem sinal (ver Integer.toUnsignedLong).
+	 *
+	 * @param list FAVORITES ou WATCHED.
+	 * @return Bitmap da lista.
+	 */
+	public RoaringBitmap bitmap(String list) {
+		if (FAVORITES.equals(list)) return favorites;
+		if (WATCHED.equals(list)) return watched;
+		throw new IllegalArgumentException("Unknown list: " + list);
+	}
+
+	public long[] getFavorites() {
+		return ids(favorites);
+	}
+
+	public long[] getWatched() {
+		return ids(watched);
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	private static long[] ids(RoaringBitmap bitmap) {
+		return bitmap.stream().mapToLong(Integer::toUnsignedLong).toArray();
+	}
+
+	private static RoaringBitmap bitmap(byte[] bytes) {
+		RoaringBitmap bitmap = new RoaringBitmap();
+		if (bytes != null && bytes.length > 0) {
+			try {
+				bitmap.deserialize(ByteBuffer.wrap(bytes));
+			} catch (IOException ex) {
+				throw new IllegalStateException("Corrupted movie list", ex);
+			}
+		}
+		return bitmap;
+	}
+
+	/**
+	 * Chave do filme no bitmap: o ID como inteiro de 32 bits sem sinal.
+	 */
+	private static int key(long movieId) {
+		if (movieId < 0 || movieId > 0xFFFFFFFFL) {
+			throw new IllegalArgumentException("Movie id out of range: " + movieId);
+		}
+		return (int) movieId;
+	}
+}
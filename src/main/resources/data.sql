@@ -129,4 +129,8 @@ VALUES
 	(10, 47),
 	(10, 48),
 	(10, 49),
-	(10, 50);
\ No newline at end of file
+	(10, 50);
+
+INSERT INTO catalogue_version(id, version)
+VALUES
+	(1, 0);
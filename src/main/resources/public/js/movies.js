@@ -1,36 +1,235 @@
 let searchInput = document.getElementById("search_input");
 let searchButton = document.getElementById("search_btn");
 let searchType = document.getElementById("search_type");
+let fuzzySearch = document.getElementById("fuzzy_search");
 let orderType = document.getElementById("order_type");
 let searchClearButton = document.getElementById("search_clear_btn");
-let editBtn = document.getElementById("edit_btn");
-let movieName = document.getElementById("movie_name");
+let movieRows = document.getElementById("movie_rows");
+let movieRowsEnd = document.getElementById("movie_rows_end");
 
-orderType.value = window.location.href.substring(window.location.href.lastIndexOf("=") + 1);
+// Page size used when the listing is fetched from /rest/movies (moviecollection.listing.page-size)
+const PAGE_SIZE = Number(movieRows.dataset.pageSize) || 50;
+// Orderings that can be applied in the browser (the others need the server's view and rating counters)
+const CLIENT_ORDERINGS = ["rating", "name", "date"];
+
+// Movies shown in the table and the criteria they were loaded with.
+// size 0 means the whole listing is already loaded (size=0 or chunked pages).
+let listing = {
+	params: new URLSearchParams(window.location.search),
+	movies: Array.from(movieRows.rows).map(movieFromRow),
+	first: Number(movieRows.dataset.page || 0),
+	page: Number(movieRows.dataset.page || 0),
+	size: Number(movieRows.dataset.size || 0),
+	total: Number(movieRows.dataset.total || 0),
+	loading: false
+};
+// Name search answered in the browser over the loaded listing: {params, movies}, or null
+let shown = null;
+listing.params.delete("page");
+listing.params.delete("size");
+listing.params.delete("chunked");
+
+orderType.value = listing.params.get("orderBy");
+
+function movieFromRow(row){
+	return {
+		id: Number(row.dataset.id),
+		name: row.cells[0].textContent,
+		date: row.cells[1].textContent || null,
+		rating: Number(row.cells[4].textContent),
+		row: row
+	};
+}
+
+function cell(text, className){
+	let td = document.createElement("td");
+	td.className = className;
+	td.textContent = text == null ? "" : text;
+	return td;
+}
+
+function button(className, icon, onclick){
+	let btn = document.createElement("button");
+	btn.className = className;
+	btn.innerHTML = '<i class="' + icon + '"></i>';
+	btn.addEventListener("click", onclick);
+	return btn;
+}
+
+// Same markup as the "row" fragment in fragments/movie.html
+function createRow(movie){
+	let row = document.createElement("tr");
+	row.className = "row";
+	row.style.height = "60px";
+	row.style.fontSize = "15px";
+	row.dataset.id = movie.id;
+	let name = cell(movie.name, "col-sm-2 text-center");
+	name.style.fontWeight = "bold";
+	name.addEventListener("mouseover", function(){ this.style.color = "red"; this.style.cursor = "pointer"; });
+	name.addEventListener("mouseout", function(){ this.style.color = "black"; });
+	name.addEventListener("click", () => window.location.href = "/movies/" + movie.id);
+	let description = cell(movie.description, "col-sm-6");
+	description.style.fontSize = "14px";
+	let manage = cell(null, "col-sm-1 text-center");
+	manage.appendChild(button("btn btn-sm btn-dark w-20", "fas fa-edit", () => window.location.href = "/movies/update/" + movie.id));
+	manage.appendChild(document.createTextNode(" "));
+	manage.appendChild(button("btn btn-sm btn-danger", "fas fa-trash-alt", () => deleteClicked(movie.id)));
+	row.append(name, cell(movie.date, "col-sm-1 text-center"), cell(movie.category, "col-sm-1 text-center"),
+		description, cell(movie.rating, "col-sm-1 text-center"), manage);
+	return {id: movie.id, name: movie.name, date: movie.date, rating: movie.rating, row: row};
+}
+
+function isComplete(){
+	return listing.size == 0 || (listing.first == 0 && listing.movies.length >= listing.total);
+}
+
+function updateLocation(){
+	let query = (shown ? shown.params : listing.params).toString();
+	history.replaceState(null, "", "/movies/list" + (query ? "?" + query : ""));
+}
+
+function render(){
+	let movies = shown ? shown.movies : listing.movies;
+	movieRows.replaceChildren(...movies.map(movie => movie.row));
+	movieRowsEnd.textContent = isComplete() || shown ? "" : "Loading more movies...";
+}
+
+function fetchPage(params, page, size){
+	let query = new URLSearchParams(params);
+	query.set("page", page);
+	query.set("size", size);
+	return fetch("/rest/movies?" + query, {headers: {"Accept": "application/json"}, credentials: "same-origin"})
+		.then(response => {
+			if (!response.ok){
+				throw new Error("HTTP " + response.status);
+			}
+			let total = Number(response.headers.get("X-Total-Count"));
+			return response.json().then(movies => ({movies: movies.map(createRow), total: total}));
+		});
+}
+
+// Replaces the table with the first page of a new listing
+function load(params){
+	listing.loading = true;
+	return fetchPage(params, 0, PAGE_SIZE).then(result => {
+		listing = {params: params, movies: result.movies, first: 0, page: 0, size: PAGE_SIZE, total: result.total, loading: false};
+		shown = null;
+		updateLocation();
+		render();
+	}).catch(() => {
+		listing.loading = false;
+		movieRowsEnd.textContent = "Could not load the movies.";
+	});
+}
+
+// Appends the next page when the end of the table becomes visible
+function loadMore(){
+	if (listing.loading || shown || isComplete()){
+		return;
+	}
+	let current = listing;
+	current.loading = true;
+	fetchPage(current.params, current.page + 1, current.size).then(result => {
+		current.loading = false;
+		if (listing !== current){
+			return;
+		}
+		current.page++;
+		current.total = result.total;
+		current.movies.push(...result.movies);
+		render();
+	}).catch(() => {
+		current.loading = false;
+	});
+}
+
+new IntersectionObserver(entries => {
+	if (entries.some(entry => entry.isIntersecting)){
+		loadMore();
+	}
+}, {rootMargin: "400px"}).observe(movieRowsEnd);
+
+function compare(a, b){
+	return a < b ? -1 : a > b ? 1 : 0;
+}
+
+// Same orderings as the server: ties and missing values by id
+const COMPARATORS = {
+	rating: (a, b) => b.rating - a.rating || a.id - b.id,
+	name: (a, b) => (a.name == null) - (b.name == null) || compare(a.name, b.name) || a.id - b.id,
+	date: (a, b) => (a.date == null) - (b.date == null) || compare(b.date, a.date) || a.id - b.id
+};
+
+function hasFilters(params){
+	return ["name", "category", "actor", "fuzzy"].some(parameter => params.has(parameter));
+}
 
 searchButton.addEventListener("click", function(){
 	if (searchInput.value.length > 0){
 		var type = searchType.value;
-		window.location.href= "/movies/list/?" + type + "=" + searchInput.value;
+		var params = new URLSearchParams();
+		params.set(type, searchInput.value);
+		if (fuzzySearch.checked && type != "category"){
+			params.set("fuzzy", "true");
+		}
+		// A plain name search over the whole, unfiltered listing is answered in the browser
+		if (type == "name" && !params.has("fuzzy") && isComplete() && !hasFilters(listing.params)
+				&& !listing.params.has("favorites") && !listing.params.has("hideWatched")){
+			var term = searchInput.value.trim().toLowerCase();
+			if (listing.params.has("orderBy")){
+				params.set("orderBy", listing.params.get("orderBy"));
+			}
+			shown = {params: params, movies: listing.movies.filter(movie => movie.name != null && movie.name.toLowerCase().includes(term))};
+			updateLocation();
+			render();
+			return;
+		}
+		load(params);
 	}
 });
 
 orderType.addEventListener("change", event => {
-	if (window.location.href.includes("orderBy")){
-		var url = window.location.href.substring(0, window.location.href.lastIndexOf("orderBy") - 1);
-		window.location.href = url + "&orderBy=" + event.target.value;
-	}
-	else if (window.location.href.includes("?")){
-		window.location.href +="&orderBy=" + event.target.value;
+	var params = new URLSearchParams(shown ? shown.params : listing.params);
+	params.set("orderBy", event.target.value);
+	if (isComplete() && CLIENT_ORDERINGS.includes(event.target.value)){
+		listing.params.set("orderBy", event.target.value);
+		listing.movies.sort(COMPARATORS[event.target.value]);
+		if (shown){
+			shown.params = params;
+			shown.movies.sort(COMPARATORS[event.target.value]);
+		}
+		updateLocation();
+		render();
+		return;
 	}
-	else {
-		window.location.href +="?orderBy=" + event.target.value;
-	}
-	
+	load(params);
 });
 
+function toggleFilter(checkbox, parameter){
+	checkbox.addEventListener("change", event => {
+		var params = new URLSearchParams(shown ? shown.params : listing.params);
+		if (event.target.checked){
+			params.set(parameter, "true");
+		}
+		else {
+			params.delete(parameter);
+		}
+		load(params);
+	});
+}
+
+toggleFilter(document.getElementById("favorites_filter"), "favorites");
+toggleFilter(document.getElementById("watched_filter"), "hideWatched");
+
 searchClearButton.addEventListener("click", function(){
-	window.location.href = "/movies/list";
+	searchInput.value = "";
+	if (shown){
+		shown = null;
+		updateLocation();
+		render();
+		return;
+	}
+	load(new URLSearchParams());
 });
 
 function deleteClicked(movie_id){
@@ -39,3 +238,5 @@ function deleteClicked(movie_id){
 		window.location.href = "/movies/delete/" + movie_id;
 	}
 }
+
+render();
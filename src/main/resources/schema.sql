@@ -21,12 +21,85 @@ create table t_movies (
 	rating DOUBLE
 );
 
+create index idx_movies_category on t_movies(category);
+
+create index idx_movies_rating on t_movies(rating, id);
+
+create index idx_movies_name on t_movies(name, id);
+
+create index idx_movies_release_date on t_movies(release_date, id);
+
 create table t_actors (
 	actor_id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
 	actor_name VARCHAR(255)
 );
 
+create index idx_actors_name on t_actors(actor_name);
+
 create table movie_actors (
 	movie_id BIGINT,
 	actor_id BIGINT
-)
\ No newline at end of file
+);
+
+create index idx_movie_actors_movie on movie_actors(movie_id);
+
+create index idx_movie_actors_actor on movie_actors(actor_id);
+
+create table movie_stats (
+	movie_id BIGINT NOT NULL PRIMARY KEY,
+	views BIGINT DEFAULT 0 NOT NULL,
+	rating_sum DOUBLE DEFAULT 0 NOT NULL,
+	rating_count BIGINT DEFAULT 0 NOT NULL
+);
+
+create index idx_movie_stats_views on movie_stats(views, movie_id);
+
+create table user_ratings (
+	username VARCHAR(128) NOT NULL,
+	movie_id BIGINT NOT NULL,
+	rating DOUBLE NOT NULL,
+	rated_at TIMESTAMP NOT NULL,
+	PRIMARY KEY (username, movie_id)
+);
+
+create index idx_user_ratings_movie on user_ratings(movie_id);
+
+create table user_lists (
+	username VARCHAR(128) NOT NULL PRIMARY KEY,
+	favorites BLOB NOT NULL,
+	watched BLOB NOT NULL,
+	version BIGINT NOT NULL
+);
+
+create table search_terms (
+	term VARCHAR(255) NOT NULL PRIMARY KEY,
+	searches BIGINT NOT NULL,
+	last_seen TIMESTAMP NOT NULL
+);
+
+create table catalogue_version (
+	id INT NOT NULL PRIMARY KEY,
+	version BIGINT NOT NULL
+);
+
+create table catalogue_changes (
+	seq BIGINT NOT NULL PRIMARY KEY,
+	entity_type VARCHAR(16) NOT NULL,
+	entity_id BIGINT NOT NULL,
+	deleted BOOLEAN NOT NULL,
+	changed_at TIMESTAMP NOT NULL
+);
+
+create table import_jobs (
+	id VARCHAR(36) NOT NULL PRIMARY KEY,
+	name VARCHAR(255),
+	state VARCHAR(16) NOT NULL,
+	bytes BIGINT NOT NULL,
+	bytes_done BIGINT NOT NULL,
+	lines_done BIGINT NOT NULL,
+	imported BIGINT NOT NULL,
+	errors BIGINT NOT NULL,
+	message VARCHAR(1000),
+	created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+	updated_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,167 @@
+package com.unutmaz.moviecollection.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.unutmaz.moviecollection.model.Actor;
+import com.unutmaz.moviecollection.model.Movie;
+import com.unutmaz.moviecollection.service.AppService;
+import com.unutmaz.moviecollection.service.ImportJobs;
+import com.unutmaz.moviecollection.util.ImportJob;
+import com.unutmaz.moviecollection.util.MovieQuery;
+
+/**
+ * Measures listing latency seen by readers issuing a steady query rate (each reader
+ * sends one query per READ_INTERVAL_MICROS) while 20k movies are imported,
+ * first in a single request-style call (one transaction on the caller's thread) and
+ * then through an import job (chunked transactions on a low-priority worker), next to
+ * the idle baseline. Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.show_sql=false", "moviecollection.imports.dir=target/imports" })
+public class ImportJobBenchmarkTest {
+
+	private static final int MOVIES = 20_000;
+	private static final int ACTORS = 2_000;
+	private static final int READERS = 4;
+	private static final long READ_INTERVAL_MICROS = 1000;
+	private static final String[] ORDERS = { MovieQuery.ORDER_NAME, MovieQuery.ORDER_RATING, MovieQuery.ORDER_DATE };
+
+	@Autowired
+	private AppService appService;
+
+	@Autowired
+	private ImportJobs importJobs;
+
+	@Test
+	public void readLatencyDuringImport() throws Exception {
+		readWhile(deadline(2000));
+		long[] idle = readWhile(deadline(2000));
+
+		long start = System.nanoTime();
+		AtomicBoolean done = new AtomicBoolean();
+		ExecutorService writer = Executors.newSingleThreadExecutor();
+		writer.submit(() -> {
+			appService.importMovies(movies("Sync"));
+			done.set(true);
+		});
+		long[] sync = readWhile(done::get);
+		double syncRate = MOVIES / ((System.nanoTime() - start) / 1e9);
+		writer.shutdown();
+
+		start = System.nanoTime();
+		ImportJob job = importJobs.submit(new ByteArrayInputStream(lines("Job").getBytes(StandardCharsets.UTF_8)), "benchmark");
+		String id = job.getId();
+		long[] async = readWhile(() -> !ImportJob.RUNNING.equals(importJobs.find(id).getState())
+				&& !ImportJob.QUEUED.equals(importJobs.find(id).getState()));
+		double jobRate = MOVIES / ((System.nanoTime() - start) / 1e9);
+		job = importJobs.find(id);
+
+		print("idle", idle, 0);
+		print("single call", sync, syncRate);
+		print("import job", async, jobRate);
+		Assertions.assertEquals(ImportJob.COMPLETED, job.getState());
+		Assertions.assertEquals(MOVIES, job.getImported());
+		Assertions.assertTrue(percentile(async, 99) < 1.0, "job p99 " + percentile(async, 99) + " ms");
+	}
+
+	private static BooleanSupplier deadline(long millis) {
+		long end = System.currentTimeMillis() + millis;
+		return () -> System.currentTimeMillis() >= end;
+	}
+
+	/**
+	 * Runs READERS threads issuing listing queries until the condition holds and
+	 * returns every query latency, sorted.
+	 */
+	private long[] readWhile(BooleanSupplier stop) throws Exception {
+		ExecutorService readers = Executors.newFixedThreadPool(READERS);
+		AtomicBoolean stopped = new AtomicBoolean();
+		List<Future<List<Long>>> results = new ArrayList<>();
+		for (int r = 0; r < READERS; r++) {
+			int reader = r;
+			results.add(readers.submit(() -> {
+				List<Long> nanos = new ArrayList<>();
+				Random random = new Random(reader);
+				while (!stopped.get()) {
+					MovieQuery query = new MovieQuery(null, null, null, ORDERS[random.nextInt(ORDERS.length)], random.nextInt(5), 50);
+					long start = System.nanoTime();
+					appService.findMovies(query);
+					long elapsed = System.nanoTime() - start;
+					nanos.add(elapsed);
+					LockSupport.parkNanos(Math.max(0, READ_INTERVAL_MICROS * 1000 - elapsed));
+				}
+				return nanos;
+			}));
+		}
+		while (!stop.getAsBoolean()) {
+			Thread.sleep(10);
+		}
+		stopped.set(true);
+		List<Long> all = new ArrayList<>();
+		for (Future<List<Long>> result : results) {
+			all.addAll(result.get());
+		}
+		readers.shutdown();
+		long[] nanos = all.stream().mapToLong(Long::longValue).toArray();
+		Arrays.sort(nanos);
+		return nanos;
+	}
+
+	private static double percentile(long[] nanos, double p) {
+		return nanos[Math.min(nanos.length - 1, (int) (nanos.length * p / 100))] / 1e6;
+	}
+
+	private static void print(String label, long[] nanos, double rowsPerSecond) {
+		System.out.printf("%-12s reads %7d  p50 %7.3f ms  p99 %7.3f ms  p99.9 %7.3f ms  max %8.3f ms  import %6.0f rows/s%n",
+				label, nanos.length, percentile(nanos, 50), percentile(nanos, 99), percentile(nanos, 99.9), nanos[nanos.length - 1] / 1e6, rowsPerSecond);
+	}
+
+	private static List<Movie> movies(String prefix) {
+		List<Movie> movies = new ArrayList<>(MOVIES);
+		Random random = new Random(42);
+		for (int i = 0; i < MOVIES; i++) {
+			Movie movie = new Movie();
+			movie.setName(prefix + " Movie " + i);
+			movie.setCategory("Category " + random.nextInt(20));
+			movie.setRating(random.nextInt(100) / 10f);
+			for (int a = 0; a < 3; a++) {
+				Actor actor = new Actor();
+				actor.setActor_name(prefix + " Actor " + random.nextInt(ACTORS));
+				movie.addActor(actor);
+			}
+			movies.add(movie);
+		}
+		return movies;
+	}
+
+	private static String lines(String prefix) {
+		StringBuilder lines = new StringBuilder();
+		Random random = new Random(42);
+		for (int i = 0; i < MOVIES; i++) {
+			lines.append("{\"name\": \"").append(prefix).append(" Movie ").append(i)
+					.append("\", \"category\": \"Category ").append(random.nextInt(20))
+					.append("\", \"rating\": ").append(random.nextInt(100) / 10f)
+					.append(", \"cast\": [\"").append(prefix).append(" Actor ").append(random.nextInt(ACTORS))
+					.append("\", \"").append(prefix).append(" Actor ").append(random.nextInt(ACTORS))
+					.append("\", \"").append(prefix).append(" Actor ").append(random.nextInt(ACTORS)).append("\"]}\n");
+		}
+		return lines.toString();
+	}
+}
@@ -0,0 +1,70 @@
+package com.unutmaz.moviecollection.benchmark;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.unutmaz.moviecollection.model.Actor;
+import com.unutmaz.moviecollection.model.Movie;
+
+/**
+ * Compares encode time and payload size of a 10k-movie response in JSON, Smile and CBOR.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+public class SerializationBenchmarkTest {
+
+	private static final int MOVIES = 10_000;
+	private static final int WARMUP = 20;
+	private static final int ITERATIONS = 50;
+
+	@Test
+	public void compareFormats() throws Exception {
+		List<Movie> movies = movies();
+		run("json", Jackson2ObjectMapperBuilder.json().build(), movies);
+		run("smile", Jackson2ObjectMapperBuilder.smile().factory(new SmileFactory()).build(), movies);
+		run("cbor", Jackson2ObjectMapperBuilder.cbor().factory(new CBORFactory()).build(), movies);
+	}
+
+	private void run(String format, ObjectMapper mapper, List<Movie> movies) throws Exception {
+		int size = 0;
+		for (int i = 0; i < WARMUP; i++) {
+			size = mapper.writeValueAsBytes(movies).length;
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			size = mapper.writeValueAsBytes(movies).length;
+		}
+		double millis = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+		System.out.printf("%-6s %8.2f ms/op %10d bytes%n", format, millis, size);
+	}
+
+	private List<Movie> movies() {
+		List<Movie> movies = new ArrayList<>(MOVIES);
+		for (int i = 0; i < MOVIES; i++) {
+			Movie movie = new Movie();
+			movie.setId((long) i);
+			movie.setName("Movie " + i);
+			movie.setDate(Date.valueOf("2000-01-01"));
+			movie.setCategory(i % 2 == 0 ? "Drama" : "Crime");
+			movie.setDescription("A description long enough to look like a real synopsis of movie number " + i + ".");
+			movie.setImage("https://example.com/posters/" + i + ".jpg");
+			movie.setRating((i % 100) / 10f);
+			for (int a = 0; a < 5; a++) {
+				Actor actor = new Actor();
+				actor.setActor_id((long) (i * 5 + a));
+				actor.setActor_name("Actor " + (i * 5 + a));
+				movie.addActor(actor);
+			}
+			movies.add(movie);
+		}
+		return movies;
+	}
+}
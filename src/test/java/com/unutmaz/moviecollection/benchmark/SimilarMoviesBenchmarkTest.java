@@ -0,0 +1,76 @@
+package com.unutmaz.moviecollection.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.unutmaz.moviecollection.model.Actor;
+import com.unutmaz.moviecollection.model.Movie;
+import com.unutmaz.moviecollection.readmodel.CatalogueReadModel;
+import com.unutmaz.moviecollection.readmodel.CatalogueSnapshot;
+import com.unutmaz.moviecollection.readmodel.SimilarMovies;
+
+/**
+ * Measures uncached similar-movie latency over a 1M-movie snapshot whose actors follow
+ * a skewed popularity distribution (a few actors appear in thousands of movies).
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+public class SimilarMoviesBenchmarkTest {
+
+	private static final int MOVIES = 1_000_000;
+	private static final int ACTORS = 250_000;
+	private static final int CAST_SIZE = 5;
+	private static final int WARMUP = 5_000;
+	private static final int ITERATIONS = 20_000;
+
+	@Test
+	public void similarMoviesP99() {
+		CatalogueSnapshot snapshot = snapshot();
+		// Without a current snapshot nothing is cached, so every call runs the full computation
+		SimilarMovies similarMovies = new SimilarMovies(new CatalogueReadModel(false, null), 0);
+		Random random = new Random(7);
+		for (int i = 0; i < WARMUP; i++) {
+			similarMovies.find(snapshot, random.nextInt(MOVIES), 10);
+		}
+		long[] nanos = new long[ITERATIONS];
+		for (int i = 0; i < ITERATIONS; i++) {
+			long start = System.nanoTime();
+			similarMovies.find(snapshot, random.nextInt(MOVIES), 10);
+			nanos[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(nanos);
+		double p50 = nanos[ITERATIONS / 2] / 1e6;
+		double p99 = nanos[ITERATIONS * 99 / 100] / 1e6;
+		System.out.printf("similar  p50 %6.3f ms  p99 %6.3f ms  max %6.3f ms%n", p50, p99, nanos[ITERATIONS - 1] / 1e6);
+		Assertions.assertTrue(p99 < 5.0, "p99 " + p99 + " ms");
+	}
+
+	private CatalogueSnapshot snapshot() {
+		CatalogueSnapshot.Builder builder = new CatalogueSnapshot.Builder();
+		Actor actor = new Actor();
+		for (int a = 0; a < ACTORS; a++) {
+			actor.setActor_id((long) a);
+			actor.setActor_name("Actor " + a);
+			builder.putActor(actor);
+		}
+		Random random = new Random(42);
+		Movie movie = new Movie();
+		for (int i = 0; i < MOVIES; i++) {
+			movie.setId((long) i);
+			movie.setName("Movie " + i);
+			movie.setCategory("Category " + (i % 20));
+			movie.setRating((i % 100) / 10f);
+			long[] cast = new long[CAST_SIZE];
+			for (int c = 0; c < CAST_SIZE; c++) {
+				double skew = random.nextDouble();
+				cast[c] = (long) (skew * skew * ACTORS);
+			}
+			builder.putMovie(movie, cast);
+		}
+		return builder.build(1);
+	}
+}
@@ -0,0 +1,80 @@
+package com.unutmaz.moviecollection.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+/**
+ * Measures bytes transferred and requests per page load for the main pages, with
+ * uncompressed responses and revalidated assets (before) versus gzip responses and
+ * fingerprinted, immutable assets (after). A repeat visit only needs the assets that
+ * are not cached as immutable. Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class StaticAssetsBenchmarkTest {
+
+	private static final String[] PAGES = { "/movies/list", "/movies/1", "/rest/movies?size=50" };
+
+	private static final Pattern ASSET = Pattern.compile("(?:src|href)=\"(/(?:js|css)/[^\"]+)\"");
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@LocalServerPort
+	private int port;
+
+	@Test
+	public void bytesAndRequestsPerPageLoad() throws Exception {
+		for (String page : PAGES) {
+			HttpResponse<byte[]> plain = get(page, "identity");
+			HttpResponse<byte[]> gzip = get(page, "gzip");
+			long before = plain.body().length;
+			long after = gzip.body().length;
+			int repeatAfter = 1;
+			List<String> assets = assets(new String(plain.body(), StandardCharsets.UTF_8));
+			for (String asset : assets) {
+				before += get(asset, "identity").body().length;
+				HttpResponse<byte[]> cached = get(asset, "gzip");
+				after += cached.body().length;
+				if (!cached.headers().firstValue("Cache-Control").orElse("").contains("immutable")) repeatAfter++;
+			}
+			int requests = 1 + assets.size();
+			System.out.printf("%-22s before %7d bytes, %d requests (repeat %d)  after %7d bytes, %d requests (repeat %d)%n",
+					page, before, requests, requests, after, requests, repeatAfter);
+			Assertions.assertTrue(after < before, page + ": " + after + " >= " + before);
+			Assertions.assertEquals(1, repeatAfter, page);
+		}
+	}
+
+	private HttpResponse<byte[]> get(String path, String encoding) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.header("Accept-Encoding", encoding)
+				.header("Authorization", "Basic " + Base64.getEncoder().encodeToString("user:user".getBytes(StandardCharsets.UTF_8)))
+				.build();
+		HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+		Assertions.assertEquals(200, response.statusCode(), path);
+		return response;
+	}
+
+	private static List<String> assets(String html) {
+		List<String> assets = new ArrayList<>();
+		Matcher matcher = ASSET.matcher(html);
+		while (matcher.find()) {
+			assets.add(matcher.group(1));
+		}
+		return assets;
+	}
+}
@@ -0,0 +1,103 @@
+package com.unutmaz.moviecollection.benchmark;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import com.unutmaz.moviecollection.controller.FragmentCache;
+import com.unutmaz.moviecollection.model.Movie;
+
+/**
+ * Measures the time to render the movie table rows of /movies/list for 1k and 10k
+ * movies, rendering every row through Thymeleaf versus reusing the rows kept by the
+ * FragmentCache. Templates are cached by the engine in both cases, as in production.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+public class TemplateRenderBenchmarkTest {
+
+	private static final int WARMUP = 20;
+	private static final int ITERATIONS = 50;
+
+	@Test
+	public void renderRows() {
+		SpringTemplateEngine engine = engine();
+		for (int rows : new int[] { 1_000, 10_000 }) {
+			List<Movie> movies = movies(rows);
+			FragmentCache cache = new FragmentCache(engine, rows);
+			double rendered = measure(() -> render(engine, movies));
+			double cached = measure(() -> join(cache.movieRows(movies, cache.version())));
+			System.out.printf("rows %6d  rendered %8.3f ms  cached %8.3f ms%n", rows, rendered, cached);
+			Assertions.assertTrue(cached < rendered, "cached " + cached + " ms, rendered " + rendered + " ms");
+		}
+	}
+
+	/**
+	 * Average time of one page, in milliseconds.
+	 */
+	private static double measure(Runnable page) {
+		for (int i = 0; i < WARMUP; i++) {
+			page.run();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			page.run();
+		}
+		return (System.nanoTime() - start) / 1e6 / ITERATIONS;
+	}
+
+	private static String render(SpringTemplateEngine engine, List<Movie> movies) {
+		StringBuilder html = new StringBuilder();
+		Context context = new Context(Locale.ROOT);
+		for (Movie movie : movies) {
+			context.setVariable("movie", movie);
+			html.append(engine.process("fragments/movie", Set.of("row"), context));
+		}
+		return html.toString();
+	}
+
+	private static String join(List<String> rows) {
+		StringBuilder html = new StringBuilder();
+		for (String row : rows) {
+			html.append(row);
+		}
+		return html.toString();
+	}
+
+	private static SpringTemplateEngine engine() {
+		ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+		resolver.setPrefix("templates/");
+		resolver.setSuffix(".html");
+		resolver.setTemplateMode(TemplateMode.HTML);
+		resolver.setCharacterEncoding("UTF-8");
+		resolver.setCacheable(true);
+		SpringTemplateEngine engine = new SpringTemplateEngine();
+		engine.setTemplateResolver(resolver);
+		return engine;
+	}
+
+	private static List<Movie> movies(int count) {
+		List<Movie> movies = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Movie movie = new Movie();
+			movie.setId((long) i);
+			movie.setName("Movie " + i);
+			movie.setDate(Date.valueOf("1994-09-23"));
+			movie.setCategory("Category " + (i % 20));
+			movie.setDescription("Description of movie " + i + ", long enough to look like the real <descriptions> & text.");
+			movie.setRating((i % 100) / 10f);
+			movies.add(movie);
+		}
+		return movies;
+	}
+}
@@ -1,25 +1,130 @@
 package com.unutmaz.moviecollection.controller;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+import javax.imageio.ImageIO;
 
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.servlet.ModelAndView;
+import org.thymeleaf.ITemplateEngine;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
+import com.unutmaz.moviecollection.event.CatalogueChangeEvent;
+import com.unutmaz.moviecollection.exception.ActorNotFoundException;
+import com.unutmaz.moviecollection.exception.MovieNotFoundException;
 import com.unutmaz.moviecollection.model.Actor;
+import com.unutmaz.moviecollection.model.CatalogueChange;
 import com.unutmaz.moviecollection.model.Movie;
+import com.unutmaz.moviecollection.readmodel.CatalogueReadModel;
+import com.unutmaz.moviecollection.readmodel.CatalogueSnapshot;
+import com.unutmaz.moviecollection.readmodel.CatalogueStatistics;
 import com.unutmaz.moviecollection.service.AppService;
+import com.unutmaz.moviecollection.service.ImportJobs;
+import com.unutmaz.moviecollection.service.LoadCoalescer;
+import com.unutmaz.moviecollection.service.MovieDetailAssembler;
+import com.unutmaz.moviecollection.service.PosterStore;
+import com.unutmaz.moviecollection.service.QueryResultCache;
+import com.unutmaz.moviecollection.service.SearchStats;
+import com.unutmaz.moviecollection.service.ViewCounter;
+import com.unutmaz.moviecollection.util.ActorPath;
+import com.unutmaz.moviecollection.util.BatchResult;
+import com.unutmaz.moviecollection.util.CatalogueStats;
+import com.unutmaz.moviecollection.util.CategoryStats;
+import com.unutmaz.moviecollection.util.ChangeSet;
+import com.unutmaz.moviecollection.util.CoStar;
+import com.unutmaz.moviecollection.util.CommunityRating;
+import com.unutmaz.moviecollection.util.ImportJob;
+import com.unutmaz.moviecollection.util.MovieDetails;
+import com.unutmaz.moviecollection.util.MoviePage;
+import com.unutmaz.moviecollection.util.MovieQuery;
+import com.unutmaz.moviecollection.util.MovieRow;
+import com.unutmaz.moviecollection.util.SearchTermCount;
+import com.unutmaz.moviecollection.util.SearchWindowStats;
+import com.unutmaz.moviecollection.util.UserMovieLists;
 
 @ExtendWith(SpringExtension.class)
-@SpringBootTest(properties= {"spring.profiles.active=dev"})
+@SpringBootTest(properties= {"spring.profiles.active=dev", "moviecollection.posters.dir=target/posters",
+		"moviecollection.imports.dir=target/imports", "moviecollection.imports.commit-size=10"})
 public class ControllerTest {	
 	
+	// How long an import job may take before its test fails
+	private static final long JOB_TIMEOUT_MS = 30000;
+
 	@Autowired
 	private AppService appService;
+
+	@Autowired
+	private CatalogueReadModel readModel;
+
+	@Autowired
+	private ViewCounter viewCounter;
+
+	@Autowired
+	private SearchStats searchStats;
+
+	@Autowired
+	private QueryResultCache queryResultCache;
+
+	@Autowired
+	private LoadCoalescer loadCoalescer;
+
+	@Autowired
+	private MovieDetailAssembler movieDetailAssembler;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private FragmentCache fragmentCache;
+
+	@Autowired
+	private ITemplateEngine templateEngine;
+
+	@Autowired
+	private AppRestController restController;
+
+	@Autowired
+	private AppController appController;
+
+	@Autowired
+	private PosterStore posterStore;
+
+	@Autowired
+	private PosterController posterController;
+
+	@Autowired
+	private ImportJobs importJobs;
 	
 	@Test
 	public void testFindMovies() {
@@ -64,4 +169,822 @@ public class ControllerTest {
 		appService.deleteMovie(movie.getId());
 		appService.deleteActor(actor.getActor_id());
 	}
+
+	@Test
+	public void testFindMoviesByIds() {
+		// Movies come back in the requested order, unknown ids are skipped and the cast is loaded.
+		List<Movie> movies = appService.findMovies(Arrays.asList(2L, 1L, 9999L));
+		MatcherAssert.assertThat(movies.size(), Matchers.equalTo(2));
+		MatcherAssert.assertThat(movies.get(0).getName(), Matchers.equalTo("The Godfather"));
+		MatcherAssert.assertThat(movies.get(1).getName(), Matchers.equalTo("The Shawshank Redemption"));
+	}
+
+	@Test
+	public void testFindMovieFields() {
+		// Only the requested properties are returned, in the requested order.
+		List<Map<String, Object>> rows = appService.findMovieFields(Arrays.asList(1L), Arrays.asList("name", "rating"));
+		MatcherAssert.assertThat(rows.size(), Matchers.equalTo(1));
+		MatcherAssert.assertThat(rows.get(0).keySet(), Matchers.contains("name", "rating"));
+		MatcherAssert.assertThat(rows.get(0).get("name"), Matchers.equalTo("The Shawshank Redemption"));
+	}
+
+	@Test
+	public void testBatchCreatePatchAndDelete() {
+		// A batch reports a result per item: invalid items are rejected without failing the others.
+		Movie valid = new Movie();
+		valid.setName("Batch-0001");
+		Actor known = new Actor();
+		known.setActor_id(1L);
+		valid.addActor(known);
+		Movie invalid = new Movie();
+		List<BatchResult> created = appService.createMovies(Arrays.asList(valid, invalid));
+		MatcherAssert.assertThat(created.stream().map(BatchResult::getStatus).collect(Collectors.toList()),
+				Matchers.contains(BatchResult.CREATED, BatchResult.INVALID));
+		Long id = created.get(0).getId();
+
+		Map<String, Object> patch = new HashMap<>();
+		patch.put("id", id);
+		patch.put("rating", 7.5);
+		List<BatchResult> patched = appService.patchMovies(Arrays.asList(patch));
+		MatcherAssert.assertThat(patched.get(0).getStatus(), Matchers.equalTo(BatchResult.UPDATED));
+		Movie movie = appService.findMovie(id);
+		MatcherAssert.assertThat(movie.getRating(), Matchers.equalTo(7.5f));
+		MatcherAssert.assertThat(movie.getName(), Matchers.equalTo("Batch-0001"));
+
+		// A value of the wrong type only invalidates its own item.
+		Map<String, Object> wrongType = new HashMap<>();
+		wrongType.put("id", id);
+		wrongType.put("category", 5);
+		patched = appService.patchMovies(Arrays.asList(wrongType, patch));
+		MatcherAssert.assertThat(patched.stream().map(BatchResult::getStatus).collect(Collectors.toList()),
+				Matchers.contains(BatchResult.INVALID, BatchResult.UPDATED));
+
+		List<BatchResult> deleted = appService.deleteMovies(Arrays.asList(id, 999999L));
+		MatcherAssert.assertThat(deleted.stream().map(BatchResult::getStatus).collect(Collectors.toList()),
+				Matchers.contains(BatchResult.DELETED, BatchResult.NOT_FOUND));
+	}
+
+	@Test
+	public void testDeleteActorsRemovesCastEntries() {
+		// Deleting an actor must also remove its rows from movie_actors.
+		Actor actor = new Actor();
+		actor.setActor_name("Bulk Delete Actor");
+		appService.createActor(actor);
+		Movie movie = new Movie();
+		movie.setName("Bulk-0001");
+		movie.addActor(actor);
+		appService.createMovie(movie);
+		MatcherAssert.assertThat(appService.findActorsByMovie(movie).size(), Matchers.equalTo(1));
+
+		appService.deleteActors(Arrays.asList(actor.getActor_id()));
+		MatcherAssert.assertThat(appService.findActorsByMovie(movie).size(), Matchers.equalTo(0));
+		MatcherAssert.assertThat(appService.findActor(actor.getActor_id()), Matchers.nullValue());
+
+		appService.deleteMovies(Arrays.asList(movie.getId()));
+		MatcherAssert.assertThat(appService.findMovies(Arrays.asList(movie.getId())), Matchers.empty());
+	}
+
+	@Test
+	public void testChangesSinceVersion() {
+		// Consumers only receive what changed after the version they already have, deletes as tombstones.
+		ChangeSet latest = appService.findChanges(0, 1000);
+		while (latest.isHasMore()) {
+			latest = appService.findChanges(latest.getNext(), 1000);
+		}
+		long since = latest.getNext();
+
+		Movie movie = new Movie();
+		movie.setName("Changes-0001");
+		appService.createMovie(movie);
+		ChangeSet created = appService.findChanges(since, 100);
+		MatcherAssert.assertThat(created.getMovies().stream().map(Movie::getId).collect(Collectors.toList()),
+				Matchers.contains(movie.getId()));
+
+		appService.deleteMovie(movie.getId());
+		ChangeSet deleted = appService.findChanges(created.getNext(), 100);
+		MatcherAssert.assertThat(deleted.getMovies(), Matchers.empty());
+		MatcherAssert.assertThat(deleted.getDeletedMovies(), Matchers.contains(movie.getId()));
+		MatcherAssert.assertThat(deleted.getNext(), Matchers.greaterThan(created.getNext()));
+	}
+
+	@Test
+	public void testReadModelFollowsCommits() {
+		// Reads are served from the in-memory snapshot, which is replaced after every commit.
+		CatalogueSnapshot before = readModel.current();
+		MatcherAssert.assertThat(before, Matchers.notNullValue());
+
+		Actor actor = new Actor();
+		actor.setActor_name("Snapshot Actor");
+		appService.createActor(actor);
+		Movie movie = new Movie();
+		movie.setName("Snapshot-0001");
+		movie.setCategory("Snapshot Category");
+		movie.addActor(actor);
+		appService.createMovie(movie);
+
+		CatalogueSnapshot after = readModel.current();
+		MatcherAssert.assertThat(after, Matchers.not(Matchers.sameInstance(before)));
+		MatcherAssert.assertThat(after.getVersion(), Matchers.greaterThan(before.getVersion()));
+		MatcherAssert.assertThat(before.indexOfMovie(movie.getId()), Matchers.equalTo(-1));
+		MatcherAssert.assertThat(appService.findMoviesByCategory("snapshot category").get(0).getId(), Matchers.equalTo(movie.getId()));
+		MatcherAssert.assertThat(appService.findMoviesByActor("snapshot actor").get(0).getName(), Matchers.equalTo("Snapshot-0001"));
+
+		appService.deleteActor(actor.getActor_id());
+		MatcherAssert.assertThat(appService.findMovie(movie.getId()).getCast(), Matchers.empty());
+		appService.deleteMovie(movie.getId());
+		MatcherAssert.assertThat(readModel.current().indexOfMovie(movie.getId()), Matchers.equalTo(-1));
+	}
+
+	@Test
+	public void testOrderedPageFollowsUpdates() {
+		// A page of an ordering is a slice of the full ordering, and stays ordered after an update.
+		List<Long> expected = appService.findMovies().stream()
+				.sorted(Comparator.comparing(Movie::getRating).reversed().thenComparing(Movie::getId))
+				.map(Movie::getId).collect(Collectors.toList());
+		MoviePage page = appService.findMovies(new MovieQuery(null, null, null, "rating", 1, 3));
+		MatcherAssert.assertThat(page.getTotal(), Matchers.equalTo((long) expected.size()));
+		MatcherAssert.assertThat(page.getMovies().stream().map(Movie::getId).collect(Collectors.toList()),
+				Matchers.equalTo(expected.subList(3, 6)));
+
+		Movie movie = new Movie();
+		movie.setName("Order-0001");
+		movie.setCategory("Order Category");
+		movie.setRating(1.0f);
+		appService.createMovie(movie);
+		Map<String, Object> patch = new HashMap<>();
+		patch.put("id", movie.getId());
+		patch.put("rating", 10.0);
+		appService.patchMovies(Arrays.asList(patch));
+		MatcherAssert.assertThat(appService.findMovies(new MovieQuery(null, null, null, "rating", 0, 1)).getMovies().get(0).getId(),
+				Matchers.equalTo(movie.getId()));
+		MoviePage category = appService.findMovies(new MovieQuery(null, "order category", null, "name", 0, 10));
+		MatcherAssert.assertThat(category.getTotal(), Matchers.equalTo(1L));
+
+		appService.deleteMovie(movie.getId());
+		MatcherAssert.assertThat(appService.findMovies(new MovieQuery(null, null, null, "rating", 0, 0)).getMovies().stream()
+				.map(Movie::getId).collect(Collectors.toList()), Matchers.equalTo(expected));
+	}
+
+	@Test
+	public void testListingWithoutOrdering() {
+		// No ordering (null, blank or unknown) falls back to ID order instead of failing.
+		for (String orderBy : Arrays.asList(null, "", " ", "unknown")) {
+			MatcherAssert.assertThat(new MovieQuery(null, null, null, orderBy, 0, 10).getOrderBy(), Matchers.nullValue());
+		}
+		ModelAndView mav = appController.getMovies(null, null, null, null, false, false, false, 0, null, false,
+				() -> "user", new MockHttpServletResponse());
+		MatcherAssert.assertThat(mav.getViewName(), Matchers.equalTo("index"));
+		MatcherAssert.assertThat(mav.getModel().get("total"), Matchers.equalTo((long) appService.findMovies().size()));
+	}
+
+	@Test
+	public void testSimilarMoviesFollowCastChanges() {
+		// The movie sharing the most actors ranks first, and the ranking follows cast changes.
+		Actor first = new Actor();
+		first.setActor_name("Similar Actor 1");
+		appService.createActor(first);
+		Actor second = new Actor();
+		second.setActor_name("Similar Actor 2");
+		appService.createActor(second);
+		Movie movie = similarMovie("Similar-0001", first, second);
+		Movie both = similarMovie("Similar-0002", first, second);
+		Movie one = similarMovie("Similar-0003", first);
+
+		List<Movie> similar = appService.findSimilarMovies(movie.getId(), 2);
+		MatcherAssert.assertThat(similar.stream().map(Movie::getId).collect(Collectors.toList()),
+				Matchers.contains(both.getId(), one.getId()));
+
+		both.getCast().clear();
+		appService.update(both);
+		MatcherAssert.assertThat(appService.findSimilarMovies(movie.getId(), 1).get(0).getId(), Matchers.equalTo(one.getId()));
+
+		appService.deleteMovie(movie.getId());
+		appService.deleteMovie(both.getId());
+		appService.deleteMovie(one.getId());
+		appService.deleteActor(first.getActor_id());
+		appService.deleteActor(second.getActor_id());
+		Assertions.assertThrows(MovieNotFoundException.class, () -> appService.findSimilarMovies(movie.getId(), 2));
+	}
+
+	@Test
+	public void testActorPathAndCoStars() {
+		// first - second share a movie, second - third share another; fourth has no movies.
+		Actor[] actors = new Actor[4];
+		for (int i = 0; i < actors.length; i++) {
+			actors[i] = new Actor();
+			actors[i].setActor_name("Graph Actor " + i);
+			appService.createActor(actors[i]);
+		}
+		Movie left = similarMovie("Graph-0001", actors[0], actors[1]);
+		Movie right = similarMovie("Graph-0002", actors[1], actors[2]);
+
+		ActorPath path = appService.findActorPath(actors[0].getActor_id(), actors[2].getActor_id());
+		MatcherAssert.assertThat(path.getDegrees(), Matchers.equalTo(2));
+		MatcherAssert.assertThat(path.getActors().stream().map(Actor::getActor_id).collect(Collectors.toList()),
+				Matchers.contains(actors[0].getActor_id(), actors[1].getActor_id(), actors[2].getActor_id()));
+		MatcherAssert.assertThat(path.getMovies().stream().map(Movie::getId).collect(Collectors.toList()),
+				Matchers.contains(left.getId(), right.getId()));
+		MatcherAssert.assertThat(appService.findActorPath(actors[0].getActor_id(), actors[3].getActor_id()).isConnected(),
+				Matchers.equalTo(false));
+		List<CoStar> coStars = appService.findCoStars(actors[0].getActor_id(), 2);
+		MatcherAssert.assertThat(coStars.stream().map(c -> c.getActor().getActor_id() + ":" + c.getDepth()).collect(Collectors.toList()),
+				Matchers.contains(actors[1].getActor_id() + ":1", actors[2].getActor_id() + ":2"));
+
+		// A direct shared movie shortens the path
+		Movie direct = similarMovie("Graph-0003", actors[0], actors[2]);
+		MatcherAssert.assertThat(appService.findActorPath(actors[2].getActor_id(), actors[0].getActor_id()).getDegrees(), Matchers.equalTo(1));
+
+		for (Movie movie : Arrays.asList(left, right, direct)) {
+			appService.deleteMovie(movie.getId());
+		}
+		for (Actor actor : actors) {
+			appService.deleteActor(actor.getActor_id());
+		}
+		Assertions.assertThrows(ActorNotFoundException.class, () -> appService.findCoStars(actors[0].getActor_id(), 1));
+	}
+
+	@Test
+	public void testStatsFollowChanges() {
+		// Category aggregates of a known set of ratings, recomputed after each change.
+		CatalogueStats before = appService.findStats(10);
+		MatcherAssert.assertThat(appService.findStats(10).getVersion(), Matchers.equalTo(before.getVersion()));
+		List<Movie> movies = new ArrayList<>();
+		for (float rating : new float[] { 2.0f, 4.0f, 9.0f, 10.0f }) {
+			Movie movie = new Movie();
+			movie.setName("Stats-" + rating);
+			movie.setCategory("Stats Category");
+			movie.setDate(Date.valueOf("1950-06-01"));
+			movie.setRating(rating);
+			appService.createMovie(movie);
+			movies.add(movie);
+		}
+		CatalogueStats after = appService.findStats(10);
+		MatcherAssert.assertThat(after.getVersion(), Matchers.greaterThan(before.getVersion()));
+		MatcherAssert.assertThat(after.getMovies(), Matchers.equalTo(before.getMovies() + 4));
+		CategoryStats category = after.getCategories().stream().filter(c -> "Stats Category".equals(c.getCategory())).findFirst().get();
+		MatcherAssert.assertThat(category.getMovies(), Matchers.equalTo(4L));
+		MatcherAssert.assertThat(category.getAverageRating(), Matchers.equalTo(6.25));
+		MatcherAssert.assertThat(category.getMedianRating(), Matchers.equalTo(6.5));
+		MatcherAssert.assertThat(category.getRatingHistogram(), Matchers.equalTo(new long[] { 0, 0, 1, 0, 1, 0, 0, 0, 0, 2 }));
+		MatcherAssert.assertThat(after.getMoviesPerYear().get(1950), Matchers.equalTo(4L));
+
+		// The parallel reduction gives the same result as the sequential one
+		CatalogueSnapshot snapshot = readModel.current();
+		if (snapshot != null) {
+			CatalogueStats sequential = new CatalogueStatistics(Integer.MAX_VALUE).compute(snapshot);
+			CatalogueStats parallel = new CatalogueStatistics(0).compute(snapshot);
+			MatcherAssert.assertThat(parallel.getRatingHistogram(), Matchers.equalTo(sequential.getRatingHistogram()));
+			MatcherAssert.assertThat(parallel.getMoviesPerYear(), Matchers.equalTo(sequential.getMoviesPerYear()));
+			MatcherAssert.assertThat(parallel.getCategories().stream().map(c -> c.getCategory() + ":" + c.getAverageRating())
+					.collect(Collectors.toList()), Matchers.equalTo(sequential.getCategories().stream()
+							.map(c -> c.getCategory() + ":" + c.getAverageRating()).collect(Collectors.toList())));
+		}
+
+		movies.forEach(movie -> appService.deleteMovie(movie.getId()));
+		MatcherAssert.assertThat(appService.findStats(10).getMovies(), Matchers.equalTo(before.getMovies()));
+	}
+
+	@Test
+	public void testPopularOrderFollowsFlushedViews() {
+		// Views only reach the "popular" ordering after the counters are flushed.
+		List<Movie> movies = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Movie movie = new Movie();
+			movie.setName("Popular-" + i);
+			movie.setCategory("Popular Category");
+			appService.createMovie(movie);
+			movies.add(movie);
+		}
+		appService.recordView(movies.get(2).getId());
+		appService.recordView(movies.get(2).getId());
+		appService.recordView(movies.get(1).getId());
+		MovieQuery popular = new MovieQuery(null, "popular category", null, MovieQuery.ORDER_POPULAR, 0, 10);
+		viewCounter.flush();
+		MatcherAssert.assertThat(appService.findMovies(popular).getMovies().stream().map(Movie::getId).collect(Collectors.toList()),
+				Matchers.contains(movies.get(2).getId(), movies.get(1).getId(), movies.get(0).getId()));
+
+		appService.recordView(movies.get(0).getId());
+		appService.recordView(movies.get(0).getId());
+		appService.recordView(movies.get(0).getId());
+		viewCounter.flush();
+		MoviePage page = appService.findMovies(new MovieQuery(null, "popular category", null, MovieQuery.ORDER_POPULAR, 0, 1));
+		MatcherAssert.assertThat(page.getTotal(), Matchers.equalTo(3L));
+		MatcherAssert.assertThat(page.getMovies().get(0).getId(), Matchers.equalTo(movies.get(0).getId()));
+
+		movies.forEach(movie -> appService.deleteMovie(movie.getId()));
+	}
+
+	@Test
+	public void testRatingsMaintainAverageAndCommunityOrder() {
+		// Each rating adjusts the running sum and count; the listing follows the averages.
+		List<Movie> movies = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Movie movie = new Movie();
+			movie.setName("Rated-" + i);
+			movie.setCategory("Rated Category");
+			appService.createMovie(movie);
+			movies.add(movie);
+		}
+		Long first = movies.get(0).getId();
+		Long second = movies.get(1).getId();
+		appService.rateMovie("alice", first, 4);
+		appService.rateMovie("bob", first, 6);
+		CommunityRating rating = appService.rateMovie("alice", second, 9);
+		MatcherAssert.assertThat(rating.getAverageRating(), Matchers.equalTo(9.0));
+		MatcherAssert.assertThat(rating.getRatings(), Matchers.equalTo(1L));
+
+		MovieQuery community = new MovieQuery(null, "rated category", null, MovieQuery.ORDER_COMMUNITY, 0, 10);
+		MatcherAssert.assertThat(appService.findMovies(community).getMovies().stream().map(Movie::getId).collect(Collectors.toList()),
+				Matchers.contains(second, first, movies.get(2).getId()));
+
+		// Replacing a rating changes only the sum; deleting one removes it from both
+		rating = appService.rateMovie("bob", first, 10);
+		MatcherAssert.assertThat(rating.getAverageRating(), Matchers.equalTo(7.0));
+		MatcherAssert.assertThat(rating.getRatings(), Matchers.equalTo(2L));
+		MatcherAssert.assertThat(rating.getUserRating(), Matchers.equalTo(10.0));
+		rating = appService.deleteRating("alice", first);
+		MatcherAssert.assertThat(rating.getAverageRating(), Matchers.equalTo(10.0));
+		MatcherAssert.assertThat(rating.getRatings(), Matchers.equalTo(1L));
+		MatcherAssert.assertThat(appService.findRating("bob", first).getUserRating(), Matchers.equalTo(10.0));
+		MatcherAssert.assertThat(appService.findRating("alice", first).getUserRating(), Matchers.nullValue());
+		MatcherAssert.assertThat(appService.findMovies(community).getMovies().get(0).getId(), Matchers.equalTo(first));
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> appService.rateMovie("alice", first, 11));
+		Assertions.assertThrows(MovieNotFoundException.class, () -> appService.rateMovie("alice", -1L, 5));
+
+		// Concurrent first ratings by the same user are serialized: one row, counted once
+		Long third = movies.get(2).getId();
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<CommunityRating>> results = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				int value = i + 5;
+				results.add(pool.submit(() -> {
+					start.await();
+					return appService.rateMovie("user", third, value);
+				}));
+			}
+			start.countDown();
+			for (Future<CommunityRating> result : results) {
+				result.get(10, TimeUnit.SECONDS);
+			}
+		} catch (Exception ex) {
+			Assertions.fail("Concurrent rating failed", ex);
+		} finally {
+			pool.shutdownNow();
+		}
+		MatcherAssert.assertThat(appService.findRating("user", third).getRatings(), Matchers.equalTo(1L));
+		appService.deleteRating("user", third);
+
+		movies.forEach(movie -> appService.deleteMovie(movie.getId()));
+	}
+
+	@Test
+	public void testUserListsFilterListings() {
+		// Favorites and watched sets combine with the other filters and with every ordering.
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Movie movie = new Movie();
+			movie.setName("Listed-" + i);
+			movie.setCategory("Listed Category");
+			movie.setRating(i);
+			appService.createMovie(movie);
+			ids.add(movie.getId());
+		}
+		appService.setListed("user", UserMovieLists.FAVORITES, ids.get(0), true);
+		appService.setListed("user", UserMovieLists.FAVORITES, ids.get(1), true);
+		UserMovieLists lists = appService.setListed("user", UserMovieLists.WATCHED, ids.get(1), true);
+		MatcherAssert.assertThat(appService.findLists("user").getVersion(), Matchers.equalTo(lists.getVersion()));
+		MatcherAssert.assertThat(appService.findLists("admin").getFavorites().length, Matchers.equalTo(0));
+
+		MoviePage page = appService.findMovies(new MovieQuery(null, "listed category", null, true, true, null, 0, 10), "user");
+		MatcherAssert.assertThat(page.getMovies().stream().map(Movie::getId).collect(Collectors.toList()), Matchers.contains(ids.get(0)));
+		MatcherAssert.assertThat(page.getTotal(), Matchers.equalTo(1L));
+		page = appService.findMovies(new MovieQuery(null, "listed category", null, true, false, MovieQuery.ORDER_RATING, 0, 10), "user");
+		MatcherAssert.assertThat(page.getMovies().stream().map(Movie::getId).collect(Collectors.toList()),
+				Matchers.contains(ids.get(1), ids.get(0)));
+		page = appService.findMovies(new MovieQuery("listed-", null, null, false, true, null, 1, 1), "user");
+		MatcherAssert.assertThat(page.getMovies().stream().map(Movie::getId).collect(Collectors.toList()), Matchers.contains(ids.get(2)));
+		MatcherAssert.assertThat(page.getTotal(), Matchers.equalTo(2L));
+		// Another user's lists do not filter anything
+		MatcherAssert.assertThat(appService.findMovies(new MovieQuery(null, "listed category", null, false, true, null, 0, 10), "admin")
+				.getTotal(), Matchers.equalTo(3L));
+
+		appService.setListed("user", UserMovieLists.FAVORITES, ids.get(0), false);
+		MatcherAssert.assertThat(appService.findMovies(new MovieQuery(null, "listed category", null, true, true, null, 0, 10), "user")
+				.getTotal(), Matchers.equalTo(0L));
+		Assertions.assertThrows(MovieNotFoundException.class, () -> appService.setListed("user", UserMovieLists.WATCHED, -1L, true));
+
+		appService.setListed("user", UserMovieLists.FAVORITES, ids.get(1), false);
+		appService.setListed("user", UserMovieLists.WATCHED, ids.get(1), false);
+		ids.forEach(appService::deleteMovie);
+	}
+
+	@Test
+	public void testQueryResultCacheIsInvalidatedByCommits() {
+		// Listings differing only in case share one cached id list, dropped on the next commit.
+		Movie movie = new Movie();
+		movie.setName("Cached-1");
+		movie.setCategory("Cached Category");
+		movie.setRating(5);
+		appService.createMovie(movie);
+		MoviePage page = appService.findMovies(new MovieQuery(null, "Cached Category", null, "rating", 0, 10));
+		MatcherAssert.assertThat(page.getTotal(), Matchers.equalTo(1L));
+		MovieQuery key = new MovieQuery(null, "  CACHED category ", null, "rating", 0, 10).normalized();
+		MatcherAssert.assertThat(queryResultCache.get(key), Matchers.notNullValue());
+		MatcherAssert.assertThat(appService.findMovies(new MovieQuery(null, "cached CATEGORY", null, "rating", 0, 10)).getMovies()
+				.stream().map(Movie::getId).collect(Collectors.toList()), Matchers.contains(movie.getId()));
+
+		Movie other = new Movie();
+		other.setName("Cached-2");
+		other.setCategory("Cached Category");
+		other.setRating(7);
+		appService.createMovie(other);
+		MatcherAssert.assertThat(queryResultCache.get(key), Matchers.nullValue());
+		MatcherAssert.assertThat(appService.findMovies(new MovieQuery(null, "Cached Category", null, "rating", 0, 10)).getMovies()
+				.stream().map(Movie::getId).collect(Collectors.toList()), Matchers.contains(other.getId(), movie.getId()));
+		MatcherAssert.assertThat(appService.findMoviesByCategory("cached category").size(), Matchers.equalTo(2));
+		// Per-user and movie_stats listings are never cached
+		Assertions.assertFalse(QueryResultCache.cacheable(new MovieQuery(null, null, null, true, false, null, 0, 10)));
+		Assertions.assertFalse(QueryResultCache.cacheable(MovieQuery.all(null, null, null, MovieQuery.ORDER_POPULAR)));
+
+		appService.deleteMovie(movie.getId());
+		appService.deleteMovie(other.getId());
+		MatcherAssert.assertThat(appService.findMoviesByCategory("cached category").size(), Matchers.equalTo(0));
+	}
+
+	@Test
+	public void testConcurrentLoadsAreCoalesced() throws Exception {
+		// Identical concurrent loads share one execution; unknown movie ids are cached until a movie changes.
+		AtomicInteger executions = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Object>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(pool.submit(() -> loadCoalescer.load(List.of("test", 1), () -> {
+					executions.incrementAndGet();
+					try {
+						release.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+					return new Object();
+				})));
+			}
+			Thread.sleep(200);
+			release.countDown();
+			Object first = results.get(0).get(5, TimeUnit.SECONDS);
+			for (Future<Object> result : results) {
+				MatcherAssert.assertThat(result.get(5, TimeUnit.SECONDS), Matchers.sameInstance(first));
+			}
+			MatcherAssert.assertThat(executions.get(), Matchers.equalTo(1));
+
+			// A load started before a commit is not shared with requests arriving after it
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch hold = new CountDownLatch(1);
+			Future<Object> before = pool.submit(() -> loadCoalescer.load(List.of("test", 2), () -> {
+				started.countDown();
+				try {
+					hold.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				return "before";
+			}));
+			Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+			loadCoalescer.onCatalogueChange(new CatalogueChangeEvent(CatalogueChange.ACTOR, List.of(-1L), false, 0));
+			MatcherAssert.assertThat(loadCoalescer.load(List.of("test", 2), () -> "after"), Matchers.equalTo("after"));
+			hold.countDown();
+			MatcherAssert.assertThat(before.get(5, TimeUnit.SECONDS), Matchers.equalTo("before"));
+		} finally {
+			pool.shutdownNow();
+		}
+
+		Assertions.assertThrows(MovieNotFoundException.class, () -> appService.findMovie(-42L));
+		Assertions.assertTrue(loadCoalescer.isMissing(-42L));
+		Assertions.assertThrows(MovieNotFoundException.class, () -> appService.findMovie(-42L));
+		Movie movie = new Movie();
+		movie.setName("Coalesced-1");
+		appService.createMovie(movie);
+		Assertions.assertFalse(loadCoalescer.isMissing(-42L));
+		appService.deleteMovie(movie.getId());
+	}
+
+	@Test
+	public void testMovieDetailsAreAssembledInParallel() {
+		// Every branch completes for an existing movie and publishes its own timer.
+		appService.rateMovie("user", 1L, 8);
+		appService.setListed("user", UserMovieLists.WATCHED, 1L, true);
+		MovieDetails details = movieDetailAssembler.assemble(1L, "user", 5);
+		MatcherAssert.assertThat(details.getMovie().getName(), Matchers.equalTo("The Shawshank Redemption"));
+		MatcherAssert.assertThat(details.getCast(), Matchers.not(Matchers.empty()));
+		MatcherAssert.assertThat(details.getIncomplete(), Matchers.empty());
+		MatcherAssert.assertThat(details.getRating().getUserRating(), Matchers.equalTo(8.0));
+		Assertions.assertTrue(details.isWatched());
+		Assertions.assertFalse(details.isFavorite());
+		for (String branch : List.of(MovieDetailAssembler.MOVIE, MovieDetailAssembler.CAST, MovieDetails.SIMILAR, MovieDetails.LISTS, MovieDetails.RATING)) {
+			MatcherAssert.assertThat(meterRegistry.get("moviecollection.detail.branch").tag("branch", branch).timer().count(),
+					Matchers.greaterThan(0L));
+		}
+		Assertions.assertThrows(MovieNotFoundException.class, () -> movieDetailAssembler.assemble(-7L, "user", 5));
+
+		appService.deleteRating("user", 1L);
+		appService.setListed("user", UserMovieLists.WATCHED, 1L, false);
+	}
+
+	@Test
+	public void testFragmentCacheFollowsCommits() {
+		// Rows are rendered once per movie and version; a commit re-renders only the changed movie.
+		Movie movie = new Movie();
+		movie.setName("Fragment <Movie>");
+		movie.setCategory("Fragment Category");
+		appService.createMovie(movie);
+		long version = fragmentCache.version();
+		List<Movie> movies = appService.findMoviesByCategory("Fragment Category");
+		String row = fragmentCache.movieRows(movies, version).get(0);
+		MatcherAssert.assertThat(row, Matchers.containsString("Fragment &lt;Movie&gt;"));
+		MatcherAssert.assertThat(row, Matchers.containsString("/movies/" + movie.getId()));
+		Assertions.assertSame(row, fragmentCache.movieRows(movies, fragmentCache.version()).get(0));
+		String other = fragmentCache.summary(appService.findMovie(1L), fragmentCache.version());
+
+		movie.setName("Fragment Renamed");
+		appService.update(movie);
+		// Rendered with data loaded before the commit: used for this request only
+		MatcherAssert.assertThat(fragmentCache.movieRows(movies, version).get(0), Matchers.containsString("Fragment &lt;Movie&gt;"));
+		version = fragmentCache.version();
+		MatcherAssert.assertThat(fragmentCache.movieRows(appService.findMoviesByCategory("Fragment Category"), version).get(0),
+				Matchers.containsString("Fragment Renamed"));
+		Assertions.assertSame(other, fragmentCache.summary(appService.findMovie(1L), fragmentCache.version()));
+
+		appService.deleteMovie(movie.getId());
+	}
+
+	@Test
+	public void testFragmentCacheChangesAreBounded() {
+		// Once more ids changed than max-entries the changes are forgotten; fragments still valid are kept.
+		FragmentCache cache = new FragmentCache(templateEngine, 4);
+		Movie movie = appService.findMovie(1L);
+		String row = cache.movieRows(List.of(movie), cache.version()).get(0);
+		for (long id = 1000; id < 1010; id++) {
+			cache.onCatalogueChange(new CatalogueChangeEvent(CatalogueChange.MOVIE, List.of(id), false, id));
+		}
+		Assertions.assertSame(row, cache.movieRows(List.of(movie), cache.version()).get(0));
+		long stale = cache.version();
+		cache.onCatalogueChange(new CatalogueChangeEvent(CatalogueChange.MOVIE, List.of(1L), false, 1010));
+		Assertions.assertNotSame(row, cache.movieRows(List.of(movie), stale).get(0));
+	}
+
+	@Test
+	public void testChunkedRowsLoadLazily() {
+		// Chunks are loaded only as the rows are consumed, and the response is sent before each load.
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			Movie movie = new Movie();
+			movie.setName("Chunked " + i);
+			movie.setCategory("Chunked Category");
+			movie.setRating(i);
+			appService.createMovie(movie);
+			ids.add(movie.getId());
+		}
+		MovieQuery query = new MovieQuery(null, "Chunked Category", null, MovieQuery.ORDER_RATING, 0, 0);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		AtomicInteger loads = new AtomicInteger();
+		ChunkedRows rows = new ChunkedRows(appService.findMovies(query.withPage(0, 2)), chunk -> {
+			loads.incrementAndGet();
+			return appService.findMovies(query.withPage(chunk, 2));
+		}, fragmentCache, fragmentCache.version(), response);
+		MatcherAssert.assertThat(loads.get(), Matchers.equalTo(0));
+
+		List<String> html = new ArrayList<>();
+		rows.forEach(html::add);
+		Assertions.assertTrue(response.isCommitted());
+		MatcherAssert.assertThat(loads.get(), Matchers.equalTo(2));
+		MatcherAssert.assertThat(html.size(), Matchers.equalTo(5));
+		Assertions.assertTrue(html.get(0).contains("Chunked 4"));
+		Assertions.assertTrue(html.get(4).contains("Chunked 0"));
+
+		for (Long id : ids) {
+			appService.deleteMovie(id);
+		}
+	}
+
+	@Test
+	public void testRestListingReturnsLightweightPages() {
+		// With size, /rest/movies pages the /movies/list listing as rows and reports the total in a header.
+		List<Movie> crime = appService.findMovies(new MovieQuery(null, "Crime", null, MovieQuery.ORDER_RATING, 0, 0)).getMovies();
+		ResponseEntity<List<?>> response = restController.getMovies(null, null, 1, 1, null, "Crime", null, false, false, false,
+				MovieQuery.ORDER_RATING, () -> "user");
+		MatcherAssert.assertThat(response.getHeaders().getFirst(AppRestController.TOTAL_COUNT),
+				Matchers.equalTo(Integer.toString(crime.size())));
+		MatcherAssert.assertThat(response.getBody().stream().map(row -> ((MovieRow) row).getId()).collect(Collectors.toList()),
+				Matchers.contains(crime.get(1).getId()));
+		MovieRow row = (MovieRow) response.getBody().get(0);
+		MatcherAssert.assertThat(row.getDate(), Matchers.equalTo(crime.get(1).getDate().toString()));
+
+		// Without size the full list of movies is returned, as before
+		MatcherAssert.assertThat(restController.getMovies(null, null, null, 0, null, "Crime", null, false, false, false, null,
+				() -> "user").getBody().size(), Matchers.equalTo(appService.findMovies().size()));
+	}
+
+	@Test
+	public void testFuzzySearchToleratesTypos() {
+		// Substring search misses typos; the fuzzy index finds them and follows catalogue changes.
+		MatcherAssert.assertThat(appService.findMovies(MovieQuery.all(null, null, "Morgon Freeman", null)).getTotal(), Matchers.equalTo(0L));
+		MoviePage page = appService.findMovies(new MovieQuery(null, null, "Morgon Freeman", true, false, false, null, 0, 0));
+		MatcherAssert.assertThat(page.getMovies().stream().map(Movie::getName).collect(Collectors.toList()),
+				Matchers.hasItem("The Shawshank Redemption"));
+		MatcherAssert.assertThat(page.getTotal(), Matchers.equalTo((long) appService.findMoviesByActor("Morgan Freeman").size()));
+
+		Movie movie = new Movie();
+		movie.setName("Fuzzy Matrimony Tale");
+		movie.setCategory("Fuzzy Category");
+		appService.createMovie(movie);
+		Movie other = new Movie();
+		other.setName("The Matrxi");
+		other.setCategory("Fuzzy Category");
+		appService.createMovie(other);
+		page = appService.findMovies(new MovieQuery("matrix", null, null, true, false, false, null, 0, 10));
+		// The exact title first, then the typo; "matrimony" is too far away
+		MatcherAssert.assertThat(page.getMovies().stream().map(Movie::getName).collect(Collectors.toList()),
+				Matchers.contains("The Matrix", "The Matrxi"));
+		page = appService.findMovies(new MovieQuery("matrix", "fuzzy category", null, true, false, false, null, 0, 10));
+		MatcherAssert.assertThat(page.getMovies().stream().map(Movie::getId).collect(Collectors.toList()), Matchers.contains(other.getId()));
+
+		other.setName("Completely Different");
+		appService.update(other);
+		page = appService.findMovies(new MovieQuery("matrix", null, null, true, false, false, null, 0, 10));
+		MatcherAssert.assertThat(page.getTotal(), Matchers.equalTo(1L));
+		// Too short to search
+		MatcherAssert.assertThat(appService.findMovies(new MovieQuery("ma", null, null, true, false, false, null, 0, 10)).getTotal(),
+				Matchers.equalTo(0L));
+
+		appService.deleteMovie(movie.getId());
+		appService.deleteMovie(other.getId());
+	}
+
+	@Test
+	public void testSearchStatsTrackTopAndZeroResultTerms() {
+		// Terms are normalized; only searches count, and each window starts empty.
+		searchStats.rotate();
+		for (int i = 0; i < 5; i++) {
+			searchStats.record(new MovieQuery("  The   Matrix ", null, null, null, 0, 0), 3);
+		}
+		searchStats.record(new MovieQuery(null, "Drama", "Keanu", MovieQuery.ORDER_RATING, 0, 0), 1);
+		searchStats.record(new MovieQuery(null, "drama", "keanu", null, 0, 0), 1);
+		searchStats.record(new MovieQuery("Nothing Like This", null, null, null, 0, 0), 0);
+		searchStats.record(new MovieQuery(null, null, null, MovieQuery.ORDER_NAME, 0, 0), 10);
+
+		SearchWindowStats window = searchStats.windows(1, 10).get(0);
+		MatcherAssert.assertThat(window.getSearches(), Matchers.equalTo(8L));
+		MatcherAssert.assertThat(window.getZeroResultSearches(), Matchers.equalTo(1L));
+		MatcherAssert.assertThat(window.getTop().stream().map(SearchTermCount::getTerm).collect(Collectors.toList()),
+				Matchers.contains("name:the matrix", "category:drama&actor:keanu", "name:nothing like this"));
+		MatcherAssert.assertThat(window.getTop().get(0).getCount(), Matchers.equalTo(5L));
+		MatcherAssert.assertThat(window.getZeroResults().stream().map(SearchTermCount::getTerm).collect(Collectors.toList()),
+				Matchers.contains("name:nothing like this"));
+
+		searchStats.rotate();
+		List<SearchWindowStats> windows = searchStats.windows(2, 1);
+		MatcherAssert.assertThat(windows.get(0).getSearches(), Matchers.equalTo(0L));
+		MatcherAssert.assertThat(windows.get(1).getTop().get(0).getTerm(), Matchers.equalTo("name:the matrix"));
+	}
+
+	@Test
+	public void testPostersAreContentAddressed() throws Exception {
+		// The same image stored twice gets the same ID, a thumbnail is generated in the background
+		// and the original is served with ETag, conditional and range support.
+		BufferedImage image = new BufferedImage(1200, 1800, BufferedImage.TYPE_INT_RGB);
+		image.setRGB(10, 10, 0xff0000);
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", png);
+		byte[] bytes = png.toByteArray();
+
+		String id = posterStore.store(new ByteArrayInputStream(bytes));
+		MatcherAssert.assertThat(id, Matchers.endsWith(".png"));
+		MatcherAssert.assertThat(posterStore.store(new ByteArrayInputStream(bytes)), Matchers.equalTo(id));
+		MatcherAssert.assertThat(PosterStore.thumbnailUrl(PosterStore.url(id)), Matchers.equalTo("/posters/thumb/" + id));
+		MatcherAssert.assertThat(PosterStore.thumbnailUrl("http://example.com/a.jpg"), Matchers.equalTo("http://example.com/a.jpg"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> posterStore.store(new ByteArrayInputStream(new byte[] { 1, 2, 3 })));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> posterStore.importFile("../pom.xml"));
+		// A few bytes declaring a 100000 x 100000 image are rejected from the header, without decoding
+		ByteArrayOutputStream tiny = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB), "png", tiny);
+		byte[] huge = tiny.toByteArray();
+		ByteBuffer.wrap(huge).putInt(16, 100_000).putInt(20, 100_000);
+		CRC32 crc = new CRC32();
+		crc.update(huge, 12, 17);
+		ByteBuffer.wrap(huge).putInt(29, (int) crc.getValue());
+		IllegalArgumentException tooLarge = Assertions.assertThrows(IllegalArgumentException.class,
+				() -> posterStore.store(new ByteArrayInputStream(huge)));
+		MatcherAssert.assertThat(tooLarge.getMessage(), Matchers.containsString("pixels"));
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!posterStore.hasThumbnail(id) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		Assertions.assertTrue(posterStore.hasThumbnail(id));
+		MatcherAssert.assertThat(ImageIO.read(posterStore.thumbnail(id).toFile()).getWidth(), Matchers.equalTo(600));
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/posters/" + id);
+		request.addHeader("Range", "bytes=0-9");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		posterController.getPoster(id, request, response);
+		MatcherAssert.assertThat(response.getStatus(), Matchers.equalTo(206));
+		MatcherAssert.assertThat(response.getHeader("Content-Range"), Matchers.equalTo("bytes 0-9/" + bytes.length));
+		Assertions.assertArrayEquals(Arrays.copyOf(bytes, 10), response.getContentAsByteArray());
+		String etag = response.getHeader("ETag");
+
+		request = new MockHttpServletRequest("GET", "/posters/" + id);
+		request.addHeader("If-None-Match", etag);
+		response = new MockHttpServletResponse();
+		posterController.getPoster(id, request, response);
+		MatcherAssert.assertThat(response.getStatus(), Matchers.equalTo(304));
+		Assertions.assertArrayEquals(bytes, Files.readAllBytes(posterStore.original(id)));
+	}
+
+	@Test
+	public void testImportJobResumesWithoutDuplicates() throws Exception {
+		// A job cancelled mid-way and resumed imports every valid line exactly once,
+		// reports the invalid lines (including values longer than the columns) and reuses actors by name.
+		String existingActor = appService.findActor(1L).getActor_name();
+		StringBuilder file = new StringBuilder();
+		for (int i = 1; i <= 300; i++) {
+			if (i == 7) file.append("{not json\n");
+			else if (i == 8) file.append("{\"category\": \"Import\"}\n");
+			else if (i == 9) file.append("\n");
+			else if (i == 10) file.append("{\"name\": \"Bulk Import Long\", \"description\": \"").append("x".repeat(300)).append("\"}\n");
+			else file.append("{\"name\": \"Bulk Import ").append(i).append("\", \"date\": \"2001-02-03\", \"rating\": 7.5,")
+					.append(" \"cast\": [\"Import Actor ").append(i % 3).append("\", \"").append(existingActor).append("\"]}\n");
+		}
+		int actors = appService.findActors().size();
+
+		ImportJob job = importJobs.submit(new ByteArrayInputStream(file.toString().getBytes(StandardCharsets.UTF_8)), "bulk");
+		try {
+			// Cancels after the first committed chunk, unless the job is already over
+			long deadline = System.currentTimeMillis() + JOB_TIMEOUT_MS;
+			ImportJob progress = importJobs.find(job.getId());
+			while (progress.getLines() == 0 && isActive(progress) && System.currentTimeMillis() < deadline) {
+				Thread.yield();
+				progress = importJobs.find(job.getId());
+			}
+			importJobs.cancel(job.getId());
+			job = awaitJob(job.getId());
+			if (ImportJob.CANCELLED.equals(job.getState())) {
+				MatcherAssert.assertThat(job.getLines(), Matchers.lessThan(300L));
+				job = importJobs.resume(job.getId());
+				job = awaitJob(job.getId());
+			}
+		} catch (IllegalStateException alreadyFinished) {
+			job = awaitJob(job.getId());
+		}
+
+		MatcherAssert.assertThat(job.getState(), Matchers.equalTo(ImportJob.COMPLETED));
+		MatcherAssert.assertThat(job.getLines(), Matchers.equalTo(300L));
+		MatcherAssert.assertThat(job.getImported(), Matchers.equalTo(296L));
+		MatcherAssert.assertThat(job.getErrors(), Matchers.equalTo(3L));
+		MatcherAssert.assertThat(job.getRecentErrors(), Matchers.containsInAnyOrder("line 7: Invalid JSON", "line 8: Movie name is required",
+				"line 10: Field description is longer than 255 characters"));
+		MatcherAssert.assertThat(appService.findMoviesByName("Bulk Import").size(), Matchers.equalTo(296));
+		MatcherAssert.assertThat(appService.findActors().size(), Matchers.equalTo(actors + 3));
+		Movie imported = appService.findMoviesByName("Bulk Import 300").get(0);
+		MatcherAssert.assertThat(appService.findActorsByMovie(imported).stream().map(Actor::getActor_name).collect(Collectors.toSet()),
+				Matchers.containsInAnyOrder("Import Actor 0", existingActor));
+
+		String id = job.getId();
+		Assertions.assertThrows(IllegalStateException.class, () -> importJobs.resume(id));
+		Assertions.assertTrue(importJobs.delete(id));
+		Assertions.assertNull(importJobs.find(id));
+
+		appService.deleteMovies(appService.findMoviesByName("Bulk Import").stream().map(Movie::getId).collect(Collectors.toList()));
+		appService.deleteActors(appService.findActors().stream().filter(actor -> actor.getActor_name().startsWith("Import Actor"))
+				.map(Actor::getActor_id).collect(Collectors.toList()));
+	}
+
+	private ImportJob awaitJob(String id) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + JOB_TIMEOUT_MS;
+		ImportJob job = importJobs.find(id);
+		while (isActive(job) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+			job = importJobs.find(id);
+		}
+		return job;
+	}
+
+	private static boolean isActive(ImportJob job) {
+		return ImportJob.QUEUED.equals(job.getState()) || ImportJob.RUNNING.equals(job.getState());
+	}
+
+	private Movie similarMovie(String name, Actor... cast) {
+		Movie movie = new Movie();
+		movie.setName(name);
+		movie.setCategory("Similar Category");
+		movie.setRating(5.0f);
+		for (Actor actor : cast) {
+			movie.addActor(actor);
+		}
+		appService.createMovie(movie);
+		return movie;
+	}
 }